@@ -27,9 +27,47 @@ CREATE TABLE IF NOT EXISTS incidents (
     status VARCHAR(20) DEFAULT 'pending',
     submission_id VARCHAR(100),
     INDEX idx_type (type),
-    INDEX idx_severity (severity),
+    INDEX idx_severity_timestamp (severity, timestamp),
     INDEX idx_status (status),
-    INDEX idx_timestamp (timestamp)
+    INDEX idx_timestamp (timestamp),
+    INDEX idx_location (latitude, longitude)
+);
+
+-- Incident Change Log (delta sync: one row per create/update/delete)
+-- seq comes from incident_change_seq, not AUTO_INCREMENT, so changes commit in seq order
+CREATE TABLE IF NOT EXISTS incident_changes (
+    seq BIGINT PRIMARY KEY,
+    incident_id VARCHAR(100) NOT NULL,
+    change_type VARCHAR(10) NOT NULL,
+    changed_at DATETIME NOT NULL DEFAULT CURRENT_TIMESTAMP,
+    INDEX idx_incident_seq (incident_id, seq)
+);
+
+-- Change log position counter (one row). Writers reserve seqs at the end of their
+-- transaction and hold the row lock until commit. Seeded from existing changes.
+CREATE TABLE IF NOT EXISTS incident_change_seq (
+    id TINYINT PRIMARY KEY,
+    seq BIGINT NOT NULL
+);
+INSERT IGNORE INTO incident_change_seq (id, seq)
+SELECT 1, COALESCE(MAX(seq), 0) FROM incident_changes;
+
+-- Incident Archive (expired and rejected incidents moved out of the hot table by the scheduler)
+CREATE TABLE IF NOT EXISTS incidents_archive (
+    id VARCHAR(100) PRIMARY KEY,
+    type VARCHAR(50) NOT NULL,
+    severity VARCHAR(20) NOT NULL,
+    location VARCHAR(255) NOT NULL,
+    latitude DECIMAL(10, 8),
+    longitude DECIMAL(11, 8),
+    description TEXT,
+    timestamp DATETIME NOT NULL,
+    reporter_id VARCHAR(100),
+    status VARCHAR(20),
+    submission_id VARCHAR(100),
+    archived_at DATETIME NOT NULL DEFAULT CURRENT_TIMESTAMP,
+    INDEX idx_archive_timestamp (timestamp),
+    INDEX idx_archive_type_timestamp (type, timestamp)
 );
 
 -- Routes Table
@@ -50,7 +88,11 @@ CREATE TABLE IF NOT EXISTS submissions (
     incident_data TEXT NOT NULL,
     timestamp DATETIME NOT NULL,
     status VARCHAR(20) DEFAULT 'pending',
-    INDEX idx_status (status),
+    claimed_at DATETIME NULL,
+    attempts INT NOT NULL DEFAULT 0,
+    next_attempt_at DATETIME NOT NULL DEFAULT CURRENT_TIMESTAMP,
+    last_error VARCHAR(500) NULL,
+    INDEX idx_status_next_attempt (status, next_attempt_at),
     INDEX idx_timestamp (timestamp)
 );
 
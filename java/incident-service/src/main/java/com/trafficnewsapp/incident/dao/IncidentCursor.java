@@ -0,0 +1,61 @@
+package com.trafficnewsapp.incident.dao;
+
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+import java.time.format.DateTimeFormatter;
+import java.time.format.DateTimeParseException;
+import java.util.Base64;
+
+/**
+ * IncidentCursor
+ * Keyset pagination position: the (timestamp, id) of the last row on a page.
+ * Clients only see it as an opaque URL-safe string.
+ */
+public class IncidentCursor {
+    private static final String SEPARATOR = "|";
+    
+    private final LocalDateTime timestamp;
+    private final String id;
+    
+    public IncidentCursor(LocalDateTime timestamp, String id) {
+        this.timestamp = timestamp;
+        this.id = id;
+    }
+    
+    /**
+     * Encode this cursor for use in a URL
+     * @return Opaque cursor string
+     */
+    public String encode() {
+        String raw = timestamp.format(DateTimeFormatter.ISO_LOCAL_DATE_TIME) + SEPARATOR + id;
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(raw.getBytes(StandardCharsets.UTF_8));
+    }
+    
+    /**
+     * Decode a cursor string received from a client
+     * @param cursor Opaque cursor string
+     * @return Decoded cursor
+     * @throws IllegalArgumentException if the cursor is malformed
+     */
+    public static IncidentCursor decode(String cursor) {
+        try {
+            String raw = new String(Base64.getUrlDecoder().decode(cursor), StandardCharsets.UTF_8);
+            int split = raw.indexOf(SEPARATOR);
+            if (split <= 0 || split == raw.length() - 1) {
+                throw new IllegalArgumentException("Invalid cursor");
+            }
+            LocalDateTime timestamp = LocalDateTime.parse(raw.substring(0, split), DateTimeFormatter.ISO_LOCAL_DATE_TIME);
+            return new IncidentCursor(timestamp, raw.substring(split + 1));
+        } catch (DateTimeParseException e) {
+            throw new IllegalArgumentException("Invalid cursor", e);
+        }
+    }
+    
+    public LocalDateTime getTimestamp() {
+        return timestamp;
+    }
+    
+    public String getId() {
+        return id;
+    }
+}
@@ -1,8 +1,12 @@
 package com.trafficnewsapp.incident.dao;
 
 import com.trafficnewsapp.incident.models.Incident;
+import com.trafficnewsapp.incident.models.IncidentChange;
+import com.trafficnewsapp.incident.models.IncidentDelta;
+import com.trafficnewsapp.incident.models.IncidentPage;
 import com.trafficnewsapp.incident.util.DatabaseConnection;
 
+import java.io.IOException;
 import java.sql.*;
 import java.time.LocalDateTime;
 import java.util.ArrayList;
@@ -13,12 +17,43 @@ import java.util.List;
  * Handles all database operations for incidents
  */
 public class IncidentDAO {
+    private static final String INSERT_SQL =
+        "INSERT INTO incidents (id, type, severity, location, latitude, longitude, " +
+        "description, timestamp, reporter_id, status, submission_id) " +
+        "VALUES (?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?)";
+    private static final String UPSERT_SQL = INSERT_SQL +
+        " ON DUPLICATE KEY UPDATE type = VALUES(type), " +
+        "severity = VALUES(severity), location = VALUES(location), " +
+        "latitude = VALUES(latitude), longitude = VALUES(longitude), " +
+        "description = VALUES(description), timestamp = VALUES(timestamp), " +
+        "reporter_id = VALUES(reporter_id), status = VALUES(status), " +
+        "submission_id = VALUES(submission_id)";
+    private static final String LOG_CHANGE_SQL =
+        "INSERT INTO incident_changes (seq, incident_id, change_type) VALUES (?, ?, ?)";
+    private static final String RESERVE_SEQ_SQL =
+        "UPDATE incident_change_seq SET seq = LAST_INSERT_ID(seq + ?) WHERE id = 1";
+    private static final int BATCH_SIZE = 500;
+    private static final int STREAM_FETCH_SIZE = 500;
     
     /**
      * Get all incidents from database
      * @return List of all incidents
      */
     public List<Incident> getAllIncidents() {
+        try {
+            return loadAllIncidents();
+        } catch (SQLException e) {
+            System.err.println("Error getting all incidents: " + e.getMessage());
+            return new ArrayList<>();
+        }
+    }
+    
+    /**
+     * Get all incidents from database, failing instead of returning a partial list
+     * @return List of all incidents
+     * @throws SQLException if the incidents could not all be read
+     */
+    public List<Incident> loadAllIncidents() throws SQLException {
         List<Incident> incidents = new ArrayList<>();
         String sql = "SELECT * FROM incidents ORDER BY timestamp DESC";
         
@@ -29,13 +64,103 @@ public class IncidentDAO {
             while (rs.next()) {
                 incidents.add(mapResultSetToIncident(rs));
             }
+        }
+        return incidents;
+    }
+    
+    /**
+     * Find incidents matching filter, keyword and sort criteria.
+     * Filtering, sorting and limiting are done by the database.
+     * @param query Query criteria
+     * @return List of matching incidents
+     */
+    public List<Incident> findIncidents(IncidentQuery query) {
+        List<Incident> incidents = new ArrayList<>();
+        List<Object> params = new ArrayList<>();
+        String sql = query.toSql(params);
+        
+        try (Connection conn = DatabaseConnection.getConnection();
+             PreparedStatement pstmt = conn.prepareStatement(sql)) {
+            
+            bindParameters(pstmt, params);
+            try (ResultSet rs = pstmt.executeQuery()) {
+                while (rs.next()) {
+                    incidents.add(mapResultSetToIncident(rs));
+                }
+            }
         } catch (SQLException e) {
-            System.err.println("Error getting all incidents: " + e.getMessage());
+            System.err.println("Error finding incidents: " + e.getMessage());
         }
         
         return incidents;
     }
     
+    /**
+     * Stream incidents matching the query to a handler without building a list.
+     * Uses a forward-only, read-only server-side cursor that fetches
+     * STREAM_FETCH_SIZE rows at a time, so memory use stays constant.
+     * @param query Query criteria
+     * @param handler Called once per matching incident, in query order
+     * @throws IOException if the handler fails; the query is abandoned
+     * @throws SQLException if the query fails, possibly after some rows were handled
+     */
+    public void streamIncidents(IncidentQuery query, IncidentRowHandler handler)
+            throws IOException, SQLException {
+        List<Object> params = new ArrayList<>();
+        String sql = query.toSql(params);
+        
+        try (Connection conn = DatabaseConnection.getConnection();
+             PreparedStatement pstmt = conn.prepareStatement(sql,
+                 ResultSet.TYPE_FORWARD_ONLY, ResultSet.CONCUR_READ_ONLY)) {
+            
+            pstmt.setFetchSize(STREAM_FETCH_SIZE);
+            bindParameters(pstmt, params);
+            try (ResultSet rs = pstmt.executeQuery()) {
+                while (rs.next()) {
+                    handler.handle(mapResultSetToIncident(rs));
+                }
+            }
+        }
+    }
+    
+    /**
+     * Find one page of incidents using keyset pagination on (timestamp, id).
+     * Each page is a bounded index seek, so page N costs the same as page 1.
+     * @param query Query criteria (must be ordered by time to return a next cursor)
+     * @return Page of incidents with the cursor for the next page
+     */
+    public IncidentPage findIncidentPage(IncidentQuery query) {
+        int pageSize = query.getPageSize();
+        List<Incident> incidents = new ArrayList<>();
+        List<Object> params = new ArrayList<>();
+        // Fetch one extra row to know whether another page exists
+        String sql = query.toSql(params, pageSize + 1);
+        
+        try (Connection conn = DatabaseConnection.getConnection();
+             PreparedStatement pstmt = conn.prepareStatement(sql)) {
+            
+            bindParameters(pstmt, params);
+            try (ResultSet rs = pstmt.executeQuery()) {
+                while (rs.next()) {
+                    incidents.add(mapResultSetToIncident(rs));
+                }
+            }
+        } catch (SQLException e) {
+            System.err.println("Error finding incident page: " + e.getMessage());
+        }
+        
+        String nextCursor = null;
+        if (incidents.size() > pageSize) {
+            incidents.remove(pageSize);
+            if (query.isTimeOrdered()) {
+                Incident last = incidents.get(pageSize - 1);
+                nextCursor = new IncidentCursor(last.getTimestamp(), last.getId()).encode();
+            }
+        }
+        
+        return new IncidentPage(incidents, nextCursor);
+    }
+    
     /**
      * Get incident by ID
      * @param id Incident ID
@@ -61,7 +186,7 @@ public class IncidentDAO {
     }
     
     /**
-     * Save incident (insert or update)
+     * Save incident (insert or update) in a single atomic statement
      * @param incident Incident to save
      * @return true if successful
      */
@@ -70,92 +195,237 @@ public class IncidentDAO {
             incident.setId(Incident.generateId());
         }
         
-        // Check if incident exists
-        Incident existing = getIncidentById(incident.getId());
+        try {
+            return inTransaction(conn -> {
+                try (PreparedStatement pstmt = conn.prepareStatement(UPSERT_SQL)) {
+                    bindInsertParameters(pstmt, incident);
+                    return pstmt.executeUpdate() > 0 ? logChange(conn, incident.getId(), IncidentChange.UPSERT) : 0;
+                }
+            }) > 0;
+        } catch (SQLException e) {
+            System.err.println("Error saving incident: " + e.getMessage());
+            return false;
+        }
+    }
+    
+    /**
+     * Save many incidents (insert or update) with JDBC batching in one transaction.
+     * With rewriteBatchedStatements the driver sends multi-row INSERTs.
+     * @param incidents Incidents to save
+     * @return Change seq of the last incident (the batch's seqs are consecutive, one per incident),
+     *         0 if the list is empty or the transaction was rolled back
+     */
+    public long saveIncidentsBatch(List<Incident> incidents) {
+        if (incidents.isEmpty()) {
+            return 0;
+        }
         
-        if (existing != null) {
-            return updateIncident(incident);
-        } else {
-            return insertIncident(incident);
+        try {
+            return inTransaction(conn -> {
+                try (PreparedStatement pstmt = conn.prepareStatement(UPSERT_SQL)) {
+                    int pending = 0;
+                    for (Incident incident : incidents) {
+                        if (incident.getId() == null) {
+                            incident.setId(Incident.generateId());
+                        }
+                        bindInsertParameters(pstmt, incident);
+                        pstmt.addBatch();
+                        
+                        if (++pending == BATCH_SIZE) {
+                            pstmt.executeBatch();
+                            pending = 0;
+                        }
+                    }
+                    if (pending > 0) {
+                        pstmt.executeBatch();
+                    }
+                }
+                
+                // Logged after the writes, so the seq counter is only locked for the end of the transaction
+                long seq = reserveChangeSeqs(conn, incidents.size());
+                try (PreparedStatement logStmt = conn.prepareStatement(LOG_CHANGE_SQL)) {
+                    int pending = 0;
+                    for (Incident incident : incidents) {
+                        logStmt.setLong(1, seq++);
+                        logStmt.setString(2, incident.getId());
+                        logStmt.setString(3, IncidentChange.UPSERT);
+                        logStmt.addBatch();
+                        
+                        if (++pending == BATCH_SIZE) {
+                            logStmt.executeBatch();
+                            pending = 0;
+                        }
+                    }
+                    if (pending > 0) {
+                        logStmt.executeBatch();
+                    }
+                }
+                return seq - 1;
+            });
+        } catch (SQLException e) {
+            System.err.println("Error saving incident batch: " + e.getMessage());
+            return 0;
         }
     }
     
     /**
-     * Insert new incident
+     * Insert new incident (insert-only: fails if the ID already exists)
+     * @param incident Incident to insert
+     * @return Change seq of the insert, or 0 if not inserted
      */
-    private boolean insertIncident(Incident incident) {
-        String sql = "INSERT INTO incidents (id, type, severity, location, latitude, longitude, " +
-                    "description, timestamp, reporter_id, status, submission_id) " +
-                    "VALUES (?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?)";
+    public long insertIncident(Incident incident) {
+        if (incident.getId() == null) {
+            incident.setId(Incident.generateId());
+        }
         
-        try (Connection conn = DatabaseConnection.getConnection();
-             PreparedStatement pstmt = conn.prepareStatement(sql)) {
-            
-            pstmt.setString(1, incident.getId());
-            pstmt.setString(2, incident.getType());
-            pstmt.setString(3, incident.getSeverity());
-            pstmt.setString(4, incident.getLocation());
-            pstmt.setObject(5, incident.getLatitude(), Types.DECIMAL);
-            pstmt.setObject(6, incident.getLongitude(), Types.DECIMAL);
-            pstmt.setString(7, incident.getDescription());
-            pstmt.setTimestamp(8, Timestamp.valueOf(incident.getTimestamp()));
-            pstmt.setString(9, incident.getReporterId());
-            pstmt.setString(10, incident.getStatus());
-            pstmt.setString(11, incident.getSubmissionId());
-            
-            return pstmt.executeUpdate() > 0;
+        try {
+            return inTransaction(conn -> {
+                try (PreparedStatement pstmt = conn.prepareStatement(INSERT_SQL)) {
+                    bindInsertParameters(pstmt, incident);
+                    return pstmt.executeUpdate() > 0 ? logChange(conn, incident.getId(), IncidentChange.UPSERT) : 0;
+                }
+            });
         } catch (SQLException e) {
             System.err.println("Error inserting incident: " + e.getMessage());
-            return false;
+            return 0;
         }
     }
     
     /**
-     * Update existing incident
+     * Update existing incident (update-only: never creates a row)
+     * @param incident Incident with updated fields
+     * @return Change seq of the update, or 0 if no row with the ID existed
      */
-    private boolean updateIncident(Incident incident) {
+    public long updateIncident(Incident incident) {
         String sql = "UPDATE incidents SET type = ?, severity = ?, location = ?, " +
                     "latitude = ?, longitude = ?, description = ?, timestamp = ?, " +
                     "reporter_id = ?, status = ?, submission_id = ? WHERE id = ?";
         
-        try (Connection conn = DatabaseConnection.getConnection();
-             PreparedStatement pstmt = conn.prepareStatement(sql)) {
-            
-            pstmt.setString(1, incident.getType());
-            pstmt.setString(2, incident.getSeverity());
-            pstmt.setString(3, incident.getLocation());
-            pstmt.setObject(4, incident.getLatitude(), Types.DECIMAL);
-            pstmt.setObject(5, incident.getLongitude(), Types.DECIMAL);
-            pstmt.setString(6, incident.getDescription());
-            pstmt.setTimestamp(7, Timestamp.valueOf(incident.getTimestamp()));
-            pstmt.setString(8, incident.getReporterId());
-            pstmt.setString(9, incident.getStatus());
-            pstmt.setString(10, incident.getSubmissionId());
-            pstmt.setString(11, incident.getId());
-            
-            return pstmt.executeUpdate() > 0;
+        try {
+            return inTransaction(conn -> {
+                try (PreparedStatement pstmt = conn.prepareStatement(sql)) {
+                    pstmt.setString(1, incident.getType());
+                    pstmt.setString(2, incident.getSeverity());
+                    pstmt.setString(3, incident.getLocation());
+                    pstmt.setObject(4, incident.getLatitude(), Types.DECIMAL);
+                    pstmt.setObject(5, incident.getLongitude(), Types.DECIMAL);
+                    pstmt.setString(6, incident.getDescription());
+                    pstmt.setTimestamp(7, Timestamp.valueOf(incident.getTimestamp()));
+                    pstmt.setString(8, incident.getReporterId());
+                    pstmt.setString(9, incident.getStatus());
+                    pstmt.setString(10, incident.getSubmissionId());
+                    pstmt.setString(11, incident.getId());
+                    
+                    return pstmt.executeUpdate() > 0 ? logChange(conn, incident.getId(), IncidentChange.UPSERT) : 0;
+                }
+            });
         } catch (SQLException e) {
             System.err.println("Error updating incident: " + e.getMessage());
-            return false;
+            return 0;
         }
     }
     
     /**
      * Delete incident by ID
      * @param id Incident ID
-     * @return true if successful
+     * @return Change seq of the delete, or 0 if no incident was deleted
      */
-    public boolean deleteIncident(String id) {
+    public long deleteIncident(String id) {
         String sql = "DELETE FROM incidents WHERE id = ?";
         
-        try (Connection conn = DatabaseConnection.getConnection();
-             PreparedStatement pstmt = conn.prepareStatement(sql)) {
-            
-            pstmt.setString(1, id);
-            return pstmt.executeUpdate() > 0;
+        try {
+            return inTransaction(conn -> {
+                try (PreparedStatement pstmt = conn.prepareStatement(sql)) {
+                    pstmt.setString(1, id);
+                    // Tombstone so delta-sync clients learn about the delete
+                    return pstmt.executeUpdate() > 0 ? logChange(conn, id, IncidentChange.DELETE) : 0;
+                }
+            });
         } catch (SQLException e) {
             System.err.println("Error deleting incident: " + e.getMessage());
-            return false;
+            return 0;
+        }
+    }
+    
+    /**
+     * Get incidents changed after a change log position.
+     * Only the latest change per incident is returned; deleted incidents
+     * come back as tombstones (type "delete", no incident).
+     * @param since Last change sequence the client has seen
+     * @param limit Maximum number of changes to return
+     * @return Changes in sequence order, or null on a database error
+     */
+    public IncidentDelta getChangesSince(long since, int limit) {
+        String rangeSql = "SELECT MIN(seq), MAX(seq) FROM incident_changes";
+        String sql = "SELECT c.seq, c.incident_id, c.change_type, c.changed_at, i.* " +
+                    "FROM (SELECT incident_id, MAX(seq) AS seq FROM incident_changes " +
+                    "WHERE seq > ? GROUP BY incident_id) latest " +
+                    "JOIN incident_changes c ON c.seq = latest.seq " +
+                    "LEFT JOIN incidents i ON i.id = c.incident_id " +
+                    "ORDER BY c.seq LIMIT ?";
+        
+        try (Connection conn = DatabaseConnection.getConnection()) {
+            long oldest;
+            long latest;
+            try (Statement stmt = conn.createStatement();
+                 ResultSet rs = stmt.executeQuery(rangeSql)) {
+                rs.next();
+                oldest = rs.getLong(1);
+                latest = rs.getLong(2);
+            }
+            
+            // Changes after "since" were pruned, or "since" is from another database
+            if (since > latest || (since > 0 && since < oldest - 1)) {
+                return new IncidentDelta(new ArrayList<>(), latest, false, true);
+            }
+            
+            List<IncidentChange> changes = new ArrayList<>();
+            try (PreparedStatement pstmt = conn.prepareStatement(sql)) {
+                pstmt.setLong(1, since);
+                pstmt.setInt(2, limit + 1);
+                try (ResultSet rs = pstmt.executeQuery()) {
+                    while (rs.next()) {
+                        changes.add(mapResultSetToChange(rs));
+                    }
+                }
+            }
+            
+            boolean hasMore = changes.size() > limit;
+            if (hasMore) {
+                changes = changes.subList(0, limit);
+            }
+            long seq = hasMore ? changes.get(changes.size() - 1).getSeq() : Math.max(since, latest);
+            return new IncidentDelta(changes, seq, hasMore, false);
+        } catch (SQLException e) {
+            System.err.println("Error getting incident changes: " + e.getMessage());
+            return null;
+        }
+    }
+    
+    /**
+     * Get the latest change log position
+     * @return Latest change sequence (0 if nothing was logged yet)
+     */
+    public long getLatestChangeSeq() {
+        try {
+            return loadLatestChangeSeq();
+        } catch (SQLException e) {
+            System.err.println("Error getting latest change sequence: " + e.getMessage());
+            return 0;
+        }
+    }
+    
+    /**
+     * Get the latest change log position, failing instead of returning 0
+     * @return Latest change sequence (0 if nothing was logged yet)
+     * @throws SQLException if the position could not be read
+     */
+    public long loadLatestChangeSeq() throws SQLException {
+        try (Connection conn = DatabaseConnection.getConnection();
+             Statement stmt = conn.createStatement();
+             ResultSet rs = stmt.executeQuery("SELECT COALESCE(MAX(seq), 0) FROM incident_changes")) {
+            
+            return rs.next() ? rs.getLong(1) : 0;
         }
     }
     
@@ -184,6 +454,113 @@ public class IncidentDAO {
         return incidents;
     }
     
+    @FunctionalInterface
+    private interface TransactionWork {
+        long run(Connection conn) throws SQLException;
+    }
+    
+    /**
+     * Run work in one transaction so a write and its change log row commit together
+     * @return The work's result (the change seq it logged, or 0)
+     */
+    private long inTransaction(TransactionWork work) throws SQLException {
+        try (Connection conn = DatabaseConnection.getConnection()) {
+            conn.setAutoCommit(false);
+            try {
+                long result = work.run(conn);
+                conn.commit();
+                return result;
+            } catch (SQLException | RuntimeException e) {
+                // Anything else would reach setAutoCommit(true), which commits the partial work
+                conn.rollback();
+                throw e;
+            } finally {
+                conn.setAutoCommit(true);
+            }
+        }
+    }
+    
+    /**
+     * Append a row to the change log. Call it last in the transaction (see reserveChangeSeqs).
+     * @return Change seq of the row
+     */
+    private long logChange(Connection conn, String id, String changeType) throws SQLException {
+        long seq = reserveChangeSeqs(conn, 1);
+        try (PreparedStatement pstmt = conn.prepareStatement(LOG_CHANGE_SQL)) {
+            pstmt.setLong(1, seq);
+            pstmt.setString(2, id);
+            pstmt.setString(3, changeType);
+            pstmt.executeUpdate();
+        }
+        return seq;
+    }
+    
+    /**
+     * Reserve change log positions in the caller's transaction.
+     * An AUTO_INCREMENT seq is handed out at insert time, so seq 11 could commit
+     * while seq 10 is still open and a delta reader would move its cursor past 10
+     * for good. The counter row stays locked until commit, so changes commit in
+     * seq order (and a rollback gives its seqs back).
+     * @param conn Connection with an open transaction
+     * @param count Number of positions
+     * @return First reserved seq
+     */
+    static long reserveChangeSeqs(Connection conn, int count) throws SQLException {
+        try (PreparedStatement pstmt = conn.prepareStatement(RESERVE_SEQ_SQL)) {
+            pstmt.setInt(1, count);
+            if (pstmt.executeUpdate() == 0) {
+                throw new SQLException("incident_change_seq has no counter row");
+            }
+        }
+        try (Statement stmt = conn.createStatement();
+             ResultSet rs = stmt.executeQuery("SELECT LAST_INSERT_ID()")) {
+            rs.next();
+            return rs.getLong(1) - count + 1;
+        }
+    }
+    
+    /**
+     * Bind all incident columns in INSERT_SQL order
+     */
+    private void bindInsertParameters(PreparedStatement pstmt, Incident incident) throws SQLException {
+        pstmt.setString(1, incident.getId());
+        pstmt.setString(2, incident.getType());
+        pstmt.setString(3, incident.getSeverity());
+        pstmt.setString(4, incident.getLocation());
+        pstmt.setObject(5, incident.getLatitude(), Types.DECIMAL);
+        pstmt.setObject(6, incident.getLongitude(), Types.DECIMAL);
+        pstmt.setString(7, incident.getDescription());
+        pstmt.setTimestamp(8, Timestamp.valueOf(incident.getTimestamp()));
+        pstmt.setString(9, incident.getReporterId());
+        pstmt.setString(10, incident.getStatus());
+        pstmt.setString(11, incident.getSubmissionId());
+    }
+    
+    /**
+     * Bind query parameters in order
+     */
+    private void bindParameters(PreparedStatement pstmt, List<Object> params) throws SQLException {
+        for (int i = 0; i < params.size(); i++) {
+            pstmt.setObject(i + 1, params.get(i));
+        }
+    }
+    
+    /**
+     * Map a change log row (joined with the incident, if it still exists)
+     */
+    private IncidentChange mapResultSetToChange(ResultSet rs) throws SQLException {
+        String id = rs.getString("incident_id");
+        String type = rs.getString("change_type");
+        Incident incident = null;
+        if (IncidentChange.UPSERT.equals(type) && rs.getString("id") != null) {
+            incident = mapResultSetToIncident(rs);
+        } else {
+            type = IncidentChange.DELETE;
+        }
+        return new IncidentChange(rs.getLong("seq"), type, id, incident,
+            rs.getTimestamp("changed_at").toLocalDateTime());
+    }
+    
     /**
      * Map ResultSet to Incident object
      */
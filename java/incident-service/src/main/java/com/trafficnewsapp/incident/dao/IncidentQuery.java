@@ -0,0 +1,306 @@
+package com.trafficnewsapp.incident.dao;
+
+import com.trafficnewsapp.incident.models.BoundingBox;
+
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * IncidentQuery
+ * Filter, keyword, bounding box, time window, sort, limit and cursor criteria for incident list queries.
+ * Translated by IncidentDAO into a single parameterized SELECT, except for
+ * keyword queries: those are always answered by the in-memory search index,
+ * so a keyword matches the same incidents whether or not it is paged.
+ * Filters accept a comma-separated list of values (severity=high,critical).
+ */
+public class IncidentQuery {
+    public static final int MAX_LIMIT = 1000;
+    public static final int DEFAULT_PAGE_SIZE = 50;
+    
+    private String type;
+    private String severity;
+    private String status;
+    private String keyword;
+    private String sortBy;
+    private String order;
+    private Integer limit;
+    private IncidentCursor cursor;
+    private BoundingBox bbox;
+    private LocalDateTime since;  // inclusive
+    private LocalDateTime until;  // exclusive
+    
+    /**
+     * Check whether any criteria are set
+     * @return true if the query is just "all incidents, newest first"
+     */
+    public boolean isEmpty() {
+        return isBlank(type) && isBlank(severity) && isBlank(status) && isBlank(keyword)
+            && isBlank(sortBy) && limit == null && cursor == null && bbox == null && !hasTimeWindow();
+    }
+    
+    /**
+     * Check whether the only criterion is a bounding box, which the
+     * in-memory spatial index can answer without the database
+     */
+    public boolean isBoundingBoxOnly() {
+        return bbox != null && isBlank(type) && isBlank(severity) && isBlank(status) && isBlank(keyword)
+            && isBlank(sortBy) && limit == null && cursor == null && !hasTimeWindow();
+    }
+    
+    /**
+     * Check whether the query has a keyword. The in-memory search index
+     * answers it, with every other criterion applied to the matches.
+     */
+    public boolean isKeywordSearch() {
+        return !isBlank(keyword);
+    }
+    
+    /**
+     * Check whether the query only filters by type, severity and/or status,
+     * which the in-memory bitmap index can answer. Time window, sort and
+     * limit are applied to the matches.
+     */
+    public boolean isFilterOnly() {
+        return (!isBlank(type) || !isBlank(severity) || !isBlank(status)) && isBlank(keyword)
+            && bbox == null && cursor == null;
+    }
+    
+    /**
+     * Check whether the query only sorts, pages and/or limits all incidents,
+     * which a pre-sorted in-memory view can answer by slicing
+     */
+    public boolean isSortOnly() {
+        return isBlank(type) && isBlank(severity) && isBlank(status) && isBlank(keyword) && bbox == null
+            && (cursor == null || isTimeOrdered());
+    }
+    
+    /**
+     * Relevance ordering is only available from the search index;
+     * in SQL it falls back to time ordering
+     */
+    public boolean isRelevanceOrdered() {
+        return !isBlank(sortBy) && "relevance".equalsIgnoreCase(sortBy.trim());
+    }
+    
+    /**
+     * Check whether the query is limited to a time range (since and/or until)
+     */
+    public boolean hasTimeWindow() {
+        return since != null || until != null;
+    }
+    
+    /**
+     * Check whether the query asks for a page (limit or cursor given)
+     */
+    public boolean isPaged() {
+        return limit != null || cursor != null;
+    }
+    
+    /**
+     * Keyset pagination only works when rows are ordered by (timestamp, id)
+     */
+    public boolean isTimeOrdered() {
+        return isBlank(sortBy) || "time".equalsIgnoreCase(sortBy.trim());
+    }
+    
+    /**
+     * Build the SQL for this query
+     * @param params Receives the bind values in order
+     * @return Parameterized SELECT statement
+     */
+    String toSql(List<Object> params) {
+        return toSql(params, limit != null ? getEffectiveLimit() : 0);
+    }
+    
+    /**
+     * Build the SQL for this query with an explicit row limit
+     * @param params Receives the bind values in order
+     * @param rowLimit Maximum rows to return (0 for no limit)
+     * @return Parameterized SELECT statement
+     */
+    String toSql(List<Object> params, int rowLimit) {
+        StringBuilder sql = new StringBuilder("SELECT * FROM incidents");
+        String where = buildWhere(params);
+        if (!where.isEmpty()) {
+            sql.append(" WHERE ").append(where);
+        }
+        sql.append(" ORDER BY ").append(buildOrderBy());
+        if (rowLimit > 0) {
+            sql.append(" LIMIT ?");
+            params.add(rowLimit);
+        }
+        return sql.toString();
+    }
+    
+    /**
+     * Build the WHERE clause. Filters are equality (or IN) predicates so that
+     * the idx_type, idx_severity_timestamp and idx_status indexes can be used;
+     * the time window and cursor predicates seek into idx_timestamp, which
+     * InnoDB stores as (timestamp, id).
+     * @throws IllegalStateException for a keyword query (see isKeywordSearch)
+     */
+    String buildWhere(List<Object> params) {
+        if (isKeywordSearch()) {
+            throw new IllegalStateException("Keyword queries are answered by the search index");
+        }
+        StringBuilder where = new StringBuilder();
+        appendEquals(where, params, "type", type);
+        appendEquals(where, params, "severity", severity);
+        appendEquals(where, params, "status", status);
+        
+        if (since != null) {
+            if (where.length() > 0) {
+                where.append(" AND ");
+            }
+            where.append("timestamp >= ?");
+            params.add(Timestamp.valueOf(since));
+        }
+        if (until != null) {
+            if (where.length() > 0) {
+                where.append(" AND ");
+            }
+            where.append("timestamp < ?");
+            params.add(Timestamp.valueOf(until));
+        }
+        
+        if (bbox != null) {
+            if (where.length() > 0) {
+                where.append(" AND ");
+            }
+            where.append("latitude BETWEEN ? AND ? AND longitude BETWEEN ? AND ?");
+            params.add(bbox.getMinLat());
+            params.add(bbox.getMaxLat());
+            params.add(bbox.getMinLng());
+            params.add(bbox.getMaxLng());
+        }
+        
+        if (cursor != null) {
+            // Rows strictly after the cursor in (timestamp, id) order
+            String comparison = isAscending() ? ">" : "<";
+            if (where.length() > 0) {
+                where.append(" AND ");
+            }
+            where.append("(timestamp ").append(comparison).append(" ? OR (timestamp = ? AND id ")
+                 .append(comparison).append(" ?))");
+            params.add(Timestamp.valueOf(cursor.getTimestamp()));
+            params.add(Timestamp.valueOf(cursor.getTimestamp()));
+            params.add(cursor.getId());
+        }
+        return where.toString();
+    }
+    
+    /**
+     * Build the ORDER BY clause (whitelisted columns only)
+     */
+    String buildOrderBy() {
+        String direction = isAscending() ? "ASC" : "DESC";
+        switch (sortBy != null ? sortBy.toLowerCase() : "time") {
+            case "severity":
+                return "FIELD(severity, 'low', 'medium', 'high', 'critical') " + direction
+                    + ", timestamp DESC, id DESC";
+            case "type":
+                return "type " + direction + ", timestamp DESC, id DESC";
+            case "time":
+            default:
+                return "timestamp " + direction + ", id " + direction;
+        }
+    }
+    
+    /**
+     * Sort order defaults to descending, matching SortedIncidentViews
+     */
+    boolean isAscending() {
+        return "asc".equalsIgnoreCase(order);
+    }
+    
+    /**
+     * Rows per page for paginated queries
+     */
+    public int getPageSize() {
+        return limit != null ? getEffectiveLimit() : DEFAULT_PAGE_SIZE;
+    }
+    
+    public int getEffectiveLimit() {
+        if (limit == null || limit > MAX_LIMIT) {
+            return MAX_LIMIT;
+        }
+        return Math.max(1, limit);
+    }
+    
+    private static void appendEquals(StringBuilder where, List<Object> params, String column, String value) {
+        List<String> values = splitValues(value);
+        if (values.isEmpty()) {
+            return;
+        }
+        if (where.length() > 0) {
+            where.append(" AND ");
+        }
+        if (values.size() == 1) {
+            where.append(column).append(" = ?");
+        } else {
+            where.append(column).append(" IN (");
+            for (int i = 0; i < values.size(); i++) {
+                where.append(i == 0 ? "?" : ", ?");
+            }
+            where.append(")");
+        }
+        params.addAll(values);
+    }
+    
+    /**
+     * Split a comma-separated filter value into its trimmed, non-empty parts
+     * @param value Filter value, e.g. "high,critical"
+     * @return Values (empty if none)
+     */
+    public static List<String> splitValues(String value) {
+        List<String> values = new ArrayList<>();
+        if (value != null) {
+            for (String part : value.split(",")) {
+                if (!part.trim().isEmpty() && !values.contains(part.trim())) {
+                    values.add(part.trim());
+                }
+            }
+        }
+        return values;
+    }
+    
+    private static boolean isBlank(String value) {
+        return value == null || value.trim().isEmpty();
+    }
+    
+    // Getters and Setters
+    public String getType() { return type; }
+    public void setType(String type) { this.type = type; }
+    
+    public String getSeverity() { return severity; }
+    public void setSeverity(String severity) { this.severity = severity; }
+    
+    public String getStatus() { return status; }
+    public void setStatus(String status) { this.status = status; }
+    
+    public String getKeyword() { return keyword; }
+    public void setKeyword(String keyword) { this.keyword = keyword; }
+    
+    public String getSortBy() { return sortBy; }
+    public void setSortBy(String sortBy) { this.sortBy = sortBy; }
+    
+    public String getOrder() { return order; }
+    public void setOrder(String order) { this.order = order; }
+    
+    public Integer getLimit() { return limit; }
+    public void setLimit(Integer limit) { this.limit = limit; }
+    
+    public IncidentCursor getCursor() { return cursor; }
+    public void setCursor(IncidentCursor cursor) { this.cursor = cursor; }
+    
+    public BoundingBox getBbox() { return bbox; }
+    public void setBbox(BoundingBox bbox) { this.bbox = bbox; }
+    
+    public LocalDateTime getSince() { return since; }
+    public void setSince(LocalDateTime since) { this.since = since; }
+    
+    public LocalDateTime getUntil() { return until; }
+    public void setUntil(LocalDateTime until) { this.until = until; }
+}
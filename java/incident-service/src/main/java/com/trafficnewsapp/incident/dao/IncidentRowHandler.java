@@ -0,0 +1,20 @@
+package com.trafficnewsapp.incident.dao;
+
+import com.trafficnewsapp.incident.models.Incident;
+
+import java.io.IOException;
+
+/**
+ * IncidentRowHandler
+ * Receives incidents one at a time while a query result is streamed
+ */
+@FunctionalInterface
+public interface IncidentRowHandler {
+    
+    /**
+     * Handle one incident
+     * @param incident Incident mapped from the current row
+     * @throws IOException if writing the incident fails (e.g. client disconnected)
+     */
+    void handle(Incident incident) throws IOException;
+}
@@ -0,0 +1,68 @@
+package com.trafficnewsapp.incident.models;
+
+/**
+ * BoundingBox Model
+ * Rectangular map viewport in decimal degrees
+ */
+public class BoundingBox {
+    private final double minLat;
+    private final double minLng;
+    private final double maxLat;
+    private final double maxLng;
+    
+    public BoundingBox(double minLat, double minLng, double maxLat, double maxLng) {
+        if (minLat < -90 || maxLat > 90 || minLng < -180 || maxLng > 180) {
+            throw new IllegalArgumentException("bbox coordinates are out of range");
+        }
+        if (minLat > maxLat || minLng > maxLng) {
+            throw new IllegalArgumentException("bbox must be minLat,minLng,maxLat,maxLng");
+        }
+        this.minLat = minLat;
+        this.minLng = minLng;
+        this.maxLat = maxLat;
+        this.maxLng = maxLng;
+    }
+    
+    /**
+     * Parse a "minLat,minLng,maxLat,maxLng" request parameter
+     * @param value Parameter value
+     * @return Bounding box
+     * @throws IllegalArgumentException if the value is malformed
+     */
+    public static BoundingBox parse(String value) {
+        String[] parts = value.split(",");
+        if (parts.length != 4) {
+            throw new IllegalArgumentException("bbox must be minLat,minLng,maxLat,maxLng");
+        }
+        double[] coordinates = new double[4];
+        for (int i = 0; i < 4; i++) {
+            try {
+                coordinates[i] = Double.parseDouble(parts[i].trim());
+            } catch (NumberFormatException e) {
+                throw new IllegalArgumentException("Invalid bbox parameter");
+            }
+            if (Double.isNaN(coordinates[i])) {
+                throw new IllegalArgumentException("Invalid bbox parameter");
+            }
+        }
+        return new BoundingBox(coordinates[0], coordinates[1], coordinates[2], coordinates[3]);
+    }
+    
+    /**
+     * Check whether a point lies inside the box (edges included)
+     */
+    public boolean contains(Double latitude, Double longitude) {
+        return latitude != null && longitude != null
+            && latitude >= minLat && latitude <= maxLat
+            && longitude >= minLng && longitude <= maxLng;
+    }
+    
+    // Getters
+    public double getMinLat() { return minLat; }
+    
+    public double getMinLng() { return minLng; }
+    
+    public double getMaxLat() { return maxLat; }
+    
+    public double getMaxLng() { return maxLng; }
+}
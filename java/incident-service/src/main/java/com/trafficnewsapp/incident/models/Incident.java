@@ -1,29 +1,62 @@
 package com.trafficnewsapp.incident.models;
 
+import java.time.Instant;
 import java.time.LocalDateTime;
+import java.time.ZoneOffset;
 import java.time.format.DateTimeFormatter;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
 
 /**
  * Incident Model
- * Represents a traffic incident with all required properties
+ * Represents a traffic incident with all required properties.
+ * Stored compactly because the service keeps every incident in memory:
+ * type, severity and status are dictionary codes, coordinates are primitive
+ * doubles, the timestamp is epoch milliseconds and locations are interned.
+ * A type, severity or status outside the known values (which validation
+ * will reject) is kept as the raw string, so input cannot grow the
+ * dictionaries.
+ * The getters and setters (and the JSON form) use the usual Java types.
  */
 public class Incident {
+    public static final List<String> INCIDENT_TYPES =
+        Collections.unmodifiableList(Arrays.asList("accident", "construction", "closure", "hazard"));
+    public static final List<String> SEVERITY_LEVELS =
+        Collections.unmodifiableList(Arrays.asList("low", "medium", "high", "critical"));
+    public static final List<String> STATUSES =
+        Collections.unmodifiableList(Arrays.asList("pending", "confirmed", "rejected"));
+    
+    private static final Vocabulary TYPES = new Vocabulary(INCIDENT_TYPES.toArray(new String[0]));
+    private static final Vocabulary SEVERITIES = new Vocabulary(SEVERITY_LEVELS.toArray(new String[0]));
+    private static final Vocabulary STATUS_VALUES = new Vocabulary(STATUSES.toArray(new String[0]));
+    
+    // Slots in otherValues
+    private static final int TYPE = 0;
+    private static final int SEVERITY = 1;
+    private static final int STATUS = 2;
+    
+    // Timestamp value for "no timestamp"; sorts before every real time
+    public static final long NO_TIMESTAMP = Long.MIN_VALUE;
+    
     private String id;
-    private String type; // 'accident', 'construction', 'closure', 'hazard'
-    private String severity; // 'low', 'medium', 'high', 'critical'
-    private String location;
-    private Double latitude;
-    private Double longitude;
+    private short type = Vocabulary.NONE; // 'accident', 'construction', 'closure', 'hazard'
+    private short severity = Vocabulary.NONE; // 'low', 'medium', 'high', 'critical'
+    private String location; // interned
+    private double latitude = Double.NaN; // NaN when unknown
+    private double longitude = Double.NaN;
     private String description;
-    private LocalDateTime timestamp;
+    private long timestamp = NO_TIMESTAMP; // epoch millis of the local date-time read as UTC
     private String reporterId;
-    private String status; // 'pending', 'confirmed', 'rejected'
+    private short status = Vocabulary.NONE; // 'pending', 'confirmed', 'rejected'
     private String submissionId;
+    // Raw type, severity and status for codes of Vocabulary.OTHER; null while all are known
+    private String[] otherValues;
     
     // Default constructor
     public Incident() {
-        this.timestamp = LocalDateTime.now();
-        this.status = "pending";
+        setTimestamp(LocalDateTime.now());
+        setStatus("pending");
     }
     
     // Constructor with data
@@ -31,15 +64,15 @@ public class Incident {
                    Double latitude, Double longitude, String description, 
                    LocalDateTime timestamp, String reporterId, String status, String submissionId) {
         this.id = id;
-        this.type = type;
-        this.severity = severity;
-        this.location = location;
-        this.latitude = latitude;
-        this.longitude = longitude;
+        setType(type);
+        setSeverity(severity);
+        setLocation(location);
+        setLatitude(latitude);
+        setLongitude(longitude);
         this.description = description;
-        this.timestamp = timestamp != null ? timestamp : LocalDateTime.now();
+        setTimestamp(timestamp != null ? timestamp : LocalDateTime.now());
         this.reporterId = reporterId;
-        this.status = status != null ? status : "pending";
+        setStatus(status != null ? status : "pending");
         this.submissionId = submissionId;
     }
     
@@ -53,19 +86,19 @@ public class Incident {
     }
     
     public String getType() {
-        return type;
+        return decode(TYPES, type, TYPE);
     }
     
     public void setType(String type) {
-        this.type = type;
+        this.type = encode(TYPES, type, TYPE);
     }
     
     public String getSeverity() {
-        return severity;
+        return decode(SEVERITIES, severity, SEVERITY);
     }
     
     public void setSeverity(String severity) {
-        this.severity = severity;
+        this.severity = encode(SEVERITIES, severity, SEVERITY);
     }
     
     public String getLocation() {
@@ -73,23 +106,30 @@ public class Incident {
     }
     
     public void setLocation(String location) {
-        this.location = location;
+        this.location = location != null ? location.intern() : null;
     }
     
     public Double getLatitude() {
-        return latitude;
+        return Double.isNaN(latitude) ? null : latitude;
     }
     
     public void setLatitude(Double latitude) {
-        this.latitude = latitude;
+        this.latitude = latitude != null ? latitude : Double.NaN;
     }
     
     public Double getLongitude() {
-        return longitude;
+        return Double.isNaN(longitude) ? null : longitude;
     }
     
     public void setLongitude(Double longitude) {
-        this.longitude = longitude;
+        this.longitude = longitude != null ? longitude : Double.NaN;
+    }
+    
+    /**
+     * Check whether both coordinates are set (without boxing them)
+     */
+    public boolean hasCoordinates() {
+        return !Double.isNaN(latitude) && !Double.isNaN(longitude);
     }
     
     public String getDescription() {
@@ -101,11 +141,22 @@ public class Incident {
     }
     
     public LocalDateTime getTimestamp() {
-        return timestamp;
+        if (timestamp == NO_TIMESTAMP) {
+            return null;
+        }
+        return LocalDateTime.ofInstant(Instant.ofEpochMilli(timestamp), ZoneOffset.UTC);
     }
     
     public void setTimestamp(LocalDateTime timestamp) {
-        this.timestamp = timestamp;
+        this.timestamp = toTimestampMillis(timestamp);
+    }
+    
+    /**
+     * Get the timestamp as a sortable number without creating a LocalDateTime
+     * @return Epoch milliseconds, or NO_TIMESTAMP
+     */
+    public long getTimestampMillis() {
+        return timestamp;
     }
     
     public String getReporterId() {
@@ -117,11 +168,28 @@ public class Incident {
     }
     
     public String getStatus() {
-        return status;
+        return decode(STATUS_VALUES, status, STATUS);
     }
     
     public void setStatus(String status) {
-        this.status = status;
+        this.status = encode(STATUS_VALUES, status, STATUS);
+    }
+    
+    private String decode(Vocabulary vocabulary, short code, int slot) {
+        return code == Vocabulary.OTHER ? otherValues[slot] : vocabulary.decode(code);
+    }
+    
+    private short encode(Vocabulary vocabulary, String value, int slot) {
+        short code = vocabulary.encode(value);
+        if (code == Vocabulary.OTHER) {
+            if (otherValues == null) {
+                otherValues = new String[3];
+            }
+            otherValues[slot] = value;
+        } else if (otherValues != null) {
+            otherValues[slot] = null;
+        }
+        return code;
     }
     
     public String getSubmissionId() {
@@ -132,6 +200,15 @@ public class Incident {
         this.submissionId = submissionId;
     }
     
+    /**
+     * Convert a date-time to the form returned by getTimestampMillis()
+     * @param timestamp Date-time (may be null)
+     * @return Epoch milliseconds, or NO_TIMESTAMP for null
+     */
+    public static long toTimestampMillis(LocalDateTime timestamp) {
+        return timestamp != null ? timestamp.toInstant(ZoneOffset.UTC).toEpochMilli() : NO_TIMESTAMP;
+    }
+    
     /**
      * Generate a unique ID for the incident
      */
@@ -144,11 +221,11 @@ public class Incident {
     public String toString() {
         return "Incident{" +
                 "id='" + id + '\'' +
-                ", type='" + type + '\'' +
-                ", severity='" + severity + '\'' +
+                ", type='" + getType() + '\'' +
+                ", severity='" + getSeverity() + '\'' +
                 ", location='" + location + '\'' +
-                ", timestamp=" + timestamp +
-                ", status='" + status + '\'' +
+                ", timestamp=" + getTimestamp() +
+                ", status='" + getStatus() + '\'' +
                 '}';
     }
 }
@@ -0,0 +1,37 @@
+package com.trafficnewsapp.incident.models;
+
+import java.time.LocalDateTime;
+
+/**
+ * IncidentChange Model
+ * One create/update ("upsert") or delete applied to an incident
+ */
+public class IncidentChange {
+    public static final String UPSERT = "upsert";
+    public static final String DELETE = "delete";
+    
+    private long seq;
+    private String type;
+    private String id;
+    private Incident incident; // null for deletes
+    private LocalDateTime changedAt;
+    
+    public IncidentChange(long seq, String type, String id, Incident incident, LocalDateTime changedAt) {
+        this.seq = seq;
+        this.type = type;
+        this.id = id;
+        this.incident = incident;
+        this.changedAt = changedAt;
+    }
+    
+    // Getters
+    public long getSeq() { return seq; }
+    
+    public String getType() { return type; }
+    
+    public String getId() { return id; }
+    
+    public Incident getIncident() { return incident; }
+    
+    public LocalDateTime getChangedAt() { return changedAt; }
+}
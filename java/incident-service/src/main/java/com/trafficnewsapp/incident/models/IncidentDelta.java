@@ -0,0 +1,30 @@
+package com.trafficnewsapp.incident.models;
+
+import java.util.List;
+
+/**
+ * IncidentDelta Model
+ * Incidents changed since a change log position, with tombstones for deletes
+ */
+public class IncidentDelta {
+    private List<IncidentChange> changes; // latest change per incident, in seq order
+    private long seq; // pass back as "since" on the next request
+    private boolean hasMore; // more changes after seq; request again right away
+    private boolean resync; // position is unknown or pruned; reload the full list
+    
+    public IncidentDelta(List<IncidentChange> changes, long seq, boolean hasMore, boolean resync) {
+        this.changes = changes;
+        this.seq = seq;
+        this.hasMore = hasMore;
+        this.resync = resync;
+    }
+    
+    // Getters
+    public List<IncidentChange> getChanges() { return changes; }
+    
+    public long getSeq() { return seq; }
+    
+    public boolean isHasMore() { return hasMore; }
+    
+    public boolean isResync() { return resync; }
+}
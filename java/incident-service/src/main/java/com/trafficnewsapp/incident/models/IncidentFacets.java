@@ -0,0 +1,35 @@
+package com.trafficnewsapp.incident.models;
+
+import java.util.Map;
+
+/**
+ * IncidentFacets Model
+ * Incident counts per type, severity, status and age for dashboards
+ */
+public class IncidentFacets {
+    private int total;
+    private Map<String, Integer> type;
+    private Map<String, Integer> severity;
+    private Map<String, Integer> status;
+    private Map<String, Integer> time; // 0-1h, 1-24h, 1-7d, older
+    
+    public IncidentFacets(int total, Map<String, Integer> type, Map<String, Integer> severity,
+                          Map<String, Integer> status, Map<String, Integer> time) {
+        this.total = total;
+        this.type = type;
+        this.severity = severity;
+        this.status = status;
+        this.time = time;
+    }
+    
+    // Getters
+    public int getTotal() { return total; }
+    
+    public Map<String, Integer> getType() { return type; }
+    
+    public Map<String, Integer> getSeverity() { return severity; }
+    
+    public Map<String, Integer> getStatus() { return status; }
+    
+    public Map<String, Integer> getTime() { return time; }
+}
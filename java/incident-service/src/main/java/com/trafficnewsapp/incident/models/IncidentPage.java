@@ -0,0 +1,22 @@
+package com.trafficnewsapp.incident.models;
+
+import java.util.List;
+
+/**
+ * IncidentPage Model
+ * One page of a paginated incident list
+ */
+public class IncidentPage {
+    private List<Incident> incidents;
+    private String nextCursor; // null on the last page
+    
+    public IncidentPage(List<Incident> incidents, String nextCursor) {
+        this.incidents = incidents;
+        this.nextCursor = nextCursor;
+    }
+    
+    // Getters
+    public List<Incident> getIncidents() { return incidents; }
+    
+    public String getNextCursor() { return nextCursor; }
+}
@@ -0,0 +1,27 @@
+package com.trafficnewsapp.incident.models;
+
+/**
+ * Suggestion Model
+ * One autocomplete completion for the search box
+ */
+public class Suggestion {
+    public static final String LOCATION = "location";
+    public static final String QUERY = "query";
+    
+    private String text;
+    private String kind;  // location, query
+    private int count;    // incidents at the location, or times searched
+    
+    public Suggestion(String text, String kind, int count) {
+        this.text = text;
+        this.kind = kind;
+        this.count = count;
+    }
+    
+    // Getters
+    public String getText() { return text; }
+    
+    public String getKind() { return kind; }
+    
+    public int getCount() { return count; }
+}
@@ -0,0 +1,56 @@
+package com.trafficnewsapp.incident.models;
+
+import java.util.HashMap;
+import java.util.Locale;
+import java.util.Map;
+
+/**
+ * Vocabulary
+ * Dictionary encoding for a small, closed set of strings such as incident
+ * types. Each value is stored once and referenced by a short code, matched
+ * case-insensitively and returned in its canonical spelling. The set is
+ * fixed when the vocabulary is built: requests and rows are encoded before
+ * anything validates them, so a value outside the set gets OTHER and the
+ * caller keeps the raw string instead of the vocabulary growing from input.
+ */
+final class Vocabulary {
+    static final short NONE = -1;
+    static final short OTHER = -2;
+    
+    // Read-only after construction
+    private final Map<String, Short> codes = new HashMap<>();
+    private final String[] values;
+    
+    Vocabulary(String... values) {
+        this.values = values.clone();
+        for (short code = 0; code < values.length; code++) {
+            codes.put(values[code], code);
+            codes.putIfAbsent(values[code].toLowerCase(Locale.ROOT), code);
+        }
+    }
+    
+    /**
+     * Get the code for a value
+     * @param value Value to encode (may be null)
+     * @return Code, NONE for null, or OTHER for a value outside the vocabulary
+     */
+    short encode(String value) {
+        if (value == null) {
+            return NONE;
+        }
+        Short code = codes.get(value);
+        if (code == null) {
+            code = codes.get(value.toLowerCase(Locale.ROOT));
+        }
+        return code != null ? code : OTHER;
+    }
+    
+    /**
+     * Get the value for a code
+     * @param code Code from encode()
+     * @return Value, or null for NONE and OTHER
+     */
+    String decode(short code) {
+        return code < 0 ? null : values[code];
+    }
+}
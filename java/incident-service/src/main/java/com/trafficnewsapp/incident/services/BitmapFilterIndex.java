@@ -0,0 +1,294 @@
+package com.trafficnewsapp.incident.services;
+
+import com.trafficnewsapp.incident.models.Incident;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.BitSet;
+import java.util.Collection;
+import java.util.Deque;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+/**
+ * BitmapFilterIndex
+ * Bitmap index over incident type, severity and status. Every incident gets
+ * a dense ordinal; each (field, value) pair keeps a bitset of the ordinals
+ * that have it. A filter ORs the bitsets of the accepted values of a field
+ * and ANDs the fields together, so the cost depends on the number of
+ * incidents divided by 64, not on string comparisons per incident.
+ * Values are matched case-insensitively, like the database collation.
+ */
+public class BitmapFilterIndex implements IncidentCacheListener {
+    public static final String TYPE = "type";
+    public static final String SEVERITY = "severity";
+    public static final String STATUS = "status";
+    private static final String[] FIELDS = {TYPE, SEVERITY, STATUS};
+    
+    private final ReentrantReadWriteLock lock = new ReentrantReadWriteLock();
+    
+    // Ordinal -> incident (null for free ordinals), and back
+    private List<Incident> incidents = new ArrayList<>();
+    private Map<String, Integer> ordinals = new HashMap<>();
+    // Ordinals of removed incidents, reused so the space stays dense
+    private Deque<Integer> freeOrdinals = new ArrayDeque<>();
+    // Field -> value -> ordinals with that value
+    private Map<String, Map<String, BitSet>> bitmaps = emptyBitmaps();
+    
+    /**
+     * Find incidents matching every field, where a field matches if it has
+     * any of the accepted values
+     * @param criteria Field (type, severity, status) -> accepted values; fields without values are ignored
+     * @return Matching incidents, newest first
+     */
+    public List<Incident> filter(Map<String, ? extends Collection<String>> criteria) {
+        List<Incident> matches = new ArrayList<>();
+        lock.readLock().lock();
+        try {
+            BitSet result = match(criteria);
+            for (int i = result.nextSetBit(0); i >= 0; i = result.nextSetBit(i + 1)) {
+                matches.add(incidents.get(i));
+            }
+        } finally {
+            lock.readLock().unlock();
+        }
+        matches.sort((a, b) -> {
+            int comparison = Long.compare(b.getTimestampMillis(), a.getTimestampMillis());
+            return comparison != 0 ? comparison : b.getId().compareTo(a.getId());
+        });
+        return matches;
+    }
+    
+    /**
+     * Count incidents matching the criteria without materializing them
+     * @param criteria Same as for filter()
+     * @return Number of matching incidents
+     */
+    public int count(Map<String, ? extends Collection<String>> criteria) {
+        lock.readLock().lock();
+        try {
+            return match(criteria).cardinality();
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+    
+    /**
+     * Count incidents per value of a field
+     * @param field type, severity or status
+     * @return Lowercased value -> number of incidents
+     */
+    public Map<String, Integer> countByValue(String field) {
+        Map<String, Integer> counts = new LinkedHashMap<>();
+        lock.readLock().lock();
+        try {
+            for (Map.Entry<String, BitSet> entry : bitmapsFor(field).entrySet()) {
+                counts.put(entry.getKey(), entry.getValue().cardinality());
+            }
+        } finally {
+            lock.readLock().unlock();
+        }
+        return counts;
+    }
+    
+    /**
+     * Get the number of indexed incidents
+     */
+    public int size() {
+        lock.readLock().lock();
+        try {
+            return ordinals.size();
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+    
+    @Override
+    public void onReload(List<Incident> loaded) {
+        // Build off to the side so filters keep using the old index meanwhile
+        List<Incident> newIncidents = new ArrayList<>(loaded.size());
+        Map<String, Integer> newOrdinals = new HashMap<>();
+        Map<String, Map<String, BitSet>> newBitmaps = emptyBitmaps();
+        for (Incident incident : loaded) {
+            if (incident.getId() == null || newOrdinals.containsKey(incident.getId())) {
+                continue;
+            }
+            int ordinal = newIncidents.size();
+            newIncidents.add(incident);
+            newOrdinals.put(incident.getId(), ordinal);
+            setBits(newBitmaps, incident, ordinal);
+        }
+        
+        lock.writeLock().lock();
+        try {
+            incidents = newIncidents;
+            ordinals = newOrdinals;
+            freeOrdinals = new ArrayDeque<>();
+            bitmaps = newBitmaps;
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+    
+    @Override
+    public void onPut(Collection<Incident> saved) {
+        lock.writeLock().lock();
+        try {
+            for (Incident incident : saved) {
+                Integer ordinal = ordinals.get(incident.getId());
+                if (ordinal != null) {
+                    clearBits(incidents.get(ordinal), ordinal);
+                } else {
+                    ordinal = freeOrdinals.isEmpty() ? incidents.size() : freeOrdinals.pop();
+                    if (ordinal == incidents.size()) {
+                        incidents.add(null);
+                    }
+                    ordinals.put(incident.getId(), ordinal);
+                }
+                incidents.set(ordinal, incident);
+                setBits(bitmaps, incident, ordinal);
+            }
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+    
+    @Override
+    public void onRemove(String id) {
+        lock.writeLock().lock();
+        try {
+            Integer ordinal = ordinals.remove(id);
+            if (ordinal != null) {
+                clearBits(incidents.get(ordinal), ordinal);
+                incidents.set(ordinal, null);
+                freeOrdinals.push(ordinal);
+            }
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+    
+    /**
+     * AND across fields of the OR across each field's accepted values
+     */
+    private BitSet match(Map<String, ? extends Collection<String>> criteria) {
+        BitSet result = null;
+        if (criteria != null) {
+            for (Map.Entry<String, ? extends Collection<String>> criterion : criteria.entrySet()) {
+                if (criterion.getValue() == null || criterion.getValue().isEmpty()) {
+                    continue;
+                }
+                Map<String, BitSet> byValue = bitmapsFor(criterion.getKey());
+                BitSet accepted = new BitSet();
+                for (String value : criterion.getValue()) {
+                    BitSet bits = byValue.get(normalize(value));
+                    if (bits != null) {
+                        accepted.or(bits);
+                    }
+                }
+                if (result == null) {
+                    result = accepted;
+                } else {
+                    result.and(accepted);
+                }
+                if (result.isEmpty()) {
+                    return result;
+                }
+            }
+        }
+        if (result == null) {
+            // No criteria: every live ordinal
+            result = new BitSet(incidents.size());
+            for (int ordinal : ordinals.values()) {
+                result.set(ordinal);
+            }
+        }
+        return result;
+    }
+    
+    private Map<String, BitSet> bitmapsFor(String field) {
+        Map<String, BitSet> byValue = bitmaps.get(field);
+        if (byValue == null) {
+            throw new IllegalArgumentException("Unknown filter field: " + field);
+        }
+        return byValue;
+    }
+    
+    private static void setBits(Map<String, Map<String, BitSet>> bitmaps, Incident incident, int ordinal) {
+        for (String field : FIELDS) {
+            String value = normalize(fieldValue(incident, field));
+            if (value != null) {
+                bitmaps.get(field).computeIfAbsent(value, v -> new BitSet()).set(ordinal);
+            }
+        }
+    }
+    
+    private void clearBits(Incident incident, int ordinal) {
+        for (String field : FIELDS) {
+            String value = normalize(fieldValue(incident, field));
+            if (value == null) {
+                continue;
+            }
+            Map<String, BitSet> byValue = bitmaps.get(field);
+            BitSet bits = byValue.get(value);
+            if (bits != null) {
+                bits.clear(ordinal);
+                if (bits.isEmpty()) {
+                    byValue.remove(value);
+                }
+            }
+        }
+    }
+    
+    private static String fieldValue(Incident incident, String field) {
+        switch (field) {
+            case TYPE:
+                return incident.getType();
+            case SEVERITY:
+                return incident.getSeverity();
+            default:
+                return incident.getStatus();
+        }
+    }
+    
+    /**
+     * Check a field value against accepted filter values the way the index
+     * does, so scans of other incident lists agree with it
+     * @param accepted Accepted values (empty accepts everything)
+     * @param value Incident field value
+     */
+    public static boolean matches(List<String> accepted, String value) {
+        if (accepted.isEmpty()) {
+            return true;
+        }
+        String normalized = normalize(value);
+        for (String candidate : accepted) {
+            if (normalized != null && normalized.equals(normalize(candidate))) {
+                return true;
+            }
+        }
+        return false;
+    }
+    
+    /**
+     * Filter values match trimmed and case-insensitively
+     */
+    static String normalize(String value) {
+        if (value == null || value.trim().isEmpty()) {
+            return null;
+        }
+        return value.trim().toLowerCase(Locale.ROOT);
+    }
+    
+    private static Map<String, Map<String, BitSet>> emptyBitmaps() {
+        Map<String, Map<String, BitSet>> bitmaps = new HashMap<>();
+        for (String field : FIELDS) {
+            bitmaps.put(field, new HashMap<>());
+        }
+        return bitmaps;
+    }
+}
@@ -1,5 +1,6 @@
 package com.trafficnewsapp.incident.services;
 
+import com.trafficnewsapp.incident.dao.IncidentQuery;
 import com.trafficnewsapp.incident.models.Incident;
 import java.util.HashMap;
 import java.util.List;
@@ -9,6 +10,8 @@ import java.util.stream.Collectors;
 /**
  * FilterService (C04)
  * Business Logic Layer - Filtering logic
+ * filterIncidents is stateless and safe to share between requests; the active
+ * filters only back applyFilters. List requests use the BitmapFilterIndex.
  */
 public class FilterService {
     private Map<String, String> activeFilters;
@@ -18,41 +21,24 @@ public class FilterService {
     }
     
     /**
-     * Apply filters to incidents
+     * Apply filters to incidents. Each filter may list several values
+     * separated by commas (severity=high,critical).
      * @param incidents Incidents to filter
      * @param filters Filter criteria
      * @return Filtered incidents
      */
     public List<Incident> filterIncidents(List<Incident> incidents, Map<String, String> filters) {
-        if (filters != null) {
-            this.activeFilters.putAll(filters);
+        if (filters == null || filters.isEmpty()) {
+            return incidents;
         }
+        List<String> types = IncidentQuery.splitValues(filters.get("type"));
+        List<String> severities = IncidentQuery.splitValues(filters.get("severity"));
+        List<String> statuses = IncidentQuery.splitValues(filters.get("status"));
         
         return incidents.stream()
-            .filter(incident -> {
-                // Type filter
-                if (activeFilters.containsKey("type") && activeFilters.get("type") != null) {
-                    if (!activeFilters.get("type").equals(incident.getType())) {
-                        return false;
-                    }
-                }
-                
-                // Severity filter
-                if (activeFilters.containsKey("severity") && activeFilters.get("severity") != null) {
-                    if (!activeFilters.get("severity").equals(incident.getSeverity())) {
-                        return false;
-                    }
-                }
-                
-                // Status filter
-                if (activeFilters.containsKey("status") && activeFilters.get("status") != null) {
-                    if (!activeFilters.get("status").equals(incident.getStatus())) {
-                        return false;
-                    }
-                }
-                
-                return true;
-            })
+            .filter(incident -> matches(types, incident.getType())
+                && matches(severities, incident.getSeverity())
+                && matches(statuses, incident.getStatus()))
             .collect(Collectors.toList());
     }
     
@@ -62,7 +48,12 @@ public class FilterService {
      * @return Filtered incidents
      */
     public List<Incident> applyFilters(List<Incident> incidents) {
-        return filterIncidents(incidents, null);
+        return filterIncidents(incidents, getActiveFilters());
+    }
+    
+    private static boolean matches(List<String> accepted, String value) {
+        // Same rule as the index, so a filter gives the same result wherever it runs
+        return BitmapFilterIndex.matches(accepted, value);
     }
     
     /**
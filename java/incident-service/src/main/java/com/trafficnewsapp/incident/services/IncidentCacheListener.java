@@ -0,0 +1,32 @@
+package com.trafficnewsapp.incident.services;
+
+import com.trafficnewsapp.incident.models.Incident;
+
+import java.util.Collection;
+import java.util.List;
+
+/**
+ * IncidentCacheListener
+ * Keeps a secondary in-memory index in step with IncidentSnapshotCache.
+ * Callbacks are made one at a time, in the order the snapshot changed.
+ */
+public interface IncidentCacheListener {
+    
+    /**
+     * Called after the snapshot is (re)loaded from the database
+     * @param incidents Full incident list, newest first
+     */
+    void onReload(List<Incident> incidents);
+    
+    /**
+     * Called after created or updated incidents are applied to the snapshot
+     * @param incidents Incidents that were saved
+     */
+    void onPut(Collection<Incident> incidents);
+    
+    /**
+     * Called after a deleted incident is removed from the snapshot
+     * @param id Incident ID
+     */
+    void onRemove(String id);
+}
@@ -0,0 +1,227 @@
+package com.trafficnewsapp.incident.services;
+
+import com.trafficnewsapp.incident.models.Incident;
+import com.trafficnewsapp.incident.models.IncidentChange;
+
+import java.io.IOException;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * IncidentChangeFeed
+ * Publishes incident changes to live subscribers (SSE connections).
+ * Recent changes are kept in a fixed-size ring buffer so a reconnecting
+ * client can resume from its last sequence number. A single dispatcher
+ * thread makes all callbacks, so subscribers receive changes in order and
+ * idle connections do not hold a request thread. Callbacks must not block
+ * (the SSE subscribers only queue the event), or one slow client would
+ * delay every other one.
+ * Event IDs carry an epoch, because sequence numbers restart at 0 with the
+ * process: an ID from before a restart must not resume at the same number.
+ */
+public class IncidentChangeFeed {
+    public static final int DEFAULT_BUFFER_SIZE = 1000;
+    public static final long HEARTBEAT_SECONDS = 15;
+    
+    private final String epoch = Long.toString(System.currentTimeMillis(), 36);
+    private final IncidentChange[] ring;
+    private final Set<IncidentChangeSubscriber> subscribers = new LinkedHashSet<>();
+    private final ScheduledExecutorService dispatcher;
+    private long lastSeq; // guarded by this
+    private boolean closed; // guarded by this
+    
+    public IncidentChangeFeed() {
+        this(DEFAULT_BUFFER_SIZE);
+    }
+    
+    /**
+     * @param bufferSize Number of recent changes kept for resuming clients
+     */
+    public IncidentChangeFeed(int bufferSize) {
+        this.ring = new IncidentChange[Math.max(1, bufferSize)];
+        this.dispatcher = Executors.newSingleThreadScheduledExecutor(r -> {
+            Thread thread = new Thread(r, "incident-change-feed");
+            thread.setDaemon(true);
+            return thread;
+        });
+        dispatcher.scheduleWithFixedDelay(this::sendHeartbeats,
+            HEARTBEAT_SECONDS, HEARTBEAT_SECONDS, TimeUnit.SECONDS);
+    }
+    
+    /**
+     * Record an incident create or update
+     */
+    public void publishUpsert(Incident incident) {
+        publish(IncidentChange.UPSERT, incident.getId(), incident);
+    }
+    
+    /**
+     * Record an incident delete
+     */
+    public void publishDelete(String id) {
+        publish(IncidentChange.DELETE, id, null);
+    }
+    
+    /**
+     * Subscribe to live changes
+     * @param subscriber Subscriber to notify
+     * @param lastSeq Last sequence number the client saw, or null to only get new changes
+     * @return false if the feed has been shut down
+     */
+    public synchronized boolean subscribe(IncidentChangeSubscriber subscriber, Long lastSeq) {
+        if (closed) {
+            return false;
+        }
+        List<IncidentChange> backlog = null;
+        if (lastSeq != null && lastSeq <= this.lastSeq) {
+            backlog = getChangesSince(lastSeq);
+        }
+        // A position that is no longer buffered, or from before a restart, can't be resumed
+        boolean resync = lastSeq != null && backlog == null;
+        long position = backlog != null ? lastSeq : this.lastSeq;
+        subscribers.add(subscriber);
+        
+        // Queued while holding the lock, so the backlog is sent before any newer change
+        List<IncidentChange> replay = backlog;
+        dispatcher.execute(() -> {
+            try {
+                subscriber.onOpen(position, resync);
+                if (replay != null) {
+                    for (IncidentChange change : replay) {
+                        subscriber.onChange(change);
+                    }
+                }
+            } catch (IOException e) {
+                drop(subscriber);
+            }
+        });
+        return true;
+    }
+    
+    /**
+     * Build the event ID for a sequence number of this feed
+     * @param seq Sequence number
+     * @return ID in the form epoch:seq
+     */
+    public String eventId(long seq) {
+        return epoch + ":" + seq;
+    }
+    
+    /**
+     * Read the sequence number from a client's last event ID
+     * @param eventId ID from eventId
+     * @return Sequence number, or -1 (forces a resync) if the ID is malformed or from another run
+     */
+    public long parseEventId(String eventId) {
+        int colon = eventId.indexOf(':');
+        if (colon < 0 || !epoch.equals(eventId.substring(0, colon))) {
+            return -1;
+        }
+        try {
+            return Long.parseLong(eventId.substring(colon + 1));
+        } catch (NumberFormatException e) {
+            return -1;
+        }
+    }
+    
+    /**
+     * Remove a subscriber (e.g. when its connection completed or timed out)
+     */
+    public synchronized void unsubscribe(IncidentChangeSubscriber subscriber) {
+        subscribers.remove(subscriber);
+    }
+    
+    /**
+     * Get buffered changes after a sequence number
+     * @param lastSeq Last sequence number seen
+     * @return Changes in order, or null if some were already evicted from the buffer
+     */
+    public synchronized List<IncidentChange> getChangesSince(long lastSeq) {
+        long oldest = Math.max(1, this.lastSeq - ring.length + 1);
+        if (lastSeq + 1 < oldest) {
+            return null;
+        }
+        List<IncidentChange> changes = new ArrayList<>();
+        for (long seq = Math.max(lastSeq + 1, oldest); seq <= this.lastSeq; seq++) {
+            changes.add(ring[(int) (seq % ring.length)]);
+        }
+        return changes;
+    }
+    
+    public synchronized long getLastSeq() {
+        return lastSeq;
+    }
+    
+    public synchronized int getSubscriberCount() {
+        return subscribers.size();
+    }
+    
+    public synchronized boolean isShutdown() {
+        return closed;
+    }
+    
+    /**
+     * Close all subscribers and stop the dispatcher
+     */
+    public void shutdown() {
+        List<IncidentChangeSubscriber> remaining;
+        synchronized (this) {
+            // Checked by subscribe, so nothing is queued on the stopped dispatcher
+            closed = true;
+            remaining = new ArrayList<>(subscribers);
+            subscribers.clear();
+        }
+        dispatcher.shutdownNow();
+        for (IncidentChangeSubscriber subscriber : remaining) {
+            subscriber.close();
+        }
+    }
+    
+    private synchronized void publish(String type, String id, Incident incident) {
+        IncidentChange change = new IncidentChange(++lastSeq, type, id, incident, LocalDateTime.now());
+        ring[(int) (change.getSeq() % ring.length)] = change;
+        if (subscribers.isEmpty()) {
+            return;
+        }
+        List<IncidentChangeSubscriber> targets = new ArrayList<>(subscribers);
+        dispatcher.execute(() -> {
+            for (IncidentChangeSubscriber subscriber : targets) {
+                try {
+                    subscriber.onChange(change);
+                } catch (IOException e) {
+                    drop(subscriber);
+                }
+            }
+        });
+    }
+    
+    private void sendHeartbeats() {
+        List<IncidentChangeSubscriber> targets;
+        synchronized (this) {
+            targets = new ArrayList<>(subscribers);
+        }
+        for (IncidentChangeSubscriber subscriber : targets) {
+            try {
+                subscriber.onHeartbeat();
+            } catch (IOException e) {
+                drop(subscriber);
+            }
+        }
+    }
+    
+    private void drop(IncidentChangeSubscriber subscriber) {
+        boolean removed;
+        synchronized (this) {
+            removed = subscribers.remove(subscriber);
+        }
+        if (removed) {
+            subscriber.close();
+        }
+    }
+}
@@ -0,0 +1,37 @@
+package com.trafficnewsapp.incident.services;
+
+import com.trafficnewsapp.incident.models.IncidentChange;
+
+import java.io.IOException;
+
+/**
+ * IncidentChangeSubscriber
+ * Receives incident changes from IncidentChangeFeed.
+ * All callbacks are made from the feed's dispatcher thread and must not
+ * block on the client; throwing IOException unsubscribes and closes the
+ * subscriber.
+ */
+public interface IncidentChangeSubscriber {
+    
+    /**
+     * Called once, before any change is delivered
+     * @param seq Sequence number the subscriber is now positioned at
+     * @param resync true if the requested resume point was lost and the client must reload
+     */
+    void onOpen(long seq, boolean resync) throws IOException;
+    
+    /**
+     * Deliver one change
+     */
+    void onChange(IncidentChange change) throws IOException;
+    
+    /**
+     * Periodic keep-alive, used to detect dead connections
+     */
+    void onHeartbeat() throws IOException;
+    
+    /**
+     * Release the connection (called once, after unsubscribing)
+     */
+    void close();
+}
@@ -1,28 +1,415 @@
 package com.trafficnewsapp.incident.services;
 
+import com.trafficnewsapp.incident.dao.IncidentCursor;
 import com.trafficnewsapp.incident.dao.IncidentDAO;
+import com.trafficnewsapp.incident.dao.IncidentQuery;
+import com.trafficnewsapp.incident.dao.IncidentRowHandler;
+import com.trafficnewsapp.incident.models.BoundingBox;
 import com.trafficnewsapp.incident.models.Incident;
+import com.trafficnewsapp.incident.models.IncidentChange;
+import com.trafficnewsapp.incident.models.IncidentDelta;
+import com.trafficnewsapp.incident.models.IncidentFacets;
+import com.trafficnewsapp.incident.models.IncidentPage;
+import com.trafficnewsapp.incident.models.Suggestion;
 
+import java.io.IOException;
+import java.sql.SQLException;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
 import java.util.List;
-import java.util.stream.Collectors;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
 
 /**
  * IncidentService (C02)
  * Business Logic Layer - Core incident management
  */
 public class IncidentService {
+    public static final long DEFAULT_CHANGE_LOG_POLL_MS = 5000;
+    private static final int CHANGE_LOG_BATCH_SIZE = 500;
+    
     private IncidentDAO incidentDAO;
+    private IncidentSnapshotCache snapshotCache;
+    private SpatialGridIndex spatialIndex;
+    private SearchIndex searchIndex;
+    private SuggestionIndex suggestionIndex;
+    private BitmapFilterIndex filterIndex;
+    private SortedIncidentViews sortedViews;
+    private IncidentChangeFeed changeFeed;
+    
+    // Change log position followed for deletes made outside this service (see applyChangeLogDeletes)
+    private final Object changeLogLock = new Object();
+    private long changeLogSeq = -1; // guarded by changeLogLock
+    private ScheduledExecutorService changeLogPoller; // guarded by this
     
     public IncidentService(IncidentDAO incidentDAO) {
+        this(incidentDAO, IncidentSnapshotCache.DEFAULT_TTL_MS);
+    }
+    
+    public IncidentService(IncidentDAO incidentDAO, long cacheTtlMs) {
         this.incidentDAO = incidentDAO;
+        this.snapshotCache = new IncidentSnapshotCache(incidentDAO::loadAllIncidents,
+            incidentDAO::loadLatestChangeSeq, cacheTtlMs);
+        this.spatialIndex = new SpatialGridIndex();
+        snapshotCache.addListener(spatialIndex);
+        this.searchIndex = new SearchIndex();
+        snapshotCache.addListener(searchIndex);
+        this.suggestionIndex = new SuggestionIndex();
+        snapshotCache.addListener(suggestionIndex);
+        this.filterIndex = new BitmapFilterIndex();
+        snapshotCache.addListener(filterIndex);
+        this.sortedViews = new SortedIncidentViews();
+        snapshotCache.addListener(sortedViews);
+        this.changeFeed = new IncidentChangeFeed();
     }
     
     /**
-     * Get all incidents
-     * @return List of all incidents
+     * Get all incidents (served from the in-memory snapshot when fresh)
+     * @return Immutable list of all incidents, newest first
      */
     public List<Incident> getAllIncidents() {
-        return incidentDAO.getAllIncidents();
+        return snapshotCache.getAll();
+    }
+    
+    /**
+     * Find incidents matching the query (filtered and sorted by the database)
+     * @param query Query criteria
+     * @return List of matching incidents
+     */
+    public List<Incident> findIncidents(IncidentQuery query) {
+        if (query == null || query.isEmpty()) {
+            return getAllIncidents();
+        }
+        if (query.isBoundingBoxOnly()) {
+            return findIncidentsInBox(query.getBbox());
+        }
+        if (query.isKeywordSearch()) {
+            return searchIncidents(query);
+        }
+        if (query.isFilterOnly()) {
+            return filterIncidents(query);
+        }
+        if (query.isSortOnly() && query.getCursor() == null) {
+            return sortedIncidents(query, query.getLimit() != null ? query.getEffectiveLimit() : 0);
+        }
+        return incidentDAO.findIncidents(query);
+    }
+    
+    /**
+     * Stream incidents matching the query to a handler, one at a time.
+     * Queries the in-memory indexes can answer are served from memory; otherwise rows are streamed
+     * from the database without materializing the result.
+     * @param query Query criteria
+     * @param handler Receives each incident in order
+     * @throws IOException if the handler fails
+     * @throws SQLException if the database query fails part way
+     */
+    public void streamIncidents(IncidentQuery query, IncidentRowHandler handler)
+            throws IOException, SQLException {
+        if (isStreamedFromSnapshot(query)) {
+            for (Incident incident : findIncidents(query)) {
+                handler.handle(incident);
+            }
+            return;
+        }
+        incidentDAO.streamIncidents(query, handler);
+    }
+    
+    /**
+     * Find incidents inside a map viewport using the spatial index
+     * @param box Bounding box
+     * @return Incidents inside the box, newest first
+     */
+    public List<Incident> findIncidentsInBox(BoundingBox box) {
+        // Make sure the snapshot (and with it the index) is loaded and fresh
+        snapshotCache.getAll();
+        return spatialIndex.query(box);
+    }
+    
+    /**
+     * Keyword search using the inverted index, with the query's filters,
+     * bounding box, time window, sort and limit applied to the matches.
+     * Every keyword query goes through here, paged or not, so a keyword
+     * always matches the same incidents.
+     * @param query Query with a keyword (see IncidentQuery.isKeywordSearch)
+     * @return Matching incidents, by relevance or in the query's order
+     */
+    public List<Incident> searchIncidents(IncidentQuery query) {
+        return searchIncidents(query, query.getLimit() != null ? query.getEffectiveLimit() : 0);
+    }
+    
+    private List<Incident> searchIncidents(IncidentQuery query, int limit) {
+        // Make sure the snapshot (and with it the index) is loaded and fresh
+        snapshotCache.getAll();
+        List<Incident> matches = searchIndex.search(query.getKeyword(), query.isRelevanceOrdered());
+        
+        Map<String, List<String>> criteria = filterCriteria(query);
+        BoundingBox box = query.getBbox();
+        List<Incident> filtered = new ArrayList<>(matches.size());
+        for (Incident incident : matches) {
+            if (matchesFilter(criteria.get(BitmapFilterIndex.TYPE), incident.getType())
+                    && matchesFilter(criteria.get(BitmapFilterIndex.SEVERITY), incident.getSeverity())
+                    && matchesFilter(criteria.get(BitmapFilterIndex.STATUS), incident.getStatus())
+                    && inTimeWindow(query, incident)
+                    && (box == null || box.contains(incident.getLatitude(), incident.getLongitude()))) {
+                filtered.add(incident);
+            }
+        }
+        if (!query.isRelevanceOrdered()) {
+            // Same (field, timestamp, id) order as SQL, which cursors seek into
+            filtered.sort(sortComparator(query));
+        }
+        return limit > 0 ? head(filtered, limit) : filtered;
+    }
+    
+    /**
+     * Autocomplete the search box from incident locations and popular queries
+     * @param prefix Text typed so far
+     * @param limit Maximum number of suggestions
+     * @return Completions, most frequent first
+     */
+    public List<Suggestion> suggest(String prefix, int limit) {
+        snapshotCache.getAll();
+        return suggestionIndex.suggest(prefix, limit);
+    }
+    
+    /**
+     * Count an executed keyword search towards the popular query suggestions
+     * @param keyword Search keyword
+     */
+    public void recordSearch(String keyword) {
+        suggestionIndex.recordQuery(keyword);
+    }
+    
+    /**
+     * Type/severity/status filtering using the bitmap index, with the query's
+     * time window, sort and limit applied to the matches
+     * @param query Query with only filters (see IncidentQuery.isFilterOnly)
+     * @return Matching incidents, in the query's order
+     */
+    public List<Incident> filterIncidents(IncidentQuery query) {
+        return filterIncidents(query, query.getLimit() != null ? query.getEffectiveLimit() : 0);
+    }
+    
+    private List<Incident> filterIncidents(IncidentQuery query, int limit) {
+        // Make sure the snapshot (and with it the index) is loaded and fresh
+        snapshotCache.getAll();
+        return select(filterIndex.filter(filterCriteria(query)), query, limit);
+    }
+    
+    /**
+     * Count incidents per type, severity, status and age. Field counts are
+     * bitmap cardinalities and age buckets are binary searches over the
+     * newest-first snapshot, so no incident is visited.
+     * @return Facet counts
+     */
+    public IncidentFacets getFacets() {
+        List<Incident> all = snapshotCache.getAll();
+        LocalDateTime now = LocalDateTime.now();
+        int lastHour = IncidentSnapshotCache.countSince(all, now.minusHours(1));
+        int lastDay = IncidentSnapshotCache.countSince(all, now.minusDays(1));
+        int lastWeek = IncidentSnapshotCache.countSince(all, now.minusDays(7));
+        
+        Map<String, Integer> time = new LinkedHashMap<>();
+        time.put("0-1h", lastHour);
+        time.put("1-24h", lastDay - lastHour);
+        time.put("1-7d", lastWeek - lastDay);
+        time.put("older", all.size() - lastWeek);
+        
+        return new IncidentFacets(all.size(),
+            filterIndex.countByValue(BitmapFilterIndex.TYPE),
+            filterIndex.countByValue(BitmapFilterIndex.SEVERITY),
+            filterIndex.countByValue(BitmapFilterIndex.STATUS),
+            time);
+    }
+    
+    private static Map<String, List<String>> filterCriteria(IncidentQuery query) {
+        Map<String, List<String>> criteria = new LinkedHashMap<>();
+        criteria.put(BitmapFilterIndex.TYPE, IncidentQuery.splitValues(query.getType()));
+        criteria.put(BitmapFilterIndex.SEVERITY, IncidentQuery.splitValues(query.getSeverity()));
+        criteria.put(BitmapFilterIndex.STATUS, IncidentQuery.splitValues(query.getStatus()));
+        return criteria;
+    }
+    
+    private static boolean matchesFilter(List<String> accepted, String value) {
+        return BitmapFilterIndex.matches(accepted, value);
+    }
+    
+    /**
+     * Find one page of incidents (keyset pagination on timestamp and id)
+     * @param query Query criteria with limit and/or cursor
+     * @return Page of incidents and the cursor for the next page
+     */
+    public IncidentPage findIncidentPage(IncidentQuery query) {
+        if (!isPagedFromSnapshot(query)) {
+            return incidentDAO.findIncidentPage(query);
+        }
+        
+        // Same page the database would return, with one extra row to know whether another page exists
+        int pageSize = query.getPageSize();
+        List<Incident> rows;
+        if (query.getCursor() == null) {
+            if (query.isKeywordSearch()) {
+                rows = searchIncidents(query, pageSize + 1);
+            } else {
+                rows = query.isFilterOnly() ? filterIncidents(query, pageSize + 1) : sortedIncidents(query, pageSize + 1);
+            }
+        } else {
+            // Only searches and sort-only queries ordered by time get here with cursors: seek into the full order
+            List<Incident> sorted = query.isKeywordSearch() ? searchIncidents(query, 0) : sortedIncidents(query, 0);
+            Incident position = new Incident();
+            position.setTimestamp(query.getCursor().getTimestamp());
+            position.setId(query.getCursor().getId());
+            int start = SortedIncidentViews.indexAfter(sorted, sortComparator(query), position);
+            rows = sorted.subList(start, Math.min(start + pageSize + 1, sorted.size()));
+        }
+        List<Incident> incidents = new ArrayList<>(head(rows, pageSize));
+        
+        String nextCursor = null;
+        if (rows.size() > pageSize && query.isTimeOrdered()) {
+            Incident last = incidents.get(pageSize - 1);
+            nextCursor = new IncidentCursor(last.getTimestamp(), last.getId()).encode();
+        }
+        return new IncidentPage(incidents, nextCursor);
+    }
+    
+    /**
+     * Incidents in the query's order from the pre-sorted views. Without a
+     * time window this is a slice of a view; with one, the window is cut out
+     * of the time order by binary search and only its incidents are ordered.
+     * @param limit Maximum number of incidents (0 for all)
+     */
+    private List<Incident> sortedIncidents(IncidentQuery query, int limit) {
+        // Make sure the snapshot (and with it the views) is loaded and fresh
+        snapshotCache.getAll();
+        if (query.hasTimeWindow()) {
+            return select(sortedViews.view(SortedIncidentViews.TIME, false), query, limit);
+        }
+        List<Incident> sorted = sortedViews.view(query.getSortBy(), "asc".equalsIgnoreCase(query.getOrder()));
+        return limit > 0 ? head(sorted, limit) : sorted;
+    }
+    
+    /**
+     * Apply the query's time window, order and limit to incidents held newest
+     * first. The window is a binary search; time order is then a slice, any
+     * other order a bounded heap of the limit (O(n log k)) instead of a full sort.
+     * @param newestFirst Candidate incidents, newest first
+     * @param limit Maximum number of incidents (0 for all)
+     */
+    private static List<Incident> select(List<Incident> newestFirst, IncidentQuery query, int limit) {
+        List<Incident> window = newestFirst;
+        if (query.hasTimeWindow()) {
+            int start = query.getUntil() != null ? IncidentSnapshotCache.countSince(newestFirst, query.getUntil()) : 0;
+            int end = query.getSince() != null ? IncidentSnapshotCache.countSince(newestFirst, query.getSince())
+                : newestFirst.size();
+            window = newestFirst.subList(start, Math.max(start, end));
+        }
+        
+        boolean ascending = "asc".equalsIgnoreCase(query.getOrder());
+        if (query.isTimeOrdered() || query.isRelevanceOrdered()) {
+            // Relevance needs a keyword; without one it is time order, as in SQL
+            List<Incident> ordered = ascending ? SortedIncidentViews.reversed(window) : window;
+            return limit > 0 ? head(ordered, limit) : ordered;
+        }
+        Comparator<Incident> comparator = sortComparator(query);
+        if (limit > 0) {
+            return SortedIncidentViews.top(window, comparator, limit);
+        }
+        List<Incident> sorted = new ArrayList<>(window);
+        sorted.sort(comparator);
+        return sorted;
+    }
+    
+    private static boolean inTimeWindow(IncidentQuery query, Incident incident) {
+        long timestamp = incident.getTimestampMillis();
+        return (query.getSince() == null || timestamp >= Incident.toTimestampMillis(query.getSince()))
+            && (query.getUntil() == null || timestamp < Incident.toTimestampMillis(query.getUntil()));
+    }
+    
+    private static Comparator<Incident> sortComparator(IncidentQuery query) {
+        return SortedIncidentViews.comparator(query.getSortBy(), "asc".equalsIgnoreCase(query.getOrder()));
+    }
+    
+    private static List<Incident> head(List<Incident> incidents, int limit) {
+        return incidents.size() <= limit ? incidents : incidents.subList(0, limit);
+    }
+    
+    /**
+     * Get a version number for incident data, used to build ETags.
+     * Changes on every write and every snapshot reload (at most once per TTL).
+     * @return Current data version
+     */
+    public long getDataVersion() {
+        snapshotCache.getAll();
+        return snapshotCache.getVersion();
+    }
+    
+    /**
+     * Get the data version without loading anything. An expired snapshot
+     * may have missed writes made outside this service, so its version is
+     * not reported.
+     * @return Current data version, or -1 if the snapshot is missing or expired
+     */
+    public long peekDataVersion() {
+        return snapshotCache.peekVersion();
+    }
+    
+    /**
+     * Get incidents created, updated or deleted after a change log position
+     * @param since Last change sequence the client has seen
+     * @param limit Maximum number of changes
+     * @return Delta with tombstones for deletes, or null on a database error
+     */
+    public IncidentDelta getChangesSince(long since, int limit) {
+        return incidentDAO.getChangesSince(since, limit);
+    }
+    
+    /**
+     * Get the current change log position, for clients starting delta sync
+     * @return Latest change sequence
+     */
+    public long getLatestChangeSeq() {
+        return incidentDAO.getLatestChangeSeq();
+    }
+    
+    /**
+     * Get the change log position a list for the query will reflect, for clients
+     * starting delta sync. Read it before the list. The latest position can be ahead
+     * of the snapshot, so queries answered from it get the snapshot's position.
+     * @param query Query criteria
+     * @return Change sequence every change up to which is in the list
+     */
+    public long getChangeSeq(IncidentQuery query) {
+        if (query.isPaged() ? isPagedFromSnapshot(query) : isStreamedFromSnapshot(query)) {
+            long changeSeq = snapshotCache.getChangeSeq();
+            if (changeSeq >= 0) {
+                return changeSeq;
+            }
+        }
+        // Changes commit in seq order, so a database read after this includes them all
+        return incidentDAO.getLatestChangeSeq();
+    }
+    
+    /**
+     * Whether streamIncidents answers the query from the snapshot and its indexes
+     */
+    private static boolean isStreamedFromSnapshot(IncidentQuery query) {
+        return query == null || query.isEmpty() || query.isBoundingBoxOnly() || query.isKeywordSearch()
+            || query.isFilterOnly() || (query.isSortOnly() && query.getCursor() == null);
+    }
+    
+    /**
+     * Whether findIncidentPage answers the query from the snapshot and its indexes
+     */
+    private static boolean isPagedFromSnapshot(IncidentQuery query) {
+        return query.isSortOnly() || query.isFilterOnly() || query.isKeywordSearch();
     }
     
     /**
@@ -44,8 +431,32 @@ public class IncidentService {
             incidentData.setId(Incident.generateId());
         }
         
-        boolean success = incidentDAO.saveIncident(incidentData);
-        return success ? incidentData : null;
+        // Insert-only: creating must never overwrite an existing incident
+        long changeSeq = incidentDAO.insertIncident(incidentData);
+        if (changeSeq > 0) {
+            snapshotCache.put(incidentData, changeSeq);
+            changeFeed.publishUpsert(incidentData);
+        }
+        return changeSeq > 0 ? incidentData : null;
+    }
+    
+    /**
+     * Create or update many incidents in one database transaction
+     * @param incidents Validated incidents (IDs are generated when missing)
+     * @return true if all were saved, false if none were
+     */
+    public boolean saveIncidents(List<Incident> incidents) {
+        if (incidents.isEmpty()) {
+            return true;
+        }
+        long lastChangeSeq = incidentDAO.saveIncidentsBatch(incidents);
+        if (lastChangeSeq > 0) {
+            snapshotCache.putAll(incidents, lastChangeSeq);
+            for (Incident incident : incidents) {
+                changeFeed.publishUpsert(incident);
+            }
+        }
+        return lastChangeSeq > 0;
     }
     
     /**
@@ -69,8 +480,13 @@ public class IncidentService {
         if (updates.getDescription() != null) incident.setDescription(updates.getDescription());
         if (updates.getStatus() != null) incident.setStatus(updates.getStatus());
         
-        boolean success = incidentDAO.saveIncident(incident);
-        return success ? incident : null;
+        // Update-only: an incident deleted meanwhile is not recreated
+        long changeSeq = incidentDAO.updateIncident(incident);
+        if (changeSeq > 0) {
+            snapshotCache.put(incident, changeSeq);
+            changeFeed.publishUpsert(incident);
+        }
+        return changeSeq > 0 ? incident : null;
     }
     
     /**
@@ -79,57 +495,27 @@ public class IncidentService {
      * @return true if successful
      */
     public boolean deleteIncident(String id) {
-        return incidentDAO.deleteIncident(id);
+        long changeSeq = incidentDAO.deleteIncident(id);
+        if (changeSeq > 0) {
+            snapshotCache.remove(id, changeSeq);
+            changeFeed.publishDelete(id);
+        }
+        return changeSeq > 0;
     }
     
     /**
-     * Sort incidents
+     * Sort incidents in the same order as the pre-sorted views and the SQL ORDER BY
      * @param incidents Incidents to sort
      * @param sortBy Sort field ('time', 'severity', 'type')
      * @param order Sort order ('asc', 'desc')
      * @return Sorted list of incidents
      */
     public List<Incident> sortIncidents(List<Incident> incidents, String sortBy, String order) {
-        List<Incident> sorted = incidents.stream().collect(Collectors.toList());
-        
-        sorted.sort((a, b) -> {
-            int comparison = 0;
-            
-            switch (sortBy != null ? sortBy.toLowerCase() : "time") {
-                case "time":
-                    comparison = a.getTimestamp().compareTo(b.getTimestamp());
-                    break;
-                case "severity":
-                    int severityOrderA = getSeverityOrder(a.getSeverity());
-                    int severityOrderB = getSeverityOrder(b.getSeverity());
-                    comparison = Integer.compare(severityOrderA, severityOrderB);
-                    break;
-                case "type":
-                    comparison = a.getType().compareTo(b.getType());
-                    break;
-                default:
-                    comparison = 0;
-            }
-            
-            return "asc".equalsIgnoreCase(order) ? comparison : -comparison;
-        });
-        
+        List<Incident> sorted = new ArrayList<>(incidents);
+        sorted.sort(SortedIncidentViews.comparator(sortBy, "asc".equalsIgnoreCase(order)));
         return sorted;
     }
     
-    /**
-     * Get severity order for sorting
-     */
-    private int getSeverityOrder(String severity) {
-        switch (severity != null ? severity.toLowerCase() : "") {
-            case "critical": return 4;
-            case "high": return 3;
-            case "medium": return 2;
-            case "low": return 1;
-            default: return 0;
-        }
-    }
-    
     /**
      * Get incidents by status
      * @param status Status filter
@@ -138,6 +524,127 @@ public class IncidentService {
     public List<Incident> getIncidentsByStatus(String status) {
         return incidentDAO.getIncidentsByStatus(status);
     }
+    
+    /**
+     * Get snapshot cache statistics
+     * @return Map of cache counters (hits, misses, writes, size, age)
+     */
+    public Map<String, Object> getCacheStats() {
+        return snapshotCache.getStats();
+    }
+    
+    /**
+     * Get the live change feed (create/update/delete deltas)
+     */
+    public IncidentChangeFeed getChangeFeed() {
+        return changeFeed;
+    }
+    
+    /**
+     * Follow the change log for deletes made outside this service, every intervalMs
+     * @param intervalMs Poll interval (0 or less: not followed)
+     */
+    public synchronized void startChangeLogPolling(long intervalMs) {
+        if (changeLogPoller != null || intervalMs <= 0) {
+            return;
+        }
+        changeLogPoller = Executors.newSingleThreadScheduledExecutor(r -> {
+            Thread thread = new Thread(r, "incident-change-log");
+            thread.setDaemon(true);
+            return thread;
+        });
+        changeLogPoller.scheduleWithFixedDelay(() -> {
+            try {
+                applyChangeLogDeletes();
+            } catch (RuntimeException e) {
+                System.err.println("Error following the incident change log: " + e.getMessage());
+            }
+        }, 0, intervalMs, TimeUnit.MILLISECONDS);
+    }
+    
+    /**
+     * Apply deletes this service did not make itself, such as incidents the
+     * scheduler archived. Their tombstones are read from the change log; if the
+     * snapshot still holds any of them it is reloaded (a delete by this service
+     * has already removed its incident), and a delete is published on the change
+     * feed for each one the reload no longer has. Without a cached snapshot every
+     * tombstone is published; a delete the client already applied is a no-op.
+     * The first call only records the current position.
+     * @return Number of deletes published
+     */
+    public int applyChangeLogDeletes() {
+        synchronized (changeLogLock) {
+            if (changeLogSeq < 0) {
+                try {
+                    changeLogSeq = incidentDAO.loadLatestChangeSeq();
+                } catch (SQLException e) {
+                    System.err.println("Error reading the incident change log: " + e.getMessage());
+                }
+                return 0;
+            }
+            
+            // Latest change per incident: one deleted and re-created since is not a delete
+            Set<String> deleted = new LinkedHashSet<>();
+            while (true) {
+                IncidentDelta delta = incidentDAO.getChangesSince(changeLogSeq, CHANGE_LOG_BATCH_SIZE);
+                if (delta == null) {
+                    break; // database error: retried from the same position next time
+                }
+                if (delta.isResync()) {
+                    // Position was pruned: what was deleted meanwhile is unknown, so reload
+                    snapshotCache.invalidate();
+                    changeLogSeq = delta.getSeq();
+                    break;
+                }
+                for (IncidentChange change : delta.getChanges()) {
+                    if (IncidentChange.DELETE.equals(change.getType())) {
+                        deleted.add(change.getId());
+                    } else {
+                        deleted.remove(change.getId());
+                    }
+                }
+                changeLogSeq = delta.getSeq();
+                if (!delta.isHasMore()) {
+                    break;
+                }
+            }
+            if (deleted.isEmpty()) {
+                return 0;
+            }
+            
+            Set<String> stale = snapshotCache.findCached(deleted);
+            if (stale == null) {
+                stale = deleted;
+            } else if (stale.isEmpty()) {
+                return 0;
+            } else {
+                snapshotCache.invalidate();
+                snapshotCache.getAll();
+                // Re-created since its tombstone: the reload has it back
+                Set<String> recreated = snapshotCache.findCached(stale);
+                if (recreated != null) {
+                    stale.removeAll(recreated);
+                }
+            }
+            for (String id : stale) {
+                changeFeed.publishDelete(id);
+            }
+            return stale.size();
+        }
+    }
+    
+    /**
+     * Release background resources (closes open change streams)
+     */
+    public void shutdown() {
+        synchronized (this) {
+            if (changeLogPoller != null) {
+                changeLogPoller.shutdownNow();
+                changeLogPoller = null;
+            }
+        }
+        changeFeed.shutdown();
+    }
 }
 
 
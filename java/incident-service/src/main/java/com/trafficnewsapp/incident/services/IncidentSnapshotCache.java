@@ -0,0 +1,392 @@
+package com.trafficnewsapp.incident.services;
+
+import com.trafficnewsapp.incident.models.Incident;
+
+import java.sql.SQLException;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReference;
+
+/**
+ * IncidentSnapshotCache
+ * Read-through, write-invalidated in-memory snapshot of the incident list.
+ * Readers get an immutable list (newest first); writes build a new list and swap it in.
+ * Registered listeners are told about every reload and write so secondary
+ * indexes can be maintained incrementally. A reload that fails leaves the
+ * previous snapshot in place (served stale until a reload succeeds) instead
+ * of caching and broadcasting an empty or partial list.
+ * Each snapshot records the change log position it reflects at least: the
+ * position read before the reload, advanced by writes that continue it.
+ */
+public class IncidentSnapshotCache {
+    public static final long DEFAULT_TTL_MS = 30000; // 30 seconds
+    
+    private final Loader loader;
+    private final SeqLoader seqLoader;
+    private final long ttlMs;
+    private final AtomicReference<Snapshot> snapshot;
+    private final Object loadLock = new Object();
+    
+    // Serializes snapshot swaps so listeners see changes in order
+    private final Object writeLock = new Object();
+    private final List<IncidentCacheListener> listeners = new CopyOnWriteArrayList<>();
+    
+    // Bumped on every write and reload: a load that raced with a
+    // write is not cached, and the value doubles as the data version
+    private final AtomicLong generation = new AtomicLong();
+    
+    private final AtomicLong hits = new AtomicLong();
+    private final AtomicLong misses = new AtomicLong();
+    private final AtomicLong writes = new AtomicLong();
+    private final AtomicLong loadFailures = new AtomicLong();
+    
+    /**
+     * Reads the full incident list; throws rather than return a partial one
+     */
+    @FunctionalInterface
+    public interface Loader {
+        List<Incident> load() throws SQLException;
+    }
+    
+    /**
+     * Reads the latest change log position; called before Loader.load
+     */
+    @FunctionalInterface
+    public interface SeqLoader {
+        long load() throws SQLException;
+    }
+    
+    private static class Snapshot {
+        final List<Incident> incidents;
+        final long loadedAt;
+        final long changeSeq;
+        
+        Snapshot(List<Incident> incidents, long loadedAt, long changeSeq) {
+            this.incidents = incidents;
+            this.loadedAt = loadedAt;
+            this.changeSeq = changeSeq;
+        }
+        
+        /**
+         * The position after a write: only a write right after it moves it on,
+         * since writes in between (by other services) may be missing
+         */
+        long changeSeqAfter(long firstSeq, long lastSeq) {
+            return firstSeq == changeSeq + 1 ? lastSeq : changeSeq;
+        }
+    }
+    
+    /**
+     * Cache without a change log (reloads are at position 0)
+     * @param loader Loads the full incident list from the database
+     * @param ttlMs Maximum snapshot age in milliseconds (0 disables caching)
+     */
+    public IncidentSnapshotCache(Loader loader, long ttlMs) {
+        this(loader, () -> 0, ttlMs);
+    }
+    
+    /**
+     * @param loader Loads the full incident list from the database
+     * @param seqLoader Reads the change log position a reload reflects
+     * @param ttlMs Maximum snapshot age in milliseconds (0 disables caching)
+     */
+    public IncidentSnapshotCache(Loader loader, SeqLoader seqLoader, long ttlMs) {
+        this.loader = loader;
+        this.seqLoader = seqLoader;
+        this.ttlMs = Math.max(0, ttlMs);
+        this.snapshot = new AtomicReference<>();
+    }
+    
+    /**
+     * Get all incidents, loading them if the snapshot is missing or expired
+     * @return Immutable list of incidents, newest first. If reloading fails: the
+     *         expired snapshot, or an empty list (not cached) if there is none
+     */
+    public List<Incident> getAll() {
+        Snapshot current = snapshot.get();
+        if (isFresh(current)) {
+            hits.incrementAndGet();
+            return current.incidents;
+        }
+        
+        // Only one thread reloads; the others wait and reuse its result
+        synchronized (loadLock) {
+            current = snapshot.get();
+            if (isFresh(current)) {
+                hits.incrementAndGet();
+                return current.incidents;
+            }
+            
+            misses.incrementAndGet();
+            long startGeneration = generation.get();
+            List<Incident> loaded;
+            long changeSeq;
+            try {
+                // Read first: every change up to it is committed, so the list includes it
+                changeSeq = seqLoader.load();
+                loaded = sortNewestFirst(loader.load());
+            } catch (SQLException e) {
+                loadFailures.incrementAndGet();
+                System.err.println("Error reloading incident snapshot: " + e.getMessage());
+                // Keep the previous snapshot; it stays expired, so the next read retries
+                return current != null ? current.incidents : Collections.emptyList();
+            }
+            Snapshot fresh = new Snapshot(loaded, System.currentTimeMillis(), changeSeq);
+            
+            synchronized (writeLock) {
+                if (generation.get() == startGeneration) {
+                    // Every reload may pick up writes made outside this service
+                    // (archiving, direct edits), so it always bumps the version
+                    generation.incrementAndGet();
+                    if (ttlMs > 0) {
+                        snapshot.set(fresh);
+                    }
+                    for (IncidentCacheListener listener : listeners) {
+                        listener.onReload(fresh.incidents);
+                    }
+                }
+            }
+            return fresh.incidents;
+        }
+    }
+    
+    /**
+     * Register a listener for snapshot changes
+     * @param listener Listener to notify
+     */
+    public void addListener(IncidentCacheListener listener) {
+        listeners.add(listener);
+    }
+    
+    /**
+     * Apply a created or updated incident to the cached snapshot
+     * @param incident Incident that was saved
+     * @param changeSeq Change log position of the save
+     */
+    public void put(Incident incident, long changeSeq) {
+        if (incident == null || incident.getId() == null) {
+            return;
+        }
+        synchronized (writeLock) {
+            generation.incrementAndGet();
+            writes.incrementAndGet();
+            Snapshot current = snapshot.get();
+            if (current == null) {
+                return;
+            }
+            List<Incident> updated = new ArrayList<>(current.incidents.size() + 1);
+            for (Incident existing : current.incidents) {
+                if (!incident.getId().equals(existing.getId())) {
+                    updated.add(existing);
+                }
+            }
+            updated.add(insertionPoint(updated, incident.getTimestampMillis()), incident);
+            snapshot.set(new Snapshot(Collections.unmodifiableList(updated), current.loadedAt,
+                current.changeSeqAfter(changeSeq, changeSeq)));
+            for (IncidentCacheListener listener : listeners) {
+                listener.onPut(Collections.singletonList(incident));
+            }
+        }
+    }
+    
+    /**
+     * Apply many saved incidents to the cached snapshot with a single copy
+     * @param incidents Incidents that were saved
+     * @param lastChangeSeq Change log position of the last one (one consecutive position per incident)
+     */
+    public void putAll(Collection<Incident> incidents, long lastChangeSeq) {
+        long firstChangeSeq = lastChangeSeq - incidents.size() + 1;
+        Map<String, Incident> byId = new HashMap<>();
+        for (Incident incident : incidents) {
+            if (incident != null && incident.getId() != null) {
+                byId.put(incident.getId(), incident);
+            }
+        }
+        if (byId.isEmpty()) {
+            return;
+        }
+        synchronized (writeLock) {
+            generation.incrementAndGet();
+            writes.addAndGet(byId.size());
+            Snapshot current = snapshot.get();
+            if (current == null) {
+                return;
+            }
+            List<Incident> updated = new ArrayList<>(current.incidents.size() + byId.size());
+            for (Incident existing : current.incidents) {
+                if (!byId.containsKey(existing.getId())) {
+                    updated.add(existing);
+                }
+            }
+            updated.addAll(byId.values());
+            snapshot.set(new Snapshot(sortNewestFirst(updated), current.loadedAt,
+                current.changeSeqAfter(firstChangeSeq, lastChangeSeq)));
+            for (IncidentCacheListener listener : listeners) {
+                listener.onPut(byId.values());
+            }
+        }
+    }
+    
+    /**
+     * Remove a deleted incident from the cached snapshot
+     * @param id Incident ID
+     * @param changeSeq Change log position of the delete
+     */
+    public void remove(String id, long changeSeq) {
+        if (id == null) {
+            return;
+        }
+        synchronized (writeLock) {
+            generation.incrementAndGet();
+            writes.incrementAndGet();
+            Snapshot current = snapshot.get();
+            if (current == null) {
+                return;
+            }
+            List<Incident> updated = new ArrayList<>(current.incidents.size());
+            for (Incident existing : current.incidents) {
+                if (!id.equals(existing.getId())) {
+                    updated.add(existing);
+                }
+            }
+            snapshot.set(new Snapshot(Collections.unmodifiableList(updated), current.loadedAt,
+                current.changeSeqAfter(changeSeq, changeSeq)));
+            for (IncidentCacheListener listener : listeners) {
+                listener.onRemove(id);
+            }
+        }
+    }
+    
+    /**
+     * Find which incidents the cached snapshot holds, without reloading
+     * @param ids Incident IDs
+     * @return The IDs that are in the snapshot, or null if there is no snapshot
+     */
+    public Set<String> findCached(Collection<String> ids) {
+        Snapshot current = snapshot.get();
+        if (current == null) {
+            return null;
+        }
+        Set<String> cachedIds = new HashSet<>();
+        for (Incident incident : current.incidents) {
+            cachedIds.add(incident.getId());
+        }
+        Set<String> found = new LinkedHashSet<>();
+        for (String id : ids) {
+            if (cachedIds.contains(id)) {
+                found.add(id);
+            }
+        }
+        return found;
+    }
+    
+    /**
+     * Drop the snapshot so the next read reloads from the database
+     */
+    public void invalidate() {
+        synchronized (writeLock) {
+            generation.incrementAndGet();
+            snapshot.set(null);
+        }
+    }
+    
+    /**
+     * Get cache statistics
+     * @return Map of counters
+     */
+    public Map<String, Object> getStats() {
+        Snapshot current = snapshot.get();
+        Map<String, Object> stats = new LinkedHashMap<>();
+        stats.put("hits", hits.get());
+        stats.put("misses", misses.get());
+        stats.put("writes", writes.get());
+        stats.put("loadFailures", loadFailures.get());
+        stats.put("ttlMs", ttlMs);
+        stats.put("size", current != null ? current.incidents.size() : 0);
+        stats.put("ageMs", current != null ? System.currentTimeMillis() - current.loadedAt : -1);
+        return stats;
+    }
+    
+    /**
+     * Get the data version, which changes whenever the snapshot may have changed.
+     * Callers should read through getAll() first so an expired snapshot is reloaded.
+     * @return Current version
+     */
+    public long getVersion() {
+        return generation.get();
+    }
+    
+    /**
+     * Get the change log position the cached snapshot reflects, without reloading.
+     * Every change up to it is in the snapshot; later ones may be too.
+     * @return Change sequence, or -1 if there is no snapshot
+     */
+    public long getChangeSeq() {
+        Snapshot current = snapshot.get();
+        return current != null ? current.changeSeq : -1;
+    }
+    
+    /**
+     * Get the data version without reloading
+     * @return Current version, or -1 if the snapshot is missing or expired
+     */
+    public long peekVersion() {
+        return isFresh(snapshot.get()) ? generation.get() : -1;
+    }
+    
+    /**
+     * Count incidents at or after a point in time with a binary search
+     * @param newestFirst Incident list as returned by getAll()
+     * @param since Earliest timestamp to count
+     * @return Number of incidents with timestamp >= since
+     */
+    public static int countSince(List<Incident> newestFirst, LocalDateTime since) {
+        return insertionPoint(newestFirst, Incident.toTimestampMillis(since));
+    }
+    
+    public long getHits() {
+        return hits.get();
+    }
+    
+    public long getMisses() {
+        return misses.get();
+    }
+    
+    private boolean isFresh(Snapshot current) {
+        return current != null && System.currentTimeMillis() - current.loadedAt < ttlMs;
+    }
+    
+    private static List<Incident> sortNewestFirst(List<Incident> incidents) {
+        List<Incident> sorted = new ArrayList<>(incidents);
+        sorted.sort((a, b) -> Long.compare(b.getTimestampMillis(), a.getTimestampMillis()));
+        return Collections.unmodifiableList(sorted);
+    }
+    
+    /**
+     * Find the index that keeps the list ordered newest first
+     */
+    private static int insertionPoint(List<Incident> incidents, long timestamp) {
+        int low = 0;
+        int high = incidents.size();
+        while (low < high) {
+            int mid = (low + high) >>> 1;
+            if (incidents.get(mid).getTimestampMillis() >= timestamp) {
+                low = mid + 1;
+            } else {
+                high = mid;
+            }
+        }
+        return low;
+    }
+}
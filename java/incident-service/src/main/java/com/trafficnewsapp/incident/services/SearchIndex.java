@@ -0,0 +1,221 @@
+package com.trafficnewsapp.incident.services;
+
+import com.trafficnewsapp.incident.models.Incident;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.NavigableMap;
+import java.util.TreeMap;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+/**
+ * SearchIndex
+ * In-memory inverted index over incident type, location and description.
+ * Text is split into lowercase words; a query matches incidents containing
+ * every query word, with the last word matched as a prefix for type-ahead
+ * ("gardiner exp" finds "Gardiner Expressway"). Cost depends on the number
+ * of matching postings, not on the total amount of text.
+ */
+public class SearchIndex implements IncidentCacheListener {
+    // Relevance weight of a word occurrence per field
+    private static final int TYPE_WEIGHT = 3;
+    private static final int LOCATION_WEIGHT = 2;
+    private static final int DESCRIPTION_WEIGHT = 1;
+    
+    private final ReentrantReadWriteLock lock = new ReentrantReadWriteLock();
+    
+    // word -> (incident ID -> weighted term frequency); sorted for prefix ranges
+    private TreeMap<String, Map<String, Integer>> postings = new TreeMap<>();
+    private Map<String, Incident> incidents = new HashMap<>();
+    
+    /**
+     * Search the index
+     * @param keyword Search text
+     * @param byRelevance true to order by score (ties newest first), false for newest first
+     * @return Matching incidents
+     */
+    public List<Incident> search(String keyword, boolean byRelevance) {
+        List<String> terms = tokenize(keyword);
+        if (terms.isEmpty()) {
+            return new ArrayList<>();
+        }
+        
+        Map<String, Integer> scores;
+        List<Incident> matches = new ArrayList<>();
+        lock.readLock().lock();
+        try {
+            scores = null;
+            for (int i = 0; i < terms.size(); i++) {
+                boolean prefix = i == terms.size() - 1;
+                Map<String, Integer> termScores = lookup(terms.get(i), prefix);
+                // Copy the first postings: they are read again after the lock is released
+                scores = scores == null ? new HashMap<>(termScores) : intersect(scores, termScores);
+                if (scores.isEmpty()) {
+                    return matches;
+                }
+            }
+            for (String id : scores.keySet()) {
+                matches.add(incidents.get(id));
+            }
+        } finally {
+            lock.readLock().unlock();
+        }
+        
+        Map<String, Integer> finalScores = scores;
+        matches.sort((a, b) -> {
+            if (byRelevance) {
+                int comparison = Integer.compare(finalScores.get(b.getId()), finalScores.get(a.getId()));
+                if (comparison != 0) {
+                    return comparison;
+                }
+            }
+            return Long.compare(b.getTimestampMillis(), a.getTimestampMillis());
+        });
+        return matches;
+    }
+    
+    /**
+     * Get the number of distinct indexed words
+     */
+    public int getVocabularySize() {
+        lock.readLock().lock();
+        try {
+            return postings.size();
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+    
+    @Override
+    public void onReload(List<Incident> loaded) {
+        // Build off to the side so searches keep using the old index meanwhile
+        TreeMap<String, Map<String, Integer>> newPostings = new TreeMap<>();
+        Map<String, Incident> newIncidents = new HashMap<>();
+        for (Incident incident : loaded) {
+            add(newPostings, newIncidents, incident);
+        }
+        
+        lock.writeLock().lock();
+        try {
+            postings = newPostings;
+            incidents = newIncidents;
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+    
+    @Override
+    public void onPut(Collection<Incident> saved) {
+        lock.writeLock().lock();
+        try {
+            for (Incident incident : saved) {
+                removeById(incident.getId());
+                add(postings, incidents, incident);
+            }
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+    
+    @Override
+    public void onRemove(String id) {
+        lock.writeLock().lock();
+        try {
+            removeById(id);
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+    
+    /**
+     * Split text into lowercase words (letters and digits)
+     */
+    static List<String> tokenize(String text) {
+        if (text == null) {
+            return Collections.emptyList();
+        }
+        List<String> tokens = new ArrayList<>();
+        for (String token : text.toLowerCase(Locale.ROOT).split("[^\\p{L}\\p{N}]+")) {
+            if (!token.isEmpty()) {
+                tokens.add(token);
+            }
+        }
+        return tokens;
+    }
+    
+    private Map<String, Integer> lookup(String term, boolean prefix) {
+        if (!prefix) {
+            Map<String, Integer> exact = postings.get(term);
+            return exact != null ? exact : Collections.emptyMap();
+        }
+        NavigableMap<String, Map<String, Integer>> range =
+            postings.subMap(term, true, term + Character.MAX_VALUE, false);
+        if (range.size() == 1) {
+            return range.firstEntry().getValue();
+        }
+        Map<String, Integer> merged = new HashMap<>();
+        for (Map<String, Integer> posting : range.values()) {
+            posting.forEach((id, weight) -> merged.merge(id, weight, Integer::sum));
+        }
+        return merged;
+    }
+    
+    private static Map<String, Integer> intersect(Map<String, Integer> a, Map<String, Integer> b) {
+        // Walk the smaller side
+        Map<String, Integer> small = a.size() <= b.size() ? a : b;
+        Map<String, Integer> large = small == a ? b : a;
+        Map<String, Integer> result = new HashMap<>();
+        for (Map.Entry<String, Integer> entry : small.entrySet()) {
+            Integer other = large.get(entry.getKey());
+            if (other != null) {
+                result.put(entry.getKey(), entry.getValue() + other);
+            }
+        }
+        return result;
+    }
+    
+    private static void add(TreeMap<String, Map<String, Integer>> postings,
+                            Map<String, Incident> incidents, Incident incident) {
+        if (incident.getId() == null) {
+            return;
+        }
+        incidents.put(incident.getId(), incident);
+        addField(postings, incident.getId(), incident.getType(), TYPE_WEIGHT);
+        addField(postings, incident.getId(), incident.getLocation(), LOCATION_WEIGHT);
+        addField(postings, incident.getId(), incident.getDescription(), DESCRIPTION_WEIGHT);
+    }
+    
+    private static void addField(TreeMap<String, Map<String, Integer>> postings,
+                                 String id, String text, int weight) {
+        for (String token : tokenize(text)) {
+            postings.computeIfAbsent(token, k -> new HashMap<>()).merge(id, weight, Integer::sum);
+        }
+    }
+    
+    private void removeById(String id) {
+        Incident existing = incidents.remove(id);
+        if (existing == null) {
+            return;
+        }
+        removeField(id, existing.getType());
+        removeField(id, existing.getLocation());
+        removeField(id, existing.getDescription());
+    }
+    
+    private void removeField(String id, String text) {
+        for (String token : tokenize(text)) {
+            Map<String, Integer> posting = postings.get(token);
+            if (posting != null) {
+                posting.remove(id);
+                if (posting.isEmpty()) {
+                    postings.remove(token);
+                }
+            }
+        }
+    }
+}
@@ -19,7 +19,8 @@ public class SearchService {
     }
     
     /**
-     * Search incidents by keyword
+     * Search an arbitrary list of incidents by keyword (substring scan).
+     * List requests use the incrementally maintained SearchIndex instead.
      * @param incidents Incidents to search
      * @param keyword Search keyword
      * @return Matching incidents
@@ -57,6 +58,16 @@ public class SearchService {
             .collect(Collectors.toList());
     }
     
+    /**
+     * Record a keyword search that was executed elsewhere (e.g. in SQL)
+     * @param keyword Search keyword
+     */
+    public void recordSearch(String keyword) {
+        if (keyword != null) {
+            addToHistory(keyword.toLowerCase().trim());
+        }
+    }
+    
     /**
      * Add search term to history
      * @param term Search term
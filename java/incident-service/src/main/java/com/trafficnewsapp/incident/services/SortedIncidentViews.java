@@ -0,0 +1,237 @@
+package com.trafficnewsapp.incident.services;
+
+import com.trafficnewsapp.incident.models.Incident;
+
+import java.util.AbstractList;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.PriorityQueue;
+import java.util.RandomAccess;
+import java.util.Set;
+
+/**
+ * SortedIncidentViews
+ * Keeps the cached incidents pre-sorted in every order the API offers (time,
+ * severity, type), so a sorted read is a slice of an existing list instead of
+ * a sort per request. Orders match the SQL ORDER BY in IncidentQuery,
+ * including the timestamp DESC, id DESC tie-break. Writes merge the changed
+ * incidents into copies of the lists; readers always see immutable lists.
+ */
+public class SortedIncidentViews implements IncidentCacheListener {
+    public static final String TIME = "time";
+    public static final String SEVERITY = "severity";
+    public static final String TYPE = "type";
+    
+    private static final Comparator<Incident> TIME_DESC = Comparator
+        .comparingLong(Incident::getTimestampMillis).reversed()
+        .thenComparing(Incident::getId, Comparator.reverseOrder());
+    private static final Comparator<Incident> SEVERITY_DESC =
+        Comparator.comparingInt(SortedIncidentViews::severityRank).reversed().thenComparing(TIME_DESC);
+    private static final Comparator<Incident> SEVERITY_ASC =
+        Comparator.comparingInt(SortedIncidentViews::severityRank).thenComparing(TIME_DESC);
+    private static final Comparator<Incident> TYPE_ASC = Comparator
+        .comparing(Incident::getType, Comparator.nullsFirst(String.CASE_INSENSITIVE_ORDER)).thenComparing(TIME_DESC);
+    private static final Comparator<Incident> TYPE_DESC = Comparator
+        .comparing(Incident::getType, Comparator.nullsFirst(String.CASE_INSENSITIVE_ORDER)).reversed()
+        .thenComparing(TIME_DESC);
+    
+    private static class Views {
+        final List<Incident> timeDesc;
+        final List<Incident> severityDesc;
+        final List<Incident> severityAsc;
+        final List<Incident> typeDesc;
+        final List<Incident> typeAsc;
+        
+        Views(List<Incident> timeDesc, List<Incident> severityDesc, List<Incident> severityAsc,
+              List<Incident> typeDesc, List<Incident> typeAsc) {
+            this.timeDesc = timeDesc;
+            this.severityDesc = severityDesc;
+            this.severityAsc = severityAsc;
+            this.typeDesc = typeDesc;
+            this.typeAsc = typeAsc;
+        }
+    }
+    
+    private volatile Views views = new Views(Collections.emptyList(), Collections.emptyList(),
+        Collections.emptyList(), Collections.emptyList(), Collections.emptyList());
+    
+    /**
+     * Get the comparator behind a view, for sorting other lists the same way
+     * @param sortBy Sort field (null means time)
+     * @param ascending true for ascending
+     * @return Comparator matching the SQL ORDER BY
+     */
+    public static Comparator<Incident> comparator(String sortBy, boolean ascending) {
+        switch (normalize(sortBy)) {
+            case SEVERITY:
+                return ascending ? SEVERITY_ASC : SEVERITY_DESC;
+            case TYPE:
+                return ascending ? TYPE_ASC : TYPE_DESC;
+            default:
+                return ascending ? TIME_DESC.reversed() : TIME_DESC;
+        }
+    }
+    
+    /**
+     * Get all incidents in the given order
+     * @param sortBy Sort field (time, severity or type; null means time)
+     * @param ascending true for ascending
+     * @return Immutable, random-access list
+     */
+    public List<Incident> view(String sortBy, boolean ascending) {
+        Views current = views;
+        switch (normalize(sortBy)) {
+            case SEVERITY:
+                return ascending ? current.severityAsc : current.severityDesc;
+            case TYPE:
+                return ascending ? current.typeAsc : current.typeDesc;
+            default:
+                // Time has the same tie-break direction, so ascending is just the reverse
+                return ascending ? reversed(current.timeDesc) : current.timeDesc;
+        }
+    }
+    
+    /**
+     * Select the first k incidents in comparator order without sorting them
+     * all: a bounded heap keeps the best k seen so far, O(n log k)
+     * @param incidents Candidates in any order
+     * @param comparator Order to select by
+     * @param k Number of incidents to select (at least 1)
+     * @return Up to k incidents, sorted
+     */
+    public static List<Incident> top(Collection<Incident> incidents, Comparator<Incident> comparator, int k) {
+        // Head of the heap is the worst of the current top k
+        PriorityQueue<Incident> heap = new PriorityQueue<>(k + 1, comparator.reversed());
+        for (Incident incident : incidents) {
+            if (heap.size() < k) {
+                heap.add(incident);
+            } else if (comparator.compare(incident, heap.peek()) < 0) {
+                heap.poll();
+                heap.add(incident);
+            }
+        }
+        List<Incident> top = new ArrayList<>(heap);
+        top.sort(comparator);
+        return top;
+    }
+    
+    /**
+     * Read-only reversed view of a list, without copying it
+     */
+    public static List<Incident> reversed(List<Incident> incidents) {
+        return new ReversedList(incidents);
+    }
+    
+    /**
+     * Find where the rows after a keyset position start in a view
+     * @param view List from view()
+     * @param comparator Comparator of that view
+     * @param position Incident at (or standing in for) the last row already returned
+     * @return Index of the first row after the position
+     */
+    public static int indexAfter(List<Incident> view, Comparator<Incident> comparator, Incident position) {
+        int index = Collections.binarySearch(view, position, comparator);
+        return index >= 0 ? index + 1 : -index - 1;
+    }
+    
+    @Override
+    public void onReload(List<Incident> loaded) {
+        views = new Views(sorted(loaded, TIME_DESC), sorted(loaded, SEVERITY_DESC), sorted(loaded, SEVERITY_ASC),
+            sorted(loaded, TYPE_DESC), sorted(loaded, TYPE_ASC));
+    }
+    
+    @Override
+    public void onPut(Collection<Incident> saved) {
+        Set<String> ids = new HashSet<>();
+        for (Incident incident : saved) {
+            ids.add(incident.getId());
+        }
+        Views current = views;
+        views = new Views(merge(current.timeDesc, ids, saved, TIME_DESC),
+            merge(current.severityDesc, ids, saved, SEVERITY_DESC),
+            merge(current.severityAsc, ids, saved, SEVERITY_ASC),
+            merge(current.typeDesc, ids, saved, TYPE_DESC),
+            merge(current.typeAsc, ids, saved, TYPE_ASC));
+    }
+    
+    @Override
+    public void onRemove(String id) {
+        Set<String> ids = Collections.singleton(id);
+        Views current = views;
+        views = new Views(merge(current.timeDesc, ids, Collections.emptyList(), TIME_DESC),
+            merge(current.severityDesc, ids, Collections.emptyList(), SEVERITY_DESC),
+            merge(current.severityAsc, ids, Collections.emptyList(), SEVERITY_ASC),
+            merge(current.typeDesc, ids, Collections.emptyList(), TYPE_DESC),
+            merge(current.typeAsc, ids, Collections.emptyList(), TYPE_ASC));
+    }
+    
+    private static List<Incident> sorted(List<Incident> incidents, Comparator<Incident> comparator) {
+        List<Incident> sorted = new ArrayList<>(incidents);
+        sorted.sort(comparator);
+        return Collections.unmodifiableList(sorted);
+    }
+    
+    /**
+     * Drop the replaced incidents from a sorted list and merge in the new
+     * versions in one pass: O(n + k log k) for k changed incidents
+     */
+    private static List<Incident> merge(List<Incident> base, Set<String> replacedIds,
+                                        Collection<Incident> added, Comparator<Incident> comparator) {
+        List<Incident> additions = new ArrayList<>(added);
+        additions.sort(comparator);
+        
+        List<Incident> merged = new ArrayList<>(base.size() + additions.size());
+        int next = 0;
+        for (Incident existing : base) {
+            if (replacedIds.contains(existing.getId())) {
+                continue;
+            }
+            while (next < additions.size() && comparator.compare(additions.get(next), existing) < 0) {
+                merged.add(additions.get(next++));
+            }
+            merged.add(existing);
+        }
+        while (next < additions.size()) {
+            merged.add(additions.get(next++));
+        }
+        return Collections.unmodifiableList(merged);
+    }
+    
+    /**
+     * Severity rank as in SQL FIELD(severity, 'low', 'medium', 'high', 'critical'): 0 for unknown
+     */
+    static int severityRank(Incident incident) {
+        // Known severities are stored in canonical form, so indexOf compares identical strings
+        return Incident.SEVERITY_LEVELS.indexOf(incident.getSeverity()) + 1;
+    }
+    
+    private static String normalize(String sortBy) {
+        return sortBy == null ? TIME : sortBy.trim().toLowerCase(Locale.ROOT);
+    }
+    
+    /**
+     * Read-only reversed view of a list, without copying it
+     */
+    private static class ReversedList extends AbstractList<Incident> implements RandomAccess {
+        private final List<Incident> list;
+        
+        ReversedList(List<Incident> list) {
+            this.list = list;
+        }
+        
+        @Override
+        public Incident get(int index) {
+            return list.get(list.size() - 1 - index);
+        }
+        
+        @Override
+        public int size() {
+            return list.size();
+        }
+    }
+}
@@ -0,0 +1,175 @@
+package com.trafficnewsapp.incident.services;
+
+import com.trafficnewsapp.incident.models.BoundingBox;
+import com.trafficnewsapp.incident.models.Incident;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+/**
+ * SpatialGridIndex
+ * Uniform lat/lng grid over the cached incidents for viewport (bbox) queries.
+ * A query only visits the cells the box overlaps, so its cost depends on the
+ * number of incidents in view rather than the total number of incidents.
+ * Incidents without coordinates are not indexed.
+ */
+public class SpatialGridIndex implements IncidentCacheListener {
+    public static final double DEFAULT_CELL_SIZE = 0.01; // degrees, roughly 1 km
+    
+    private final double cellSize;
+    private final ReentrantReadWriteLock lock = new ReentrantReadWriteLock();
+    
+    // cell key -> (incident ID -> incident), and incident ID -> cell key
+    private Map<Long, Map<String, Incident>> cells = new HashMap<>();
+    private Map<String, Long> cellById = new HashMap<>();
+    
+    public SpatialGridIndex() {
+        this(DEFAULT_CELL_SIZE);
+    }
+    
+    /**
+     * @param cellSize Grid cell size in degrees
+     */
+    public SpatialGridIndex(double cellSize) {
+        if (cellSize <= 0) {
+            throw new IllegalArgumentException("cellSize must be positive");
+        }
+        this.cellSize = cellSize;
+    }
+    
+    /**
+     * Find incidents inside a bounding box
+     * @param box Viewport
+     * @return Matching incidents, newest first
+     */
+    public List<Incident> query(BoundingBox box) {
+        int minRow = row(box.getMinLat());
+        int maxRow = row(box.getMaxLat());
+        int minCol = column(box.getMinLng());
+        int maxCol = column(box.getMaxLng());
+        long cellsInBox = (long) (maxRow - minRow + 1) * (maxCol - minCol + 1);
+        
+        List<Incident> result = new ArrayList<>();
+        lock.readLock().lock();
+        try {
+            if (cellsInBox > cells.size()) {
+                // Box covers more cells than are occupied: scan occupied cells instead
+                for (Map<String, Incident> cell : cells.values()) {
+                    collect(cell, box, result);
+                }
+            } else {
+                for (int row = minRow; row <= maxRow; row++) {
+                    for (int col = minCol; col <= maxCol; col++) {
+                        Map<String, Incident> cell = cells.get(key(row, col));
+                        if (cell != null) {
+                            collect(cell, box, result);
+                        }
+                    }
+                }
+            }
+        } finally {
+            lock.readLock().unlock();
+        }
+        
+        result.sort((a, b) -> Long.compare(b.getTimestampMillis(), a.getTimestampMillis()));
+        return result;
+    }
+    
+    /**
+     * Get the number of indexed incidents
+     */
+    public int size() {
+        lock.readLock().lock();
+        try {
+            return cellById.size();
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+    
+    @Override
+    public void onReload(List<Incident> incidents) {
+        // Build off to the side so queries keep using the old grid meanwhile
+        Map<Long, Map<String, Incident>> newCells = new HashMap<>();
+        Map<String, Long> newCellById = new HashMap<>();
+        for (Incident incident : incidents) {
+            add(newCells, newCellById, incident);
+        }
+        
+        lock.writeLock().lock();
+        try {
+            cells = newCells;
+            cellById = newCellById;
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+    
+    @Override
+    public void onPut(Collection<Incident> incidents) {
+        lock.writeLock().lock();
+        try {
+            for (Incident incident : incidents) {
+                removeById(incident.getId());
+                add(cells, cellById, incident);
+            }
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+    
+    @Override
+    public void onRemove(String id) {
+        lock.writeLock().lock();
+        try {
+            removeById(id);
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+    
+    private void add(Map<Long, Map<String, Incident>> cells, Map<String, Long> cellById, Incident incident) {
+        if (incident.getId() == null || !incident.hasCoordinates()) {
+            return;
+        }
+        long key = key(row(incident.getLatitude()), column(incident.getLongitude()));
+        cells.computeIfAbsent(key, k -> new HashMap<>()).put(incident.getId(), incident);
+        cellById.put(incident.getId(), key);
+    }
+    
+    private void removeById(String id) {
+        Long key = cellById.remove(id);
+        if (key == null) {
+            return;
+        }
+        Map<String, Incident> cell = cells.get(key);
+        cell.remove(id);
+        if (cell.isEmpty()) {
+            cells.remove(key);
+        }
+    }
+    
+    private static void collect(Map<String, Incident> cell, BoundingBox box, List<Incident> result) {
+        for (Incident incident : cell.values()) {
+            if (box.contains(incident.getLatitude(), incident.getLongitude())) {
+                result.add(incident);
+            }
+        }
+    }
+    
+    private int row(double latitude) {
+        return (int) Math.floor((latitude + 90) / cellSize);
+    }
+    
+    private int column(double longitude) {
+        return (int) Math.floor((longitude + 180) / cellSize);
+    }
+    
+    private static long key(int row, int column) {
+        return ((long) row << 32) | (column & 0xffffffffL);
+    }
+}
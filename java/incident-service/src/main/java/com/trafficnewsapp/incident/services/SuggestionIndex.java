@@ -0,0 +1,369 @@
+package com.trafficnewsapp.incident.services;
+
+import com.trafficnewsapp.incident.models.Incident;
+import com.trafficnewsapp.incident.models.Suggestion;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+/**
+ * SuggestionIndex
+ * Prefix trie over incident locations and popular search queries for
+ * search-box autocomplete. Each phrase is inserted once per word start, so
+ * "401" completes "Highway 401" as well as "h". Every trie node caches its
+ * best completions; updates only clear the caches on the paths they touch,
+ * so a lookup is a walk down the prefix plus a cached list in the common case.
+ */
+public class SuggestionIndex implements IncidentCacheListener {
+    public static final int MAX_SUGGESTIONS = 10;
+    // A query must be searched this often before it is suggested to others
+    private static final int MIN_QUERY_COUNT = 2;
+    private static final int MAX_QUERIES = 1000;
+    private static final int MAX_PHRASE_LENGTH = 100;
+    
+    private static final Comparator<Term> RANKING =
+        Comparator.comparingInt((Term term) -> term.count).reversed().thenComparing(term -> term.key);
+    
+    private static class Term {
+        final String key;   // normalized text
+        final String text;  // text shown to the user
+        final String kind;
+        int count;
+        
+        Term(String key, String text, String kind) {
+            this.key = key;
+            this.text = text;
+            this.kind = kind;
+        }
+    }
+    
+    private static class Node {
+        final Map<Character, Node> children = new HashMap<>();
+        final List<Term> terms = new ArrayList<>(1); // terms with a key ending here
+        volatile List<Term> top;                     // cached best completions, null when stale
+    }
+    
+    private final ReentrantReadWriteLock lock = new ReentrantReadWriteLock();
+    private final Node root = new Node();
+    
+    private final Map<String, Term> locations = new HashMap<>();
+    private final Map<String, Term> queries = new HashMap<>();
+    // Incident ID -> normalized location, to move counts on update and delete
+    private Map<String, String> incidentLocations = new HashMap<>();
+    
+    /**
+     * Get the best completions for a prefix, most frequent first
+     * @param prefix Text typed so far
+     * @param limit Maximum number of suggestions (capped at MAX_SUGGESTIONS)
+     * @return Suggestions, empty if nothing matches
+     */
+    public List<Suggestion> suggest(String prefix, int limit) {
+        String key = normalizePrefix(prefix);
+        List<Suggestion> suggestions = new ArrayList<>();
+        if (key.isEmpty() || limit <= 0) {
+            return suggestions;
+        }
+        
+        lock.readLock().lock();
+        try {
+            Node node = root;
+            for (int i = 0; i < key.length() && node != null; i++) {
+                node = node.children.get(key.charAt(i));
+            }
+            if (node == null) {
+                return suggestions;
+            }
+            for (Term term : top(node)) {
+                if (suggestions.size() >= limit) {
+                    break;
+                }
+                suggestions.add(new Suggestion(term.text, term.kind, term.count));
+            }
+        } finally {
+            lock.readLock().unlock();
+        }
+        return suggestions;
+    }
+    
+    /**
+     * Count a search query; once popular enough it is offered as a completion
+     * @param keyword Search text as entered
+     */
+    public void recordQuery(String keyword) {
+        String key = normalizePhrase(keyword);
+        if (key == null) {
+            return;
+        }
+        lock.writeLock().lock();
+        try {
+            Term term = queries.get(key);
+            if (term == null) {
+                if (queries.size() >= MAX_QUERIES) {
+                    ageQueries();
+                }
+                term = new Term(key, key, Suggestion.QUERY);
+                queries.put(key, term);
+            }
+            term.count++;
+            if (term.count == MIN_QUERY_COUNT) {
+                insert(term);
+            } else if (term.count > MIN_QUERY_COUNT) {
+                invalidate(term);
+            }
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+    
+    @Override
+    public void onReload(List<Incident> loaded) {
+        Map<String, String> newLocations = new HashMap<>();
+        Map<String, String> displayText = new HashMap<>();
+        for (Incident incident : loaded) {
+            String key = normalizePhrase(incident.getLocation());
+            if (incident.getId() != null && key != null) {
+                newLocations.put(incident.getId(), key);
+                displayText.putIfAbsent(key, displayText(incident.getLocation()));
+            }
+        }
+        
+        // Apply only the difference so unchanged trie paths keep their caches
+        lock.writeLock().lock();
+        try {
+            for (Map.Entry<String, String> entry : incidentLocations.entrySet()) {
+                if (!entry.getValue().equals(newLocations.get(entry.getKey()))) {
+                    decrementLocation(entry.getValue());
+                }
+            }
+            for (Map.Entry<String, String> entry : newLocations.entrySet()) {
+                if (!entry.getValue().equals(incidentLocations.get(entry.getKey()))) {
+                    incrementLocation(entry.getValue(), displayText.get(entry.getValue()));
+                }
+            }
+            incidentLocations = newLocations;
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+    
+    @Override
+    public void onPut(Collection<Incident> saved) {
+        lock.writeLock().lock();
+        try {
+            for (Incident incident : saved) {
+                setLocation(incident.getId(), incident.getLocation());
+            }
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+    
+    @Override
+    public void onRemove(String id) {
+        lock.writeLock().lock();
+        try {
+            setLocation(id, null);
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+    
+    private void setLocation(String id, String location) {
+        if (id == null) {
+            return;
+        }
+        String key = normalizePhrase(location);
+        String previous = incidentLocations.get(id);
+        if (key != null && key.equals(previous)) {
+            return;
+        }
+        if (previous != null) {
+            decrementLocation(previous);
+            incidentLocations.remove(id);
+        }
+        if (key != null) {
+            incrementLocation(key, displayText(location));
+            incidentLocations.put(id, key);
+        }
+    }
+    
+    private void incrementLocation(String key, String text) {
+        Term term = locations.get(key);
+        if (term == null) {
+            term = new Term(key, text, Suggestion.LOCATION);
+            term.count = 1;
+            locations.put(key, term);
+            insert(term);
+        } else {
+            term.count++;
+            invalidate(term);
+        }
+    }
+    
+    private void decrementLocation(String key) {
+        Term term = locations.get(key);
+        if (term == null) {
+            return;
+        }
+        term.count--;
+        if (term.count <= 0) {
+            locations.remove(key);
+            delete(term);
+        } else {
+            invalidate(term);
+        }
+    }
+    
+    /**
+     * Halve all query counts and forget the ones that reach zero, so the
+     * query vocabulary stays bounded and old searches fade out
+     */
+    private void ageQueries() {
+        Iterator<Term> it = queries.values().iterator();
+        while (it.hasNext()) {
+            Term term = it.next();
+            boolean inTrie = term.count >= MIN_QUERY_COUNT;
+            term.count /= 2;
+            if (term.count == 0) {
+                it.remove();
+            }
+            if (inTrie && term.count < MIN_QUERY_COUNT) {
+                delete(term);
+            } else if (inTrie) {
+                invalidate(term);
+            }
+        }
+    }
+    
+    private void insert(Term term) {
+        for (String key : keys(term.key)) {
+            Node node = root;
+            node.top = null;
+            for (int i = 0; i < key.length(); i++) {
+                node = node.children.computeIfAbsent(key.charAt(i), c -> new Node());
+                node.top = null;
+            }
+            node.terms.add(term);
+        }
+    }
+    
+    private void delete(Term term) {
+        for (String key : keys(term.key)) {
+            List<Node> path = new ArrayList<>(key.length() + 1);
+            Node node = root;
+            path.add(node);
+            for (int i = 0; i < key.length() && node != null; i++) {
+                node = node.children.get(key.charAt(i));
+                path.add(node);
+            }
+            if (node == null) {
+                continue;
+            }
+            node.terms.remove(term);
+            // Clear caches on the way up and prune nodes that became empty
+            for (int i = path.size() - 1; i >= 0; i--) {
+                Node current = path.get(i);
+                current.top = null;
+                if (i > 0 && current.terms.isEmpty() && current.children.isEmpty()) {
+                    path.get(i - 1).children.remove(key.charAt(i - 1));
+                }
+            }
+        }
+    }
+    
+    private void invalidate(Term term) {
+        for (String key : keys(term.key)) {
+            Node node = root;
+            node.top = null;
+            for (int i = 0; i < key.length() && node != null; i++) {
+                node = node.children.get(key.charAt(i));
+                if (node != null) {
+                    node.top = null;
+                }
+            }
+        }
+    }
+    
+    /**
+     * Best completions under a node, built from the children's cached lists
+     */
+    private static List<Term> top(Node node) {
+        List<Term> cached = node.top;
+        if (cached != null) {
+            return cached;
+        }
+        List<Term> candidates = new ArrayList<>(node.terms);
+        for (Node child : node.children.values()) {
+            candidates.addAll(top(child));
+        }
+        candidates.sort(RANKING);
+        
+        // A phrase can be reached through several of its words; keep it once
+        List<Term> best = new ArrayList<>(MAX_SUGGESTIONS);
+        Set<String> seen = new HashSet<>();
+        for (Term term : candidates) {
+            if (best.size() >= MAX_SUGGESTIONS) {
+                break;
+            }
+            if (seen.add(term.key)) {
+                best.add(term);
+            }
+        }
+        cached = Collections.unmodifiableList(best);
+        node.top = cached;
+        return cached;
+    }
+    
+    /**
+     * Trie keys for a phrase: the phrase itself and each suffix starting at a word
+     */
+    private static List<String> keys(String phrase) {
+        List<String> keys = new ArrayList<>();
+        keys.add(phrase);
+        for (int i = 0; i < phrase.length() - 1; i++) {
+            if (phrase.charAt(i) == ' ') {
+                keys.add(phrase.substring(i + 1));
+            }
+        }
+        return keys;
+    }
+    
+    /**
+     * Lowercase, trim and collapse whitespace; null for blank text
+     */
+    static String normalizePhrase(String text) {
+        if (text == null) {
+            return null;
+        }
+        String key = displayText(text).toLowerCase(Locale.ROOT);
+        return key.isEmpty() ? null : key;
+    }
+    
+    /**
+     * Like normalizePhrase, but a trailing space is kept so "gardiner "
+     * only completes phrases with another word after "gardiner"
+     */
+    static String normalizePrefix(String prefix) {
+        if (prefix == null) {
+            return "";
+        }
+        String key = prefix.toLowerCase(Locale.ROOT).replaceAll("\\s+", " ");
+        key = key.startsWith(" ") ? key.substring(1) : key;
+        return key.length() > MAX_PHRASE_LENGTH ? key.substring(0, MAX_PHRASE_LENGTH) : key;
+    }
+    
+    private static String displayText(String text) {
+        String display = text.trim().replaceAll("\\s+", " ");
+        return display.length() > MAX_PHRASE_LENGTH ? display.substring(0, MAX_PHRASE_LENGTH).trim() : display;
+    }
+}
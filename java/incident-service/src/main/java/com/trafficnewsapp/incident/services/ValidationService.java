@@ -2,7 +2,6 @@ package com.trafficnewsapp.incident.services;
 
 import com.trafficnewsapp.incident.models.Incident;
 import java.util.ArrayList;
-import java.util.Arrays;
 import java.util.List;
 import java.util.regex.Pattern;
 
@@ -11,8 +10,9 @@ import java.util.regex.Pattern;
  * Business Logic Layer - Input validation
  */
 public class ValidationService {
-    private static final List<String> INCIDENT_TYPES = Arrays.asList("accident", "construction", "closure", "hazard");
-    private static final List<String> SEVERITY_LEVELS = Arrays.asList("low", "medium", "high", "critical");
+    private static final List<String> INCIDENT_TYPES = Incident.INCIDENT_TYPES;
+    private static final List<String> SEVERITY_LEVELS = Incident.SEVERITY_LEVELS;
+    private static final List<String> STATUSES = Incident.STATUSES;
     private static final Pattern EMAIL_PATTERN = Pattern.compile("^[A-Za-z0-9+_.-]+@(.+)$");
     
     /**
@@ -33,6 +33,11 @@ public class ValidationService {
             errors.add("Invalid severity level. Must be one of: " + String.join(", ", SEVERITY_LEVELS));
         }
         
+        // Status validation (optional, defaults to pending)
+        if (incident.getStatus() != null && !STATUSES.contains(incident.getStatus().toLowerCase())) {
+            errors.add("Invalid status. Must be one of: " + String.join(", ", STATUSES));
+        }
+        
         // Location validation
         if (incident.getLocation() == null || incident.getLocation().trim().isEmpty()) {
             errors.add("Location is required");
@@ -40,6 +45,11 @@ public class ValidationService {
             errors.add("Location must be 200 characters or less");
         }
         
+        // Timestamp validation (an explicit null clears the default of now)
+        if (incident.getTimestamp() == null) {
+            errors.add("Timestamp is required");
+        }
+        
         // Description validation
         if (incident.getDescription() != null && incident.getDescription().length() > 1000) {
             errors.add("Description must be 1000 characters or less");
@@ -2,22 +2,47 @@ package com.trafficnewsapp.incident.servlets;
 
 import com.google.gson.Gson;
 import com.google.gson.GsonBuilder;
+import com.google.gson.JsonElement;
+import com.google.gson.JsonParseException;
+import com.google.gson.JsonParser;
+import com.google.gson.stream.JsonReader;
+import com.google.gson.stream.JsonWriter;
+import com.trafficnewsapp.incident.dao.IncidentCursor;
 import com.trafficnewsapp.incident.dao.IncidentDAO;
+import com.trafficnewsapp.incident.dao.IncidentQuery;
+import com.trafficnewsapp.incident.models.BoundingBox;
 import com.trafficnewsapp.incident.models.Incident;
-import com.trafficnewsapp.incident.services.FilterService;
+import com.trafficnewsapp.incident.models.IncidentChange;
+import com.trafficnewsapp.incident.models.IncidentDelta;
+import com.trafficnewsapp.incident.models.IncidentFacets;
+import com.trafficnewsapp.incident.models.IncidentPage;
+import com.trafficnewsapp.incident.models.Suggestion;
+import com.trafficnewsapp.incident.services.SuggestionIndex;
+import com.trafficnewsapp.incident.services.IncidentChangeFeed;
+import com.trafficnewsapp.incident.services.IncidentChangeSubscriber;
 import com.trafficnewsapp.incident.services.IncidentService;
+import com.trafficnewsapp.incident.services.IncidentSnapshotCache;
 import com.trafficnewsapp.incident.services.SearchService;
 import com.trafficnewsapp.incident.services.ValidationService;
+import com.trafficnewsapp.incident.util.HttpCaching;
+import com.trafficnewsapp.incident.util.IncidentTypeAdapter;
+import com.trafficnewsapp.incident.util.SseWriter;
 
+import javax.servlet.AsyncContext;
+import javax.servlet.AsyncEvent;
+import javax.servlet.AsyncListener;
 import javax.servlet.ServletException;
 import javax.servlet.http.HttpServlet;
 import javax.servlet.http.HttpServletRequest;
 import javax.servlet.http.HttpServletResponse;
+import java.io.BufferedReader;
 import java.io.IOException;
 import java.io.PrintWriter;
 import java.time.LocalDateTime;
 import java.time.format.DateTimeFormatter;
-import java.util.HashMap;
+import java.time.format.DateTimeParseException;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Map;
 
@@ -26,27 +51,55 @@ import java.util.Map;
  * REST API endpoint for incident operations
  */
 public class IncidentServlet extends HttpServlet {
+    private static final int MAX_BATCH_SIZE = 5000;
+    private static final int STREAM_RETRY_MS = 3000;
+    // Browsers may store responses but must revalidate (cheap with ETags)
+    private static final String CACHE_CONTROL = "no-cache";
+    
     private IncidentService incidentService;
     private ValidationService validationService;
-    private FilterService filterService;
     private SearchService searchService;
     private Gson gson;
     
     @Override
     public void init() throws ServletException {
         IncidentDAO incidentDAO = new IncidentDAO();
-        this.incidentService = new IncidentService(incidentDAO);
+        this.incidentService = new IncidentService(incidentDAO,
+            getLongParameter("incident.cache.ttlMs", IncidentSnapshotCache.DEFAULT_TTL_MS));
+        incidentService.startChangeLogPolling(
+            getLongParameter("incident.changeLog.pollMs", IncidentService.DEFAULT_CHANGE_LOG_POLL_MS));
         this.validationService = new ValidationService();
-        this.filterService = new FilterService();
         this.searchService = new SearchService();
         
         GsonBuilder gsonBuilder = new GsonBuilder();
+        gsonBuilder.registerTypeAdapter(Incident.class, new IncidentTypeAdapter());
         gsonBuilder.registerTypeAdapter(LocalDateTime.class, 
             (com.google.gson.JsonSerializer<LocalDateTime>) (src, typeOfSrc, context) -> 
                 context.serialize(src.format(DateTimeFormatter.ISO_LOCAL_DATE_TIME)));
         this.gson = gsonBuilder.create();
     }
     
+    @Override
+    public void destroy() {
+        log("Incident snapshot cache stats: " + incidentService.getCacheStats());
+        incidentService.shutdown();
+    }
+    
+    /**
+     * Read a number from a context-param (e.g. the snapshot cache TTL, incident.cache.ttlMs)
+     */
+    private long getLongParameter(String name, long defaultValue) {
+        String value = getServletContext().getInitParameter(name);
+        if (value != null && !value.trim().isEmpty()) {
+            try {
+                return Long.parseLong(value.trim());
+            } catch (NumberFormatException e) {
+                log("Invalid " + name + ": " + value);
+            }
+        }
+        return defaultValue;
+    }
+    
     @Override
     protected void doGet(HttpServletRequest request, HttpServletResponse response) 
             throws ServletException, IOException {
@@ -55,19 +108,47 @@ public class IncidentServlet extends HttpServlet {
         response.setHeader("Access-Control-Allow-Methods", "GET, POST, PUT, DELETE, OPTIONS");
         response.setHeader("Access-Control-Allow-Headers", "Content-Type");
         
+        String pathInfo = request.getPathInfo();
+        
+        // Live changes: /api/incidents/stream
+        if ("/stream".equals(pathInfo)) {
+            handleStream(request, response);
+            return;
+        }
+        
         response.setContentType("application/json");
         response.setCharacterEncoding("UTF-8");
         PrintWriter out = response.getWriter();
         
-        String pathInfo = request.getPathInfo();
-        
         try {
+            // Autocomplete: /api/incidents/suggest?q=
+            if ("/suggest".equals(pathInfo)) {
+                handleSuggest(request, response, out);
+                return;
+            }
+            
+            // Dashboard counts: /api/incidents/facets
+            if ("/facets".equals(pathInfo)) {
+                handleFacets(request, response, out);
+                return;
+            }
+            
             // Get incident by ID: /api/incidents/{id}
             if (pathInfo != null && pathInfo.length() > 1) {
                 String id = pathInfo.substring(1);
+                // One row must not reload the whole snapshot, so the version is only
+                // peeked; while it may be out of date no ETag is used at all
+                long version = incidentService.peekDataVersion();
+                String etag = version >= 0 ? HttpCaching.etag(version, HttpCaching.key(id)) : null;
+                if (etag != null && HttpCaching.checkNotModified(request, response, etag, CACHE_CONTROL)) {
+                    return;
+                }
                 Incident incident = incidentService.getIncidentById(id);
                 
                 if (incident != null) {
+                    if (etag != null) {
+                        HttpCaching.setCacheHeaders(response, etag, CACHE_CONTROL);
+                    }
                     out.print(gson.toJson(incident));
                     response.setStatus(HttpServletResponse.SC_OK);
                 } else {
@@ -75,43 +156,327 @@ public class IncidentServlet extends HttpServlet {
                     out.print(gson.toJson(Map.of("error", "Incident not found")));
                 }
             } else {
-                // Get all incidents with optional filters
-                List<Incident> incidents = incidentService.getAllIncidents();
+                // Get all incidents with optional filters, search and sorting.
+                // Without criteria this is served from the snapshot cache,
+                // otherwise the database filters, sorts and limits the rows.
+                // since is a change sequence for delta sync, or a date-time for a time window
+                String since = emptyToNull(request.getParameter("since"));
+                if (since != null && since.chars().allMatch(Character::isDigit)) {
+                    handleDelta(request, response, out, since);
+                    return;
+                }
                 
-                // Apply filters
-                String type = request.getParameter("type");
-                String severity = request.getParameter("severity");
-                String status = request.getParameter("status");
+                String etag = HttpCaching.etag(incidentService.getDataVersion(), HttpCaching.queryKey(request));
+                if (HttpCaching.checkNotModified(request, response, etag, CACHE_CONTROL)) {
+                    return;
+                }
                 
-                Map<String, String> filters = new HashMap<>();
-                if (type != null && !type.isEmpty()) filters.put("type", type);
-                if (severity != null && !severity.isEmpty()) filters.put("severity", severity);
-                if (status != null && !status.isEmpty()) filters.put("status", status);
+                IncidentQuery query = buildQuery(request);
                 
-                if (!filters.isEmpty()) {
-                    incidents = filterService.filterIncidents(incidents, filters);
-                }
+                // Positions to start delta sync and the stream from; read before the list so no change is missed.
+                // The change seq is the one the list reflects (the snapshot's, when served from it).
+                response.setHeader("X-Change-Seq", String.valueOf(incidentService.getChangeSeq(query)));
+                IncidentChangeFeed changeFeed = incidentService.getChangeFeed();
+                response.setHeader("X-Stream-Position", changeFeed.eventId(changeFeed.getLastSeq()));
+                response.setHeader("Access-Control-Expose-Headers", "X-Change-Seq, X-Stream-Position");
                 
-                // Apply search
-                String keyword = request.getParameter("keyword");
-                if (keyword != null && !keyword.isEmpty()) {
-                    incidents = searchService.searchIncidents(incidents, keyword);
+                if (query.getKeyword() != null) {
+                    searchService.recordSearch(query.getKeyword());
+                    // Later pages of the same search are not new searches
+                    if (query.getCursor() == null) {
+                        incidentService.recordSearch(query.getKeyword());
+                    }
                 }
                 
-                // Apply sorting
-                String sortBy = request.getParameter("sortBy");
-                String order = request.getParameter("order");
-                if (sortBy != null) {
-                    incidents = incidentService.sortIncidents(incidents, sortBy, order != null ? order : "desc");
+                if (query.isPaged()) {
+                    // Paginated: {"incidents": [...], "nextCursor": "..."}
+                    if (query.getCursor() != null && !query.isTimeOrdered()) {
+                        response.setStatus(HttpServletResponse.SC_BAD_REQUEST);
+                        out.print(gson.toJson(Map.of("error", "cursor is only supported when sorting by time")));
+                        return;
+                    }
+                    IncidentPage page = incidentService.findIncidentPage(query);
+                    HttpCaching.setCacheHeaders(response, etag, CACHE_CONTROL);
+                    response.setStatus(HttpServletResponse.SC_OK);
+                    gson.toJson(page, out);
+                } else {
+                    // Stream the array element by element instead of building one big String.
+                    // A failure part way leaves the array open (see sendError).
+                    HttpCaching.setCacheHeaders(response, etag, CACHE_CONTROL);
+                    response.setStatus(HttpServletResponse.SC_OK);
+                    JsonWriter writer = new JsonWriter(out);
+                    writer.beginArray();
+                    incidentService.streamIncidents(query,
+                        incident -> gson.toJson(incident, Incident.class, writer));
+                    writer.endArray();
+                    writer.flush();
                 }
-                
-                out.print(gson.toJson(incidents));
-                response.setStatus(HttpServletResponse.SC_OK);
             }
+        } catch (NumberFormatException e) {
+            sendError(response, out, HttpServletResponse.SC_BAD_REQUEST, "Invalid limit parameter", e);
+        } catch (IllegalArgumentException e) {
+            sendError(response, out, HttpServletResponse.SC_BAD_REQUEST, e.getMessage(), e);
         } catch (Exception e) {
+            sendError(response, out, HttpServletResponse.SC_INTERNAL_SERVER_ERROR, e.getMessage(), e);
+        }
+    }
+    
+    /**
+     * Answer a failed read with an error status and body. Once part of a
+     * streamed list has been sent neither can reach the client any more, so
+     * the request fails instead and the container aborts the connection:
+     * the client sees a broken response rather than a short, well-formed list.
+     */
+    private void sendError(HttpServletResponse response, PrintWriter out, int status, String message,
+                           Exception cause) throws ServletException {
+        if (response.isCommitted()) {
+            throw new ServletException("Response failed after it was committed", cause);
+        }
+        response.resetBuffer();
+        response.setStatus(status);
+        out.print(gson.toJson(Map.of("error", String.valueOf(message))));
+    }
+    
+    /**
+     * Search-box completions for the "q" prefix; cheap enough to call on every keystroke
+     */
+    private void handleSuggest(HttpServletRequest request, HttpServletResponse response, PrintWriter out) {
+        int limit = SuggestionIndex.MAX_SUGGESTIONS;
+        String limitParam = emptyToNull(request.getParameter("limit"));
+        if (limitParam != null) {
+            limit = Math.min(Integer.parseInt(limitParam), SuggestionIndex.MAX_SUGGESTIONS);
+        }
+        List<Suggestion> suggestions = incidentService.suggest(request.getParameter("q"), limit);
+        response.setStatus(HttpServletResponse.SC_OK);
+        out.print(gson.toJson(suggestions));
+    }
+    
+    /**
+     * Counts per type, severity, status and age bucket. The ETag also
+     * carries the current minute because age buckets move with the clock.
+     */
+    private void handleFacets(HttpServletRequest request, HttpServletResponse response, PrintWriter out) {
+        String etag = HttpCaching.etag(incidentService.getDataVersion(), "facets",
+            System.currentTimeMillis() / 60000);
+        if (HttpCaching.checkNotModified(request, response, etag, CACHE_CONTROL)) {
+            return;
+        }
+        IncidentFacets facets = incidentService.getFacets();
+        HttpCaching.setCacheHeaders(response, etag, CACHE_CONTROL);
+        response.setStatus(HttpServletResponse.SC_OK);
+        out.print(gson.toJson(facets));
+    }
+    
+    /**
+     * Delta sync: incidents created, updated or deleted after the "since"
+     * change sequence (from X-Change-Seq or the previous delta's seq)
+     */
+    private void handleDelta(HttpServletRequest request, HttpServletResponse response,
+                             PrintWriter out, String since) {
+        long sinceSeq;
+        int limit = IncidentQuery.MAX_LIMIT;
+        try {
+            sinceSeq = Long.parseLong(since);
+            String limitParam = emptyToNull(request.getParameter("limit"));
+            if (limitParam != null) {
+                limit = Math.max(1, Math.min(IncidentQuery.MAX_LIMIT, Integer.parseInt(limitParam)));
+            }
+        } catch (NumberFormatException e) {
+            response.setStatus(HttpServletResponse.SC_BAD_REQUEST);
+            out.print(gson.toJson(Map.of("error", "Invalid since or limit parameter")));
+            return;
+        }
+        if (sinceSeq < 0) {
+            response.setStatus(HttpServletResponse.SC_BAD_REQUEST);
+            out.print(gson.toJson(Map.of("error", "since must not be negative")));
+            return;
+        }
+        
+        IncidentDelta delta = incidentService.getChangesSince(sinceSeq, limit);
+        if (delta == null) {
             response.setStatus(HttpServletResponse.SC_INTERNAL_SERVER_ERROR);
-            out.print(gson.toJson(Map.of("error", e.getMessage())));
+            out.print(gson.toJson(Map.of("error", "Failed to load changes")));
+            return;
         }
+        response.setStatus(HttpServletResponse.SC_OK);
+        gson.toJson(delta, out);
+    }
+    
+    /**
+     * Open a Server-Sent Events stream of incident changes.
+     * The request goes async, so the connection is held without a request thread,
+     * and events are written without blocking (see SseWriter). Answers 503 once
+     * the feed has been shut down. Clients resume with the Last-Event-ID header (sent automatically by
+     * EventSource on reconnect) or a lastEventId parameter, e.g. the X-Stream-Position of a list
+     * response. IDs from before a restart get a resync.
+     */
+    private void handleStream(HttpServletRequest request, HttpServletResponse response) throws IOException {
+        String lastEventId = request.getHeader("Last-Event-ID");
+        if (lastEventId == null) {
+            lastEventId = request.getParameter("lastEventId");
+        }
+        IncidentChangeFeed changeFeed = incidentService.getChangeFeed();
+        Long lastSeq = null;
+        if (lastEventId != null && !lastEventId.trim().isEmpty()) {
+            lastSeq = changeFeed.parseEventId(lastEventId.trim());
+        }
+        
+        if (changeFeed.isShutdown()) {
+            response.setStatus(HttpServletResponse.SC_SERVICE_UNAVAILABLE);
+            response.setContentType("application/json");
+            response.setCharacterEncoding("UTF-8");
+            response.getWriter().print(gson.toJson(Map.of("error", "Incident stream is shutting down")));
+            return;
+        }
+        
+        response.setContentType("text/event-stream");
+        response.setCharacterEncoding("UTF-8");
+        response.setHeader("Cache-Control", "no-cache");
+        
+        AsyncContext async = request.startAsync();
+        async.setTimeout(0); // dead connections are detected by heartbeats instead
+        SseSubscriber subscriber = new SseSubscriber(new SseWriter(async), changeFeed);
+        subscriber.writer.send("retry: " + STREAM_RETRY_MS + "\n\n");
+        async.addListener(new AsyncListener() {
+            @Override
+            public void onComplete(AsyncEvent event) {
+                changeFeed.unsubscribe(subscriber);
+            }
+            
+            @Override
+            public void onTimeout(AsyncEvent event) {
+                subscriber.close();
+            }
+            
+            @Override
+            public void onError(AsyncEvent event) {
+                subscriber.close();
+            }
+            
+            @Override
+            public void onStartAsync(AsyncEvent event) {
+            }
+        });
+        if (!changeFeed.subscribe(subscriber, lastSeq)) {
+            // Shut down since the check above; the client retries after STREAM_RETRY_MS
+            subscriber.close();
+        }
+    }
+    
+    /**
+     * Writes incident changes to one SSE connection.
+     * Only the change feed's dispatcher thread writes, so events never interleave.
+     */
+    private class SseSubscriber implements IncidentChangeSubscriber {
+        private final SseWriter writer;
+        private final IncidentChangeFeed changeFeed;
+        
+        SseSubscriber(SseWriter writer, IncidentChangeFeed changeFeed) {
+            this.writer = writer;
+            this.changeFeed = changeFeed;
+        }
+        
+        @Override
+        public void onOpen(long seq, boolean resync) throws IOException {
+            if (resync) {
+                write("id: " + changeFeed.eventId(seq) + "\nevent: resync\ndata: {}\n\n");
+            } else {
+                // Sets the client's Last-Event-ID without dispatching an event
+                write("id: " + changeFeed.eventId(seq) + "\n\n");
+            }
+        }
+        
+        @Override
+        public void onChange(IncidentChange change) throws IOException {
+            Object data = change.getIncident() != null ? change.getIncident() : Map.of("id", change.getId());
+            write("id: " + changeFeed.eventId(change.getSeq()) + "\nevent: " + change.getType() + "\ndata: " + gson.toJson(data) + "\n\n");
+        }
+        
+        @Override
+        public void onHeartbeat() throws IOException {
+            write(": ping\n\n");
+        }
+        
+        @Override
+        public void close() {
+            writer.close();
+        }
+        
+        /**
+         * Queue the event without waiting for the client
+         * @throws IOException if the client is gone or too far behind
+         */
+        private void write(String event) throws IOException {
+            writer.send(event);
+        }
+    }
+    
+    /**
+     * Build list query criteria from request parameters
+     * @throws NumberFormatException if limit is not a number
+     * @throws IllegalArgumentException if cursor, bbox, time window or top is malformed
+     */
+    private IncidentQuery buildQuery(HttpServletRequest request) {
+        IncidentQuery query = new IncidentQuery();
+        query.setType(emptyToNull(request.getParameter("type")));
+        query.setSeverity(emptyToNull(request.getParameter("severity")));
+        query.setStatus(emptyToNull(request.getParameter("status")));
+        query.setKeyword(emptyToNull(request.getParameter("keyword")));
+        query.setSortBy(emptyToNull(request.getParameter("sortBy")));
+        query.setOrder(emptyToNull(request.getParameter("order")));
+        
+        String limit = emptyToNull(request.getParameter("limit"));
+        if (limit != null) {
+            query.setLimit(Integer.parseInt(limit));
+        }
+        
+        String cursor = emptyToNull(request.getParameter("cursor"));
+        if (cursor != null) {
+            query.setCursor(IncidentCursor.decode(cursor));
+        }
+        
+        String bbox = emptyToNull(request.getParameter("bbox"));
+        if (bbox != null) {
+            query.setBbox(BoundingBox.parse(bbox));
+        }
+        
+        // Time window: since (inclusive) and until (exclusive) as ISO local date-times
+        query.setSince(parseDateTime("since", emptyToNull(request.getParameter("since"))));
+        query.setUntil(parseDateTime("until", emptyToNull(request.getParameter("until"))));
+        if (query.getSince() != null && query.getUntil() != null && !query.getSince().isBefore(query.getUntil())) {
+            throw new IllegalArgumentException("since must be before until");
+        }
+        
+        // top=K: the K most severe incidents, newest first among equal severity
+        String top = emptyToNull(request.getParameter("top"));
+        if (top != null) {
+            if (limit != null || (query.getSortBy() != null && !"severity".equalsIgnoreCase(query.getSortBy()))) {
+                throw new IllegalArgumentException("top cannot be combined with limit or another sortBy");
+            }
+            try {
+                query.setLimit(Integer.parseInt(top));
+            } catch (NumberFormatException e) {
+                throw new IllegalArgumentException("Invalid top parameter");
+            }
+            query.setSortBy("severity");
+            query.setOrder("desc");
+        }
+        return query;
+    }
+    
+    private static LocalDateTime parseDateTime(String name, String value) {
+        if (value == null) {
+            return null;
+        }
+        try {
+            return LocalDateTime.parse(value, DateTimeFormatter.ISO_LOCAL_DATE_TIME);
+        } catch (DateTimeParseException e) {
+            throw new IllegalArgumentException("Invalid " + name + " parameter, expected a date-time like 2025-11-20T08:30:00");
+        }
+    }
+    
+    private static String emptyToNull(String value) {
+        return value == null || value.trim().isEmpty() ? null : value.trim();
     }
     
     @Override
@@ -127,6 +492,12 @@ public class IncidentServlet extends HttpServlet {
         PrintWriter out = response.getWriter();
         
         try {
+            // Batch ingestion: /api/incidents/batch
+            if ("/batch".equals(request.getPathInfo())) {
+                handleBatch(request, response, out);
+                return;
+            }
+            
             // Parse JSON request body
             StringBuilder json = new StringBuilder();
             String line;
@@ -159,6 +530,148 @@ public class IncidentServlet extends HttpServlet {
         }
     }
     
+    /**
+     * Create or update many incidents from a JSON array, or from NDJSON
+     * (one incident per line) when Content-Type is application/x-ndjson.
+     * Every item is validated; the valid ones are written in one transaction.
+     */
+    private void handleBatch(HttpServletRequest request, HttpServletResponse response,
+                             PrintWriter out) throws IOException {
+        List<BatchItem> items = new ArrayList<>();
+        String contentType = request.getContentType();
+        
+        try {
+            if (contentType != null && contentType.contains("ndjson")) {
+                readNdjson(request.getReader(), items);
+            } else {
+                readJsonArray(request.getReader(), items);
+            }
+        } catch (BatchTooLargeException e) {
+            response.setStatus(HttpServletResponse.SC_REQUEST_ENTITY_TOO_LARGE);
+            out.print(gson.toJson(Map.of("error", "Batch too large, maximum is " + MAX_BATCH_SIZE + " incidents")));
+            return;
+        } catch (JsonParseException | IOException | IllegalStateException e) {
+            response.setStatus(HttpServletResponse.SC_BAD_REQUEST);
+            out.print(gson.toJson(Map.of("error", "Malformed batch body: " + e.getMessage())));
+            return;
+        }
+        
+        // Validate every item; only valid ones are written
+        List<Incident> valid = new ArrayList<>();
+        for (BatchItem item : items) {
+            if (item.incident == null) {
+                continue;
+            }
+            ValidationService.ValidationResult validation = validationService.validateIncident(item.incident);
+            if (validation.isValid()) {
+                valid.add(item.incident);
+            } else {
+                item.errors = validation.getErrors();
+            }
+        }
+        
+        boolean saved = incidentService.saveIncidents(valid);
+        
+        // Per-item results, in request order
+        List<Map<String, Object>> results = new ArrayList<>();
+        int savedCount = 0;
+        int invalidCount = 0;
+        for (int i = 0; i < items.size(); i++) {
+            BatchItem item = items.get(i);
+            Map<String, Object> result = new LinkedHashMap<>();
+            result.put("index", i);
+            if (item.errors != null) {
+                result.put("status", "invalid");
+                result.put("errors", item.errors);
+                invalidCount++;
+            } else if (saved) {
+                result.put("status", "saved");
+                result.put("id", item.incident.getId());
+                savedCount++;
+            } else {
+                result.put("status", "failed");
+            }
+            results.add(result);
+        }
+        
+        Map<String, Object> body = new LinkedHashMap<>();
+        body.put("total", items.size());
+        body.put("saved", savedCount);
+        body.put("invalid", invalidCount);
+        body.put("failed", items.size() - savedCount - invalidCount);
+        body.put("results", results);
+        
+        response.setStatus(saved ? HttpServletResponse.SC_OK : HttpServletResponse.SC_INTERNAL_SERVER_ERROR);
+        out.print(gson.toJson(body));
+    }
+    
+    /**
+     * Stream a JSON array element by element
+     */
+    private void readJsonArray(BufferedReader reader, List<BatchItem> items) throws IOException {
+        JsonReader json = new JsonReader(reader);
+        json.beginArray();
+        while (json.hasNext()) {
+            if (items.size() >= MAX_BATCH_SIZE) {
+                throw new BatchTooLargeException();
+            }
+            items.add(parseBatchItem(JsonParser.parseReader(json)));
+        }
+        json.endArray();
+    }
+    
+    /**
+     * Read one incident per line, skipping blank lines
+     */
+    private void readNdjson(BufferedReader reader, List<BatchItem> items) throws IOException {
+        String line;
+        while ((line = reader.readLine()) != null) {
+            if (line.trim().isEmpty()) {
+                continue;
+            }
+            if (items.size() >= MAX_BATCH_SIZE) {
+                throw new BatchTooLargeException();
+            }
+            try {
+                items.add(parseBatchItem(JsonParser.parseString(line)));
+            } catch (JsonParseException e) {
+                items.add(BatchItem.invalid("Malformed JSON line"));
+            }
+        }
+    }
+    
+    private BatchItem parseBatchItem(JsonElement element) {
+        if (element == null || !element.isJsonObject()) {
+            return BatchItem.invalid("Item must be a JSON object");
+        }
+        try {
+            return new BatchItem(gson.fromJson(element, Incident.class));
+        } catch (JsonParseException e) {
+            return BatchItem.invalid("Malformed incident: " + e.getMessage());
+        }
+    }
+    
+    /**
+     * One parsed batch item: either an incident or the reasons it was rejected
+     */
+    private static class BatchItem {
+        Incident incident;
+        List<String> errors;
+        
+        BatchItem(Incident incident) {
+            this.incident = incident;
+        }
+        
+        static BatchItem invalid(String error) {
+            BatchItem item = new BatchItem(null);
+            item.errors = List.of(error);
+            return item;
+        }
+    }
+    
+    private static class BatchTooLargeException extends RuntimeException {
+    }
+    
     @Override
     protected void doPut(HttpServletRequest request, HttpServletResponse response) 
             throws ServletException, IOException {
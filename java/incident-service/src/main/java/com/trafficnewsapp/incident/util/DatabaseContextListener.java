@@ -0,0 +1,38 @@
+package com.trafficnewsapp.incident.util;
+
+import javax.servlet.ServletContext;
+import javax.servlet.ServletContextEvent;
+import javax.servlet.ServletContextListener;
+import java.util.Enumeration;
+import java.util.Properties;
+
+/**
+ * DatabaseContextListener
+ * Ties the connection pool lifecycle to the web application
+ */
+public class DatabaseContextListener implements ServletContextListener {
+    
+    @Override
+    public void contextInitialized(ServletContextEvent event) {
+        ServletContext context = event.getServletContext();
+        
+        // Collect db.pool.* context-params from web.xml
+        Properties settings = new Properties();
+        Enumeration<String> names = context.getInitParameterNames();
+        while (names.hasMoreElements()) {
+            String name = names.nextElement();
+            if (name.startsWith("db.pool.")) {
+                settings.setProperty(name, context.getInitParameter(name));
+            }
+        }
+        
+        DatabaseConnection.initPool(settings);
+        context.log("Database pool started: " + DatabaseConnection.getPoolStats());
+    }
+    
+    @Override
+    public void contextDestroyed(ServletContextEvent event) {
+        event.getServletContext().log("Database pool stopping: " + DatabaseConnection.getPoolStats());
+        DatabaseConnection.shutdownPool();
+    }
+}
@@ -0,0 +1,95 @@
+package com.trafficnewsapp.incident.util;
+
+import javax.servlet.http.HttpServletRequest;
+import javax.servlet.http.HttpServletResponse;
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.Base64;
+
+/**
+ * HttpCaching
+ * ETag and conditional GET helpers. ETags are built from version counters
+ * and request keys, never by hashing a serialized body, so a 304 can be
+ * answered before any data is loaded.
+ */
+public final class HttpCaching {
+    
+    // Distinguishes versions from before and after a restart
+    private static final String EPOCH = Long.toString(System.currentTimeMillis(), 36);
+    
+    private HttpCaching() {
+    }
+    
+    /**
+     * Build a strong ETag
+     * @param parts Version counter and request key
+     * @return Quoted ETag value
+     */
+    public static String etag(Object... parts) {
+        StringBuilder tag = new StringBuilder("\"").append(EPOCH);
+        for (Object part : parts) {
+            tag.append('-').append(part);
+        }
+        return tag.append('"').toString();
+    }
+    
+    /**
+     * Stable key for a query string
+     */
+    public static String queryKey(HttpServletRequest request) {
+        String query = request.getQueryString();
+        return query == null ? "all" : key(query);
+    }
+    
+    /**
+     * Stable key for a request value (query, ID). A SHA-256 digest, so two
+     * different values cannot share an ETag and get a false 304.
+     */
+    public static String key(String value) {
+        try {
+            byte[] digest = MessageDigest.getInstance("SHA-256").digest(value.getBytes(StandardCharsets.UTF_8));
+            return Base64.getUrlEncoder().withoutPadding().encodeToString(digest);
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 not available", e);
+        }
+    }
+    
+    /**
+     * Answer 304 Not Modified if the client's copy is current
+     * @return true if the 304 was sent and no body should be written
+     */
+    public static boolean checkNotModified(HttpServletRequest request, HttpServletResponse response,
+                                           String etag, String cacheControl) {
+        if (matches(request.getHeader("If-None-Match"), etag)) {
+            setCacheHeaders(response, etag, cacheControl);
+            response.setStatus(HttpServletResponse.SC_NOT_MODIFIED);
+            return true;
+        }
+        return false;
+    }
+    
+    /**
+     * Mark a successful response as cacheable (call before writing the body)
+     */
+    public static void setCacheHeaders(HttpServletResponse response, String etag, String cacheControl) {
+        response.setHeader("ETag", etag);
+        response.setHeader("Cache-Control", cacheControl);
+    }
+    
+    private static boolean matches(String ifNoneMatch, String etag) {
+        if (ifNoneMatch == null) {
+            return false;
+        }
+        for (String candidate : ifNoneMatch.split(",")) {
+            String tag = candidate.trim();
+            if (tag.startsWith("W/")) {
+                tag = tag.substring(2); // weak comparison is allowed for If-None-Match
+            }
+            if (tag.equals("*") || tag.equals(etag)) {
+                return true;
+            }
+        }
+        return false;
+    }
+}
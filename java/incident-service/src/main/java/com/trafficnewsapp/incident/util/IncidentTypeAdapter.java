@@ -0,0 +1,145 @@
+package com.trafficnewsapp.incident.util;
+
+import com.google.gson.JsonSyntaxException;
+import com.google.gson.TypeAdapter;
+import com.google.gson.stream.JsonReader;
+import com.google.gson.stream.JsonToken;
+import com.google.gson.stream.JsonWriter;
+import com.trafficnewsapp.incident.models.Incident;
+
+import java.io.IOException;
+import java.time.LocalDateTime;
+import java.time.format.DateTimeFormatter;
+import java.time.format.DateTimeParseException;
+
+/**
+ * IncidentTypeAdapter
+ * JSON form of an Incident. Incident stores its fields in an encoded form,
+ * so it is written and read through its getters and setters instead of by
+ * field reflection. The JSON is the same as before: nulls are omitted and
+ * the timestamp is an ISO local date-time.
+ */
+public class IncidentTypeAdapter extends TypeAdapter<Incident> {
+    
+    @Override
+    public void write(JsonWriter out, Incident incident) throws IOException {
+        if (incident == null) {
+            out.nullValue();
+            return;
+        }
+        out.beginObject();
+        writeString(out, "id", incident.getId());
+        writeString(out, "type", incident.getType());
+        writeString(out, "severity", incident.getSeverity());
+        writeString(out, "location", incident.getLocation());
+        if (incident.getLatitude() != null) {
+            out.name("latitude").value(incident.getLatitude());
+        }
+        if (incident.getLongitude() != null) {
+            out.name("longitude").value(incident.getLongitude());
+        }
+        writeString(out, "description", incident.getDescription());
+        LocalDateTime timestamp = incident.getTimestamp();
+        if (timestamp != null) {
+            out.name("timestamp").value(timestamp.format(DateTimeFormatter.ISO_LOCAL_DATE_TIME));
+        }
+        writeString(out, "reporterId", incident.getReporterId());
+        writeString(out, "status", incident.getStatus());
+        writeString(out, "submissionId", incident.getSubmissionId());
+        out.endObject();
+    }
+    
+    /**
+     * Fields missing from the JSON keep the defaults of new Incident()
+     * (current time, pending); explicit nulls clear them.
+     */
+    @Override
+    public Incident read(JsonReader in) throws IOException {
+        if (in.peek() == JsonToken.NULL) {
+            in.nextNull();
+            return null;
+        }
+        Incident incident = new Incident();
+        in.beginObject();
+        while (in.hasNext()) {
+            String name = in.nextName();
+            switch (name) {
+                case "id":
+                    incident.setId(readString(in));
+                    break;
+                case "type":
+                    incident.setType(readString(in));
+                    break;
+                case "severity":
+                    incident.setSeverity(readString(in));
+                    break;
+                case "location":
+                    incident.setLocation(readString(in));
+                    break;
+                case "latitude":
+                    incident.setLatitude(readDouble(in));
+                    break;
+                case "longitude":
+                    incident.setLongitude(readDouble(in));
+                    break;
+                case "description":
+                    incident.setDescription(readString(in));
+                    break;
+                case "timestamp":
+                    incident.setTimestamp(readTimestamp(in));
+                    break;
+                case "reporterId":
+                    incident.setReporterId(readString(in));
+                    break;
+                case "status":
+                    incident.setStatus(readString(in));
+                    break;
+                case "submissionId":
+                    incident.setSubmissionId(readString(in));
+                    break;
+                default:
+                    in.skipValue();
+            }
+        }
+        in.endObject();
+        return incident;
+    }
+    
+    private static void writeString(JsonWriter out, String name, String value) throws IOException {
+        if (value != null) {
+            out.name(name).value(value);
+        }
+    }
+    
+    private static String readString(JsonReader in) throws IOException {
+        if (in.peek() == JsonToken.NULL) {
+            in.nextNull();
+            return null;
+        }
+        return in.nextString();
+    }
+    
+    private static Double readDouble(JsonReader in) throws IOException {
+        if (in.peek() == JsonToken.NULL) {
+            in.nextNull();
+            return null;
+        }
+        try {
+            return in.nextDouble();
+        } catch (NumberFormatException e) {
+            throw new JsonSyntaxException("Invalid coordinate", e);
+        }
+    }
+    
+    private static LocalDateTime readTimestamp(JsonReader in) throws IOException {
+        String value = readString(in);
+        if (value == null) {
+            return null;
+        }
+        try {
+            return LocalDateTime.parse(value, DateTimeFormatter.ISO_LOCAL_DATE_TIME);
+        } catch (DateTimeParseException e) {
+            throw new JsonSyntaxException("Invalid timestamp: " + value, e);
+        }
+    }
+}
@@ -1,18 +1,27 @@
 package com.trafficnewsapp.incident.dao;
 
 import com.trafficnewsapp.incident.models.Incident;
+import com.trafficnewsapp.incident.models.IncidentChange;
+import com.trafficnewsapp.incident.models.IncidentDelta;
+import com.trafficnewsapp.incident.util.DatabaseConnection;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.DisplayName;
 
+import java.sql.Connection;
+import java.sql.PreparedStatement;
 import java.time.LocalDateTime;
 import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
 
 import static org.junit.jupiter.api.Assertions.*;
 
 /**
  * Unit tests for IncidentDAO
- * Tests at least 3 methods: findAll, save, delete
+ * Tests at least 3 methods: findAll, save, delete, plus the change log
  */
 @DisplayName("IncidentDAO Tests")
 public class IncidentDAOTest {
@@ -82,15 +91,94 @@ public class IncidentDAOTest {
         assertNotNull(beforeDelete, "Incident should exist before deletion");
         
         // Execute
-        boolean deleted = incidentDAO.deleteIncident(incidentId);
+        long deleted = incidentDAO.deleteIncident(incidentId);
         
         // Verify
-        assertTrue(deleted, "Incident should be deleted successfully");
+        assertTrue(deleted > 0, "Incident should be deleted successfully");
         
         // Verify it no longer exists
         Incident afterDelete = incidentDAO.getIncidentById(incidentId);
         assertNull(afterDelete, "Incident should not exist after deletion");
     }
+    
+    @Test
+    @DisplayName("Test getChangesSince - delete should be returned as a tombstone")
+    void testGetChangesSince() {
+        // Setup
+        long since = incidentDAO.getLatestChangeSeq();
+        Incident incident = new Incident();
+        incident.setId(Incident.generateId());
+        incident.setType("hazard");
+        incident.setSeverity("low");
+        incident.setLocation("Test Location for Delta");
+        incident.setTimestamp(LocalDateTime.now());
+        incident.setStatus("pending");
+        
+        incidentDAO.saveIncident(incident);
+        incidentDAO.deleteIncident(incident.getId());
+        
+        // Execute
+        IncidentDelta delta = incidentDAO.getChangesSince(since, 100);
+        
+        // Verify
+        assertNotNull(delta, "Delta should be returned");
+        IncidentChange change = delta.getChanges().stream()
+            .filter(c -> incident.getId().equals(c.getId()))
+            .findFirst().orElse(null);
+        assertNotNull(change, "Changed incident should be in the delta");
+        assertEquals(IncidentChange.DELETE, change.getType(), "Only the latest change (the delete) should be returned");
+        assertNull(change.getIncident(), "Tombstone should not carry the incident");
+        assertTrue(delta.getSeq() >= change.getSeq(), "Next position should be past the change");
+    }
+    
+    @Test
+    @DisplayName("Test getChangesSince - a later change should not commit before an earlier one")
+    void testGetChangesSince_CommitOrder() throws Exception {
+        // Setup - an open transaction holding the next seq, like a slow writer
+        long since = incidentDAO.getLatestChangeSeq();
+        Incident incident = new Incident();
+        incident.setId(Incident.generateId());
+        incident.setType("hazard");
+        incident.setSeverity("low");
+        incident.setLocation("Test Location for Commit Order");
+        incident.setTimestamp(LocalDateTime.now());
+        incident.setStatus("pending");
+        String slowId = Incident.generateId();
+        ExecutorService executor = Executors.newSingleThreadExecutor();
+        
+        try (Connection conn = DatabaseConnection.getConnection()) {
+            conn.setAutoCommit(false);
+            long slowSeq = IncidentDAO.reserveChangeSeqs(conn, 1);
+            
+            // Execute - a second writer tries to commit while the first is open
+            Future<Boolean> fast = executor.submit(() -> incidentDAO.saveIncident(incident));
+            Thread.sleep(500);
+            IncidentDelta during = incidentDAO.getChangesSince(since, 100);
+            
+            try (PreparedStatement pstmt = conn.prepareStatement(
+                    "INSERT INTO incident_changes (seq, incident_id, change_type) VALUES (?, ?, 'delete')")) {
+                pstmt.setLong(1, slowSeq);
+                pstmt.setString(2, slowId);
+                pstmt.executeUpdate();
+            }
+            conn.commit();
+            conn.setAutoCommit(true);
+            
+            // Verify
+            assertFalse(during.getChanges().stream().anyMatch(c -> incident.getId().equals(c.getId())),
+                "Later change should not be visible while an earlier seq is uncommitted");
+            assertTrue(fast.get(5, TimeUnit.SECONDS), "Second writer should commit after the first");
+            List<IncidentChange> changes = incidentDAO.getChangesSince(since, 100).getChanges();
+            long fastSeq = changes.stream().filter(c -> incident.getId().equals(c.getId()))
+                .findFirst().orElseThrow().getSeq();
+            assertTrue(slowSeq < fastSeq, "Changes should commit in seq order");
+            assertTrue(changes.stream().anyMatch(c -> slowId.equals(c.getId())),
+                "A cursor past the later change must not have skipped the earlier one");
+        } finally {
+            executor.shutdownNow();
+            incidentDAO.deleteIncident(incident.getId());
+        }
+    }
 }
 
 
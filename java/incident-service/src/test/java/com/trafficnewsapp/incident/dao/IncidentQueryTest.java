@@ -0,0 +1,169 @@
+package com.trafficnewsapp.incident.dao;
+
+import com.trafficnewsapp.incident.models.BoundingBox;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.DisplayName;
+
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Unit tests for IncidentQuery
+ * Tests SQL generation for filters, keyword search, sorting and limits
+ */
+@DisplayName("IncidentQuery Tests")
+public class IncidentQueryTest {
+    
+    @Test
+    @DisplayName("Test toSql - no criteria should select newest first")
+    void testToSql_NoCriteria() {
+        IncidentQuery query = new IncidentQuery();
+        List<Object> params = new ArrayList<>();
+        
+        // Execute
+        String sql = query.toSql(params);
+        
+        // Verify
+        assertTrue(query.isEmpty(), "Query without criteria should be empty");
+        assertEquals("SELECT * FROM incidents ORDER BY timestamp DESC, id DESC", sql);
+        assertTrue(params.isEmpty(), "Should have no parameters");
+    }
+    
+    @Test
+    @DisplayName("Test toSql - filters should be bound as parameters")
+    void testToSql_Filters() {
+        IncidentQuery query = new IncidentQuery();
+        query.setType("accident");
+        query.setStatus("confirmed");
+        List<Object> params = new ArrayList<>();
+        
+        // Execute
+        String sql = query.toSql(params);
+        
+        // Verify
+        assertEquals("SELECT * FROM incidents WHERE type = ? AND status = ? "
+            + "ORDER BY timestamp DESC, id DESC", sql);
+        assertEquals(2, params.size(), "Should bind 2 parameters");
+        assertEquals("accident", params.get(0));
+    }
+    
+    @Test
+    @DisplayName("Test toSql - keyword queries should never be matched in SQL")
+    void testToSql_Keyword() {
+        IncidentQuery query = new IncidentQuery();
+        query.setKeyword("highway");
+        query.setLimit(10);
+        
+        // Execute & Verify
+        assertTrue(query.isKeywordSearch(), "Query with a keyword is a keyword search");
+        assertThrows(IllegalStateException.class, () -> query.toSql(new ArrayList<>()),
+            "Keyword matching belongs to the search index only");
+    }
+    
+    @Test
+    @DisplayName("Test toSql - comma-separated filter values should become IN lists")
+    void testToSql_MultiValueFilter() {
+        IncidentQuery query = new IncidentQuery();
+        query.setSeverity("high, critical,high");
+        List<Object> params = new ArrayList<>();
+        
+        // Execute
+        String sql = query.toSql(params);
+        
+        // Verify
+        assertTrue(query.isFilterOnly(), "Query with only filters can use the bitmap index");
+        assertEquals("SELECT * FROM incidents WHERE severity IN (?, ?) ORDER BY timestamp DESC, id DESC", sql);
+        assertEquals(List.of("high", "critical"), params, "Duplicate values should be dropped");
+    }
+    
+    @Test
+    @DisplayName("Test toSql - severity sort and limit")
+    void testToSql_SortAndLimit() {
+        IncidentQuery query = new IncidentQuery();
+        query.setSortBy("severity");
+        query.setOrder("asc");
+        query.setLimit(5000);
+        List<Object> params = new ArrayList<>();
+        
+        // Execute
+        String sql = query.toSql(params);
+        
+        // Verify
+        assertTrue(sql.contains("ORDER BY FIELD(severity, 'low', 'medium', 'high', 'critical') ASC"),
+            "Should sort by severity rank");
+        assertTrue(sql.endsWith("LIMIT ?"), "Should end with a LIMIT");
+        assertEquals(IncidentQuery.MAX_LIMIT, params.get(0), "Limit should be capped");
+    }
+    
+    @Test
+    @DisplayName("Test toSql - time window with filters, severity sort and limit")
+    void testToSql_TimeWindow() {
+        LocalDateTime since = LocalDateTime.of(2025, 11, 20, 7, 0, 0);
+        LocalDateTime until = LocalDateTime.of(2025, 11, 20, 8, 0, 0);
+        IncidentQuery query = new IncidentQuery();
+        query.setSeverity("critical");
+        query.setSince(since);
+        query.setUntil(until);
+        query.setSortBy("severity");
+        query.setLimit(20);
+        List<Object> params = new ArrayList<>();
+        
+        // Execute
+        String sql = query.toSql(params);
+        
+        // Verify
+        assertTrue(query.isFilterOnly(), "Filters with a window, sort and limit can use the bitmap index");
+        assertFalse(query.isEmpty(), "A time window is a criterion");
+        assertEquals("SELECT * FROM incidents WHERE severity = ? AND timestamp >= ? AND timestamp < ? "
+            + "ORDER BY FIELD(severity, 'low', 'medium', 'high', 'critical') DESC, timestamp DESC, id DESC LIMIT ?", sql);
+        assertEquals(List.of("critical", Timestamp.valueOf(since), Timestamp.valueOf(until), 20), params);
+    }
+    
+    @Test
+    @DisplayName("Test toSql - cursor should seek past the last (timestamp, id)")
+    void testToSql_Cursor() {
+        LocalDateTime lastTimestamp = LocalDateTime.of(2025, 11, 20, 8, 30, 0);
+        String encoded = new IncidentCursor(lastTimestamp, "inc_7").encode();
+        
+        IncidentQuery query = new IncidentQuery();
+        query.setCursor(IncidentCursor.decode(encoded));
+        List<Object> params = new ArrayList<>();
+        
+        // Execute
+        String sql = query.toSql(params, query.getPageSize() + 1);
+        
+        // Verify
+        assertEquals("SELECT * FROM incidents WHERE (timestamp < ? OR (timestamp = ? AND id < ?)) "
+            + "ORDER BY timestamp DESC, id DESC LIMIT ?", sql);
+        assertEquals(Timestamp.valueOf(lastTimestamp), params.get(0), "Cursor timestamp should round-trip");
+        assertEquals("inc_7", params.get(2), "Cursor id should round-trip");
+        assertEquals(IncidentQuery.DEFAULT_PAGE_SIZE + 1, params.get(3), "Should fetch one extra row");
+    }
+    
+    @Test
+    @DisplayName("Test toSql - bbox should become coordinate range predicates")
+    void testToSql_BoundingBox() {
+        IncidentQuery query = new IncidentQuery();
+        query.setBbox(new BoundingBox(43.64, -79.41, 43.66, -79.37));
+        List<Object> params = new ArrayList<>();
+        
+        // Execute
+        String sql = query.toSql(params);
+        
+        // Verify
+        assertTrue(query.isBoundingBoxOnly(), "Query with only a bbox can use the spatial index");
+        assertEquals("SELECT * FROM incidents WHERE latitude BETWEEN ? AND ? AND longitude BETWEEN ? AND ? "
+            + "ORDER BY timestamp DESC, id DESC", sql);
+        assertEquals(List.of(43.64, 43.66, -79.41, -79.37), params);
+    }
+    
+    @Test
+    @DisplayName("Test decode - malformed cursor should be rejected")
+    void testDecode_Malformed() {
+        assertThrows(IllegalArgumentException.class, () -> IncidentCursor.decode("not a cursor"));
+    }
+}
@@ -0,0 +1,93 @@
+package com.trafficnewsapp.incident.services;
+
+import com.trafficnewsapp.incident.models.Incident;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.DisplayName;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Unit tests for BitmapFilterIndex
+ * Tests multi-value filters, counting and incremental updates
+ */
+@DisplayName("BitmapFilterIndex Tests")
+public class BitmapFilterIndexTest {
+    private BitmapFilterIndex filterIndex;
+    
+    @BeforeEach
+    void setUp() {
+        List<Incident> incidents = new ArrayList<>();
+        incidents.add(createIncident("inc_1", "accident", "high", "confirmed", 10));
+        incidents.add(createIncident("inc_2", "construction", "medium", "pending", 20));
+        incidents.add(createIncident("inc_3", "accident", "critical", "pending", 5));
+        incidents.add(createIncident("inc_4", "closure", "low", "confirmed", 30));
+        
+        filterIndex = new BitmapFilterIndex();
+        filterIndex.onReload(incidents);
+    }
+    
+    @Test
+    @DisplayName("Test filter - values of a field are ORed, fields are ANDed")
+    void testFilter_MultiValue() {
+        // Execute
+        List<Incident> severe = filterIndex.filter(Map.of("severity", List.of("high", "CRITICAL")));
+        List<Incident> severePending = filterIndex.filter(Map.of(
+            "severity", List.of("high", "critical"), "status", List.of("pending")));
+        
+        // Verify
+        assertEquals(2, severe.size(), "Should match high or critical, ignoring case");
+        assertEquals("inc_3", severe.get(0).getId(), "Newest match should be first");
+        assertEquals(1, severePending.size(), "Should match both fields");
+        assertEquals("inc_3", severePending.get(0).getId());
+        assertTrue(filterIndex.filter(Map.of("type", List.of("hazard"))).isEmpty(), "Unknown value should match nothing");
+    }
+    
+    @Test
+    @DisplayName("Test count and countByValue - should count without listing incidents")
+    void testCounts() {
+        // Execute
+        int accidents = filterIndex.count(Map.of("type", List.of("accident")));
+        Map<String, Integer> byStatus = filterIndex.countByValue("status");
+        
+        // Verify
+        assertEquals(2, accidents, "Should count 2 accidents");
+        assertEquals(2, byStatus.get("confirmed"));
+        assertEquals(2, byStatus.get("pending"));
+        assertThrows(IllegalArgumentException.class, () -> filterIndex.countByValue("location"));
+    }
+    
+    @Test
+    @DisplayName("Test onPut and onRemove - bitmaps should follow updates and deletes")
+    void testIncrementalUpdates() {
+        // Execute - confirm inc_2, delete inc_1, then add a new incident into the freed ordinal
+        filterIndex.onPut(Collections.singletonList(createIncident("inc_2", "construction", "medium", "confirmed", 20)));
+        filterIndex.onRemove("inc_1");
+        filterIndex.onPut(Collections.singletonList(createIncident("inc_5", "hazard", "high", "pending", 1)));
+        
+        // Verify
+        List<Incident> confirmed = filterIndex.filter(Map.of("status", List.of("confirmed")));
+        assertEquals(2, confirmed.size(), "Should have inc_2 and inc_4 confirmed");
+        assertEquals("inc_2", confirmed.get(0).getId());
+        List<Incident> high = filterIndex.filter(Map.of("severity", List.of("high")));
+        assertEquals(1, high.size(), "Deleted incident should not match");
+        assertEquals("inc_5", high.get(0).getId(), "New incident should match");
+        assertEquals(4, filterIndex.size());
+    }
+    
+    private Incident createIncident(String id, String type, String severity, String status, int minutesAgo) {
+        Incident incident = new Incident();
+        incident.setId(id);
+        incident.setType(type);
+        incident.setSeverity(severity);
+        incident.setStatus(status);
+        incident.setTimestamp(LocalDateTime.now().minusMinutes(minutesAgo));
+        return incident;
+    }
+}
@@ -97,6 +97,37 @@ public class FilterServiceTest {
             "All should be confirmed accidents");
     }
     
+    @Test
+    @DisplayName("Test applyFilters - comma-separated values and no shared state")
+    void testApplyFilters_MultiValue() {
+        // Setup
+        Map<String, String> filters = new HashMap<>();
+        filters.put("severity", "high,low");
+        
+        // Execute
+        List<Incident> filtered = filterService.filterIncidents(testIncidents, filters);
+        
+        // Verify
+        assertEquals(2, filtered.size(), "Should return high and low severity incidents");
+        assertTrue(filterService.getActiveFilters().isEmpty(), "Request filters should not leak into active filters");
+        assertEquals(3, filterService.applyFilters(testIncidents).size(), "Active filters should still be empty");
+    }
+    
+    @Test
+    @DisplayName("Test applyFilters - should match values like the bitmap index does")
+    void testApplyFilters_CaseInsensitive() {
+        // Setup
+        Map<String, String> filters = new HashMap<>();
+        filters.put("type", " Accident ");
+        filters.put("status", "CONFIRMED");
+        
+        // Execute
+        List<Incident> filtered = filterService.filterIncidents(testIncidents, filters);
+        
+        // Verify
+        assertEquals(2, filtered.size(), "Filter values should match regardless of case and padding");
+    }
+    
     @Test
     @DisplayName("Test clearFilters - should clear all active filters")
     void testClearFilters() {
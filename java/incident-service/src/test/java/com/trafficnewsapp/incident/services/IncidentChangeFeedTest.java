@@ -0,0 +1,154 @@
+package com.trafficnewsapp.incident.services;
+
+import com.trafficnewsapp.incident.models.Incident;
+import com.trafficnewsapp.incident.models.IncidentChange;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.DisplayName;
+
+import java.io.IOException;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Unit tests for IncidentChangeFeed
+ * Tests the ring buffer, live delivery and Last-Event-ID resume
+ */
+@DisplayName("IncidentChangeFeed Tests")
+public class IncidentChangeFeedTest {
+    private IncidentChangeFeed feed;
+    
+    @BeforeEach
+    void setUp() {
+        feed = new IncidentChangeFeed(3);
+    }
+    
+    @AfterEach
+    void tearDown() {
+        feed.shutdown();
+    }
+    
+    @Test
+    @DisplayName("Test getChangesSince - should return buffered changes and detect evicted ones")
+    void testGetChangesSince() {
+        // Execute - 4 changes into a buffer of 3
+        feed.publishUpsert(createIncident("inc_1"));
+        feed.publishUpsert(createIncident("inc_2"));
+        feed.publishDelete("inc_1");
+        feed.publishUpsert(createIncident("inc_3"));
+        
+        // Verify
+        List<IncidentChange> changes = feed.getChangesSince(2);
+        assertEquals(2, changes.size(), "Should return changes 3 and 4");
+        assertEquals(IncidentChange.DELETE, changes.get(0).getType());
+        assertEquals("inc_1", changes.get(0).getId());
+        assertNull(feed.getChangesSince(0), "Change 1 was evicted, so resuming from 0 is impossible");
+    }
+    
+    @Test
+    @DisplayName("Test subscribe - should replay missed changes before live ones")
+    void testSubscribe_Resume() throws InterruptedException {
+        feed.publishUpsert(createIncident("inc_1"));
+        feed.publishUpsert(createIncident("inc_2"));
+        RecordingSubscriber subscriber = new RecordingSubscriber(2);
+        
+        // Execute - resume after change 1, then publish a live change
+        feed.subscribe(subscriber, 1L);
+        feed.publishDelete("inc_2");
+        
+        // Verify
+        assertTrue(subscriber.latch.await(5, TimeUnit.SECONDS), "Should receive 2 changes");
+        assertEquals(1, subscriber.openedAt, "Should be positioned at the resume point");
+        assertFalse(subscriber.resync, "Resume point is still buffered");
+        assertEquals(2, subscriber.changes.get(0).getSeq(), "Missed change should come first");
+        assertEquals(3, subscriber.changes.get(1).getSeq(), "Live change should follow");
+    }
+    
+    @Test
+    @DisplayName("Test subscribe - unknown resume point should ask the client to resync")
+    void testSubscribe_Resync() throws InterruptedException {
+        feed.publishUpsert(createIncident("inc_1"));
+        RecordingSubscriber subscriber = new RecordingSubscriber(0);
+        
+        // Execute - id from before a restart
+        feed.subscribe(subscriber, 42L);
+        
+        // Verify
+        assertTrue(subscriber.opened.await(5, TimeUnit.SECONDS), "Should be opened");
+        assertTrue(subscriber.resync, "Client should be told to reload");
+        assertEquals(1, subscriber.openedAt, "Should be positioned at the latest change");
+    }
+    
+    @Test
+    @DisplayName("Test parseEventId - IDs from another run should force a resync")
+    void testParseEventId() {
+        // Setup
+        feed.publishUpsert(createIncident("inc_1"));
+        String id = feed.eventId(1);
+        String epoch = id.substring(0, id.indexOf(':'));
+        
+        // Verify
+        assertEquals(1, feed.parseEventId(id), "Own IDs should round-trip");
+        assertEquals(-1, feed.parseEventId("0" + epoch + ":1"), "Same seq from an earlier run should not resume");
+        assertEquals(-1, feed.parseEventId("1"), "IDs without an epoch are from before epochs were added");
+        assertEquals(-1, feed.parseEventId(epoch + ":x"));
+    }
+    
+    @Test
+    @DisplayName("Test subscribe - should refuse subscribers after shutdown")
+    void testSubscribe_AfterShutdown() {
+        // Execute
+        feed.shutdown();
+        
+        // Verify
+        assertTrue(feed.isShutdown(), "Feed should report that it is shut down");
+        assertFalse(feed.subscribe(new RecordingSubscriber(0), null), "Subscribe should be refused");
+    }
+    
+    private Incident createIncident(String id) {
+        Incident incident = new Incident();
+        incident.setId(id);
+        incident.setType("accident");
+        incident.setSeverity("high");
+        incident.setLocation("Test Location");
+        return incident;
+    }
+    
+    private static class RecordingSubscriber implements IncidentChangeSubscriber {
+        final List<IncidentChange> changes = new CopyOnWriteArrayList<>();
+        final CountDownLatch opened = new CountDownLatch(1);
+        final CountDownLatch latch;
+        volatile long openedAt = -1;
+        volatile boolean resync;
+        
+        RecordingSubscriber(int expectedChanges) {
+            this.latch = new CountDownLatch(expectedChanges);
+        }
+        
+        @Override
+        public void onOpen(long seq, boolean resync) {
+            this.openedAt = seq;
+            this.resync = resync;
+            opened.countDown();
+        }
+        
+        @Override
+        public void onChange(IncidentChange change) {
+            changes.add(change);
+            latch.countDown();
+        }
+        
+        @Override
+        public void onHeartbeat() throws IOException {
+        }
+        
+        @Override
+        public void close() {
+        }
+    }
+}
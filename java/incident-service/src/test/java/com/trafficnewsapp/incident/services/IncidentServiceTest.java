@@ -1,13 +1,21 @@
 package com.trafficnewsapp.incident.services;
 
+import com.trafficnewsapp.incident.dao.IncidentCursor;
 import com.trafficnewsapp.incident.dao.IncidentDAO;
+import com.trafficnewsapp.incident.dao.IncidentQuery;
 import com.trafficnewsapp.incident.models.Incident;
+import com.trafficnewsapp.incident.models.IncidentChange;
+import com.trafficnewsapp.incident.models.IncidentDelta;
+import com.trafficnewsapp.incident.models.IncidentPage;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.DisplayName;
 
 import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Map;
 
 import static org.junit.jupiter.api.Assertions.*;
 
@@ -97,6 +105,155 @@ public class IncidentServiceTest {
         // Cleanup
         incidentService.deleteIncident(incidentId);
     }
+    
+    @Test
+    @DisplayName("Test findIncidents - a keyword should match the same incidents paged or not")
+    void testKeywordSearch_PagedMatchesUnpaged() {
+        // Setup - an in-memory DAO: keyword queries must not reach SQL at all
+        List<Incident> rows = new ArrayList<>();
+        rows.add(createIncident("inc_1", "Highway 401 eastbound", LocalDateTime.now().minusMinutes(3)));
+        rows.add(createIncident("inc_2", "Don Valley Parkway", LocalDateTime.now().minusMinutes(2)));
+        rows.add(createIncident("inc_3", "Highway 401 at Yonge", LocalDateTime.now().minusMinutes(1)));
+        IncidentService service = new IncidentService(new IncidentDAO() {
+            @Override
+            public List<Incident> loadAllIncidents() {
+                return new ArrayList<>(rows);
+            }
+            
+            @Override
+            public long loadLatestChangeSeq() {
+                return 0;
+            }
+        });
+        
+        try {
+            for (String keyword : new String[] {"way", "401 highway", "highway 4", "parkway"}) {
+                IncidentQuery unpaged = new IncidentQuery();
+                unpaged.setKeyword(keyword);
+                IncidentQuery firstPage = new IncidentQuery();
+                firstPage.setKeyword(keyword);
+                firstPage.setLimit(1);
+                
+                // Execute - the unpaged list, and the same search one row per page
+                List<String> expected = ids(service.findIncidents(unpaged));
+                List<String> paged = new ArrayList<>();
+                IncidentPage page = service.findIncidentPage(firstPage);
+                paged.addAll(ids(page.getIncidents()));
+                while (page.getNextCursor() != null) {
+                    IncidentQuery next = new IncidentQuery();
+                    next.setKeyword(keyword);
+                    next.setLimit(1);
+                    next.setCursor(IncidentCursor.decode(page.getNextCursor()));
+                    page = service.findIncidentPage(next);
+                    paged.addAll(ids(page.getIncidents()));
+                }
+                
+                // Verify
+                assertEquals(expected, paged, "Paged and unpaged results should agree for '" + keyword + "'");
+            }
+            assertEquals(List.of("inc_3", "inc_1"), ids(service.findIncidents(query("401 highway"))),
+                "All words should match, in any order, newest first");
+            assertTrue(service.findIncidents(query("way")).isEmpty(), "Words match from their start");
+        } finally {
+            service.shutdown();
+        }
+    }
+    
+    @Test
+    @DisplayName("Test applyChangeLogDeletes - deletes made elsewhere should reach the snapshot and the stream")
+    void testApplyChangeLogDeletes() {
+        // Setup - an in-memory DAO with a change log
+        List<Incident> rows = new ArrayList<>();
+        rows.add(createIncident("inc_1", "King St", LocalDateTime.now().minusMinutes(3)));
+        rows.add(createIncident("inc_2", "Queen St", LocalDateTime.now().minusMinutes(2)));
+        rows.add(createIncident("inc_3", "Bay St", LocalDateTime.now().minusMinutes(1)));
+        List<IncidentChange> log = new ArrayList<>();
+        IncidentService service = new IncidentService(new IncidentDAO() {
+            @Override
+            public List<Incident> loadAllIncidents() {
+                return new ArrayList<>(rows);
+            }
+            
+            @Override
+            public long loadLatestChangeSeq() {
+                return log.size();
+            }
+            
+            @Override
+            public long deleteIncident(String id) {
+                rows.removeIf(incident -> incident.getId().equals(id));
+                return logChange(log, IncidentChange.DELETE, id);
+            }
+            
+            @Override
+            public IncidentDelta getChangesSince(long since, int limit) {
+                Map<String, IncidentChange> latest = new LinkedHashMap<>();
+                for (IncidentChange change : log) {
+                    if (change.getSeq() > since) {
+                        latest.remove(change.getId());
+                        latest.put(change.getId(), change);
+                    }
+                }
+                return new IncidentDelta(new ArrayList<>(latest.values()), log.size(), false, false);
+            }
+        });
+        
+        try {
+            assertEquals(0, service.applyChangeLogDeletes(), "First call should only record the position");
+            service.getAllIncidents();
+            
+            // Execute - a delete here, an archived incident, and one archived and re-created
+            service.deleteIncident("inc_1");
+            rows.removeIf(incident -> incident.getId().equals("inc_2"));
+            logChange(log, IncidentChange.DELETE, "inc_2");
+            logChange(log, IncidentChange.DELETE, "inc_3");
+            logChange(log, IncidentChange.UPSERT, "inc_3");
+            int published = service.applyChangeLogDeletes();
+            
+            // Verify
+            assertEquals(1, published, "Only the archived incident should be published");
+            assertEquals(List.of("inc_3"), ids(service.getAllIncidents()), "Archived incident should be gone");
+            List<String> streamed = new ArrayList<>();
+            for (IncidentChange change : service.getChangeFeed().getChangesSince(0)) {
+                streamed.add(change.getType() + " " + change.getId());
+            }
+            assertEquals(List.of("delete inc_1", "delete inc_2"), streamed,
+                "Own delete should be streamed once, the archived one from the change log");
+            assertEquals(0, service.applyChangeLogDeletes(), "Tombstones should be read once");
+        } finally {
+            service.shutdown();
+        }
+    }
+    
+    private static long logChange(List<IncidentChange> log, String type, String id) {
+        long seq = log.size() + 1;
+        log.add(new IncidentChange(seq, type, id, null, LocalDateTime.now()));
+        return seq;
+    }
+    
+    private static IncidentQuery query(String keyword) {
+        IncidentQuery query = new IncidentQuery();
+        query.setKeyword(keyword);
+        return query;
+    }
+    
+    private static Incident createIncident(String id, String location, LocalDateTime timestamp) {
+        Incident incident = new Incident();
+        incident.setId(id);
+        incident.setType("accident");
+        incident.setSeverity("high");
+        incident.setLocation(location);
+        incident.setTimestamp(timestamp);
+        return incident;
+    }
+    
+    private static List<String> ids(List<Incident> incidents) {
+        List<String> ids = new ArrayList<>();
+        for (Incident incident : incidents) {
+            ids.add(incident.getId());
+        }
+        return ids;
+    }
 }
 
 
@@ -0,0 +1,253 @@
+package com.trafficnewsapp.incident.services;
+
+import com.trafficnewsapp.incident.models.Incident;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.DisplayName;
+
+import java.sql.SQLException;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Unit tests for IncidentSnapshotCache
+ * Tests read-through loading, write application and invalidation
+ */
+@DisplayName("IncidentSnapshotCache Tests")
+public class IncidentSnapshotCacheTest {
+    private List<Incident> database;
+    private AtomicInteger loads;
+    private IncidentSnapshotCache cache;
+    
+    @BeforeEach
+    void setUp() {
+        database = new ArrayList<>();
+        database.add(createIncident("inc_1", LocalDateTime.now().minusMinutes(30)));
+        database.add(createIncident("inc_2", LocalDateTime.now().minusMinutes(10)));
+        loads = new AtomicInteger();
+        
+        cache = new IncidentSnapshotCache(() -> {
+            loads.incrementAndGet();
+            return new ArrayList<>(database);
+        }, 60000);
+    }
+    
+    @Test
+    @DisplayName("Test getAll - second read should be served from memory")
+    void testGetAll_ReadThrough() {
+        // Execute
+        List<Incident> first = cache.getAll();
+        List<Incident> second = cache.getAll();
+        
+        // Verify
+        assertEquals(1, loads.get(), "Loader should run only once");
+        assertEquals(1, cache.getMisses(), "First read should be a miss");
+        assertEquals(1, cache.getHits(), "Second read should be a hit");
+        assertSame(first, second, "Both reads should share the snapshot");
+        assertEquals("inc_2", first.get(0).getId(), "Newest incident should be first");
+    }
+    
+    @Test
+    @DisplayName("Test put - new and updated incidents should be applied without reloading")
+    void testPut() {
+        cache.getAll();
+        
+        // Execute - add a new incident and update an existing one
+        cache.put(createIncident("inc_3", LocalDateTime.now()), 1);
+        Incident updated = createIncident("inc_1", LocalDateTime.now().minusMinutes(30));
+        updated.setSeverity("critical");
+        cache.put(updated, 2);
+        
+        // Verify
+        List<Incident> incidents = cache.getAll();
+        assertEquals(1, loads.get(), "Writes should not trigger a reload");
+        assertEquals(3, incidents.size(), "Should contain the new incident");
+        assertEquals("inc_3", incidents.get(0).getId(), "New incident should be first");
+        assertEquals("critical", incidents.get(2).getSeverity(), "Update should replace the old copy");
+    }
+    
+    @Test
+    @DisplayName("Test remove - deleted incident should disappear from the snapshot")
+    void testRemove() {
+        cache.getAll();
+        
+        // Execute
+        cache.remove("inc_2", 1);
+        
+        // Verify
+        List<Incident> incidents = cache.getAll();
+        assertEquals(1, incidents.size(), "Should contain one incident");
+        assertEquals("inc_1", incidents.get(0).getId(), "Remaining incident should be inc_1");
+    }
+    
+    @Test
+    @DisplayName("Test invalidate - next read should reload from the loader")
+    void testInvalidate() {
+        cache.getAll();
+        database.add(createIncident("inc_9", LocalDateTime.now()));
+        
+        // Execute
+        cache.invalidate();
+        List<Incident> incidents = cache.getAll();
+        
+        // Verify
+        assertEquals(2, loads.get(), "Loader should run again after invalidation");
+        assertEquals(3, incidents.size(), "Reloaded snapshot should include new rows");
+    }
+    
+    @Test
+    @DisplayName("Test getChangeSeq - should be read before the reload and only follow consecutive writes")
+    void testGetChangeSeq() {
+        // Setup - the change log is at 10 when the snapshot loads
+        long[] latest = {10};
+        IncidentSnapshotCache tracked = new IncidentSnapshotCache(() -> new ArrayList<>(database),
+            () -> latest[0], 60000);
+        assertEquals(-1, tracked.getChangeSeq(), "Nothing loaded yet");
+        tracked.getAll();
+        
+        // Execute & Verify
+        assertEquals(10, tracked.getChangeSeq());
+        tracked.put(createIncident("inc_3", LocalDateTime.now()), 11);
+        assertEquals(11, tracked.getChangeSeq(), "The next write should move the position on");
+        tracked.put(createIncident("inc_4", LocalDateTime.now()), 13);
+        tracked.remove("inc_1", 14);
+        assertEquals(11, tracked.getChangeSeq(), "Change 12 was made elsewhere and is not in the snapshot");
+        
+        latest[0] = 14;
+        tracked.invalidate();
+        tracked.getAll();
+        tracked.putAll(List.of(createIncident("inc_5", LocalDateTime.now()),
+            createIncident("inc_6", LocalDateTime.now())), 16);
+        assertEquals(16, tracked.getChangeSeq(), "A batch of 2 ending at 16 continues from 14");
+    }
+    
+    @Test
+    @DisplayName("Test getVersion - should change on writes and reloads but not on hits")
+    void testGetVersion() {
+        cache.getAll();
+        long loaded = cache.getVersion();
+        
+        // Execute
+        cache.getAll();
+        long afterHit = cache.getVersion();
+        cache.remove("inc_1", 1);
+        long afterWrite = cache.getVersion();
+        cache.invalidate();
+        cache.getAll();
+        long afterReload = cache.getVersion();
+        
+        // Verify
+        assertEquals(loaded, afterHit, "A cache hit should not change the version");
+        assertTrue(afterWrite > afterHit, "A write should change the version");
+        assertTrue(afterReload > afterWrite, "A reload should change the version");
+    }
+    
+    @Test
+    @DisplayName("Test getVersion - with caching disabled every reload should change the version")
+    void testGetVersion_NoCaching() {
+        IncidentSnapshotCache uncached = new IncidentSnapshotCache(() -> new ArrayList<>(database), 0);
+        uncached.getAll();
+        long first = uncached.getVersion();
+        
+        // Execute - a row changed outside the service
+        database.add(createIncident("inc_9", LocalDateTime.now()));
+        uncached.getAll();
+        
+        // Verify
+        assertTrue(uncached.getVersion() > first, "An external change should be visible in the version");
+    }
+    
+    @Test
+    @DisplayName("Test getAll - a failed reload should keep the previous snapshot and not broadcast")
+    void testGetAll_LoadFails() throws InterruptedException {
+        // Setup - a 1ms TTL, so every read reloads
+        boolean[] failing = new boolean[1];
+        IncidentSnapshotCache expiring = new IncidentSnapshotCache(() -> {
+            if (failing[0]) {
+                throw new SQLException("Communications link failure");
+            }
+            return new ArrayList<>(database);
+        }, 1);
+        AtomicInteger reloads = new AtomicInteger();
+        expiring.addListener(new IncidentCacheListener() {
+            @Override
+            public void onReload(List<Incident> incidents) {
+                reloads.incrementAndGet();
+            }
+            
+            @Override
+            public void onPut(Collection<Incident> incidents) {
+            }
+            
+            @Override
+            public void onRemove(String id) {
+            }
+        });
+        List<Incident> loaded = expiring.getAll();
+        long version = expiring.getVersion();
+        
+        // Execute
+        failing[0] = true;
+        Thread.sleep(5);
+        List<Incident> stale = expiring.getAll();
+        
+        // Verify
+        assertSame(loaded, stale, "Previous snapshot should be served while the database is down");
+        assertEquals(version, expiring.getVersion(), "A failed reload should not change the version");
+        assertEquals(1, reloads.get(), "A failed reload should not reach the indexes");
+        assertEquals(1L, expiring.getStats().get("loadFailures"));
+        
+        IncidentSnapshotCache empty = new IncidentSnapshotCache(() -> {
+            throw new SQLException("Communications link failure");
+        }, 60000);
+        assertTrue(empty.getAll().isEmpty(), "Nothing to fall back on");
+        assertEquals(-1, empty.peekVersion(), "A failed first load should not be cached");
+        assertEquals(0, empty.getVersion(), "A failed first load should not get a version");
+    }
+    
+    @Test
+    @DisplayName("Test peekVersion - should not load, and only report a fresh snapshot's version")
+    void testPeekVersion() {
+        // Execute & Verify
+        assertEquals(-1, cache.peekVersion(), "No snapshot yet, so the version is unknown");
+        assertEquals(0, loads.get(), "Peeking should not load");
+        cache.getAll();
+        assertEquals(cache.getVersion(), cache.peekVersion(), "Fresh snapshot should report its version");
+        cache.invalidate();
+        assertEquals(-1, cache.peekVersion(), "Dropped snapshot should report an unknown version");
+        assertEquals(1, loads.get(), "Peeking should never reload");
+    }
+    
+    @Test
+    @DisplayName("Test countSince - should count incidents newer than a time for facets")
+    void testCountSince() {
+        database.add(createIncident("inc_3", LocalDateTime.now().minusDays(2)));
+        database.add(createIncident("inc_4", null));
+        List<Incident> incidents = cache.getAll();
+        
+        // Execute
+        int lastQuarterHour = IncidentSnapshotCache.countSince(incidents, LocalDateTime.now().minusMinutes(15));
+        int lastDay = IncidentSnapshotCache.countSince(incidents, LocalDateTime.now().minusDays(1));
+        int lastWeek = IncidentSnapshotCache.countSince(incidents, LocalDateTime.now().minusDays(7));
+        
+        // Verify
+        assertEquals(1, lastQuarterHour, "Only inc_2 is newer than 15 minutes");
+        assertEquals(2, lastDay, "inc_1 and inc_2 are from the last day");
+        assertEquals(3, lastWeek, "Incidents without a timestamp should not be counted");
+    }
+    
+    private Incident createIncident(String id, LocalDateTime timestamp) {
+        Incident incident = new Incident();
+        incident.setId(id);
+        incident.setType("accident");
+        incident.setSeverity("high");
+        incident.setLocation("Test Location");
+        incident.setTimestamp(timestamp);
+        return incident;
+    }
+}
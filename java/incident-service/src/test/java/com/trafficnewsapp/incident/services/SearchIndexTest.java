@@ -0,0 +1,88 @@
+package com.trafficnewsapp.incident.services;
+
+import com.trafficnewsapp.incident.models.Incident;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.DisplayName;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Unit tests for SearchIndex
+ * Tests word and prefix matching, relevance ranking and incremental updates
+ */
+@DisplayName("SearchIndex Tests")
+public class SearchIndexTest {
+    private SearchIndex searchIndex;
+    
+    @BeforeEach
+    void setUp() {
+        List<Incident> incidents = new ArrayList<>();
+        incidents.add(createIncident("inc_1", "accident", "Highway 401 near Yonge St",
+            "Multi-vehicle collision, eastbound lanes blocked.", 10));
+        incidents.add(createIncident("inc_4", "accident", "Gardiner Expressway at Spadina Ave",
+            "Major accident blocking all westbound lanes.", 5));
+        incidents.add(createIncident("inc_2", "construction", "Queen St W and Spadina Ave",
+            "Road work, expect delays.", 30));
+        
+        searchIndex = new SearchIndex();
+        searchIndex.onReload(incidents);
+    }
+    
+    @Test
+    @DisplayName("Test search - all words must match, last word as a prefix")
+    void testSearch_WordsAndPrefix() {
+        // Execute
+        List<Incident> spadina = searchIndex.search("Spadina", false);
+        List<Incident> typeAhead = searchIndex.search("gardiner exp", false);
+        List<Incident> none = searchIndex.search("queen accident", false);
+        
+        // Verify
+        assertEquals(2, spadina.size(), "Should match case-insensitively");
+        assertEquals("inc_4", spadina.get(0).getId(), "Newest match should be first");
+        assertEquals(1, typeAhead.size(), "Prefix of the last word should match");
+        assertEquals("inc_4", typeAhead.get(0).getId());
+        assertTrue(none.isEmpty(), "Every word must match the same incident");
+    }
+    
+    @Test
+    @DisplayName("Test search - relevance should rank stronger matches first")
+    void testSearch_Relevance() {
+        // Execute - inc_4 has "accident" in type and description, inc_1 only in type
+        List<Incident> ranked = searchIndex.search("accident", true);
+        
+        // Verify
+        assertEquals(2, ranked.size(), "Should match both accidents");
+        assertEquals("inc_4", ranked.get(0).getId(), "Incident mentioning the word twice should rank first");
+    }
+    
+    @Test
+    @DisplayName("Test onPut and onRemove - index should follow updates and deletes")
+    void testIncrementalUpdates() {
+        // Execute - reword inc_2, then delete inc_1
+        searchIndex.onPut(Collections.singletonList(createIncident("inc_2", "closure",
+            "Queen St W and Spadina Ave", "Road closed for a parade.", 30)));
+        searchIndex.onRemove("inc_1");
+        
+        // Verify
+        assertTrue(searchIndex.search("delays", false).isEmpty(), "Old words should no longer match");
+        assertEquals(1, searchIndex.search("parade", false).size(), "New words should match");
+        assertTrue(searchIndex.search("yonge", false).isEmpty(), "Deleted incident should not match");
+    }
+    
+    private Incident createIncident(String id, String type, String location, String description, int minutesAgo) {
+        Incident incident = new Incident();
+        incident.setId(id);
+        incident.setType(type);
+        incident.setSeverity("high");
+        incident.setLocation(location);
+        incident.setDescription(description);
+        incident.setTimestamp(LocalDateTime.now().minusMinutes(minutesAgo));
+        return incident;
+    }
+}
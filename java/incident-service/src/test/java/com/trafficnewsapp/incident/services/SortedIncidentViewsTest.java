@@ -0,0 +1,116 @@
+package com.trafficnewsapp.incident.services;
+
+import com.trafficnewsapp.incident.models.Incident;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.DisplayName;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Unit tests for SortedIncidentViews
+ * Tests view ordering, incremental updates and keyset positions
+ */
+@DisplayName("SortedIncidentViews Tests")
+public class SortedIncidentViewsTest {
+    private SortedIncidentViews sortedViews;
+    
+    @BeforeEach
+    void setUp() {
+        List<Incident> incidents = new ArrayList<>();
+        incidents.add(createIncident("inc_1", "construction", "high", 10));
+        incidents.add(createIncident("inc_2", "accident", "low", 20));
+        incidents.add(createIncident("inc_3", "Accident", "critical", 5));
+        incidents.add(createIncident("inc_4", "closure", "high", 30));
+        
+        sortedViews = new SortedIncidentViews();
+        sortedViews.onReload(incidents);
+    }
+    
+    @Test
+    @DisplayName("Test view - orders should match the SQL ORDER BY, ties newest first")
+    void testView_Orders() {
+        // Execute
+        List<Incident> newest = sortedViews.view("time", false);
+        List<Incident> oldest = sortedViews.view(null, true);
+        List<Incident> bySeverity = sortedViews.view("severity", false);
+        List<Incident> byType = sortedViews.view("TYPE", true);
+        
+        // Verify
+        assertEquals(List.of("inc_3", "inc_1", "inc_2", "inc_4"), ids(newest));
+        assertEquals(List.of("inc_4", "inc_2", "inc_1", "inc_3"), ids(oldest));
+        assertEquals(List.of("inc_3", "inc_1", "inc_4", "inc_2"), ids(bySeverity), "Equal severities should be newest first");
+        assertEquals(List.of("inc_3", "inc_2", "inc_4", "inc_1"), ids(byType), "Type should ignore case, like the collation");
+    }
+    
+    @Test
+    @DisplayName("Test onPut and onRemove - views should be updated without a reload")
+    void testIncrementalUpdates() {
+        // Setup
+        List<Incident> before = sortedViews.view("severity", false);
+        
+        // Execute - downgrade inc_3, delete inc_1, add a new critical incident
+        sortedViews.onPut(Collections.singletonList(createIncident("inc_3", "accident", "low", 5)));
+        sortedViews.onRemove("inc_1");
+        sortedViews.onPut(Collections.singletonList(createIncident("inc_5", "hazard", "critical", 40)));
+        
+        // Verify
+        assertEquals(List.of("inc_5", "inc_4", "inc_3", "inc_2"), ids(sortedViews.view("severity", false)));
+        assertEquals(List.of("inc_3", "inc_2", "inc_4", "inc_5"), ids(sortedViews.view("time", false)));
+        assertEquals(List.of("inc_3", "inc_1", "inc_4", "inc_2"), ids(before), "Earlier readers should keep their list");
+    }
+    
+    @Test
+    @DisplayName("Test indexAfter - should find the rows after a cursor position")
+    void testIndexAfter() {
+        // Setup
+        List<Incident> newest = sortedViews.view("time", false);
+        Incident present = newest.get(1);
+        Incident between = createIncident("inc_0", null, null, 15);
+        
+        // Execute
+        int afterPresent = SortedIncidentViews.indexAfter(newest, SortedIncidentViews.comparator("time", false), present);
+        int afterMissing = SortedIncidentViews.indexAfter(newest, SortedIncidentViews.comparator("time", false), between);
+        
+        // Verify
+        assertEquals(2, afterPresent, "Should continue after the cursor incident");
+        assertEquals(2, afterMissing, "A deleted cursor incident should not skip or repeat rows");
+    }
+    
+    @Test
+    @DisplayName("Test top - bounded heap should select the k first in comparator order")
+    void testTop() {
+        // Setup
+        List<Incident> newest = sortedViews.view("time", false);
+        
+        // Execute
+        List<Incident> mostSevere = SortedIncidentViews.top(newest, SortedIncidentViews.comparator("severity", false), 2);
+        List<Incident> all = SortedIncidentViews.top(newest, SortedIncidentViews.comparator("severity", false), 10);
+        
+        // Verify
+        assertEquals(List.of("inc_3", "inc_1"), ids(mostSevere), "Should keep the 2 most severe, newest first on ties");
+        assertEquals(ids(sortedViews.view("severity", false)), ids(all), "k above the size should return everything in order");
+    }
+    
+    private List<String> ids(List<Incident> incidents) {
+        List<String> ids = new ArrayList<>();
+        for (Incident incident : incidents) {
+            ids.add(incident.getId());
+        }
+        return ids;
+    }
+    
+    private Incident createIncident(String id, String type, String severity, int minutesAgo) {
+        Incident incident = new Incident();
+        incident.setId(id);
+        incident.setType(type);
+        incident.setSeverity(severity);
+        incident.setTimestamp(LocalDateTime.now().minusMinutes(minutesAgo));
+        return incident;
+    }
+}
@@ -0,0 +1,87 @@
+package com.trafficnewsapp.incident.services;
+
+import com.trafficnewsapp.incident.models.BoundingBox;
+import com.trafficnewsapp.incident.models.Incident;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.DisplayName;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Unit tests for SpatialGridIndex
+ * Tests bounding box queries and incremental maintenance
+ */
+@DisplayName("SpatialGridIndex Tests")
+public class SpatialGridIndexTest {
+    private static final BoundingBox DOWNTOWN = new BoundingBox(43.64, -79.41, 43.66, -79.37);
+    
+    private SpatialGridIndex index;
+    
+    @BeforeEach
+    void setUp() {
+        List<Incident> incidents = new ArrayList<>();
+        incidents.add(createIncident("inc_1", 43.6532, -79.3832, LocalDateTime.now().minusMinutes(10)));
+        incidents.add(createIncident("inc_2", 43.6450, -79.4000, LocalDateTime.now().minusMinutes(30)));
+        incidents.add(createIncident("inc_3", 43.7000, -79.4100, LocalDateTime.now().minusMinutes(5)));
+        incidents.add(createIncident("inc_4", null, null, LocalDateTime.now()));
+        
+        index = new SpatialGridIndex();
+        index.onReload(incidents);
+    }
+    
+    @Test
+    @DisplayName("Test query - only incidents inside the box, newest first")
+    void testQuery() {
+        // Execute
+        List<Incident> result = index.query(DOWNTOWN);
+        
+        // Verify
+        assertEquals(3, index.size(), "Incidents without coordinates should not be indexed");
+        assertEquals(2, result.size(), "Should find the two downtown incidents");
+        assertEquals("inc_1", result.get(0).getId(), "Newest incident should be first");
+        assertEquals("inc_2", result.get(1).getId());
+    }
+    
+    @Test
+    @DisplayName("Test onPut and onRemove - moved and deleted incidents should be reindexed")
+    void testIncrementalUpdates() {
+        // Execute - move inc_3 downtown, then delete inc_1
+        index.onPut(Collections.singletonList(
+            createIncident("inc_3", 43.6500, -79.3900, LocalDateTime.now().minusMinutes(5))));
+        index.onRemove("inc_1");
+        List<Incident> result = index.query(DOWNTOWN);
+        
+        // Verify
+        assertEquals(2, result.size(), "Should find inc_3 and inc_2");
+        assertEquals("inc_3", result.get(0).getId(), "Moved incident should be found in its new cell");
+        assertEquals(2, index.size(), "Deleted incident should be dropped");
+    }
+    
+    @Test
+    @DisplayName("Test BoundingBox.parse - malformed boxes should be rejected")
+    void testParseBoundingBox() {
+        // Verify
+        assertEquals(-79.37, BoundingBox.parse("43.64,-79.41,43.66,-79.37").getMaxLng());
+        assertThrows(IllegalArgumentException.class, () -> BoundingBox.parse("43.64,-79.41,43.66"));
+        assertThrows(IllegalArgumentException.class, () -> BoundingBox.parse("43.66,-79.41,43.64,-79.37"));
+        assertThrows(IllegalArgumentException.class, () -> BoundingBox.parse("a,b,c,d"));
+    }
+    
+    private Incident createIncident(String id, Double latitude, Double longitude, LocalDateTime timestamp) {
+        Incident incident = new Incident();
+        incident.setId(id);
+        incident.setType("accident");
+        incident.setSeverity("high");
+        incident.setLocation("Test location");
+        incident.setLatitude(latitude);
+        incident.setLongitude(longitude);
+        incident.setTimestamp(timestamp);
+        return incident;
+    }
+}
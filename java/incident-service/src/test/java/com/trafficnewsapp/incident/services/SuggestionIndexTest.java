@@ -0,0 +1,89 @@
+package com.trafficnewsapp.incident.services;
+
+import com.trafficnewsapp.incident.models.Incident;
+import com.trafficnewsapp.incident.models.Suggestion;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.DisplayName;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Unit tests for SuggestionIndex
+ * Tests prefix completion, ranking, incremental updates and popular queries
+ */
+@DisplayName("SuggestionIndex Tests")
+public class SuggestionIndexTest {
+    private SuggestionIndex suggestionIndex;
+    
+    @BeforeEach
+    void setUp() {
+        List<Incident> incidents = new ArrayList<>();
+        incidents.add(createIncident("inc_1", "Highway 401 near Yonge St"));
+        incidents.add(createIncident("inc_2", "Gardiner Expressway"));
+        incidents.add(createIncident("inc_3", "Gardiner  Expressway"));
+        incidents.add(createIncident("inc_4", "Don Valley Parkway"));
+        
+        suggestionIndex = new SuggestionIndex();
+        suggestionIndex.onReload(incidents);
+    }
+    
+    @Test
+    @DisplayName("Test suggest - prefix of any word should complete, most frequent first")
+    void testSuggest_Prefix() {
+        // Execute
+        List<Suggestion> fromStart = suggestionIndex.suggest("GAR", 5);
+        List<Suggestion> fromWord = suggestionIndex.suggest("401", 5);
+        List<Suggestion> all = suggestionIndex.suggest("", 5);
+        
+        // Verify
+        assertEquals(1, fromStart.size(), "Locations differing only in spacing should be merged");
+        assertEquals("Gardiner Expressway", fromStart.get(0).getText());
+        assertEquals(2, fromStart.get(0).getCount(), "Count should be the number of incidents there");
+        assertEquals(1, fromWord.size(), "A later word of the location should complete too");
+        assertEquals("Highway 401 near Yonge St", fromWord.get(0).getText());
+        assertTrue(all.isEmpty(), "Empty prefix should not suggest anything");
+    }
+    
+    @Test
+    @DisplayName("Test onPut and onRemove - counts should follow updates and deletes")
+    void testIncrementalUpdates() {
+        // Execute - move inc_3 to the parkway, then delete inc_2
+        suggestionIndex.onPut(Collections.singletonList(createIncident("inc_3", "Don Valley Parkway")));
+        suggestionIndex.onRemove("inc_2");
+        
+        // Verify
+        assertTrue(suggestionIndex.suggest("gardiner", 5).isEmpty(), "Location without incidents should be gone");
+        List<Suggestion> parkway = suggestionIndex.suggest("don", 5);
+        assertEquals(1, parkway.size());
+        assertEquals(2, parkway.get(0).getCount(), "Moved incident should count at its new location");
+    }
+    
+    @Test
+    @DisplayName("Test recordQuery - repeated queries should be suggested")
+    void testRecordQuery() {
+        // Execute
+        suggestionIndex.recordQuery("yonge closure");
+        List<Suggestion> afterOne = suggestionIndex.suggest("yonge c", 5);
+        suggestionIndex.recordQuery("Yonge  Closure ");
+        List<Suggestion> afterTwo = suggestionIndex.suggest("yonge c", 5);
+        
+        // Verify
+        assertTrue(afterOne.isEmpty(), "A one-off query should not be suggested to others");
+        assertEquals(1, afterTwo.size());
+        assertEquals("yonge closure", afterTwo.get(0).getText());
+        assertEquals(Suggestion.QUERY, afterTwo.get(0).getKind());
+    }
+    
+    private Incident createIncident(String id, String location) {
+        Incident incident = new Incident();
+        incident.setId(id);
+        incident.setType("accident");
+        incident.setLocation(location);
+        return incident;
+    }
+}
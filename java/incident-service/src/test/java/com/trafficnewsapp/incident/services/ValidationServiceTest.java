@@ -5,6 +5,8 @@ import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.DisplayName;
 
+import java.util.List;
+
 import static org.junit.jupiter.api.Assertions.*;
 
 /**
@@ -57,6 +59,42 @@ public class ValidationServiceTest {
         assertFalse(result.getErrors().isEmpty(), "Should have errors");
     }
     
+    @Test
+    @DisplayName("Test validateIncident - unknown status should fail")
+    void testValidateIncident_InvalidStatus() {
+        // Setup
+        Incident incident = new Incident();
+        incident.setType("accident");
+        incident.setSeverity("high");
+        incident.setLocation("Test Location");
+        incident.setStatus("archived");
+        
+        // Execute
+        ValidationService.ValidationResult result = validationService.validateIncident(incident);
+        
+        // Verify
+        assertFalse(result.isValid(), "Unknown status should fail validation");
+        assertEquals(1, result.getErrors().size(), "Only the status should be reported");
+    }
+    
+    @Test
+    @DisplayName("Test validateIncident - cleared timestamp should fail")
+    void testValidateIncident_NullTimestamp() {
+        // Setup - what {"timestamp": null} in a request body turns into
+        Incident incident = new Incident();
+        incident.setType("accident");
+        incident.setSeverity("high");
+        incident.setLocation("Test Location");
+        incident.setTimestamp(null);
+        
+        // Execute
+        ValidationService.ValidationResult result = validationService.validateIncident(incident);
+        
+        // Verify
+        assertFalse(result.isValid(), "Missing timestamp should fail validation");
+        assertEquals(List.of("Timestamp is required"), result.getErrors());
+    }
+    
     @Test
     @DisplayName("Test validateCoordinates - valid coordinates should pass")
     void testValidateCoordinates_Valid() {
@@ -0,0 +1,100 @@
+package com.trafficnewsapp.incident.util;
+
+import com.google.gson.Gson;
+import com.google.gson.GsonBuilder;
+import com.google.gson.JsonObject;
+import com.google.gson.JsonParser;
+import com.google.gson.JsonSyntaxException;
+import com.trafficnewsapp.incident.models.Incident;
+import com.trafficnewsapp.incident.services.ValidationService;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.DisplayName;
+
+import java.time.LocalDateTime;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Unit tests for IncidentTypeAdapter and the compact Incident encoding
+ * Tests that the JSON form is unchanged and values survive the encoding
+ */
+@DisplayName("IncidentTypeAdapter Tests")
+public class IncidentTypeAdapterTest {
+    private Gson gson;
+    
+    @BeforeEach
+    void setUp() {
+        gson = new GsonBuilder().registerTypeAdapter(Incident.class, new IncidentTypeAdapter()).create();
+    }
+    
+    @Test
+    @DisplayName("Test write - JSON should use plain fields and omit nulls")
+    void testWrite() {
+        // Setup
+        Incident incident = new Incident("inc_1", "accident", "high", "Highway 401", 43.65, -79.38,
+            null, LocalDateTime.of(2025, 11, 20, 8, 30, 15), null, "confirmed", null);
+        
+        // Execute
+        JsonObject json = JsonParser.parseString(gson.toJson(incident)).getAsJsonObject();
+        
+        // Verify
+        assertEquals("accident", json.get("type").getAsString());
+        assertEquals(43.65, json.get("latitude").getAsDouble());
+        assertEquals("2025-11-20T08:30:15", json.get("timestamp").getAsString());
+        assertEquals("confirmed", json.get("status").getAsString());
+        assertFalse(json.has("description"), "Null fields should be omitted");
+        assertEquals(8, json.size(), "Should write exactly the non-null fields");
+    }
+    
+    @Test
+    @DisplayName("Test read - values should round-trip and known values should be canonical")
+    void testRead() {
+        // Execute
+        Incident incident = gson.fromJson("{\"id\":\"inc_2\",\"type\":\"Accident\",\"severity\":\"critical\","
+            + "\"location\":\"Gardiner Expressway\",\"latitude\":\"43.64\",\"unknown\":[1,2],"
+            + "\"timestamp\":\"2025-11-20T08:30:15.123\"}", Incident.class);
+        Incident other = gson.fromJson("{\"location\":\"Gardiner Expressway\",\"status\":null}", Incident.class);
+        
+        // Verify
+        assertEquals("accident", incident.getType(), "Known types should be stored in canonical form");
+        assertEquals("critical", incident.getSeverity());
+        assertEquals(43.64, incident.getLatitude());
+        assertNull(incident.getLongitude(), "Missing coordinate should stay null");
+        assertEquals(LocalDateTime.of(2025, 11, 20, 8, 30, 15, 123_000_000), incident.getTimestamp());
+        assertEquals("pending", incident.getStatus(), "Missing status should default to pending");
+        assertNull(other.getStatus(), "Explicit null should clear the status");
+        assertSame(incident.getLocation(), other.getLocation(), "Equal locations should share one string");
+    }
+    
+    @Test
+    @DisplayName("Test read - malformed values should be rejected as JSON errors")
+    void testRead_Malformed() {
+        assertThrows(JsonSyntaxException.class,
+            () -> gson.fromJson("{\"latitude\":\"north\"}", Incident.class));
+        assertThrows(JsonSyntaxException.class,
+            () -> gson.fromJson("{\"timestamp\":\"yesterday\"}", Incident.class));
+    }
+    
+    @Test
+    @DisplayName("Test read - rejected values should be kept as-is without growing the dictionaries")
+    void testRead_UnknownValues() {
+        ValidationService validationService = new ValidationService();
+        
+        // Execute - more distinct values than a short code could ever hold
+        for (int i = 0; i < Short.MAX_VALUE + 100; i++) {
+            Incident incident = gson.fromJson("{\"type\":\"type-" + i + "\",\"severity\":\"high\","
+                + "\"status\":\"status-" + i + "\"}", Incident.class);
+            
+            // Verify
+            assertEquals("type-" + i, incident.getType(), "Unknown type should be kept as-is");
+            assertEquals("status-" + i, incident.getStatus(), "Unknown status should be kept as-is");
+            assertFalse(validationService.validateIncident(incident).isValid(), "Unknown values should be rejected");
+        }
+        Incident incident = gson.fromJson("{\"type\":\"Closure\",\"severity\":\"low\"}", Incident.class);
+        assertEquals("closure", incident.getType(), "Known values should still be canonical");
+        incident.setType("detour");
+        incident.setType("hazard");
+        assertEquals("hazard", incident.getType(), "Replacing an unknown value should drop it");
+    }
+}
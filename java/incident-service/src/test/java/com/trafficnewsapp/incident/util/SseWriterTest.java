@@ -0,0 +1,139 @@
+package com.trafficnewsapp.incident.util;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.DisplayName;
+
+import javax.servlet.AsyncContext;
+import javax.servlet.ServletOutputStream;
+import javax.servlet.ServletResponse;
+import javax.servlet.WriteListener;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.lang.reflect.Proxy;
+import java.nio.charset.StandardCharsets;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Unit tests for SseWriter
+ * Tests queueing while the client is not reading, draining and dropping slow clients
+ */
+@DisplayName("SseWriter Tests")
+public class SseWriterTest {
+    private FakeOutputStream out;
+    private boolean[] completed;
+    private AsyncContext async;
+    
+    @BeforeEach
+    void setUp() {
+        out = new FakeOutputStream();
+        completed = new boolean[1];
+        ServletResponse response = (ServletResponse) Proxy.newProxyInstance(getClass().getClassLoader(),
+            new Class<?>[] {ServletResponse.class},
+            (proxy, method, args) -> "getOutputStream".equals(method.getName()) ? out : null);
+        async = (AsyncContext) Proxy.newProxyInstance(getClass().getClassLoader(),
+            new Class<?>[] {AsyncContext.class}, (proxy, method, args) -> {
+                if ("getResponse".equals(method.getName())) {
+                    return response;
+                }
+                if ("complete".equals(method.getName())) {
+                    completed[0] = true;
+                }
+                return null;
+            });
+    }
+    
+    @Test
+    @DisplayName("Test send - should write at once while the client keeps up")
+    void testSend_Ready() throws IOException {
+        SseWriter writer = new SseWriter(async);
+        
+        // Execute
+        writer.send("data: 1\n\n");
+        
+        // Verify
+        assertEquals("data: 1\n\n", out.written(), "Event should be written");
+        assertTrue(out.flushed, "Event should be flushed");
+    }
+    
+    @Test
+    @DisplayName("Test send - should queue without blocking and write when the client is ready")
+    void testSend_NotReady() throws IOException {
+        SseWriter writer = new SseWriter(async);
+        out.ready = false;
+        
+        // Execute
+        writer.send("data: 1\n\n");
+        writer.send("data: 2\n\n");
+        assertEquals("", out.written(), "Nothing should be written while the socket is full");
+        out.ready = true;
+        writer.onWritePossible();
+        
+        // Verify
+        assertEquals("data: 1\n\ndata: 2\n\n", out.written(), "Queued events should be written in order");
+    }
+    
+    @Test
+    @DisplayName("Test send - should give up on a client that falls too far behind")
+    void testSend_TooFarBehind() throws IOException {
+        SseWriter writer = new SseWriter(async, 16, 60000);
+        out.ready = false;
+        writer.send("data: 1\n\n");
+        
+        // Execute & Verify
+        assertThrows(IOException.class, () -> writer.send("data: 2\n\n"), "Queue bound should be enforced");
+        writer.close();
+        assertTrue(completed[0], "Closing should complete the response");
+        assertThrows(IOException.class, () -> writer.send("data: 3\n\n"), "Closed writer should refuse events");
+    }
+    
+    @Test
+    @DisplayName("Test send - should give up on a client that stopped reading")
+    void testSend_Stalled() throws IOException, InterruptedException {
+        SseWriter writer = new SseWriter(async, 1 << 20, 10);
+        out.ready = false;
+        writer.send(": ping\n\n");
+        
+        // Execute
+        Thread.sleep(50);
+        
+        // Verify
+        assertThrows(IOException.class, () -> writer.send(": ping\n\n"), "Stalled client should be dropped");
+    }
+    
+    /**
+     * Output stream whose readiness the test controls, like a socket that fills up
+     */
+    private static class FakeOutputStream extends ServletOutputStream {
+        final ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        boolean ready = true;
+        boolean flushed;
+        
+        @Override
+        public boolean isReady() {
+            return ready;
+        }
+        
+        @Override
+        public void setWriteListener(WriteListener writeListener) {
+        }
+        
+        @Override
+        public void write(int b) {
+            if (!ready) {
+                throw new IllegalStateException("Write while not ready");
+            }
+            bytes.write(b);
+        }
+        
+        @Override
+        public void flush() {
+            flushed = true;
+        }
+        
+        String written() {
+            return new String(bytes.toByteArray(), StandardCharsets.UTF_8);
+        }
+    }
+}
@@ -2,6 +2,7 @@ package com.trafficnewsapp.map.servlets;
 
 import com.google.gson.Gson;
 import com.trafficnewsapp.map.services.MapService;
+import com.trafficnewsapp.map.util.HttpCaching;
 
 import javax.servlet.ServletException;
 import javax.servlet.http.HttpServlet;
@@ -17,6 +18,11 @@ import java.util.Map;
  * REST API endpoint for map operations
  */
 public class MapServlet extends HttpServlet {
+    // Bump when lookup results change shape or the geocoder changes
+    private static final int DATA_VERSION = 1;
+    private static final String GEOCODE_CACHE_CONTROL = "public, max-age=86400"; // 1 day
+    private static final String TILE_CACHE_CONTROL = "public, max-age=604800"; // 1 week
+    
     private MapService mapService;
     private Gson gson;
     
@@ -49,16 +55,23 @@ public class MapServlet extends HttpServlet {
             
             String[] pathParts = pathInfo.substring(1).split("/");
             
+            // Lookups are deterministic per query: skip the geocoder for a current copy
+            String etag = HttpCaching.etag(DATA_VERSION, pathParts[0], HttpCaching.queryKey(request));
+            String cacheControl = "tile".equals(pathParts[0]) ? TILE_CACHE_CONTROL : GEOCODE_CACHE_CONTROL;
+            if (HttpCaching.checkNotModified(request, response, etag, cacheControl)) {
+                return;
+            }
+            
             if (pathParts.length > 0) {
                 switch (pathParts[0]) {
                     case "geocode":
-                        handleGeocode(request, response, out);
+                        handleGeocode(request, response, out, etag);
                         break;
                     case "reverse":
-                        handleReverseGeocode(request, response, out);
+                        handleReverseGeocode(request, response, out, etag);
                         break;
                     case "tile":
-                        handleTile(request, response, out);
+                        handleTile(request, response, out, etag);
                         break;
                     default:
                         response.setStatus(HttpServletResponse.SC_NOT_FOUND);
@@ -72,7 +85,7 @@ public class MapServlet extends HttpServlet {
     }
     
     private void handleGeocode(HttpServletRequest request, HttpServletResponse response, 
-                               PrintWriter out) {
+                               PrintWriter out, String etag) {
         String address = request.getParameter("address");
         if (address == null || address.isEmpty()) {
             response.setStatus(HttpServletResponse.SC_BAD_REQUEST);
@@ -82,6 +95,7 @@ public class MapServlet extends HttpServlet {
         
         Map<String, Double> coords = mapService.geocode(address);
         if (coords != null) {
+            HttpCaching.setCacheHeaders(response, etag, GEOCODE_CACHE_CONTROL);
             out.print(gson.toJson(coords));
             response.setStatus(HttpServletResponse.SC_OK);
         } else {
@@ -91,7 +105,7 @@ public class MapServlet extends HttpServlet {
     }
     
     private void handleReverseGeocode(HttpServletRequest request, HttpServletResponse response,
-                                     PrintWriter out) {
+                                     PrintWriter out, String etag) {
         String latStr = request.getParameter("lat");
         String lngStr = request.getParameter("lng");
         
@@ -109,6 +123,7 @@ public class MapServlet extends HttpServlet {
             if (address != null) {
                 Map<String, String> result = new HashMap<>();
                 result.put("address", address);
+                HttpCaching.setCacheHeaders(response, etag, GEOCODE_CACHE_CONTROL);
                 out.print(gson.toJson(result));
                 response.setStatus(HttpServletResponse.SC_OK);
             } else {
@@ -122,7 +137,7 @@ public class MapServlet extends HttpServlet {
     }
     
     private void handleTile(HttpServletRequest request, HttpServletResponse response,
-                           PrintWriter out) {
+                           PrintWriter out, String etag) {
         String zStr = request.getParameter("z");
         String xStr = request.getParameter("x");
         String yStr = request.getParameter("y");
@@ -141,6 +156,7 @@ public class MapServlet extends HttpServlet {
             String tileUrl = mapService.getTileUrl(z, x, y);
             Map<String, String> result = new HashMap<>();
             result.put("url", tileUrl);
+            HttpCaching.setCacheHeaders(response, etag, TILE_CACHE_CONTROL);
             out.print(gson.toJson(result));
             response.setStatus(HttpServletResponse.SC_OK);
         } catch (NumberFormatException e) {
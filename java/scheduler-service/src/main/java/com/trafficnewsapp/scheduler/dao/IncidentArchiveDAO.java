@@ -0,0 +1,263 @@
+package com.trafficnewsapp.scheduler.dao;
+
+import com.trafficnewsapp.scheduler.models.ArchivedIncident;
+import com.trafficnewsapp.scheduler.util.DatabaseConnection;
+
+import java.sql.*;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * Data Access Object for the incident archive.
+ * Moves incidents from the incidents table to incidents_archive in bounded
+ * batches and reads archived incidents back.
+ */
+public class IncidentArchiveDAO {
+    private static final String COLUMNS =
+        "id, type, severity, location, latitude, longitude, description, timestamp, reporter_id, status, submission_id";
+    private static final String LOG_CHANGE_SQL =
+        "INSERT INTO incident_changes (seq, incident_id, change_type) VALUES (?, ?, 'delete')";
+    private static final String RESERVE_SEQ_SQL =
+        "UPDATE incident_change_seq SET seq = LAST_INSERT_ID(seq + ?) WHERE id = 1";
+    
+    private interface TransactionWork {
+        int run(Connection conn) throws SQLException;
+    }
+    
+    /**
+     * Archive one batch of incidents reported before a cutoff, oldest first
+     * @param cutoff Incidents with an earlier timestamp are archived
+     * @param batchSize Maximum incidents to move
+     * @return Number archived, or -1 on a database error
+     */
+    public int archiveOlderThan(LocalDateTime cutoff, int batchSize) {
+        return archiveBatch("timestamp < ?", Collections.singletonList(Timestamp.valueOf(cutoff)), batchSize);
+    }
+    
+    /**
+     * Archive one batch of incidents in any of the given statuses, oldest first
+     * @param statuses Terminal statuses (e.g. rejected)
+     * @param batchSize Maximum incidents to move
+     * @return Number archived, or -1 on a database error
+     */
+    public int archiveWithStatus(List<String> statuses, int batchSize) {
+        if (statuses.isEmpty()) {
+            return 0;
+        }
+        return archiveBatch("status IN (" + placeholders(statuses.size()) + ")", new ArrayList<>(statuses), batchSize);
+    }
+    
+    /**
+     * Copy a batch to the archive, log a delete for each incident (so delta-sync
+     * clients drop them) and delete them, all in one short transaction. The
+     * batch is locked first so concurrent writers never see a half-moved row.
+     */
+    private int archiveBatch(String where, List<Object> params, int batchSize) {
+        String selectSql = "SELECT id FROM incidents WHERE " + where + " ORDER BY timestamp LIMIT ? FOR UPDATE";
+        
+        try {
+            return inTransaction(conn -> {
+                List<String> ids = new ArrayList<>();
+                try (PreparedStatement pstmt = conn.prepareStatement(selectSql)) {
+                    int index = 1;
+                    for (Object param : params) {
+                        pstmt.setObject(index++, param);
+                    }
+                    pstmt.setInt(index, batchSize);
+                    try (ResultSet rs = pstmt.executeQuery()) {
+                        while (rs.next()) {
+                            ids.add(rs.getString("id"));
+                        }
+                    }
+                }
+                if (ids.isEmpty()) {
+                    return 0;
+                }
+                
+                String in = placeholders(ids.size());
+                // REPLACE: an incident archived before and then re-created keeps its latest copy
+                executeForIds(conn, "REPLACE INTO incidents_archive (" + COLUMNS + ", archived_at) SELECT "
+                    + COLUMNS + ", NOW() FROM incidents WHERE id IN (" + in + ")", ids);
+                int archived = executeForIds(conn, "DELETE FROM incidents WHERE id IN (" + in + ")", ids);
+                logDeletes(conn, ids);
+                return archived;
+            });
+        } catch (SQLException e) {
+            System.err.println("Error archiving incidents: " + e.getMessage());
+            return -1;
+        }
+    }
+    
+    /**
+     * Find archived incidents, newest first
+     * @param type Incident type (null for all)
+     * @param since Earliest incident timestamp, inclusive (null for no bound)
+     * @param until Latest incident timestamp, exclusive (null for no bound)
+     * @param limit Maximum rows
+     * @param offset Rows to skip
+     * @return Archived incidents (empty on a database error)
+     */
+    public List<ArchivedIncident> findArchived(String type, LocalDateTime since, LocalDateTime until,
+                                               int limit, int offset) {
+        List<ArchivedIncident> incidents = new ArrayList<>();
+        StringBuilder sql = new StringBuilder("SELECT ").append(COLUMNS).append(", archived_at FROM incidents_archive");
+        List<Object> params = new ArrayList<>();
+        List<String> conditions = new ArrayList<>();
+        if (type != null) {
+            conditions.add("type = ?");
+            params.add(type);
+        }
+        if (since != null) {
+            conditions.add("timestamp >= ?");
+            params.add(Timestamp.valueOf(since));
+        }
+        if (until != null) {
+            conditions.add("timestamp < ?");
+            params.add(Timestamp.valueOf(until));
+        }
+        if (!conditions.isEmpty()) {
+            sql.append(" WHERE ").append(String.join(" AND ", conditions));
+        }
+        sql.append(" ORDER BY timestamp DESC, id DESC LIMIT ? OFFSET ?");
+        params.add(limit);
+        params.add(offset);
+        
+        try (Connection conn = DatabaseConnection.getConnection();
+             PreparedStatement pstmt = conn.prepareStatement(sql.toString())) {
+            
+            for (int i = 0; i < params.size(); i++) {
+                pstmt.setObject(i + 1, params.get(i));
+            }
+            try (ResultSet rs = pstmt.executeQuery()) {
+                while (rs.next()) {
+                    incidents.add(mapResultSetToArchivedIncident(rs));
+                }
+            }
+        } catch (SQLException e) {
+            System.err.println("Error finding archived incidents: " + e.getMessage());
+        }
+        
+        return incidents;
+    }
+    
+    public ArchivedIncident getArchivedById(String id) {
+        String sql = "SELECT " + COLUMNS + ", archived_at FROM incidents_archive WHERE id = ?";
+        
+        try (Connection conn = DatabaseConnection.getConnection();
+             PreparedStatement pstmt = conn.prepareStatement(sql)) {
+            
+            pstmt.setString(1, id);
+            try (ResultSet rs = pstmt.executeQuery()) {
+                if (rs.next()) {
+                    return mapResultSetToArchivedIncident(rs);
+                }
+            }
+        } catch (SQLException e) {
+            System.err.println("Error getting archived incident by ID: " + e.getMessage());
+        }
+        
+        return null;
+    }
+    
+    /**
+     * Count archived incidents
+     * @return Number of rows in incidents_archive, or -1 on a database error
+     */
+    public long countArchived() {
+        try (Connection conn = DatabaseConnection.getConnection();
+             Statement stmt = conn.createStatement();
+             ResultSet rs = stmt.executeQuery("SELECT COUNT(*) FROM incidents_archive")) {
+            
+            return rs.next() ? rs.getLong(1) : 0;
+        } catch (SQLException e) {
+            System.err.println("Error counting archived incidents: " + e.getMessage());
+            return -1;
+        }
+    }
+    
+    private int inTransaction(TransactionWork work) throws SQLException {
+        try (Connection conn = DatabaseConnection.getConnection()) {
+            conn.setAutoCommit(false);
+            try {
+                int result = work.run(conn);
+                conn.commit();
+                return result;
+            } catch (SQLException | RuntimeException e) {
+                // Anything else would reach setAutoCommit(true), which commits the partial work
+                conn.rollback();
+                throw e;
+            } finally {
+                conn.setAutoCommit(true);
+            }
+        }
+    }
+    
+    /**
+     * Log a delete for each incident, last in the transaction. Positions come from
+     * the same counter the incident service uses, whose row lock makes changes
+     * commit in seq order.
+     */
+    private static void logDeletes(Connection conn, List<String> ids) throws SQLException {
+        try (PreparedStatement pstmt = conn.prepareStatement(RESERVE_SEQ_SQL)) {
+            pstmt.setInt(1, ids.size());
+            if (pstmt.executeUpdate() == 0) {
+                throw new SQLException("incident_change_seq has no counter row");
+            }
+        }
+        long seq;
+        try (Statement stmt = conn.createStatement();
+             ResultSet rs = stmt.executeQuery("SELECT LAST_INSERT_ID()")) {
+            rs.next();
+            seq = rs.getLong(1) - ids.size() + 1;
+        }
+        try (PreparedStatement pstmt = conn.prepareStatement(LOG_CHANGE_SQL)) {
+            for (String id : ids) {
+                pstmt.setLong(1, seq++);
+                pstmt.setString(2, id);
+                pstmt.addBatch();
+            }
+            pstmt.executeBatch();
+        }
+    }
+    
+    private static int executeForIds(Connection conn, String sql, List<String> ids) throws SQLException {
+        try (PreparedStatement pstmt = conn.prepareStatement(sql)) {
+            for (int i = 0; i < ids.size(); i++) {
+                pstmt.setString(i + 1, ids.get(i));
+            }
+            return pstmt.executeUpdate();
+        }
+    }
+    
+    private static String placeholders(int count) {
+        return String.join(", ", Collections.nCopies(count, "?"));
+    }
+    
+    private ArchivedIncident mapResultSetToArchivedIncident(ResultSet rs) throws SQLException {
+        ArchivedIncident incident = new ArchivedIncident();
+        incident.setId(rs.getString("id"));
+        incident.setType(rs.getString("type"));
+        incident.setSeverity(rs.getString("severity"));
+        incident.setLocation(rs.getString("location"));
+        incident.setLatitude(rs.getObject("latitude", Double.class));
+        incident.setLongitude(rs.getObject("longitude", Double.class));
+        incident.setDescription(rs.getString("description"));
+        
+        Timestamp ts = rs.getTimestamp("timestamp");
+        if (ts != null) {
+            incident.setTimestamp(ts.toLocalDateTime());
+        }
+        
+        incident.setReporterId(rs.getString("reporter_id"));
+        incident.setStatus(rs.getString("status"));
+        incident.setSubmissionId(rs.getString("submission_id"));
+        
+        Timestamp archivedAt = rs.getTimestamp("archived_at");
+        if (archivedAt != null) {
+            incident.setArchivedAt(archivedAt.toLocalDateTime());
+        }
+        return incident;
+    }
+}
@@ -6,12 +6,21 @@ import com.trafficnewsapp.scheduler.util.DatabaseConnection;
 import java.sql.*;
 import java.time.LocalDateTime;
 import java.util.ArrayList;
+import java.util.Collections;
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Map;
 
 /**
  * Data Access Object for Submission
  */
 public class SubmissionDAO {
+    private static final String INSERT_SQL =
+        "INSERT INTO submissions (id, incident_data, timestamp, status, next_attempt_at) VALUES (?, ?, ?, ?, ?)";
+    
+    private interface TransactionWork<T> {
+        T run(Connection conn) throws SQLException;
+    }
     
     public List<Submission> getPendingSubmissions() {
         List<Submission> submissions = new ArrayList<>();
@@ -31,31 +40,40 @@ public class SubmissionDAO {
         return submissions;
     }
     
+    /**
+     * Insert or update a submission in a single atomic statement
+     */
     public boolean saveSubmission(Submission submission) {
         if (submission.getId() == null) {
             submission.setId(Submission.generateId());
         }
         
-        Submission existing = getSubmissionById(submission.getId());
+        String sql = INSERT_SQL + " ON DUPLICATE KEY UPDATE incident_data = VALUES(incident_data), " +
+                    "timestamp = VALUES(timestamp), status = VALUES(status), next_attempt_at = VALUES(next_attempt_at)";
         
-        if (existing != null) {
-            return updateSubmission(submission);
-        } else {
-            return insertSubmission(submission);
+        try (Connection conn = DatabaseConnection.getConnection();
+             PreparedStatement pstmt = conn.prepareStatement(sql)) {
+            
+            bindInsertParameters(pstmt, submission);
+            return pstmt.executeUpdate() > 0;
+        } catch (SQLException e) {
+            System.err.println("Error saving submission: " + e.getMessage());
+            return false;
         }
     }
     
-    private boolean insertSubmission(Submission submission) {
-        String sql = "INSERT INTO submissions (id, incident_data, timestamp, status) VALUES (?, ?, ?, ?)";
+    /**
+     * Insert a new submission (insert-only: fails if the ID already exists)
+     */
+    public boolean insertSubmission(Submission submission) {
+        if (submission.getId() == null) {
+            submission.setId(Submission.generateId());
+        }
         
         try (Connection conn = DatabaseConnection.getConnection();
-             PreparedStatement pstmt = conn.prepareStatement(sql)) {
-            
-            pstmt.setString(1, submission.getId());
-            pstmt.setString(2, submission.getIncidentData());
-            pstmt.setTimestamp(3, Timestamp.valueOf(submission.getTimestamp()));
-            pstmt.setString(4, submission.getStatus());
+             PreparedStatement pstmt = conn.prepareStatement(INSERT_SQL)) {
             
+            bindInsertParameters(pstmt, submission);
             return pstmt.executeUpdate() > 0;
         } catch (SQLException e) {
             System.err.println("Error inserting submission: " + e.getMessage());
@@ -63,7 +81,10 @@ public class SubmissionDAO {
         }
     }
     
-    private boolean updateSubmission(Submission submission) {
+    /**
+     * Update an existing submission (update-only: never creates a row)
+     */
+    public boolean updateSubmission(Submission submission) {
         String sql = "UPDATE submissions SET incident_data = ?, timestamp = ?, status = ? WHERE id = ?";
         
         try (Connection conn = DatabaseConnection.getConnection();
@@ -81,6 +102,219 @@ public class SubmissionDAO {
         }
     }
     
+    /**
+     * Change the status of an existing submission in one round trip
+     */
+    public boolean updateSubmissionStatus(String id, String status) {
+        String sql = "UPDATE submissions SET status = ? WHERE id = ?";
+        
+        try (Connection conn = DatabaseConnection.getConnection();
+             PreparedStatement pstmt = conn.prepareStatement(sql)) {
+            
+            pstmt.setString(1, status);
+            pstmt.setString(2, id);
+            return pstmt.executeUpdate() > 0;
+        } catch (SQLException e) {
+            System.err.println("Error updating submission status: " + e.getMessage());
+            return false;
+        }
+    }
+    
+    /**
+     * Claim up to batchSize pending submissions that are due, longest-waiting
+     * first. Only due rows are scanned (idx_status_next_attempt), rows another
+     * worker has locked are skipped (SKIP LOCKED) and the claimed rows are set
+     * to 'sending' with one more attempt before the transaction commits, so no
+     * two workers get the same submission and no lock is held while they are
+     * forwarded.
+     * @param batchSize Maximum submissions to claim
+     * @return Claimed submissions (empty if none are due or on a database error)
+     */
+    public List<Submission> claimPendingBatch(int batchSize) {
+        String selectSql = "SELECT * FROM submissions WHERE status = 'pending' AND next_attempt_at <= NOW() " +
+                          "ORDER BY next_attempt_at ASC LIMIT ? FOR UPDATE SKIP LOCKED";
+        
+        try {
+            return inTransaction(conn -> {
+                List<Submission> claimed = new ArrayList<>();
+                try (PreparedStatement pstmt = conn.prepareStatement(selectSql)) {
+                    pstmt.setInt(1, batchSize);
+                    try (ResultSet rs = pstmt.executeQuery()) {
+                        while (rs.next()) {
+                            claimed.add(mapResultSetToSubmission(rs));
+                        }
+                    }
+                }
+                if (claimed.isEmpty()) {
+                    return claimed;
+                }
+                
+                String sql = "UPDATE submissions SET status = 'sending', claimed_at = NOW(), " +
+                            "attempts = attempts + 1 WHERE id IN (" + placeholders(claimed.size()) + ")";
+                try (PreparedStatement pstmt = conn.prepareStatement(sql)) {
+                    for (int i = 0; i < claimed.size(); i++) {
+                        pstmt.setString(i + 1, claimed.get(i).getId());
+                    }
+                    pstmt.executeUpdate();
+                }
+                for (Submission submission : claimed) {
+                    submission.setStatus("sending");
+                    submission.setAttempts(submission.getAttempts() + 1);
+                }
+                return claimed;
+            });
+        } catch (SQLException e) {
+            System.err.println("Error claiming pending submissions: " + e.getMessage());
+            return new ArrayList<>();
+        }
+    }
+    
+    /**
+     * Set the status of many submissions in one statement
+     * @param ids Submission IDs
+     * @param status New status
+     * @return Number of rows updated, or -1 on a database error
+     */
+    public int updateStatusBatch(List<String> ids, String status) {
+        if (ids.isEmpty()) {
+            return 0;
+        }
+        String sql = "UPDATE submissions SET status = ?, claimed_at = NULL WHERE id IN (" +
+                    placeholders(ids.size()) + ")";
+        
+        try (Connection conn = DatabaseConnection.getConnection();
+             PreparedStatement pstmt = conn.prepareStatement(sql)) {
+            
+            pstmt.setString(1, status);
+            for (int i = 0; i < ids.size(); i++) {
+                pstmt.setString(i + 2, ids.get(i));
+            }
+            return pstmt.executeUpdate();
+        } catch (SQLException e) {
+            System.err.println("Error updating submission statuses: " + e.getMessage());
+            return -1;
+        }
+    }
+    
+    /**
+     * Record failed delivery attempts: each submission's status ('pending' to
+     * retry, 'dead' once out of attempts), next attempt time and last error
+     * are written in one JDBC batch
+     * @param submissions Submissions with their new retry state set
+     * @return true if the batch was written
+     */
+    public boolean recordFailedAttempts(List<Submission> submissions) {
+        if (submissions.isEmpty()) {
+            return true;
+        }
+        String sql = "UPDATE submissions SET status = ?, next_attempt_at = ?, last_error = ?, claimed_at = NULL " +
+                    "WHERE id = ?";
+        
+        try {
+            return inTransaction(conn -> {
+                try (PreparedStatement pstmt = conn.prepareStatement(sql)) {
+                    for (Submission submission : submissions) {
+                        pstmt.setString(1, submission.getStatus());
+                        pstmt.setTimestamp(2, Timestamp.valueOf(submission.getNextAttemptAt()));
+                        pstmt.setString(3, truncate(submission.getLastError(), 500));
+                        pstmt.setString(4, submission.getId());
+                        pstmt.addBatch();
+                    }
+                    pstmt.executeBatch();
+                }
+                return true;
+            });
+        } catch (SQLException e) {
+            System.err.println("Error recording failed submission attempts: " + e.getMessage());
+            return false;
+        }
+    }
+    
+    /**
+     * Get dead-lettered submissions, most recently dead-lettered first
+     * @param limit Maximum submissions to return
+     */
+    public List<Submission> getDeadLetters(int limit) {
+        List<Submission> submissions = new ArrayList<>();
+        String sql = "SELECT * FROM submissions WHERE status = 'dead' ORDER BY next_attempt_at DESC LIMIT ?";
+        
+        try (Connection conn = DatabaseConnection.getConnection();
+             PreparedStatement pstmt = conn.prepareStatement(sql)) {
+            
+            pstmt.setInt(1, limit);
+            try (ResultSet rs = pstmt.executeQuery()) {
+                while (rs.next()) {
+                    submissions.add(mapResultSetToSubmission(rs));
+                }
+            }
+        } catch (SQLException e) {
+            System.err.println("Error getting dead-lettered submissions: " + e.getMessage());
+        }
+        
+        return submissions;
+    }
+    
+    /**
+     * Put a dead-lettered or failed submission back in the queue with a fresh attempt count
+     * @return true if the submission was requeued
+     */
+    public boolean requeue(String id) {
+        String sql = "UPDATE submissions SET status = 'pending', attempts = 0, next_attempt_at = NOW(), " +
+                    "last_error = NULL WHERE id = ? AND status IN ('dead', 'failed')";
+        
+        try (Connection conn = DatabaseConnection.getConnection();
+             PreparedStatement pstmt = conn.prepareStatement(sql)) {
+            
+            pstmt.setString(1, id);
+            return pstmt.executeUpdate() > 0;
+        } catch (SQLException e) {
+            System.err.println("Error requeueing submission: " + e.getMessage());
+            return false;
+        }
+    }
+    
+    /**
+     * Count submissions per status
+     * @return Status -> count (empty on a database error)
+     */
+    public Map<String, Integer> countByStatus() {
+        Map<String, Integer> counts = new LinkedHashMap<>();
+        String sql = "SELECT status, COUNT(*) AS total FROM submissions GROUP BY status";
+        
+        try (Connection conn = DatabaseConnection.getConnection();
+             Statement stmt = conn.createStatement();
+             ResultSet rs = stmt.executeQuery(sql)) {
+            
+            while (rs.next()) {
+                counts.put(rs.getString("status"), rs.getInt("total"));
+            }
+        } catch (SQLException e) {
+            System.err.println("Error counting submissions: " + e.getMessage());
+        }
+        
+        return counts;
+    }
+    
+    /**
+     * Return submissions stuck in 'sending' (their worker died mid-send) to 'pending'
+     * @param claimedBefore Claims older than this are released
+     * @return Number of submissions released, or -1 on a database error
+     */
+    public int releaseStaleClaims(LocalDateTime claimedBefore) {
+        String sql = "UPDATE submissions SET status = 'pending', claimed_at = NULL " +
+                    "WHERE status = 'sending' AND claimed_at < ?";
+        
+        try (Connection conn = DatabaseConnection.getConnection();
+             PreparedStatement pstmt = conn.prepareStatement(sql)) {
+            
+            pstmt.setTimestamp(1, Timestamp.valueOf(claimedBefore));
+            return pstmt.executeUpdate();
+        } catch (SQLException e) {
+            System.err.println("Error releasing stale submission claims: " + e.getMessage());
+            return -1;
+        }
+    }
+    
     public Submission getSubmissionById(String id) {
         String sql = "SELECT * FROM submissions WHERE id = ?";
         
@@ -114,6 +348,41 @@ public class SubmissionDAO {
         }
     }
     
+    private <T> T inTransaction(TransactionWork<T> work) throws SQLException {
+        try (Connection conn = DatabaseConnection.getConnection()) {
+            conn.setAutoCommit(false);
+            try {
+                T result = work.run(conn);
+                conn.commit();
+                return result;
+            } catch (SQLException | RuntimeException e) {
+                // Anything else would reach setAutoCommit(true), which commits the partial work
+                conn.rollback();
+                throw e;
+            } finally {
+                conn.setAutoCommit(true);
+            }
+        }
+    }
+    
+    private static String truncate(String value, int maxLength) {
+        return value != null && value.length() > maxLength ? value.substring(0, maxLength) : value;
+    }
+    
+    private static String placeholders(int count) {
+        return String.join(", ", Collections.nCopies(count, "?"));
+    }
+    
+    private void bindInsertParameters(PreparedStatement pstmt, Submission submission) throws SQLException {
+        pstmt.setString(1, submission.getId());
+        pstmt.setString(2, submission.getIncidentData());
+        pstmt.setTimestamp(3, Timestamp.valueOf(submission.getTimestamp()));
+        pstmt.setString(4, submission.getStatus());
+        LocalDateTime nextAttemptAt = submission.getNextAttemptAt() != null
+            ? submission.getNextAttemptAt() : submission.getTimestamp();
+        pstmt.setTimestamp(5, Timestamp.valueOf(nextAttemptAt));
+    }
+    
     private Submission mapResultSetToSubmission(ResultSet rs) throws SQLException {
         Submission submission = new Submission();
         submission.setId(rs.getString("id"));
@@ -125,6 +394,12 @@ public class SubmissionDAO {
         }
         
         submission.setStatus(rs.getString("status"));
+        submission.setAttempts(rs.getInt("attempts"));
+        Timestamp nextAttemptAt = rs.getTimestamp("next_attempt_at");
+        if (nextAttemptAt != null) {
+            submission.setNextAttemptAt(nextAttemptAt.toLocalDateTime());
+        }
+        submission.setLastError(rs.getString("last_error"));
         return submission;
     }
 }
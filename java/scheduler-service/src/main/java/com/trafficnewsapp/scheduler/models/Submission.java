@@ -10,11 +10,15 @@ public class Submission {
     private String id;
     private String incidentData; // JSON string of incident data
     private LocalDateTime timestamp;
-    private String status; // 'pending', 'sent', 'failed'
+    private String status; // 'pending', 'sending', 'sent', 'failed', 'dead'
+    private int attempts; // Delivery attempts made so far
+    private LocalDateTime nextAttemptAt; // When a pending submission is next due
+    private String lastError;
     
     public Submission() {
         this.status = "pending";
         this.timestamp = LocalDateTime.now();
+        this.nextAttemptAt = this.timestamp;
     }
     
     public Submission(String id, String incidentData, LocalDateTime timestamp, String status) {
@@ -22,6 +26,7 @@ public class Submission {
         this.incidentData = incidentData;
         this.timestamp = timestamp != null ? timestamp : LocalDateTime.now();
         this.status = status != null ? status : "pending";
+        this.nextAttemptAt = this.timestamp;
     }
     
     public static String generateId() {
@@ -41,6 +46,15 @@ public class Submission {
     
     public String getStatus() { return status; }
     public void setStatus(String status) { this.status = status; }
+    
+    public int getAttempts() { return attempts; }
+    public void setAttempts(int attempts) { this.attempts = attempts; }
+    
+    public LocalDateTime getNextAttemptAt() { return nextAttemptAt; }
+    public void setNextAttemptAt(LocalDateTime nextAttemptAt) { this.nextAttemptAt = nextAttemptAt; }
+    
+    public String getLastError() { return lastError; }
+    public void setLastError(String lastError) { this.lastError = lastError; }
 }
 
 
@@ -0,0 +1,50 @@
+package com.trafficnewsapp.scheduler.services;
+
+/**
+ * AdaptiveInterval
+ * Interval policy for RefreshScheduler.Mode.ADAPTIVE jobs, driven by how
+ * much each run found. A run that saw n changes divides the interval by
+ * n + 1 (a burst of changes goes straight to the floor); a run that saw
+ * nothing multiplies it by the backoff factor, up to the ceiling.
+ */
+public class AdaptiveInterval {
+    private final long floorMs;
+    private final long ceilingMs;
+    private final double backoffFactor;
+    
+    /**
+     * @param floorMs Shortest interval, used while changes keep coming
+     * @param ceilingMs Longest interval, reached after enough quiet runs
+     * @param backoffFactor Growth per quiet run (at least 1)
+     */
+    public AdaptiveInterval(long floorMs, long ceilingMs, double backoffFactor) {
+        this.floorMs = Math.max(1, floorMs);
+        this.ceilingMs = Math.max(this.floorMs, ceilingMs);
+        this.backoffFactor = Math.max(1.0, backoffFactor);
+    }
+    
+    /**
+     * @return The interval clamped to [floor, ceiling]
+     */
+    public long clamp(long interval) {
+        return Math.max(floorMs, Math.min(ceilingMs, interval));
+    }
+    
+    /**
+     * @param current Interval before the run
+     * @param changes What the run found (0 if nothing changed or the run failed)
+     * @return Interval until the next run
+     */
+    public long next(long current, int changes) {
+        if (changes > 0) {
+            return clamp(current / (changes + 1L));
+        }
+        return clamp((long) Math.ceil(current * backoffFactor));
+    }
+    
+    public long getFloorMs() { return floorMs; }
+    
+    public long getCeilingMs() { return ceilingMs; }
+    
+    public double getBackoffFactor() { return backoffFactor; }
+}
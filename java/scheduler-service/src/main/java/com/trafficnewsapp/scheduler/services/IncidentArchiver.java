@@ -0,0 +1,190 @@
+package com.trafficnewsapp.scheduler.services;
+
+import com.trafficnewsapp.scheduler.dao.IncidentArchiveDAO;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Properties;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.IntSupplier;
+
+/**
+ * IncidentArchiver
+ * Background job that keeps the incidents table small by moving expired
+ * incidents (older than archive.maxAgeDays) and incidents in a terminal
+ * status (archive.terminalStatuses) to incidents_archive. Each run works in
+ * bounded batches with a pause in between, so it never holds many row locks
+ * or saturates the database while users are reading.
+ */
+public class IncidentArchiver {
+    public static final String CONTEXT_ATTRIBUTE = "incidentArchiver";
+    public static final String JOB_NAME = "incident-archive";
+    
+    // Defaults, overridable through archive.* context-params in web.xml
+    private static final int DEFAULT_MAX_AGE_DAYS = 30;
+    private static final String DEFAULT_TERMINAL_STATUSES = "rejected";
+    private static final int DEFAULT_BATCH_SIZE = 500;
+    private static final long DEFAULT_BATCH_PAUSE_MS = 250;
+    private static final int DEFAULT_MAX_BATCHES_PER_RUN = 200;
+    private static final long DEFAULT_INTERVAL_MS = 3600000; // 1 hour
+    
+    private final IncidentArchiveDAO archiveDAO;
+    private final int maxAgeDays;
+    private final List<String> terminalStatuses;
+    private final int batchSize;
+    private final long batchPauseMs;
+    private final int maxBatchesPerRun;
+    private final long intervalMs;
+    
+    private final AtomicBoolean running = new AtomicBoolean(false);
+    private final AtomicLong totalArchived = new AtomicLong();
+    private volatile boolean stopped;
+    private volatile LocalDateTime lastRunAt;
+    private volatile int lastRunArchived;
+    private volatile long lastRunMs;
+    private RefreshScheduler scheduler;
+    
+    /**
+     * @param archiveDAO Archive data access
+     * @param settings archive.* settings, may be empty
+     */
+    public IncidentArchiver(IncidentArchiveDAO archiveDAO, Properties settings) {
+        this.archiveDAO = archiveDAO;
+        this.maxAgeDays = Math.max(1, getInt(settings, "archive.maxAgeDays", DEFAULT_MAX_AGE_DAYS));
+        this.terminalStatuses = splitValues(settings.getProperty("archive.terminalStatuses", DEFAULT_TERMINAL_STATUSES));
+        this.batchSize = Math.max(1, getInt(settings, "archive.batchSize", DEFAULT_BATCH_SIZE));
+        this.batchPauseMs = Math.max(0, getLong(settings, "archive.batchPauseMs", DEFAULT_BATCH_PAUSE_MS));
+        this.maxBatchesPerRun = Math.max(1, getInt(settings, "archive.maxBatchesPerRun", DEFAULT_MAX_BATCHES_PER_RUN));
+        this.intervalMs = Math.max(5000, getLong(settings, "archive.intervalMs", DEFAULT_INTERVAL_MS));
+    }
+    
+    /**
+     * Run the archival job on the shared scheduler, archive.intervalMs after each run ends
+     */
+    public synchronized void start(RefreshScheduler scheduler) {
+        if (this.scheduler == null) {
+            stopped = false;
+            this.scheduler = scheduler;
+            scheduler.schedule(JOB_NAME, this::runOnce, 0, intervalMs, RefreshScheduler.Mode.FIXED_DELAY);
+        }
+    }
+    
+    /**
+     * Stop the job; a run in progress ends after its current batch
+     */
+    public synchronized void stop() {
+        stopped = true;
+        if (scheduler != null) {
+            scheduler.cancel(JOB_NAME);
+            scheduler = null;
+        }
+    }
+    
+    /**
+     * Archive expired and terminal incidents, at most archive.maxBatchesPerRun batches
+     * @return Number of incidents archived (0 if another run is in progress)
+     */
+    public int runOnce() {
+        if (!running.compareAndSet(false, true)) {
+            return 0;
+        }
+        try {
+            long started = System.currentTimeMillis();
+            LocalDateTime cutoff = LocalDateTime.now().minusDays(maxAgeDays);
+            List<IntSupplier> criteria = Arrays.asList(
+                () -> archiveDAO.archiveOlderThan(cutoff, batchSize),
+                () -> archiveDAO.archiveWithStatus(terminalStatuses, batchSize));
+            
+            int archived = 0;
+            int batches = 0;
+            for (IntSupplier criterion : criteria) {
+                while (batches < maxBatchesPerRun && !stopped) {
+                    int moved = criterion.getAsInt();
+                    batches++;
+                    // 0: nothing left; -1: database error, retried on the next run
+                    if (moved <= 0) {
+                        break;
+                    }
+                    archived += moved;
+                    if (moved < batchSize || !pause()) {
+                        break;
+                    }
+                }
+            }
+            
+            totalArchived.addAndGet(archived);
+            lastRunArchived = archived;
+            lastRunMs = System.currentTimeMillis() - started;
+            lastRunAt = LocalDateTime.now();
+            return archived;
+        } finally {
+            running.set(false);
+        }
+    }
+    
+    /**
+     * Get job settings and counters
+     */
+    public Map<String, Object> getStats() {
+        Map<String, Object> stats = new LinkedHashMap<>();
+        stats.put("running", running.get());
+        stats.put("lastRunAt", lastRunAt);
+        stats.put("lastRunArchived", lastRunArchived);
+        stats.put("lastRunMs", lastRunMs);
+        stats.put("totalArchived", totalArchived.get());
+        stats.put("maxAgeDays", maxAgeDays);
+        stats.put("terminalStatuses", terminalStatuses);
+        stats.put("batchSize", batchSize);
+        stats.put("intervalMs", intervalMs);
+        return stats;
+    }
+    
+    /**
+     * Pace batches so the job leaves room for user traffic
+     * @return false if interrupted
+     */
+    private boolean pause() {
+        if (batchPauseMs == 0) {
+            return true;
+        }
+        try {
+            Thread.sleep(batchPauseMs);
+            return true;
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return false;
+        }
+    }
+    
+    private static List<String> splitValues(String value) {
+        List<String> values = new ArrayList<>();
+        for (String part : value.split(",")) {
+            if (!part.trim().isEmpty()) {
+                values.add(part.trim());
+            }
+        }
+        return values;
+    }
+    
+    private static int getInt(Properties settings, String key, int defaultValue) {
+        return (int) getLong(settings, key, defaultValue);
+    }
+    
+    private static long getLong(Properties settings, String key, long defaultValue) {
+        String value = settings.getProperty(key);
+        if (value == null || value.trim().isEmpty()) {
+            return defaultValue;
+        }
+        try {
+            return Long.parseLong(value.trim());
+        } catch (NumberFormatException e) {
+            System.err.println("Invalid value for " + key + ": " + value);
+            return defaultValue;
+        }
+    }
+}
@@ -0,0 +1,93 @@
+package com.trafficnewsapp.scheduler.services;
+
+import com.google.gson.JsonElement;
+import com.google.gson.JsonObject;
+import com.google.gson.JsonParseException;
+import com.google.gson.JsonParser;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.io.Reader;
+import java.net.HttpURLConnection;
+import java.net.URL;
+import java.nio.charset.StandardCharsets;
+
+/**
+ * IncidentDeltaClient
+ * Reads incident changes from the incident-service delta sync API
+ * (GET /api/incidents?since={seq})
+ */
+public class IncidentDeltaClient {
+    public static final String DEFAULT_INCIDENTS_URL =
+        "http://localhost:8080/incident-service-1.0.0/api/incidents";
+    
+    private static final int CONNECT_TIMEOUT_MS = 3000;
+    private static final int READ_TIMEOUT_MS = 10000;
+    
+    private final String incidentsUrl;
+    
+    public IncidentDeltaClient(String incidentsUrl) {
+        this.incidentsUrl = incidentsUrl;
+    }
+    
+    /**
+     * Get the current change log position (the X-Change-Seq header of an incident list)
+     * @throws IOException if the incident-service could not be reached or sent no position
+     */
+    public long getLatestSeq() throws IOException {
+        HttpURLConnection conn = open(incidentsUrl + "?limit=1");
+        try {
+            int responseCode = conn.getResponseCode();
+            String seq = conn.getHeaderField("X-Change-Seq");
+            if (responseCode != HttpURLConnection.HTTP_OK || seq == null) {
+                throw new IOException("Incident service returned " + responseCode + " without X-Change-Seq");
+            }
+            try {
+                return Long.parseLong(seq.trim());
+            } catch (NumberFormatException e) {
+                throw new IOException("Incident service returned a malformed X-Change-Seq: " + seq, e);
+            }
+        } finally {
+            conn.disconnect();
+        }
+    }
+    
+    /**
+     * Get the incidents changed after a change log position
+     * @param since Change sequence from the previous delta
+     * @param limit Maximum changes to return
+     * @return Delta JSON: changes, seq, hasMore and resync
+     * @throws IOException if the incident-service could not be reached or sent no delta
+     */
+    public JsonObject getChangesSince(long since, int limit) throws IOException {
+        HttpURLConnection conn = open(incidentsUrl + "?since=" + since + "&limit=" + limit);
+        try {
+            int responseCode = conn.getResponseCode();
+            if (responseCode != HttpURLConnection.HTTP_OK) {
+                throw new IOException("Incident service returned " + responseCode + " for changes since " + since);
+            }
+            try (InputStream in = conn.getInputStream();
+                 Reader reader = new InputStreamReader(in, StandardCharsets.UTF_8)) {
+                JsonElement delta = JsonParser.parseReader(reader);
+                if (!delta.isJsonObject() || !delta.getAsJsonObject().has("seq")) {
+                    throw new IOException("Incident service returned a delta without seq");
+                }
+                return delta.getAsJsonObject();
+            } catch (JsonParseException e) {
+                throw new IOException("Incident service returned a malformed delta", e);
+            }
+        } finally {
+            conn.disconnect();
+        }
+    }
+    
+    private HttpURLConnection open(String url) throws IOException {
+        HttpURLConnection conn = (HttpURLConnection) new URL(url).openConnection();
+        conn.setRequestMethod("GET");
+        conn.setConnectTimeout(CONNECT_TIMEOUT_MS);
+        conn.setReadTimeout(READ_TIMEOUT_MS);
+        conn.setRequestProperty("Accept", "application/json");
+        return conn;
+    }
+}
@@ -0,0 +1,47 @@
+package com.trafficnewsapp.scheduler.services;
+
+import com.google.gson.JsonObject;
+
+import java.io.IOException;
+import java.util.List;
+
+/**
+ * IncidentDeltaSubscriber
+ * Receives the incident changes fetched by IncidentRefreshHub.
+ * Callbacks are made one at a time and in order, but outside the hub's
+ * lock. They still hold up delivery to the other subscribers, so they
+ * must not block: queue the write or hand it off. Throwing IOException
+ * unsubscribes and closes the subscriber.
+ */
+public interface IncidentDeltaSubscriber {
+    
+    /**
+     * Called once when subscribing to a hub that knows its position
+     * @param seq Change log position the subscriber is now at
+     * @param resync true if the requested resume point was lost and the client must reload
+     */
+    void onOpen(long seq, boolean resync) throws IOException;
+    
+    /**
+     * Deliver the changes fetched by one refresh (or a resuming client's backlog)
+     * @param changes Incident changes in seq order, as returned by the incident-service
+     * @param seq Change log position after these changes
+     */
+    void onChanges(List<JsonObject> changes, long seq) throws IOException;
+    
+    /**
+     * The subscriber's position can no longer be resumed; the client must reload
+     * @param seq Change log position to continue from after reloading
+     */
+    void onResync(long seq) throws IOException;
+    
+    /**
+     * Periodic keep-alive, used to detect dead connections
+     */
+    void onHeartbeat() throws IOException;
+    
+    /**
+     * Release the connection (called once, after unsubscribing)
+     */
+    void close();
+}
@@ -0,0 +1,187 @@
+package com.trafficnewsapp.scheduler.services;
+
+import com.google.gson.JsonArray;
+import com.google.gson.JsonElement;
+import com.google.gson.JsonObject;
+import com.google.gson.JsonParseException;
+import com.google.gson.JsonParser;
+import com.trafficnewsapp.scheduler.models.Submission;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.io.OutputStream;
+import java.io.Reader;
+import java.net.HttpURLConnection;
+import java.net.URL;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * IncidentForwarder
+ * Sends queued submissions to the incident-service as one batch request
+ * (POST /api/incidents/batch) and reports the outcome per submission.
+ * The incident-service saves a batch in one transaction, so one item the
+ * database refuses (e.g. a value too long for its column) fails every item
+ * with it. Failed items are sent again in halves until each failure is
+ * alone, so only the bad item is retried (and eventually dead-lettered).
+ */
+public class IncidentForwarder {
+    public static final String DEFAULT_BATCH_URL =
+        "http://localhost:8080/incident-service-1.0.0/api/incidents/batch";
+    
+    // Outcomes, named after the submission status they lead to
+    public static final String SENT = "sent";
+    public static final String REJECTED = "failed";
+    public static final String RETRY = "pending";
+    
+    private static final int CONNECT_TIMEOUT_MS = 3000;
+    private static final int READ_TIMEOUT_MS = 30000;
+    
+    private final String batchUrl;
+    
+    public IncidentForwarder(String batchUrl) {
+        this.batchUrl = batchUrl;
+    }
+    
+    /**
+     * Forward submissions to the incident-service
+     * @param submissions Claimed submissions
+     * @return Submission ID -> SENT, REJECTED (invalid, never retried) or RETRY
+     * @throws IOException if the incident-service could not be reached or gave no per-item results
+     */
+    public Map<String, String> forward(List<Submission> submissions) throws IOException {
+        Map<String, String> outcomes = new LinkedHashMap<>();
+        List<Submission> forwarded = new ArrayList<>();
+        List<JsonObject> incidents = new ArrayList<>();
+        for (Submission submission : submissions) {
+            JsonObject incident = toIncident(submission);
+            if (incident == null) {
+                outcomes.put(submission.getId(), REJECTED);
+            } else {
+                forwarded.add(submission);
+                incidents.add(incident);
+            }
+        }
+        if (!forwarded.isEmpty()) {
+            send(forwarded, incidents, outcomes);
+        }
+        return outcomes;
+    }
+    
+    /**
+     * Send one batch, record its outcomes and split its failed items
+     * @throws IOException if the incident-service could not be reached or gave no per-item results
+     */
+    private void send(List<Submission> forwarded, List<JsonObject> incidents, Map<String, String> outcomes)
+            throws IOException {
+        JsonArray body = new JsonArray();
+        for (JsonObject incident : incidents) {
+            body.add(incident);
+        }
+        JsonArray results = post(body);
+        
+        List<Integer> failed = new ArrayList<>();
+        for (int i = 0; i < forwarded.size(); i++) {
+            String status = null;
+            if (i < results.size() && results.get(i).isJsonObject()) {
+                JsonElement itemStatus = results.get(i).getAsJsonObject().get("status");
+                status = itemStatus != null && itemStatus.isJsonPrimitive() ? itemStatus.getAsString() : null;
+            }
+            if ("saved".equals(status)) {
+                outcomes.put(forwarded.get(i).getId(), SENT);
+            } else if ("invalid".equals(status)) {
+                outcomes.put(forwarded.get(i).getId(), REJECTED);
+            } else {
+                outcomes.put(forwarded.get(i).getId(), RETRY);
+                failed.add(i);
+            }
+        }
+        if (failed.size() < 2) {
+            return;
+        }
+        
+        // Failed together: send each half on its own, at most 2n - 1 requests for n items
+        int half = failed.size() / 2;
+        for (List<Integer> part : List.of(failed.subList(0, half), failed.subList(half, failed.size()))) {
+            List<Submission> partSubmissions = new ArrayList<>();
+            List<JsonObject> partIncidents = new ArrayList<>();
+            for (int i : part) {
+                partSubmissions.add(forwarded.get(i));
+                partIncidents.add(incidents.get(i));
+            }
+            try {
+                send(partSubmissions, partIncidents, outcomes);
+            } catch (IOException e) {
+                // Unreachable now: the rest stays RETRY for the next attempt
+                System.err.println("Error forwarding part of a failed batch: " + e.getMessage());
+                return;
+            }
+        }
+    }
+    
+    /**
+     * Build the incident to send. The incident ID is derived from the
+     * submission ID unless the client chose one, so sending the same
+     * submission twice updates one incident instead of creating two.
+     * @return Incident JSON, or null if the submission data is not a JSON object
+     */
+    private static JsonObject toIncident(Submission submission) {
+        JsonElement data;
+        try {
+            data = submission.getIncidentData() != null ? JsonParser.parseString(submission.getIncidentData()) : null;
+        } catch (JsonParseException e) {
+            return null;
+        }
+        if (data == null || !data.isJsonObject()) {
+            return null;
+        }
+        JsonObject incident = data.getAsJsonObject();
+        if (!incident.has("id") || incident.get("id").isJsonNull()) {
+            String id = submission.getId();
+            incident.addProperty("id", "inc_" + (id.startsWith("sub_") ? id.substring(4) : id));
+        }
+        incident.addProperty("submissionId", submission.getId());
+        return incident;
+    }
+    
+    /**
+     * POST the batch and return its per-item results (in request order)
+     */
+    private JsonArray post(JsonArray body) throws IOException {
+        HttpURLConnection conn = (HttpURLConnection) new URL(batchUrl).openConnection();
+        try {
+            conn.setRequestMethod("POST");
+            conn.setConnectTimeout(CONNECT_TIMEOUT_MS);
+            conn.setReadTimeout(READ_TIMEOUT_MS);
+            conn.setDoOutput(true);
+            conn.setRequestProperty("Content-Type", "application/json");
+            conn.setRequestProperty("Accept", "application/json");
+            try (OutputStream out = conn.getOutputStream()) {
+                out.write(body.toString().getBytes(StandardCharsets.UTF_8));
+            }
+            
+            int responseCode = conn.getResponseCode();
+            // A 500 still carries per-item results ("failed" items are retried)
+            InputStream in = responseCode >= 400 ? conn.getErrorStream() : conn.getInputStream();
+            if (in == null) {
+                throw new IOException("Incident service returned " + responseCode);
+            }
+            try (Reader reader = new InputStreamReader(in, StandardCharsets.UTF_8)) {
+                JsonElement response = JsonParser.parseReader(reader);
+                JsonElement results = response.isJsonObject() ? response.getAsJsonObject().get("results") : null;
+                if (results == null || !results.isJsonArray()) {
+                    throw new IOException("Incident service returned " + responseCode + " without batch results");
+                }
+                return results.getAsJsonArray();
+            } catch (JsonParseException e) {
+                throw new IOException("Incident service returned " + responseCode + " with a malformed body", e);
+            }
+        } finally {
+            conn.disconnect();
+        }
+    }
+}
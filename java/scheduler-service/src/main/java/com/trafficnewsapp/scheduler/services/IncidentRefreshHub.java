@@ -0,0 +1,417 @@
+package com.trafficnewsapp.scheduler.services;
+
+import com.google.gson.JsonArray;
+import com.google.gson.JsonElement;
+import com.google.gson.JsonObject;
+
+import java.io.IOException;
+import java.time.LocalDateTime;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Deque;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Properties;
+import java.util.Set;
+
+/**
+ * IncidentRefreshHub
+ * Server-side incident refresh: one scheduled job reads the incident delta
+ * from the incident-service every refresh.intervalMs and fans it out to
+ * every connected client (SSE streams and long-polls). N clients cost one
+ * delta read per interval instead of N list reads. Recent changes are kept
+ * in a bounded buffer so clients can resume from their last position.
+ * With refresh.adaptive the interval follows the incident change rate:
+ * down towards refresh.minIntervalMs while incidents keep changing, and
+ * backing off towards refresh.maxIntervalMs while nothing changes.
+ *
+ * Subscribers are called outside the hub's lock, one delivery at a time,
+ * so a slow client cannot hold up subscribe, poll or the stats.
+ */
+public class IncidentRefreshHub {
+    public static final String CONTEXT_ATTRIBUTE = "incidentRefreshHub";
+    public static final String JOB_NAME = "incident-refresh";
+    public static final String HEARTBEAT_JOB_NAME = "incident-refresh-heartbeat";
+    
+    // Defaults, overridable through refresh.* context-params in web.xml
+    private static final long DEFAULT_INTERVAL_MS = 30000;
+    private static final long DEFAULT_MIN_INTERVAL_MS = 5000;
+    private static final long DEFAULT_MAX_INTERVAL_MS = 300000; // 5 minutes
+    private static final double DEFAULT_BACKOFF_FACTOR = 2.0;
+    private static final int DEFAULT_BUFFER_SIZE = 1000;
+    private static final int DEFAULT_PAGE_SIZE = 500;
+    private static final long DEFAULT_POLL_TIMEOUT_MS = 25000;
+    private static final int MAX_PAGES_PER_REFRESH = 20;
+    private static final long HEARTBEAT_MS = 15000;
+    
+    private final IncidentDeltaClient client;
+    private final long intervalMs;
+    private final AdaptiveInterval adaptiveInterval; // null for a fixed interval
+    private final int bufferSize;
+    private final int pageSize;
+    private final long pollTimeoutMs;
+    
+    // All guarded by this
+    private final Deque<JsonObject> buffer = new ArrayDeque<>();
+    private final Set<IncidentDeltaSubscriber> subscribers = new LinkedHashSet<>();
+    private long seq = -1; // -1 until the first refresh finds the incident-service's position
+    private long bufferedFrom; // every change after this seq is in the buffer
+    private long refreshes;
+    private long failedRefreshes;
+    private long changesFetched;
+    private LocalDateTime lastRefreshAt;
+    
+    private RefreshScheduler scheduler;
+    
+    // Held while calling subscribers so deliveries keep their order. Taken
+    // before the hub's lock (never while holding it): state changes and the
+    // subscriber snapshot happen under both, the callbacks under this alone.
+    private final Object deliveryLock = new Object();
+    
+    /**
+     * @param settings refresh.* settings, may be empty
+     */
+    public IncidentRefreshHub(Properties settings) {
+        this.client = new IncidentDeltaClient(
+            settings.getProperty("refresh.incidentServiceUrl", IncidentDeltaClient.DEFAULT_INCIDENTS_URL));
+        this.intervalMs = Math.max(1000, getLong(settings, "refresh.intervalMs", DEFAULT_INTERVAL_MS));
+        this.adaptiveInterval = "false".equalsIgnoreCase(settings.getProperty("refresh.adaptive"))
+            ? null
+            : new AdaptiveInterval(
+                getLong(settings, "refresh.minIntervalMs", DEFAULT_MIN_INTERVAL_MS),
+                getLong(settings, "refresh.maxIntervalMs", DEFAULT_MAX_INTERVAL_MS),
+                getDouble(settings, "refresh.backoffFactor", DEFAULT_BACKOFF_FACTOR));
+        this.bufferSize = Math.max(1, (int) getLong(settings, "refresh.bufferSize", DEFAULT_BUFFER_SIZE));
+        this.pageSize = Math.max(1, (int) getLong(settings, "refresh.pageSize", DEFAULT_PAGE_SIZE));
+        this.pollTimeoutMs = Math.max(1000, getLong(settings, "refresh.pollTimeoutMs", DEFAULT_POLL_TIMEOUT_MS));
+    }
+    
+    /**
+     * Schedule the refresh and heartbeat jobs on the shared scheduler
+     */
+    public synchronized void start(RefreshScheduler scheduler) {
+        if (this.scheduler == null) {
+            this.scheduler = scheduler;
+            if (adaptiveInterval != null) {
+                scheduler.scheduleAdaptive(JOB_NAME, this::refresh, 0, intervalMs, adaptiveInterval);
+            } else {
+                scheduler.schedule(JOB_NAME, this::refresh, 0, intervalMs, RefreshScheduler.Mode.FIXED_DELAY);
+            }
+            scheduler.schedule(HEARTBEAT_JOB_NAME, this::sendHeartbeats, HEARTBEAT_MS, HEARTBEAT_MS,
+                               RefreshScheduler.Mode.FIXED_RATE);
+        }
+    }
+    
+    /**
+     * Cancel the jobs and close every connected client
+     */
+    public void stop() {
+        List<IncidentDeltaSubscriber> connected;
+        synchronized (this) {
+            if (scheduler != null) {
+                scheduler.cancel(JOB_NAME);
+                scheduler.cancel(HEARTBEAT_JOB_NAME);
+                scheduler = null;
+            }
+            connected = new ArrayList<>(subscribers);
+            subscribers.clear();
+        }
+        connected.forEach(IncidentDeltaSubscriber::close);
+    }
+    
+    /**
+     * Read the changes since the last refresh from the incident-service and publish them
+     * @return Number of changes found (a resync counts as one), 0 if none or on failure
+     */
+    public int refresh() {
+        long from;
+        synchronized (this) {
+            from = seq;
+        }
+        try {
+            if (from < 0) {
+                initialize(client.getLatestSeq());
+                return 0;
+            }
+            
+            List<JsonObject> fetched = new ArrayList<>();
+            long position = from;
+            for (int page = 0; page < MAX_PAGES_PER_REFRESH; page++) {
+                JsonObject delta = client.getChangesSince(position, pageSize);
+                position = delta.get("seq").getAsLong();
+                if (isTrue(delta, "resync")) {
+                    resync(position);
+                    return 1;
+                }
+                JsonElement changes = delta.get("changes");
+                if (changes != null && changes.isJsonArray()) {
+                    for (JsonElement change : changes.getAsJsonArray()) {
+                        if (change.isJsonObject()) {
+                            fetched.add(change.getAsJsonObject());
+                        }
+                    }
+                }
+                if (!isTrue(delta, "hasMore")) {
+                    break;
+                }
+            }
+            publish(fetched, position);
+            return fetched.size();
+        } catch (IOException | RuntimeException e) {
+            System.err.println("Error refreshing incident changes: " + e.getMessage());
+            synchronized (this) {
+                failedRefreshes++;
+            }
+            return 0;
+        }
+    }
+    
+    /**
+     * Subscribe a streaming client
+     * @param lastSeq Last position the client saw, or null to only get new changes
+     */
+    public void subscribe(IncidentDeltaSubscriber subscriber, Long lastSeq) {
+        synchronized (deliveryLock) {
+            long position;
+            List<JsonObject> backlog;
+            synchronized (this) {
+                subscribers.add(subscriber);
+                if (seq < 0) {
+                    // Told to resync once the first refresh finds the position
+                    return;
+                }
+                position = seq;
+                backlog = lastSeq != null ? changesSince(lastSeq) : null;
+            }
+            try {
+                if (lastSeq != null && backlog == null) {
+                    subscriber.onOpen(position, true);
+                } else if (backlog == null) {
+                    subscriber.onOpen(position, false);
+                } else {
+                    subscriber.onOpen(lastSeq, false);
+                    if (!backlog.isEmpty()) {
+                        subscriber.onChanges(backlog, position);
+                    }
+                }
+            } catch (IOException e) {
+                unsubscribe(subscriber);
+            }
+        }
+    }
+    
+    /**
+     * Long-poll: answer right away if there is something newer than since,
+     * otherwise subscribe the waiter until the next refresh publishes
+     * @return Delta to send now, or null if the waiter was subscribed
+     */
+    public synchronized Map<String, Object> poll(long since, IncidentDeltaSubscriber waiter) {
+        if (seq >= 0) {
+            List<JsonObject> backlog = changesSince(since);
+            if (backlog == null) {
+                return delta(Collections.emptyList(), seq, true);
+            }
+            if (!backlog.isEmpty()) {
+                return delta(backlog, seq, false);
+            }
+        }
+        subscribers.add(waiter);
+        return null;
+    }
+    
+    public void unsubscribe(IncidentDeltaSubscriber subscriber) {
+        boolean removed;
+        synchronized (this) {
+            removed = subscribers.remove(subscriber);
+        }
+        if (removed) {
+            subscriber.close();
+        }
+    }
+    
+    /**
+     * @return Current change log position, or -1 before the first refresh
+     */
+    public synchronized long getSeq() {
+        return seq;
+    }
+    
+    public long getPollTimeoutMs() {
+        return pollTimeoutMs;
+    }
+    
+    /**
+     * Get settings and counters
+     */
+    public synchronized Map<String, Object> getStats() {
+        Map<String, Object> stats = new LinkedHashMap<>();
+        stats.put("seq", seq);
+        stats.put("subscribers", subscribers.size());
+        stats.put("buffered", buffer.size());
+        stats.put("refreshes", refreshes);
+        stats.put("failedRefreshes", failedRefreshes);
+        stats.put("changesFetched", changesFetched);
+        stats.put("lastRefreshAt", lastRefreshAt);
+        stats.put("intervalMs", scheduler != null ? scheduler.getInterval(JOB_NAME) : intervalMs);
+        stats.put("adaptive", adaptiveInterval != null);
+        if (adaptiveInterval != null) {
+            stats.put("minIntervalMs", adaptiveInterval.getFloorMs());
+            stats.put("maxIntervalMs", adaptiveInterval.getCeilingMs());
+        }
+        return stats;
+    }
+    
+    /**
+     * Build a response in the incident-service delta format
+     */
+    public static Map<String, Object> delta(List<JsonObject> changes, long seq, boolean resync) {
+        JsonArray array = new JsonArray();
+        changes.forEach(array::add);
+        Map<String, Object> delta = new LinkedHashMap<>();
+        delta.put("changes", array);
+        delta.put("seq", seq);
+        delta.put("hasMore", false);
+        delta.put("resync", resync);
+        return delta;
+    }
+    
+    /**
+     * First position: clients that connected before it was known must reload
+     */
+    void initialize(long position) {
+        resync(position);
+    }
+    
+    /**
+     * The incident-service lost our position (pruned change log or a different database)
+     */
+    void resync(long position) {
+        synchronized (deliveryLock) {
+            List<IncidentDeltaSubscriber> targets;
+            synchronized (this) {
+                buffer.clear();
+                seq = position;
+                bufferedFrom = position;
+                recordRefresh(0);
+                targets = new ArrayList<>(subscribers);
+            }
+            deliver(targets, subscriber -> subscriber.onResync(position));
+        }
+    }
+    
+    /**
+     * Buffer the changes fetched by one refresh and pass them to every subscriber
+     */
+    void publish(List<JsonObject> changes, long position) {
+        synchronized (deliveryLock) {
+            List<IncidentDeltaSubscriber> targets;
+            long published;
+            synchronized (this) {
+                for (JsonObject change : changes) {
+                    buffer.addLast(change);
+                    if (buffer.size() > bufferSize) {
+                        bufferedFrom = changeSeq(buffer.removeFirst());
+                    }
+                }
+                seq = Math.max(seq, position);
+                recordRefresh(changes.size());
+                if (changes.isEmpty()) {
+                    return;
+                }
+                targets = new ArrayList<>(subscribers);
+                published = seq;
+            }
+            deliver(targets, subscriber -> subscriber.onChanges(changes, published));
+        }
+    }
+    
+    void sendHeartbeats() {
+        synchronized (deliveryLock) {
+            List<IncidentDeltaSubscriber> targets;
+            synchronized (this) {
+                targets = new ArrayList<>(subscribers);
+            }
+            deliver(targets, IncidentDeltaSubscriber::onHeartbeat);
+        }
+    }
+    
+    /**
+     * Call every target without holding the hub's lock; a target that fails is unsubscribed
+     */
+    private void deliver(List<IncidentDeltaSubscriber> targets, Delivery delivery) {
+        for (IncidentDeltaSubscriber subscriber : targets) {
+            try {
+                delivery.to(subscriber);
+            } catch (IOException e) {
+                unsubscribe(subscriber);
+            }
+        }
+    }
+    
+    private interface Delivery {
+        void to(IncidentDeltaSubscriber subscriber) throws IOException;
+    }
+    
+    private void recordRefresh(int changeCount) {
+        refreshes++;
+        changesFetched += changeCount;
+        lastRefreshAt = LocalDateTime.now();
+    }
+    
+    /**
+     * Buffered changes after a position, latest change per incident
+     * @return Changes in seq order, or null if the position is not covered by the buffer
+     */
+    private List<JsonObject> changesSince(long since) {
+        if (since > seq || since < bufferedFrom) {
+            return null;
+        }
+        Map<String, JsonObject> latest = new LinkedHashMap<>();
+        for (JsonObject change : buffer) {
+            if (changeSeq(change) > since) {
+                String id = change.has("id") ? change.get("id").getAsString() : "";
+                latest.remove(id);
+                latest.put(id, change);
+            }
+        }
+        return new ArrayList<>(latest.values());
+    }
+    
+    private static long changeSeq(JsonObject change) {
+        return change.has("seq") ? change.get("seq").getAsLong() : 0;
+    }
+    
+    private static boolean isTrue(JsonObject json, String key) {
+        JsonElement value = json.get(key);
+        return value != null && value.isJsonPrimitive() && value.getAsBoolean();
+    }
+    
+    private static long getLong(Properties settings, String key, long defaultValue) {
+        String value = settings.getProperty(key);
+        if (value == null || value.trim().isEmpty()) {
+            return defaultValue;
+        }
+        try {
+            return Long.parseLong(value.trim());
+        } catch (NumberFormatException e) {
+            System.err.println("Invalid value for " + key + ": " + value);
+            return defaultValue;
+        }
+    }
+    
+    private static double getDouble(Properties settings, String key, double defaultValue) {
+        String value = settings.getProperty(key);
+        if (value == null || value.trim().isEmpty()) {
+            return defaultValue;
+        }
+        try {
+            return Double.parseDouble(value.trim());
+        } catch (NumberFormatException e) {
+            System.err.println("Invalid value for " + key + ": " + value);
+            return defaultValue;
+        }
+    }
+}
@@ -30,7 +30,7 @@ public class OfflineSubmissionQueue {
         submission.setStatus(isOnline ? "pending" : "pending");
         submission.setTimestamp(java.time.LocalDateTime.now());
         
-        boolean saved = submissionDAO.saveSubmission(submission);
+        boolean saved = submissionDAO.insertSubmission(submission);
         return saved ? submission : null;
     }
     
@@ -48,26 +48,35 @@ public class OfflineSubmissionQueue {
      * @return true if successful
      */
     public boolean processSubmission(String submissionId) {
-        Submission submission = submissionDAO.getSubmissionById(submissionId);
-        if (submission != null) {
-            submission.setStatus("sent");
-            return submissionDAO.saveSubmission(submission);
-        }
-        return false;
+        return submissionDAO.updateSubmissionStatus(submissionId, "sent");
     }
     
     /**
-     * Mark submission as failed
+     * Mark submission as failed (its data was rejected and it is not retried;
+     * delivery failures are retried by SubmissionDrainWorker instead)
      * @param submissionId Submission ID
      * @return true if successful
      */
     public boolean markAsFailed(String submissionId) {
-        Submission submission = submissionDAO.getSubmissionById(submissionId);
-        if (submission != null) {
-            submission.setStatus("failed");
-            return submissionDAO.saveSubmission(submission);
-        }
-        return false;
+        return submissionDAO.updateSubmissionStatus(submissionId, "failed");
+    }
+    
+    /**
+     * Get submissions that ran out of delivery attempts
+     * @param limit Maximum submissions to return
+     * @return Dead-lettered submissions, most recent first
+     */
+    public List<Submission> getDeadLetters(int limit) {
+        return submissionDAO.getDeadLetters(limit);
+    }
+    
+    /**
+     * Give a dead-lettered or failed submission a fresh set of attempts
+     * @param submissionId Submission ID
+     * @return true if the submission was requeued
+     */
+    public boolean requeue(String submissionId) {
+        return submissionDAO.requeue(submissionId);
     }
     
     public void setOnline(boolean online) {
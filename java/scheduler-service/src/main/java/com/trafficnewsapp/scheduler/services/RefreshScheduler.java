@@ -1,109 +1,363 @@
 package com.trafficnewsapp.scheduler.services;
 
-import java.util.Timer;
-import java.util.TimerTask;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.IntSupplier;
 
 /**
  * RefreshScheduler (C07)
  * Business Logic Layer - Auto-refresh functionality
+ *
+ * Runs named periodic jobs on one shared ScheduledExecutorService. A job
+ * that throws is logged and keeps its schedule, a job never runs twice at
+ * the same time, and every job records how long its runs take. Fixed-rate
+ * jobs that overrun their interval are reported, and the ticks they fell
+ * behind on are skipped instead of run back to back. Adaptive jobs pick
+ * their next interval from what each run found (see AdaptiveInterval).
  */
 public class RefreshScheduler {
-    private Timer timer;
-    private long interval; // milliseconds
-    private boolean isRunning;
-    private Runnable refreshCallback;
-    
-    public RefreshScheduler(Runnable refreshCallback, long interval) {
-        this.refreshCallback = refreshCallback;
-        this.interval = interval;
-        this.isRunning = false;
+    public static final String CONTEXT_ATTRIBUTE = "refreshScheduler";
+    
+    public static final int DEFAULT_POOL_SIZE = 4;
+    // Shortest interval setInterval accepts for a fixed-mode job
+    public static final long MIN_INTERVAL_MS = 5000;
+    private static final long SHUTDOWN_TIMEOUT_MS = 10000;
+    
+    /**
+     * FIXED_DELAY waits the interval after each run ends; FIXED_RATE starts
+     * a run every interval, whatever the previous run took; ADAPTIVE waits
+     * an interval recomputed after each run from the changes it reports
+     */
+    public enum Mode { FIXED_DELAY, FIXED_RATE, ADAPTIVE }
+    
+    private final ScheduledExecutorService executor;
+    private final Map<String, Job> jobs = new ConcurrentHashMap<>();
+    
+    public RefreshScheduler(int poolSize) {
+        AtomicInteger threadNumber = new AtomicInteger();
+        this.executor = Executors.newScheduledThreadPool(Math.max(1, poolSize), r -> {
+            Thread thread = new Thread(r, "refresh-scheduler-" + threadNumber.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        });
     }
     
-    public RefreshScheduler(Runnable refreshCallback) {
-        this(refreshCallback, 30000); // Default 30 seconds
+    public RefreshScheduler() {
+        this(DEFAULT_POOL_SIZE);
     }
     
     /**
-     * Start auto-refresh
-     * @return true if started successfully
+     * Schedule a named job
+     * @param name Unique job name
+     * @param task Work to run
+     * @param initialDelayMs Delay before the first run
+     * @param interval Interval in milliseconds
+     * @param mode FIXED_DELAY or FIXED_RATE
+     * @return true if scheduled, false if the name is taken, the interval is not positive or the scheduler is shut down
      */
-    public boolean start() {
-        if (isRunning) {
+    public synchronized boolean schedule(String name, Runnable task, long initialDelayMs, long interval, Mode mode) {
+        if (interval <= 0) {
+            System.err.println("Refresh interval must be positive: " + name);
             return false;
         }
-        
-        timer = new Timer();
-        timer.scheduleAtFixedRate(new TimerTask() {
-            @Override
-            public void run() {
-                if (refreshCallback != null) {
-                    refreshCallback.run();
-                }
-            }
-        }, 0, interval);
-        
-        isRunning = true;
-        return true;
+        if (mode == Mode.ADAPTIVE) {
+            throw new IllegalArgumentException("Use scheduleAdaptive for adaptive jobs");
+        }
+        return register(new Job(name, () -> {
+            task.run();
+            return 0;
+        }, mode, interval, null), initialDelayMs);
     }
     
     /**
-     * Stop auto-refresh
-     * @return true if stopped successfully
+     * Schedule a named job whose interval follows the changes it finds:
+     * shorter while things are changing, backing off while they are not
+     * @param name Unique job name
+     * @param task Work to run; returns the number of changes it found
+     * @param initialDelayMs Delay before the first run
+     * @param interval Starting interval in milliseconds (clamped to the policy)
+     * @param policy Floor, ceiling and backoff of the interval
+     * @return true if scheduled, false if the name is taken or the scheduler is shut down
      */
-    public boolean stop() {
-        if (!isRunning) {
+    public synchronized boolean scheduleAdaptive(String name, IntSupplier task, long initialDelayMs,
+                                                 long interval, AdaptiveInterval policy) {
+        return register(new Job(name, task, Mode.ADAPTIVE, policy.clamp(interval), policy), initialDelayMs);
+    }
+    
+    private boolean register(Job job, long initialDelayMs) {
+        if (jobs.containsKey(job.name) || executor.isShutdown()) {
             return false;
         }
-        
-        if (timer != null) {
-            timer.cancel();
-            timer = null;
+        jobs.put(job.name, job);
+        job.submit(Math.max(0, initialDelayMs));
+        return true;
+    }
+    
+    /**
+     * Cancel a job; a run in progress is allowed to finish
+     * @return true if the job was scheduled
+     */
+    public synchronized boolean cancel(String name) {
+        Job job = jobs.remove(name);
+        if (job == null) {
+            return false;
         }
-        
-        isRunning = false;
+        job.future.cancel(false);
         return true;
     }
     
     /**
-     * Set refresh interval
+     * Change a job's interval; the next run is one new interval from now.
+     * A fixed-mode job needs at least MIN_INTERVAL_MS. An adaptive job
+     * starts adapting again from the new interval, clamped to its floor
+     * and ceiling.
      * @param interval Interval in milliseconds
      * @return true if set successfully
      */
-    public boolean setInterval(long interval) {
-        if (interval < 5000) {
-            System.err.println("Refresh interval too short, minimum is 5000ms");
+    public synchronized boolean setInterval(String name, long interval) {
+        Job job = jobs.get(name);
+        if (job == null || interval <= 0) {
             return false;
         }
-        
-        this.interval = interval;
-        
-        // Restart if running
-        if (isRunning) {
-            stop();
-            start();
+        if (job.policy == null && interval < MIN_INTERVAL_MS) {
+            System.err.println("Refresh interval too short, minimum is " + MIN_INTERVAL_MS + "ms");
+            return false;
         }
-        
+        job.future.cancel(false);
+        job.interval = job.policy != null ? job.policy.clamp(interval) : interval;
+        job.submit(job.interval);
         return true;
     }
     
-    public long getInterval() {
-        return interval;
+    /**
+     * @return The job's interval in milliseconds, or -1 if it is not scheduled
+     */
+    public long getInterval(String name) {
+        Job job = jobs.get(name);
+        return job != null ? job.interval : -1;
+    }
+    
+    public boolean isScheduled(String name) {
+        return jobs.containsKey(name);
     }
     
     public boolean isRunning() {
-        return isRunning;
+        return !executor.isShutdown();
+    }
+    
+    /**
+     * Get settings and run metrics for every job, by name
+     */
+    public List<Map<String, Object>> getJobStats() {
+        List<Map<String, Object>> stats = new ArrayList<>();
+        jobs.keySet().stream().sorted().forEach(name -> {
+            Job job = jobs.get(name);
+            if (job != null) {
+                stats.add(job.stats());
+            }
+        });
+        return stats;
+    }
+    
+    /**
+     * Cancel all jobs and stop the threads, waiting for runs in progress to finish
+     */
+    public void shutdown() {
+        synchronized (this) {
+            for (Job job : jobs.values()) {
+                job.future.cancel(false);
+            }
+            jobs.clear();
+            executor.shutdown();
+        }
+        try {
+            if (!executor.awaitTermination(SHUTDOWN_TIMEOUT_MS, TimeUnit.MILLISECONDS)) {
+                System.err.println("Refresh scheduler jobs did not finish in time, interrupting them");
+                executor.shutdownNow();
+            }
+        } catch (InterruptedException e) {
+            executor.shutdownNow();
+            Thread.currentThread().interrupt();
+        }
+    }
+    
+    /**
+     * One named job and its run metrics
+     */
+    private class Job implements Runnable {
+        private final String name;
+        private final IntSupplier task;
+        private final Mode mode;
+        private final AdaptiveInterval policy; // adaptive only
+        private final AtomicBoolean inProgress = new AtomicBoolean(false);
+        private volatile long interval;
+        private volatile ScheduledFuture<?> future;
+        
+        // Tick the executor is expected to fire next (fixed rate only)
+        private long nextTickAt;
+        // Bumped on every submit so only the latest adaptive chain reschedules itself
+        private long generation;
+        
+        private long runs;
+        private long failures;
+        private long overruns;
+        private long skipped;
+        private long totalDurationMs;
+        private long maxDurationMs;
+        private long lastDurationMs;
+        private LocalDateTime lastRunAt;
+        private String lastError;
+        private int lastChanges;
+        private double changesPerMinute;
+        
+        Job(String name, IntSupplier task, Mode mode, long interval, AdaptiveInterval policy) {
+            this.name = name;
+            this.task = task;
+            this.mode = mode;
+            this.interval = interval;
+            this.policy = policy;
+        }
+        
+        void submit(long initialDelayMs) {
+            long submitted;
+            synchronized (this) {
+                nextTickAt = System.currentTimeMillis() + initialDelayMs;
+                submitted = ++generation;
+            }
+            if (mode == Mode.ADAPTIVE) {
+                future = executor.schedule(() -> runAdaptive(submitted), initialDelayMs, TimeUnit.MILLISECONDS);
+            } else if (mode == Mode.FIXED_RATE) {
+                future = executor.scheduleAtFixedRate(this, initialDelayMs, interval, TimeUnit.MILLISECONDS);
+            } else {
+                future = executor.scheduleWithFixedDelay(this, initialDelayMs, interval, TimeUnit.MILLISECONDS);
+            }
+        }
+        
+        @Override
+        public void run() {
+            execute();
+        }
+        
+        /**
+         * Run once, then schedule the next run one adapted interval later
+         * (unless the job was cancelled or rescheduled meanwhile)
+         */
+        private void runAdaptive(long submitted) {
+            long covered = interval;
+            int changes = execute();
+            synchronized (RefreshScheduler.this) {
+                if (jobs.get(name) != this || submitted != generation || executor.isShutdown()) {
+                    return;
+                }
+                if (changes >= 0) {
+                    synchronized (this) {
+                        lastChanges = changes;
+                        changesPerMinute = changes * 60000.0 / covered;
+                    }
+                    interval = policy.next(interval, changes);
+                }
+                submit(interval);
+            }
+        }
+        
+        /**
+         * @return Changes the task reported (0 if it failed), or -1 if the run was skipped
+         */
+        private int execute() {
+            long started = System.currentTimeMillis();
+            if (mode == Mode.FIXED_RATE && isCatchUpTick(started)) {
+                return -1;
+            }
+            // A rescheduled job can fire while its previous run is still going
+            if (!inProgress.compareAndSet(false, true)) {
+                synchronized (this) {
+                    skipped++;
+                }
+                return -1;
+            }
+            
+            int changes = 0;
+            String error = null;
+            try {
+                changes = Math.max(0, task.getAsInt());
+            } catch (Throwable t) {
+                // Swallowed so the executor keeps scheduling this job
+                error = t.getClass().getSimpleName() + ": " + t.getMessage();
+                System.err.println("Scheduled job " + name + " failed: " + error);
+            } finally {
+                inProgress.set(false);
+            }
+            
+            long duration = System.currentTimeMillis() - started;
+            boolean overrun = mode == Mode.FIXED_RATE && duration > interval;
+            synchronized (this) {
+                runs++;
+                totalDurationMs += duration;
+                lastDurationMs = duration;
+                maxDurationMs = Math.max(maxDurationMs, duration);
+                lastRunAt = LocalDateTime.now();
+                if (error != null) {
+                    failures++;
+                    lastError = error;
+                }
+                if (overrun) {
+                    overruns++;
+                }
+            }
+            if (overrun) {
+                System.err.println("Scheduled job " + name + " took " + duration + "ms, longer than its "
+                                   + interval + "ms interval");
+            }
+            return changes;
+        }
+        
+        /**
+         * After an overrun the executor fires the missed ticks back to back;
+         * skip every tick that is a full interval late so the job runs once
+         * and is back on schedule
+         */
+        private synchronized boolean isCatchUpTick(long now) {
+            long tick = nextTickAt;
+            nextTickAt += interval;
+            if (now - tick >= interval) {
+                skipped++;
+                return true;
+            }
+            return false;
+        }
+        
+        synchronized Map<String, Object> stats() {
+            Map<String, Object> stats = new LinkedHashMap<>();
+            stats.put("name", name);
+            stats.put("mode", mode.name());
+            stats.put("intervalMs", interval);
+            stats.put("inProgress", inProgress.get());
+            stats.put("runs", runs);
+            stats.put("failures", failures);
+            stats.put("overruns", overruns);
+            stats.put("skipped", skipped);
+            stats.put("lastRunAt", lastRunAt);
+            stats.put("lastDurationMs", lastDurationMs);
+            stats.put("avgDurationMs", runs > 0 ? totalDurationMs / runs : 0);
+            stats.put("maxDurationMs", maxDurationMs);
+            stats.put("lastError", lastError);
+            if (policy != null) {
+                stats.put("floorMs", policy.getFloorMs());
+                stats.put("ceilingMs", policy.getCeilingMs());
+                stats.put("lastChanges", lastChanges);
+                stats.put("changesPerMinute", Math.round(changesPerMinute * 10) / 10.0);
+            }
+            return stats;
+        }
     }
 }
-
-
-
-
-
-
-
-
-
-
-
-
-
@@ -0,0 +1,63 @@
+package com.trafficnewsapp.scheduler.services;
+
+import java.time.LocalDateTime;
+import java.time.temporal.ChronoUnit;
+import java.util.concurrent.ThreadLocalRandom;
+
+/**
+ * RetryPolicy
+ * Exponential backoff with jitter for submissions the incident-service could
+ * not take. The delay doubles with every attempt up to a ceiling, and a random
+ * half of it is jittered so submissions that failed together during an outage
+ * do not all come back at the same moment.
+ */
+public class RetryPolicy {
+    private final int maxAttempts;
+    private final long baseDelayMs;
+    private final long maxDelayMs;
+    
+    /**
+     * @param maxAttempts Attempts before a submission is dead-lettered
+     * @param baseDelayMs Delay after the first failed attempt
+     * @param maxDelayMs Ceiling for the delay
+     */
+    public RetryPolicy(int maxAttempts, long baseDelayMs, long maxDelayMs) {
+        this.maxAttempts = Math.max(1, maxAttempts);
+        this.baseDelayMs = Math.max(1, baseDelayMs);
+        this.maxDelayMs = Math.max(this.baseDelayMs, maxDelayMs);
+    }
+    
+    /**
+     * @param attempts Attempts made so far, including the one that just failed
+     * @return true if the submission should be dead-lettered instead of retried
+     */
+    public boolean isExhausted(int attempts) {
+        return attempts >= maxAttempts;
+    }
+    
+    /**
+     * Delay before the next attempt: a random value in [d/2, d] where
+     * d = min(maxDelayMs, baseDelayMs * 2^(attempts - 1))
+     * @param attempts Attempts made so far, including the one that just failed
+     */
+    public long nextDelayMs(int attempts) {
+        int doublings = Math.min(Math.max(0, attempts - 1), 30);
+        long delay = Math.min(maxDelayMs, baseDelayMs << doublings);
+        long half = delay / 2;
+        return half + ThreadLocalRandom.current().nextLong(delay - half + 1);
+    }
+    
+    /**
+     * @param attempts Attempts made so far, including the one that just failed
+     * @return When the submission is next due
+     */
+    public LocalDateTime nextAttemptAt(int attempts) {
+        return LocalDateTime.now().plus(nextDelayMs(attempts), ChronoUnit.MILLIS);
+    }
+    
+    public int getMaxAttempts() { return maxAttempts; }
+    
+    public long getBaseDelayMs() { return baseDelayMs; }
+    
+    public long getMaxDelayMs() { return maxDelayMs; }
+}
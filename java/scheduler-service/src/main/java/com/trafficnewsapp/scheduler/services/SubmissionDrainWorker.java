@@ -0,0 +1,241 @@
+package com.trafficnewsapp.scheduler.services;
+
+import com.trafficnewsapp.scheduler.dao.SubmissionDAO;
+import com.trafficnewsapp.scheduler.models.Submission;
+
+import java.io.IOException;
+import java.time.LocalDateTime;
+import java.time.temporal.ChronoUnit;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Properties;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * SubmissionDrainWorker
+ * Background workers that drain the offline submission queue into the
+ * incident-service. The workers are drain.parallelism jobs on the shared
+ * RefreshScheduler; each run claims batches of due submissions until none
+ * are left, then the job waits drain.idleDelayMs. Each batch is forwarded
+ * in one request and the outcomes are recorded with one UPDATE per
+ * status. Workers claim with SKIP LOCKED, so drain.parallelism workers (and
+ * several scheduler instances) can drain the same queue without overlap.
+ * Submissions that could not be delivered are retried with jittered
+ * exponential backoff (RetryPolicy) and dead-lettered after
+ * drain.maxAttempts attempts.
+ */
+public class SubmissionDrainWorker {
+    public static final String CONTEXT_ATTRIBUTE = "submissionDrainWorker";
+    public static final String JOB_NAME_PREFIX = "submission-drain-";
+    
+    // Defaults, overridable through drain.* context-params in web.xml
+    private static final int DEFAULT_PARALLELISM = 2;
+    private static final int DEFAULT_BATCH_SIZE = 100;
+    private static final long DEFAULT_IDLE_DELAY_MS = 5000;
+    private static final long DEFAULT_CLAIM_TIMEOUT_MS = 300000; // 5 minutes
+    private static final int DEFAULT_MAX_ATTEMPTS = 8;
+    private static final long DEFAULT_RETRY_BASE_DELAY_MS = 5000;
+    private static final long DEFAULT_RETRY_MAX_DELAY_MS = 3600000; // 1 hour
+    private static final String DEAD = "dead";
+    
+    private final SubmissionDAO submissionDAO;
+    private final IncidentForwarder forwarder;
+    private final RetryPolicy retryPolicy;
+    private final int parallelism;
+    private final int batchSize;
+    private final long idleDelayMs;
+    private final long claimTimeoutMs;
+    
+    private final AtomicLong sent = new AtomicLong();
+    private final AtomicLong rejected = new AtomicLong();
+    private final AtomicLong retried = new AtomicLong();
+    private final AtomicLong deadLettered = new AtomicLong();
+    private volatile boolean running;
+    private RefreshScheduler scheduler;
+    
+    /**
+     * @param submissionDAO Submission data access
+     * @param settings drain.* settings, may be empty
+     */
+    public SubmissionDrainWorker(SubmissionDAO submissionDAO, Properties settings) {
+        this.submissionDAO = submissionDAO;
+        this.forwarder = new IncidentForwarder(
+            settings.getProperty("drain.incidentServiceUrl", IncidentForwarder.DEFAULT_BATCH_URL));
+        this.parallelism = Math.max(1, (int) getLong(settings, "drain.parallelism", DEFAULT_PARALLELISM));
+        this.batchSize = Math.max(1, (int) getLong(settings, "drain.batchSize", DEFAULT_BATCH_SIZE));
+        this.idleDelayMs = Math.max(100, getLong(settings, "drain.idleDelayMs", DEFAULT_IDLE_DELAY_MS));
+        this.claimTimeoutMs = Math.max(1000, getLong(settings, "drain.claimTimeoutMs", DEFAULT_CLAIM_TIMEOUT_MS));
+        this.retryPolicy = new RetryPolicy(
+            (int) getLong(settings, "drain.maxAttempts", DEFAULT_MAX_ATTEMPTS),
+            getLong(settings, "drain.retryBaseDelayMs", DEFAULT_RETRY_BASE_DELAY_MS),
+            getLong(settings, "drain.retryMaxDelayMs", DEFAULT_RETRY_MAX_DELAY_MS));
+    }
+    
+    /**
+     * Schedule drain.parallelism worker jobs on the shared scheduler
+     */
+    public synchronized void start(RefreshScheduler scheduler) {
+        if (running) {
+            return;
+        }
+        running = true;
+        this.scheduler = scheduler;
+        for (int i = 1; i <= parallelism; i++) {
+            scheduler.schedule(JOB_NAME_PREFIX + i, this::drainUntilIdle, 0, idleDelayMs,
+                               RefreshScheduler.Mode.FIXED_DELAY);
+        }
+    }
+    
+    /**
+     * Stop the workers; each finishes the batch it is forwarding
+     */
+    public synchronized void stop() {
+        if (!running) {
+            return;
+        }
+        running = false;
+        for (int i = 1; i <= parallelism; i++) {
+            scheduler.cancel(JOB_NAME_PREFIX + i);
+        }
+        scheduler = null;
+    }
+    
+    /**
+     * Drain the due submissions on the calling thread until none are left or the incident-service fails
+     * @return Counts of the submissions handled
+     */
+    public Map<String, Object> drainNow() {
+        long sentBefore = sent.get();
+        long rejectedBefore = rejected.get();
+        long retriedBefore = retried.get();
+        long deadBefore = deadLettered.get();
+        while (drainBatch() > 0) {
+            // Keep going while batches succeed
+        }
+        
+        long processed = sent.get() - sentBefore;
+        long failed = rejected.get() - rejectedBefore;
+        long retry = retried.get() - retriedBefore;
+        long dead = deadLettered.get() - deadBefore;
+        Map<String, Object> result = new LinkedHashMap<>();
+        result.put("processed", processed);
+        result.put("failed", failed);
+        result.put("retried", retry);
+        result.put("deadLettered", dead);
+        result.put("total", processed + failed + retry + dead);
+        return result;
+    }
+    
+    /**
+     * Get worker settings and counters
+     */
+    public Map<String, Object> getStats() {
+        Map<String, Object> stats = new LinkedHashMap<>();
+        stats.put("running", running);
+        stats.put("parallelism", parallelism);
+        stats.put("batchSize", batchSize);
+        stats.put("sent", sent.get());
+        stats.put("failed", rejected.get());
+        stats.put("retried", retried.get());
+        stats.put("deadLettered", deadLettered.get());
+        stats.put("maxAttempts", retryPolicy.getMaxAttempts());
+        stats.put("retryBaseDelayMs", retryPolicy.getBaseDelayMs());
+        stats.put("retryMaxDelayMs", retryPolicy.getMaxDelayMs());
+        stats.put("queue", submissionDAO.countByStatus());
+        return stats;
+    }
+    
+    /**
+     * One scheduled run: drain until nothing is due or the incident-service fails,
+     * then recover claims abandoned by a worker that died mid-batch
+     */
+    private void drainUntilIdle() {
+        while (running && drainBatch() > 0) {
+            // Keep going while batches succeed
+        }
+        submissionDAO.releaseStaleClaims(LocalDateTime.now().minus(claimTimeoutMs, ChronoUnit.MILLIS));
+    }
+    
+    /**
+     * Claim, forward and record one batch
+     * @return Number of submissions handled, 0 if none were due, or
+     *         negative if the incident-service failed and submissions were scheduled for retry
+     */
+    private int drainBatch() {
+        List<Submission> batch = submissionDAO.claimPendingBatch(batchSize);
+        if (batch.isEmpty()) {
+            return 0;
+        }
+        
+        Map<String, String> outcomes;
+        try {
+            outcomes = forwarder.forward(batch);
+        } catch (IOException e) {
+            System.err.println("Error forwarding submissions: " + e.getMessage());
+            scheduleRetries(batch, e.getMessage());
+            return -batch.size();
+        }
+        
+        List<String> sentIds = new ArrayList<>();
+        List<String> rejectedIds = new ArrayList<>();
+        List<Submission> retries = new ArrayList<>();
+        for (Submission submission : batch) {
+            String outcome = outcomes.get(submission.getId());
+            if (IncidentForwarder.SENT.equals(outcome)) {
+                sentIds.add(submission.getId());
+            } else if (IncidentForwarder.REJECTED.equals(outcome)) {
+                rejectedIds.add(submission.getId());
+            } else {
+                retries.add(submission);
+            }
+        }
+        submissionDAO.updateStatusBatch(sentIds, IncidentForwarder.SENT);
+        submissionDAO.updateStatusBatch(rejectedIds, IncidentForwarder.REJECTED);
+        sent.addAndGet(sentIds.size());
+        rejected.addAndGet(rejectedIds.size());
+        scheduleRetries(retries, "Incident service could not save the incident");
+        // Items the incident-service could not save: stop this drain pass like for a failed request
+        return retries.isEmpty() ? batch.size() : -retries.size();
+    }
+    
+    /**
+     * Put failed submissions back with a backed-off next attempt time, or
+     * dead-letter the ones that have used up drain.maxAttempts
+     */
+    private void scheduleRetries(List<Submission> submissions, String error) {
+        if (submissions.isEmpty()) {
+            return;
+        }
+        int dead = 0;
+        for (Submission submission : submissions) {
+            submission.setLastError(error);
+            if (retryPolicy.isExhausted(submission.getAttempts())) {
+                submission.setStatus(DEAD);
+                submission.setNextAttemptAt(LocalDateTime.now());
+                dead++;
+            } else {
+                submission.setStatus(IncidentForwarder.RETRY);
+                submission.setNextAttemptAt(retryPolicy.nextAttemptAt(submission.getAttempts()));
+            }
+        }
+        // If this fails the rows stay 'sending' and come back through the claim timeout
+        submissionDAO.recordFailedAttempts(submissions);
+        deadLettered.addAndGet(dead);
+        retried.addAndGet(submissions.size() - dead);
+    }
+    
+    private static long getLong(Properties settings, String key, long defaultValue) {
+        String value = settings.getProperty(key);
+        if (value == null || value.trim().isEmpty()) {
+            return defaultValue;
+        }
+        try {
+            return Long.parseLong(value.trim());
+        } catch (NumberFormatException e) {
+            System.err.println("Invalid value for " + key + ": " + value);
+            return defaultValue;
+        }
+    }
+}
@@ -2,10 +2,23 @@ package com.trafficnewsapp.scheduler.servlets;
 
 import com.google.gson.Gson;
 import com.google.gson.GsonBuilder;
+import com.google.gson.JsonElement;
+import com.google.gson.JsonObject;
+import com.trafficnewsapp.scheduler.dao.IncidentArchiveDAO;
 import com.trafficnewsapp.scheduler.dao.SubmissionDAO;
+import com.trafficnewsapp.scheduler.models.ArchivedIncident;
 import com.trafficnewsapp.scheduler.models.Submission;
+import com.trafficnewsapp.scheduler.services.IncidentArchiver;
+import com.trafficnewsapp.scheduler.services.IncidentDeltaSubscriber;
+import com.trafficnewsapp.scheduler.services.IncidentRefreshHub;
 import com.trafficnewsapp.scheduler.services.OfflineSubmissionQueue;
+import com.trafficnewsapp.scheduler.services.RefreshScheduler;
+import com.trafficnewsapp.scheduler.services.SubmissionDrainWorker;
+import com.trafficnewsapp.scheduler.util.SseWriter;
 
+import javax.servlet.AsyncContext;
+import javax.servlet.AsyncEvent;
+import javax.servlet.AsyncListener;
 import javax.servlet.ServletException;
 import javax.servlet.http.HttpServlet;
 import javax.servlet.http.HttpServletRequest;
@@ -14,20 +27,47 @@ import java.io.IOException;
 import java.io.PrintWriter;
 import java.time.LocalDateTime;
 import java.time.format.DateTimeFormatter;
+import java.time.format.DateTimeParseException;
+import java.util.LinkedHashMap;
+import java.util.List;
 import java.util.Map;
+import java.util.Properties;
+import java.util.concurrent.atomic.AtomicBoolean;
 
 /**
  * SchedulerServlet
  * REST API endpoint for scheduler and queue operations
  */
 public class SchedulerServlet extends HttpServlet {
+    private static final int DEFAULT_LIST_LIMIT = 50;
+    private static final int MAX_LIST_LIMIT = 1000;
+    private static final int STREAM_RETRY_MS = 3000;
+    
     private OfflineSubmissionQueue offlineQueue;
+    private IncidentArchiveDAO archiveDAO;
+    private IncidentArchiver archiver;
+    private SubmissionDrainWorker drainWorker;
+    private RefreshScheduler scheduler;
+    private IncidentRefreshHub refreshHub;
     private Gson gson;
     
     @Override
     public void init() throws ServletException {
         SubmissionDAO submissionDAO = new SubmissionDAO();
         this.offlineQueue = new OfflineSubmissionQueue(submissionDAO);
+        this.archiveDAO = new IncidentArchiveDAO();
+        
+        // Shared with the background jobs started by BackgroundJobsContextListener
+        Object shared = getServletContext().getAttribute(IncidentArchiver.CONTEXT_ATTRIBUTE);
+        this.archiver = shared instanceof IncidentArchiver
+            ? (IncidentArchiver) shared : new IncidentArchiver(archiveDAO, new Properties());
+        shared = getServletContext().getAttribute(SubmissionDrainWorker.CONTEXT_ATTRIBUTE);
+        this.drainWorker = shared instanceof SubmissionDrainWorker
+            ? (SubmissionDrainWorker) shared : new SubmissionDrainWorker(submissionDAO, new Properties());
+        shared = getServletContext().getAttribute(RefreshScheduler.CONTEXT_ATTRIBUTE);
+        this.scheduler = shared instanceof RefreshScheduler ? (RefreshScheduler) shared : null;
+        shared = getServletContext().getAttribute(IncidentRefreshHub.CONTEXT_ATTRIBUTE);
+        this.refreshHub = shared instanceof IncidentRefreshHub ? (IncidentRefreshHub) shared : null;
         
         GsonBuilder gsonBuilder = new GsonBuilder();
         gsonBuilder.registerTypeAdapter(LocalDateTime.class, 
@@ -44,12 +84,18 @@ public class SchedulerServlet extends HttpServlet {
         response.setHeader("Access-Control-Allow-Methods", "GET, POST, PUT, DELETE, OPTIONS");
         response.setHeader("Access-Control-Allow-Headers", "Content-Type");
         
+        String pathInfo = request.getPathInfo();
+        
+        // Live changes fanned out from the server-side refresh: /api/scheduler/incidents/stream
+        if ("/incidents/stream".equals(pathInfo) && refreshHub != null) {
+            handleIncidentStream(request, response);
+            return;
+        }
+        
         response.setContentType("application/json");
         response.setCharacterEncoding("UTF-8");
         PrintWriter out = response.getWriter();
         
-        String pathInfo = request.getPathInfo();
-        
         try {
             if (pathInfo == null || pathInfo.equals("/")) {
                 response.setStatus(HttpServletResponse.SC_BAD_REQUEST);
@@ -61,8 +107,26 @@ public class SchedulerServlet extends HttpServlet {
             
             if (pathParts.length > 0) {
                 switch (pathParts[0]) {
+                    case "incidents":
+                        handleGetIncidentChanges(request, response, out, pathParts);
+                        break;
                     case "queue":
-                        handleGetQueue(request, response, out);
+                        if (pathParts.length == 2 && "stats".equals(pathParts[1])) {
+                            out.print(gson.toJson(drainWorker.getStats()));
+                            response.setStatus(HttpServletResponse.SC_OK);
+                        } else if (pathParts.length == 2 && "dead".equals(pathParts[1])) {
+                            handleGetDeadLetters(request, response, out);
+                        } else {
+                            handleGetQueue(request, response, out);
+                        }
+                        break;
+                    case "archive":
+                        handleGetArchive(request, response, out, pathParts);
+                        break;
+                    case "jobs":
+                        // Scheduled background jobs with their run metrics
+                        out.print(gson.toJson(scheduler != null ? scheduler.getJobStats() : List.of()));
+                        response.setStatus(HttpServletResponse.SC_OK);
                         break;
                     default:
                         response.setStatus(HttpServletResponse.SC_NOT_FOUND);
@@ -101,11 +165,23 @@ public class SchedulerServlet extends HttpServlet {
             if (pathParts.length > 0) {
                 switch (pathParts[0]) {
                     case "queue":
-                        handleAddToQueue(request, response, out);
+                        if (pathParts.length == 3 && "retry".equals(pathParts[2])) {
+                            handleRequeue(pathParts[1], response, out);
+                        } else {
+                            handleAddToQueue(request, response, out);
+                        }
                         break;
                     case "process":
                         handleProcessQueue(request, response, out);
                         break;
+                    case "archive":
+                        if (pathParts.length == 2 && "run".equals(pathParts[1])) {
+                            handleRunArchive(response, out);
+                        } else {
+                            response.setStatus(HttpServletResponse.SC_NOT_FOUND);
+                            out.print(gson.toJson(Map.of("error", "Endpoint not found")));
+                        }
+                        break;
                     default:
                         response.setStatus(HttpServletResponse.SC_NOT_FOUND);
                         out.print(gson.toJson(Map.of("error", "Endpoint not found")));
@@ -124,6 +200,357 @@ public class SchedulerServlet extends HttpServlet {
         response.setStatus(HttpServletResponse.SC_OK);
     }
     
+    /**
+     * Server-side incident refresh: /incidents/changes?since={seq} (long-poll)
+     * and /incidents/stats. A long-poll is answered as soon as there are
+     * changes after since, or with no changes after refresh.pollTimeoutMs;
+     * without since it returns the current position to start from.
+     */
+    private void handleGetIncidentChanges(HttpServletRequest request, HttpServletResponse response,
+                                          PrintWriter out, String[] pathParts) {
+        if (refreshHub == null || pathParts.length != 2) {
+            response.setStatus(HttpServletResponse.SC_NOT_FOUND);
+            out.print(gson.toJson(Map.of("error", "Endpoint not found")));
+            return;
+        }
+        if ("stats".equals(pathParts[1])) {
+            out.print(gson.toJson(refreshHub.getStats()));
+            response.setStatus(HttpServletResponse.SC_OK);
+            return;
+        }
+        if (!"changes".equals(pathParts[1])) {
+            response.setStatus(HttpServletResponse.SC_NOT_FOUND);
+            out.print(gson.toJson(Map.of("error", "Endpoint not found")));
+            return;
+        }
+        
+        String sinceParam = emptyToNull(request.getParameter("since"));
+        if (sinceParam == null) {
+            long seq = refreshHub.getSeq();
+            if (seq < 0) {
+                response.setStatus(HttpServletResponse.SC_SERVICE_UNAVAILABLE);
+                out.print(gson.toJson(Map.of("error", "Incident refresh has not run yet")));
+                return;
+            }
+            out.print(gson.toJson(IncidentRefreshHub.delta(List.of(), seq, false)));
+            response.setStatus(HttpServletResponse.SC_OK);
+            return;
+        }
+        long since;
+        try {
+            since = Long.parseLong(sinceParam);
+        } catch (NumberFormatException e) {
+            response.setStatus(HttpServletResponse.SC_BAD_REQUEST);
+            out.print(gson.toJson(Map.of("error", "Invalid since parameter")));
+            return;
+        }
+        
+        AsyncContext async = request.startAsync();
+        async.setTimeout(refreshHub.getPollTimeoutMs());
+        LongPollWaiter waiter = new LongPollWaiter(async, out, since);
+        async.addListener(new AsyncListener() {
+            @Override
+            public void onComplete(AsyncEvent event) {
+                refreshHub.unsubscribe(waiter);
+            }
+            
+            @Override
+            public void onTimeout(AsyncEvent event) {
+                // Nothing changed: an empty delta at the same position
+                waiter.respond(IncidentRefreshHub.delta(List.of(), since, false));
+            }
+            
+            @Override
+            public void onError(AsyncEvent event) {
+                waiter.close();
+            }
+            
+            @Override
+            public void onStartAsync(AsyncEvent event) {
+            }
+        });
+        Map<String, Object> ready = refreshHub.poll(since, waiter);
+        if (ready != null) {
+            waiter.respond(ready);
+        }
+    }
+    
+    /**
+     * Open a Server-Sent Events stream of the incident changes found by the
+     * server-side refresh. Same events as the incident-service stream
+     * (upsert, delete, resync); clients resume with Last-Event-ID.
+     */
+    private void handleIncidentStream(HttpServletRequest request, HttpServletResponse response) throws IOException {
+        String lastEventId = request.getHeader("Last-Event-ID");
+        if (lastEventId == null) {
+            lastEventId = request.getParameter("lastEventId");
+        }
+        Long lastSeq = null;
+        if (lastEventId != null && !lastEventId.trim().isEmpty()) {
+            try {
+                lastSeq = Long.parseLong(lastEventId.trim());
+            } catch (NumberFormatException e) {
+                lastSeq = -1L; // unknown position: forces a resync
+            }
+        }
+        
+        response.setContentType("text/event-stream");
+        response.setCharacterEncoding("UTF-8");
+        response.setHeader("Cache-Control", "no-cache");
+        
+        AsyncContext async = request.startAsync();
+        async.setTimeout(0); // dead connections are detected by heartbeats instead
+        SseSubscriber subscriber = new SseSubscriber(new SseWriter(async));
+        subscriber.writer.send("retry: " + STREAM_RETRY_MS + "\n\n");
+        async.addListener(new AsyncListener() {
+            @Override
+            public void onComplete(AsyncEvent event) {
+                refreshHub.unsubscribe(subscriber);
+            }
+            
+            @Override
+            public void onTimeout(AsyncEvent event) {
+                subscriber.close();
+            }
+            
+            @Override
+            public void onError(AsyncEvent event) {
+                subscriber.close();
+            }
+            
+            @Override
+            public void onStartAsync(AsyncEvent event) {
+            }
+        });
+        refreshHub.subscribe(subscriber, lastSeq);
+    }
+    
+    /**
+     * Answers one long-poll with the first delta that reaches it
+     */
+    private class LongPollWaiter implements IncidentDeltaSubscriber {
+        private final AsyncContext async;
+        private final PrintWriter out;
+        private final long since;
+        private final AtomicBoolean done = new AtomicBoolean();
+        
+        LongPollWaiter(AsyncContext async, PrintWriter out, long since) {
+            this.async = async;
+            this.out = out;
+            this.since = since;
+        }
+        
+        @Override
+        public void onOpen(long seq, boolean resync) {
+            // Long-polls are answered through poll(), never opened
+        }
+        
+        @Override
+        public void onChanges(List<JsonObject> changes, long seq) {
+            respondLater(IncidentRefreshHub.delta(changes, seq, false));
+        }
+        
+        @Override
+        public void onResync(long seq) {
+            respondLater(IncidentRefreshHub.delta(List.of(), seq, true));
+        }
+        
+        @Override
+        public void onHeartbeat() {
+        }
+        
+        /**
+         * Respond from a container thread, so the hub's delivery never waits on this client
+         */
+        private void respondLater(Map<String, Object> delta) {
+            try {
+                async.start(() -> respond(delta));
+            } catch (IllegalStateException e) {
+                // Already completed (timed out or disconnected)
+                refreshHub.unsubscribe(this);
+            }
+        }
+        
+        /**
+         * Send the response once: a refresh and the timeout can race
+         */
+        void respond(Map<String, Object> delta) {
+            if (done.compareAndSet(false, true)) {
+                ((HttpServletResponse) async.getResponse()).setStatus(HttpServletResponse.SC_OK);
+                out.print(gson.toJson(delta));
+                out.flush();
+                complete();
+                refreshHub.unsubscribe(this);
+            }
+        }
+        
+        @Override
+        public void close() {
+            if (done.compareAndSet(false, true)) {
+                complete();
+            }
+        }
+        
+        private void complete() {
+            try {
+                async.complete();
+            } catch (IllegalStateException e) {
+                // Already completed by the container
+            }
+        }
+    }
+    
+    /**
+     * Writes incident changes to one SSE connection without blocking the hub
+     */
+    private class SseSubscriber implements IncidentDeltaSubscriber {
+        private final SseWriter writer;
+        
+        SseSubscriber(SseWriter writer) {
+            this.writer = writer;
+        }
+        
+        @Override
+        public void onOpen(long seq, boolean resync) throws IOException {
+            if (resync) {
+                onResync(seq);
+            } else {
+                // Sets the client's Last-Event-ID without dispatching an event
+                write("id: " + seq + "\n\n");
+            }
+        }
+        
+        @Override
+        public void onChanges(List<JsonObject> changes, long seq) throws IOException {
+            StringBuilder events = new StringBuilder();
+            for (JsonObject change : changes) {
+                JsonElement incident = change.get("incident");
+                Object data = incident != null && !incident.isJsonNull() ? incident : Map.of("id", change.get("id"));
+                events.append("id: ").append(change.get("seq")).append("\nevent: ")
+                      .append(change.get("type").getAsString()).append("\ndata: ")
+                      .append(gson.toJson(data)).append("\n\n");
+            }
+            write(events.toString());
+        }
+        
+        @Override
+        public void onResync(long seq) throws IOException {
+            write("id: " + seq + "\nevent: resync\ndata: {}\n\n");
+        }
+        
+        @Override
+        public void onHeartbeat() throws IOException {
+            write(": ping\n\n");
+        }
+        
+        @Override
+        public void close() {
+            writer.close();
+        }
+        
+        private void write(String event) throws IOException {
+            writer.send(event);
+        }
+    }
+    
+    /**
+     * Submissions that ran out of delivery attempts, most recent first (optional limit)
+     */
+    private void handleGetDeadLetters(HttpServletRequest request, HttpServletResponse response,
+                                      PrintWriter out) {
+        int limit;
+        try {
+            String limitParam = emptyToNull(request.getParameter("limit"));
+            limit = limitParam != null
+                ? Math.max(1, Math.min(MAX_LIST_LIMIT, Integer.parseInt(limitParam))) : DEFAULT_LIST_LIMIT;
+        } catch (NumberFormatException e) {
+            response.setStatus(HttpServletResponse.SC_BAD_REQUEST);
+            out.print(gson.toJson(Map.of("error", "Invalid limit parameter")));
+            return;
+        }
+        
+        out.print(gson.toJson(offlineQueue.getDeadLetters(limit)));
+        response.setStatus(HttpServletResponse.SC_OK);
+    }
+    
+    /**
+     * Put a dead-lettered or failed submission back in the queue: /queue/{id}/retry
+     */
+    private void handleRequeue(String submissionId, HttpServletResponse response, PrintWriter out) {
+        if (offlineQueue.requeue(submissionId)) {
+            out.print(gson.toJson(Map.of("id", submissionId, "status", "pending")));
+            response.setStatus(HttpServletResponse.SC_OK);
+        } else {
+            response.setStatus(HttpServletResponse.SC_NOT_FOUND);
+            out.print(gson.toJson(Map.of("error", "No dead-lettered or failed submission with that ID")));
+        }
+    }
+    
+    /**
+     * Archived incidents: /archive (list), /archive/stats, /archive/{id}
+     */
+    private void handleGetArchive(HttpServletRequest request, HttpServletResponse response,
+                                  PrintWriter out, String[] pathParts) {
+        if (pathParts.length == 2 && "stats".equals(pathParts[1])) {
+            Map<String, Object> stats = new LinkedHashMap<>(archiver.getStats());
+            stats.put("archivedCount", archiveDAO.countArchived());
+            out.print(gson.toJson(stats));
+            response.setStatus(HttpServletResponse.SC_OK);
+            return;
+        }
+        if (pathParts.length == 2) {
+            ArchivedIncident incident = archiveDAO.getArchivedById(pathParts[1]);
+            if (incident != null) {
+                out.print(gson.toJson(incident));
+                response.setStatus(HttpServletResponse.SC_OK);
+            } else {
+                response.setStatus(HttpServletResponse.SC_NOT_FOUND);
+                out.print(gson.toJson(Map.of("error", "Archived incident not found")));
+            }
+            return;
+        }
+        
+        int limit;
+        int offset;
+        LocalDateTime since;
+        LocalDateTime until;
+        try {
+            String limitParam = emptyToNull(request.getParameter("limit"));
+            String offsetParam = emptyToNull(request.getParameter("offset"));
+            limit = limitParam != null
+                ? Math.max(1, Math.min(MAX_LIST_LIMIT, Integer.parseInt(limitParam))) : DEFAULT_LIST_LIMIT;
+            offset = offsetParam != null ? Math.max(0, Integer.parseInt(offsetParam)) : 0;
+            since = parseDateTime(emptyToNull(request.getParameter("since")));
+            until = parseDateTime(emptyToNull(request.getParameter("until")));
+        } catch (NumberFormatException | DateTimeParseException e) {
+            response.setStatus(HttpServletResponse.SC_BAD_REQUEST);
+            out.print(gson.toJson(Map.of("error", "Invalid limit, offset, since or until parameter")));
+            return;
+        }
+        
+        List<ArchivedIncident> incidents = archiveDAO.findArchived(
+            emptyToNull(request.getParameter("type")), since, until, limit, offset);
+        out.print(gson.toJson(incidents));
+        response.setStatus(HttpServletResponse.SC_OK);
+    }
+    
+    /**
+     * Run one archival pass now instead of waiting for the next scheduled run
+     */
+    private void handleRunArchive(HttpServletResponse response, PrintWriter out) {
+        int archived = archiver.runOnce();
+        out.print(gson.toJson(Map.of("archived", archived)));
+        response.setStatus(HttpServletResponse.SC_OK);
+    }
+    
+    private static LocalDateTime parseDateTime(String value) {
+        return value == null ? null : LocalDateTime.parse(value, DateTimeFormatter.ISO_LOCAL_DATE_TIME);
+    }
+    
+    private static String emptyToNull(String value) {
+        return value == null || value.trim().isEmpty() ? null : value.trim();
+    }
+    
     private void handleAddToQueue(HttpServletRequest request, HttpServletResponse response,
                                  PrintWriter out) throws IOException {
         StringBuilder json = new StringBuilder();
@@ -144,23 +571,13 @@ public class SchedulerServlet extends HttpServlet {
         }
     }
     
+    /**
+     * Drain the queue now instead of waiting for the background workers:
+     * pending submissions are forwarded to the incident-service in batches
+     */
     private void handleProcessQueue(HttpServletRequest request, HttpServletResponse response,
                                    PrintWriter out) {
-        // Process all pending submissions
-        var submissions = offlineQueue.getPendingSubmissions();
-        int processed = 0;
-        
-        for (Submission submission : submissions) {
-            if (offlineQueue.processSubmission(submission.getId())) {
-                processed++;
-            }
-        }
-        
-        Map<String, Object> result = Map.of(
-            "processed", processed,
-            "total", submissions.size()
-        );
-        
+        Map<String, Object> result = drainWorker.drainNow();
         out.print(gson.toJson(result));
         response.setStatus(HttpServletResponse.SC_OK);
     }
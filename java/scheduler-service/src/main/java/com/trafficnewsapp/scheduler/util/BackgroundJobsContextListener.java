@@ -0,0 +1,105 @@
+package com.trafficnewsapp.scheduler.util;
+
+import com.trafficnewsapp.scheduler.dao.IncidentArchiveDAO;
+import com.trafficnewsapp.scheduler.dao.SubmissionDAO;
+import com.trafficnewsapp.scheduler.services.IncidentArchiver;
+import com.trafficnewsapp.scheduler.services.IncidentRefreshHub;
+import com.trafficnewsapp.scheduler.services.RefreshScheduler;
+import com.trafficnewsapp.scheduler.services.SubmissionDrainWorker;
+
+import javax.servlet.ServletContext;
+import javax.servlet.ServletContextEvent;
+import javax.servlet.ServletContextListener;
+import java.util.Enumeration;
+import java.util.Properties;
+
+/**
+ * BackgroundJobsContextListener
+ * Creates the shared RefreshScheduler, schedules the incident archival job,
+ * the submission drain workers and the server-side incident refresh on it,
+ * and shuts it down before the connection pool closes (declare it after
+ * DatabaseContextListener)
+ */
+public class BackgroundJobsContextListener implements ServletContextListener {
+    
+    @Override
+    public void contextInitialized(ServletContextEvent event) {
+        ServletContext context = event.getServletContext();
+        
+        String poolSize = context.getInitParameter("scheduler.poolSize");
+        RefreshScheduler scheduler = new RefreshScheduler(parsePoolSize(poolSize));
+        context.setAttribute(RefreshScheduler.CONTEXT_ATTRIBUTE, scheduler);
+        
+        Properties archiveSettings = collectSettings(context, "archive.");
+        IncidentArchiver archiver = new IncidentArchiver(new IncidentArchiveDAO(), archiveSettings);
+        context.setAttribute(IncidentArchiver.CONTEXT_ATTRIBUTE, archiver);
+        if (!"false".equalsIgnoreCase(archiveSettings.getProperty("archive.enabled"))) {
+            archiver.start(scheduler);
+            context.log("Incident archival started: " + archiver.getStats());
+        }
+        
+        Properties drainSettings = collectSettings(context, "drain.");
+        SubmissionDrainWorker drainWorker = new SubmissionDrainWorker(new SubmissionDAO(), drainSettings);
+        context.setAttribute(SubmissionDrainWorker.CONTEXT_ATTRIBUTE, drainWorker);
+        if (!"false".equalsIgnoreCase(drainSettings.getProperty("drain.enabled"))) {
+            drainWorker.start(scheduler);
+            context.log("Submission drain started: " + drainWorker.getStats());
+        }
+        
+        Properties refreshSettings = collectSettings(context, "refresh.");
+        if (!"false".equalsIgnoreCase(refreshSettings.getProperty("refresh.enabled"))) {
+            IncidentRefreshHub refreshHub = new IncidentRefreshHub(refreshSettings);
+            context.setAttribute(IncidentRefreshHub.CONTEXT_ATTRIBUTE, refreshHub);
+            refreshHub.start(scheduler);
+        }
+    }
+    
+    @Override
+    public void contextDestroyed(ServletContextEvent event) {
+        ServletContext context = event.getServletContext();
+        Object refreshHub = context.getAttribute(IncidentRefreshHub.CONTEXT_ATTRIBUTE);
+        if (refreshHub instanceof IncidentRefreshHub) {
+            ((IncidentRefreshHub) refreshHub).stop();
+        }
+        Object drainWorker = context.getAttribute(SubmissionDrainWorker.CONTEXT_ATTRIBUTE);
+        if (drainWorker instanceof SubmissionDrainWorker) {
+            ((SubmissionDrainWorker) drainWorker).stop();
+        }
+        Object archiver = context.getAttribute(IncidentArchiver.CONTEXT_ATTRIBUTE);
+        if (archiver instanceof IncidentArchiver) {
+            ((IncidentArchiver) archiver).stop();
+        }
+        Object scheduler = context.getAttribute(RefreshScheduler.CONTEXT_ATTRIBUTE);
+        if (scheduler instanceof RefreshScheduler) {
+            // Waits for runs in progress so none outlives the connection pool
+            ((RefreshScheduler) scheduler).shutdown();
+        }
+    }
+    
+    private static int parsePoolSize(String value) {
+        if (value == null || value.trim().isEmpty()) {
+            return RefreshScheduler.DEFAULT_POOL_SIZE;
+        }
+        try {
+            return Integer.parseInt(value.trim());
+        } catch (NumberFormatException e) {
+            System.err.println("Invalid value for scheduler.poolSize: " + value);
+            return RefreshScheduler.DEFAULT_POOL_SIZE;
+        }
+    }
+    
+    /**
+     * Collect the context-params from web.xml that start with a prefix
+     */
+    private static Properties collectSettings(ServletContext context, String prefix) {
+        Properties settings = new Properties();
+        Enumeration<String> names = context.getInitParameterNames();
+        while (names.hasMoreElements()) {
+            String name = names.nextElement();
+            if (name.startsWith(prefix)) {
+                settings.setProperty(name, context.getInitParameter(name));
+            }
+        }
+        return settings;
+    }
+}
@@ -0,0 +1,132 @@
+package com.trafficnewsapp.scheduler.util;
+
+import javax.servlet.AsyncContext;
+import javax.servlet.ServletOutputStream;
+import javax.servlet.WriteListener;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayDeque;
+import java.util.Deque;
+
+/**
+ * SseWriter
+ * Non-blocking writer for one Server-Sent Events response. send() only
+ * queues the event; the container writes it whenever the socket can take
+ * more (ServletOutputStream.setWriteListener), so a slow or half-open
+ * client never blocks the thread publishing to it. A client whose queue
+ * grows past maxQueuedBytes, or that has not taken any data for
+ * maxStalledMs, is treated as gone.
+ */
+public class SseWriter implements WriteListener {
+    public static final int DEFAULT_MAX_QUEUED_BYTES = 1 << 20; // 1 MB
+    public static final long DEFAULT_MAX_STALLED_MS = 60000;
+    
+    private final AsyncContext async;
+    private final ServletOutputStream out;
+    private final int maxQueuedBytes;
+    private final long maxStalledMs;
+    
+    // All guarded by this
+    private final Deque<byte[]> queue = new ArrayDeque<>();
+    private int queuedBytes;
+    private long stalledSince; // 0 while the socket keeps up
+    private boolean closed;
+    
+    /**
+     * @param async Started async context of the event stream request
+     */
+    public SseWriter(AsyncContext async) throws IOException {
+        this(async, DEFAULT_MAX_QUEUED_BYTES, DEFAULT_MAX_STALLED_MS);
+    }
+    
+    public SseWriter(AsyncContext async, int maxQueuedBytes, long maxStalledMs) throws IOException {
+        this.async = async;
+        this.maxQueuedBytes = maxQueuedBytes;
+        this.maxStalledMs = maxStalledMs;
+        this.out = async.getResponse().getOutputStream();
+        out.setWriteListener(this);
+    }
+    
+    /**
+     * Queue an event for writing; never blocks
+     * @param event Complete event text, including the blank line that ends it
+     * @throws IOException if the stream is closed or the client has fallen too far behind
+     */
+    public synchronized void send(String event) throws IOException {
+        if (closed) {
+            throw new IOException("Stream closed");
+        }
+        byte[] bytes = event.getBytes(StandardCharsets.UTF_8);
+        if (queuedBytes + bytes.length > maxQueuedBytes) {
+            throw new IOException("Client fell " + queuedBytes + " bytes behind");
+        }
+        if (stalledSince > 0 && System.currentTimeMillis() - stalledSince > maxStalledMs) {
+            throw new IOException("Client stopped reading");
+        }
+        queue.add(bytes);
+        queuedBytes += bytes.length;
+        drain();
+    }
+    
+    @Override
+    public synchronized void onWritePossible() throws IOException {
+        if (!closed) {
+            drain();
+        }
+    }
+    
+    @Override
+    public void onError(Throwable t) {
+        close();
+    }
+    
+    /**
+     * Drop anything still queued and complete the response (idempotent)
+     */
+    public void close() {
+        synchronized (this) {
+            if (closed) {
+                return;
+            }
+            closed = true;
+            queue.clear();
+            queuedBytes = 0;
+        }
+        try {
+            async.complete();
+        } catch (IllegalStateException e) {
+            // Already completed by the container
+        }
+    }
+    
+    public synchronized boolean isClosed() {
+        return closed;
+    }
+    
+    /**
+     * Write queued events while the socket accepts them. Once isReady()
+     * returns false the container calls onWritePossible when it can continue.
+     */
+    private void drain() throws IOException {
+        boolean wrote = false;
+        while (out.isReady()) {
+            byte[] next = queue.poll();
+            if (next == null) {
+                if (!wrote) {
+                    stalledSince = 0;
+                    return;
+                }
+                // The flush may not complete at once either, so check isReady() again
+                out.flush();
+                wrote = false;
+                continue;
+            }
+            queuedBytes -= next.length;
+            out.write(next);
+            wrote = true;
+        }
+        if (stalledSince == 0) {
+            stalledSince = System.currentTimeMillis();
+        }
+    }
+}
@@ -0,0 +1,53 @@
+package com.trafficnewsapp.scheduler.services;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.DisplayName;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Unit tests for AdaptiveInterval
+ * Tests speeding up on changes, backing off when quiet and the floor and ceiling
+ */
+@DisplayName("AdaptiveInterval Tests")
+public class AdaptiveIntervalTest {
+    private final AdaptiveInterval policy = new AdaptiveInterval(5000, 300000, 2.0);
+    
+    @Test
+    @DisplayName("Test next - changes should divide the interval down to the floor")
+    void testNext_Changes() {
+        // Verify
+        assertEquals(30000, policy.next(60000, 1), "One change should halve the interval");
+        assertEquals(15000, policy.next(60000, 3));
+        assertEquals(5000, policy.next(60000, 1000), "A burst should go straight to the floor");
+        assertEquals(5000, policy.next(5000, 1), "Interval should not drop below the floor");
+    }
+    
+    @Test
+    @DisplayName("Test next - quiet runs should back off up to the ceiling")
+    void testNext_Quiet() {
+        // Execute
+        long interval = 5000;
+        for (int run = 0; run < 20; run++) {
+            interval = policy.next(interval, 0);
+        }
+        
+        // Verify
+        assertEquals(10000, policy.next(5000, 0), "A quiet run should double the interval");
+        assertEquals(300000, interval, "Interval should stop at the ceiling");
+    }
+    
+    @Test
+    @DisplayName("Test clamp and constructor - should keep intervals within [floor, ceiling]")
+    void testClamp() {
+        // Verify
+        assertEquals(5000, policy.clamp(1));
+        assertEquals(300000, policy.clamp(Long.MAX_VALUE));
+        assertEquals(60000, policy.clamp(60000));
+        
+        AdaptiveInterval inverted = new AdaptiveInterval(0, -10, 0.5);
+        assertEquals(1, inverted.getFloorMs(), "Floor should be at least 1ms");
+        assertEquals(1, inverted.getCeilingMs(), "Ceiling should not be below the floor");
+        assertEquals(1.0, inverted.getBackoffFactor(), "Backoff should never shrink the interval");
+    }
+}
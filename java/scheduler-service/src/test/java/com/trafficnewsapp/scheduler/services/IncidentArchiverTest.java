@@ -0,0 +1,153 @@
+package com.trafficnewsapp.scheduler.services;
+
+import com.trafficnewsapp.scheduler.dao.IncidentArchiveDAO;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.DisplayName;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Properties;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Unit tests for IncidentArchiver
+ * Tests batching, the per-run batch limit, pauses between batches and
+ * stopping, against an in-memory archive DAO
+ */
+@DisplayName("IncidentArchiver Tests")
+public class IncidentArchiverTest {
+    
+    @Test
+    @DisplayName("Test runOnce - should archive in batches until each criterion runs out")
+    void testRunOnce_Batching() {
+        // Setup - 5 expired and 1 rejected incident, batches of 2
+        FakeArchiveDAO archiveDAO = new FakeArchiveDAO(5, 1);
+        IncidentArchiver archiver = new IncidentArchiver(archiveDAO, settings(2, 0, 200));
+        
+        // Execute
+        int archived = archiver.runOnce();
+        
+        // Verify
+        assertEquals(6, archived);
+        assertEquals(List.of("expired 2", "expired 2", "expired 1", "status 1"), archiveDAO.calls,
+            "A short batch should end the criterion without another query");
+        assertEquals(6L, archiver.getStats().get("totalArchived"));
+        assertEquals(List.of("rejected"), archiveDAO.statuses);
+    }
+    
+    @Test
+    @DisplayName("Test runOnce - should stop at the batch limit and on a database error")
+    void testRunOnce_Limits() {
+        // Setup
+        FakeArchiveDAO archiveDAO = new FakeArchiveDAO(100, 100);
+        IncidentArchiver limited = new IncidentArchiver(archiveDAO, settings(2, 0, 3));
+        FakeArchiveDAO failingDAO = new FakeArchiveDAO(100, 1);
+        failingDAO.failing = true;
+        IncidentArchiver failing = new IncidentArchiver(failingDAO, settings(2, 0, 200));
+        
+        // Execute
+        int archived = limited.runOnce();
+        int afterError = failing.runOnce();
+        
+        // Verify
+        assertEquals(6, archived, "3 batches of 2");
+        assertEquals(3, archiveDAO.calls.size(), "The rejected incidents should wait for the next run");
+        assertEquals(1, afterError, "An error should end its criterion, not the run");
+        assertEquals(List.of("expired -1", "status 1"), failingDAO.calls);
+    }
+    
+    @Test
+    @DisplayName("Test runOnce - should pause after every full batch")
+    void testRunOnce_Pause() {
+        // Setup - 3 full batches, then an empty one
+        FakeArchiveDAO archiveDAO = new FakeArchiveDAO(6, 0);
+        IncidentArchiver archiver = new IncidentArchiver(archiveDAO, settings(2, 100, 200));
+        
+        // Execute
+        long started = System.currentTimeMillis();
+        int archived = archiver.runOnce();
+        long elapsed = System.currentTimeMillis() - started;
+        
+        // Verify
+        assertEquals(6, archived);
+        assertTrue(elapsed >= 300, "3 full batches should each be followed by a pause, took " + elapsed + "ms");
+    }
+    
+    @Test
+    @DisplayName("Test stop - a run should end after its current batch and the job should be cancelled")
+    void testStop() {
+        // Setup - the archiver is stopped while its second batch runs
+        FakeArchiveDAO archiveDAO = new FakeArchiveDAO(100, 100);
+        IncidentArchiver archiver = new IncidentArchiver(archiveDAO, settings(2, 0, 200));
+        archiveDAO.onBatch = () -> {
+            if (archiveDAO.calls.size() == 2) {
+                archiver.stop();
+            }
+        };
+        RefreshScheduler scheduler = new RefreshScheduler(1);
+        
+        try {
+            // Execute
+            int archived = archiver.runOnce();
+            archiver.start(scheduler);
+            boolean scheduled = scheduler.isScheduled(IncidentArchiver.JOB_NAME);
+            archiver.stop();
+            
+            // Verify
+            assertEquals(4, archived, "The batch in progress should finish, and no other should start");
+            assertEquals(2, archiveDAO.calls.size());
+            assertTrue(scheduled, "start should schedule the job again after a stop");
+            assertFalse(scheduler.isScheduled(IncidentArchiver.JOB_NAME), "stop should cancel the job");
+        } finally {
+            scheduler.shutdown();
+        }
+    }
+    
+    private static Properties settings(int batchSize, long batchPauseMs, int maxBatchesPerRun) {
+        Properties settings = new Properties();
+        settings.setProperty("archive.batchSize", String.valueOf(batchSize));
+        settings.setProperty("archive.batchPauseMs", String.valueOf(batchPauseMs));
+        settings.setProperty("archive.maxBatchesPerRun", String.valueOf(maxBatchesPerRun));
+        return settings;
+    }
+    
+    /**
+     * Archive DAO over two counters instead of tables, recording each batch
+     */
+    private static class FakeArchiveDAO extends IncidentArchiveDAO {
+        final List<String> calls = new ArrayList<>();
+        List<String> statuses;
+        boolean failing;
+        Runnable onBatch = () -> { };
+        private int expired;
+        private int terminal;
+        
+        FakeArchiveDAO(int expired, int terminal) {
+            this.expired = expired;
+            this.terminal = terminal;
+        }
+        
+        @Override
+        public int archiveOlderThan(LocalDateTime cutoff, int batchSize) {
+            int moved = failing ? -1 : Math.min(expired, batchSize);
+            expired -= Math.max(0, moved);
+            return record("expired", moved);
+        }
+        
+        @Override
+        public int archiveWithStatus(List<String> statuses, int batchSize) {
+            this.statuses = statuses;
+            int moved = Math.min(terminal, batchSize);
+            terminal -= moved;
+            return record("status", moved);
+        }
+        
+        private int record(String criterion, int moved) {
+            calls.add(criterion + " " + moved);
+            onBatch.run();
+            return moved;
+        }
+    }
+}
@@ -0,0 +1,120 @@
+package com.trafficnewsapp.scheduler.services;
+
+import com.google.gson.JsonArray;
+import com.google.gson.JsonParser;
+import com.sun.net.httpserver.HttpServer;
+import com.trafficnewsapp.scheduler.models.Submission;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.DisplayName;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.net.InetSocketAddress;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Unit tests for IncidentForwarder
+ * Tests how per-item batch results map to submission outcomes, against a
+ * local stand-in for the incident-service batch endpoint
+ */
+@DisplayName("IncidentForwarder Tests")
+public class IncidentForwarderTest {
+    private HttpServer server;
+    private IncidentForwarder forwarder;
+    private volatile int responseCode;
+    private volatile String responseBody;
+    private volatile JsonArray received;
+    
+    @BeforeEach
+    void setUp() throws IOException {
+        server = HttpServer.create(new InetSocketAddress("127.0.0.1", 0), 0);
+        server.createContext("/batch", exchange -> {
+            received = JsonParser.parseString(
+                new String(exchange.getRequestBody().readAllBytes(), StandardCharsets.UTF_8)).getAsJsonArray();
+            byte[] body = responseBody.getBytes(StandardCharsets.UTF_8);
+            exchange.sendResponseHeaders(responseCode, body.length);
+            try (OutputStream out = exchange.getResponseBody()) {
+                out.write(body);
+            }
+        });
+        server.start();
+        forwarder = new IncidentForwarder("http://127.0.0.1:" + server.getAddress().getPort() + "/batch");
+    }
+    
+    @AfterEach
+    void tearDown() {
+        server.stop(0);
+    }
+    
+    @Test
+    @DisplayName("Test forward - saved, invalid and failed items should become sent, failed and pending")
+    void testForward_StatusMapping() throws IOException {
+        // Setup
+        responseCode = 500; // a partly failed batch still carries per-item results
+        responseBody = "{\"results\":[{\"status\":\"saved\"},{\"status\":\"invalid\"},{\"status\":\"failed\"}]}";
+        
+        // Execute
+        Map<String, String> outcomes = forwarder.forward(List.of(
+            submission("sub_1", "{\"type\":\"accident\"}"),
+            submission("sub_2", "{\"type\":\"unknown\"}"),
+            submission("sub_3", "{\"type\":\"hazard\"}")));
+        
+        // Verify
+        assertEquals(IncidentForwarder.SENT, outcomes.get("sub_1"));
+        assertEquals(IncidentForwarder.REJECTED, outcomes.get("sub_2"), "Invalid items should not be retried");
+        assertEquals(IncidentForwarder.RETRY, outcomes.get("sub_3"), "Failed items should be retried");
+        assertEquals("inc_1", received.get(0).getAsJsonObject().get("id").getAsString(),
+            "Incident ID should be derived from the submission ID");
+        assertEquals("sub_1", received.get(0).getAsJsonObject().get("submissionId").getAsString());
+    }
+    
+    @Test
+    @DisplayName("Test forward - unreadable data should be rejected without being sent")
+    void testForward_UnreadableData() throws IOException {
+        // Setup
+        responseCode = 200;
+        responseBody = "{\"results\":[]}";
+        
+        // Execute
+        Map<String, String> outcomes = forwarder.forward(List.of(
+            submission("sub_1", "not json"), submission("sub_2", "[1,2]"), submission("sub_3", null)));
+        
+        // Verify
+        assertEquals(3, outcomes.size());
+        assertTrue(outcomes.values().stream().allMatch(IncidentForwarder.REJECTED::equals));
+        assertNull(received, "Nothing should be sent");
+    }
+    
+    @Test
+    @DisplayName("Test forward - missing results should be retried, and no results at all should fail the batch")
+    void testForward_MissingResults() throws IOException {
+        // Setup
+        responseCode = 200;
+        responseBody = "{\"results\":[{\"status\":\"saved\"}]}";
+        
+        // Execute
+        Map<String, String> outcomes = forwarder.forward(List.of(
+            submission("sub_1", "{\"id\":\"inc_custom\"}"), submission("sub_2", "{}")));
+        
+        // Verify
+        assertEquals(IncidentForwarder.SENT, outcomes.get("sub_1"));
+        assertEquals(IncidentForwarder.RETRY, outcomes.get("sub_2"), "An item without a result should be retried");
+        assertEquals("inc_custom", received.get(0).getAsJsonObject().get("id").getAsString(),
+            "A client-chosen incident ID should be kept");
+        
+        responseCode = 503;
+        responseBody = "{\"error\":\"Service unavailable\"}";
+        assertThrows(IOException.class, () -> forwarder.forward(List.of(submission("sub_3", "{}"))));
+    }
+    
+    private static Submission submission(String id, String incidentData) {
+        return new Submission(id, incidentData, LocalDateTime.now(), "processing");
+    }
+}
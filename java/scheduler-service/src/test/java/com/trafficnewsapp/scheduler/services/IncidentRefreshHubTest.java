@@ -0,0 +1,204 @@
+package com.trafficnewsapp.scheduler.services;
+
+import com.google.gson.JsonArray;
+import com.google.gson.JsonObject;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.DisplayName;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Properties;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Unit tests for IncidentRefreshHub
+ * Tests fan-out to subscribers, resuming from the buffer, buffer eviction
+ * and resyncs. Changes are published directly, without the incident-service.
+ */
+@DisplayName("IncidentRefreshHub Tests")
+public class IncidentRefreshHubTest {
+    private IncidentRefreshHub refreshHub;
+    
+    @BeforeEach
+    void setUp() {
+        Properties settings = new Properties();
+        settings.setProperty("refresh.bufferSize", "3");
+        refreshHub = new IncidentRefreshHub(settings);
+    }
+    
+    @Test
+    @DisplayName("Test subscribe - clients connected before the first refresh should be told to reload")
+    void testSubscribe_BeforeFirstRefresh() {
+        // Setup
+        RecordingSubscriber subscriber = new RecordingSubscriber();
+        refreshHub.subscribe(subscriber, null);
+        
+        // Execute
+        refreshHub.initialize(10);
+        
+        // Verify
+        assertEquals(List.of("resync 10"), subscriber.events);
+        assertEquals(10, refreshHub.getSeq());
+    }
+    
+    @Test
+    @DisplayName("Test publish - should deliver changes to every subscriber and resume from the buffer")
+    void testPublish() {
+        // Setup
+        refreshHub.initialize(10);
+        RecordingSubscriber first = new RecordingSubscriber();
+        RecordingSubscriber second = new RecordingSubscriber();
+        refreshHub.subscribe(first, null);
+        refreshHub.subscribe(second, null);
+        
+        // Execute
+        refreshHub.publish(List.of(change(11, "inc_1"), change(12, "inc_2")), 12);
+        RecordingSubscriber resumed = new RecordingSubscriber();
+        refreshHub.subscribe(resumed, 11L);
+        
+        // Verify
+        assertEquals(List.of("open 10", "changes 11,12 at 12"), first.events);
+        assertEquals(first.events, second.events, "Every subscriber should get the same changes");
+        assertEquals(List.of("open 11", "changes 12 at 12"), resumed.events, "Resuming should send the backlog");
+    }
+    
+    @Test
+    @DisplayName("Test poll - should return the latest change per incident since a position")
+    void testPoll_LatestPerIncident() {
+        // Setup
+        refreshHub.initialize(10);
+        refreshHub.publish(List.of(change(11, "inc_1"), change(12, "inc_2"), change(13, "inc_1")), 13);
+        
+        // Execute
+        Map<String, Object> delta = refreshHub.poll(10, new RecordingSubscriber());
+        Map<String, Object> upToDate = refreshHub.poll(13, new RecordingSubscriber());
+        
+        // Verify
+        assertEquals("12,13", seqs((JsonArray) delta.get("changes")), "Older change to inc_1 should be dropped");
+        assertEquals(13L, delta.get("seq"));
+        assertEquals(false, delta.get("resync"));
+        assertNull(upToDate, "A caught-up long-poll should wait for the next refresh");
+        assertEquals(1, refreshHub.getStats().get("subscribers"));
+    }
+    
+    @Test
+    @DisplayName("Test poll - positions evicted from the buffer should need a resync")
+    void testPoll_Evicted() {
+        // Setup - the buffer holds 3 changes
+        refreshHub.initialize(10);
+        refreshHub.publish(List.of(change(11, "inc_1"), change(12, "inc_2")), 12);
+        refreshHub.publish(List.of(change(13, "inc_3"), change(14, "inc_4")), 14);
+        
+        // Execute
+        Map<String, Object> evicted = refreshHub.poll(10, new RecordingSubscriber());
+        Map<String, Object> buffered = refreshHub.poll(11, new RecordingSubscriber());
+        
+        // Verify
+        assertEquals(true, evicted.get("resync"), "Change 11 is gone, so position 10 cannot be resumed");
+        assertEquals(3, refreshHub.getStats().get("buffered"));
+        assertEquals("12,13,14", seqs((JsonArray) buffered.get("changes")));
+    }
+    
+    @Test
+    @DisplayName("Test resync - should clear the buffer and tell every subscriber to reload")
+    void testResync() {
+        // Setup
+        refreshHub.initialize(10);
+        refreshHub.publish(List.of(change(11, "inc_1")), 11);
+        RecordingSubscriber subscriber = new RecordingSubscriber();
+        refreshHub.subscribe(subscriber, null);
+        
+        // Execute
+        refreshHub.resync(500);
+        
+        // Verify
+        assertEquals(List.of("open 11", "resync 500"), subscriber.events);
+        assertEquals(500, refreshHub.getSeq());
+        assertEquals(0, refreshHub.getStats().get("buffered"));
+        assertEquals(true, refreshHub.poll(11, new RecordingSubscriber()).get("resync"));
+    }
+    
+    @Test
+    @DisplayName("Test publish - a failing subscriber should be closed without affecting the others")
+    void testPublish_FailingSubscriber() {
+        // Setup
+        refreshHub.initialize(10);
+        RecordingSubscriber broken = new RecordingSubscriber();
+        RecordingSubscriber healthy = new RecordingSubscriber();
+        refreshHub.subscribe(broken, null);
+        refreshHub.subscribe(healthy, null);
+        broken.failing = true;
+        
+        // Execute
+        refreshHub.publish(List.of(change(11, "inc_1")), 11);
+        refreshHub.sendHeartbeats();
+        
+        // Verify
+        assertTrue(broken.closed, "Failing subscriber should be closed");
+        assertEquals(List.of("open 10", "changes 11 at 11", "heartbeat"), healthy.events);
+        assertEquals(1, refreshHub.getStats().get("subscribers"));
+    }
+    
+    private static JsonObject change(long seq, String id) {
+        JsonObject change = new JsonObject();
+        change.addProperty("seq", seq);
+        change.addProperty("type", "upsert");
+        change.addProperty("id", id);
+        return change;
+    }
+    
+    private static String seqs(Iterable<?> changes) {
+        List<String> seqs = new ArrayList<>();
+        for (Object change : changes) {
+            seqs.add(((JsonObject) change).get("seq").getAsString());
+        }
+        return String.join(",", seqs);
+    }
+    
+    /**
+     * Subscriber that records its callbacks, and can be made to fail like a dropped connection
+     */
+    private static class RecordingSubscriber implements IncidentDeltaSubscriber {
+        final List<String> events = new ArrayList<>();
+        boolean failing;
+        boolean closed;
+        
+        @Override
+        public void onOpen(long seq, boolean resync) {
+            events.add(resync ? "resync " + seq : "open " + seq);
+        }
+        
+        @Override
+        public void onChanges(List<JsonObject> changes, long seq) throws IOException {
+            check();
+            events.add("changes " + seqs(changes) + " at " + seq);
+        }
+        
+        @Override
+        public void onResync(long seq) throws IOException {
+            check();
+            events.add("resync " + seq);
+        }
+        
+        @Override
+        public void onHeartbeat() throws IOException {
+            check();
+            events.add("heartbeat");
+        }
+        
+        @Override
+        public void close() {
+            closed = true;
+        }
+        
+        private void check() throws IOException {
+            if (failing) {
+                throw new IOException("Client disconnected");
+            }
+        }
+    }
+}
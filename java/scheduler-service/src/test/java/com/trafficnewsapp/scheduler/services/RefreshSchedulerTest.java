@@ -0,0 +1,121 @@
+package com.trafficnewsapp.scheduler.services;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.DisplayName;
+
+import java.util.Map;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Unit tests for RefreshScheduler
+ * Tests job registration, interval limits, failing jobs and adaptive intervals
+ */
+@DisplayName("RefreshScheduler Tests")
+public class RefreshSchedulerTest {
+    private RefreshScheduler scheduler;
+    
+    @BeforeEach
+    void setUp() {
+        scheduler = new RefreshScheduler(2);
+    }
+    
+    @AfterEach
+    void tearDown() {
+        scheduler.shutdown();
+    }
+    
+    @Test
+    @DisplayName("Test schedule - should refuse taken names and bad intervals")
+    void testSchedule() {
+        // Execute & Verify
+        assertTrue(scheduler.schedule("job", () -> { }, 60000, 60000, RefreshScheduler.Mode.FIXED_DELAY));
+        assertFalse(scheduler.schedule("job", () -> { }, 60000, 60000, RefreshScheduler.Mode.FIXED_RATE),
+            "Job names should be unique");
+        assertFalse(scheduler.schedule("other", () -> { }, 0, 0, RefreshScheduler.Mode.FIXED_DELAY));
+        assertThrows(IllegalArgumentException.class,
+            () -> scheduler.schedule("other", () -> { }, 0, 1000, RefreshScheduler.Mode.ADAPTIVE));
+        assertTrue(scheduler.cancel("job"));
+        assertFalse(scheduler.isScheduled("job"));
+    }
+    
+    @Test
+    @DisplayName("Test setInterval - fixed jobs should keep the minimum, adaptive jobs their floor and ceiling")
+    void testSetInterval() {
+        // Setup
+        scheduler.schedule("fixed", () -> { }, 60000, 60000, RefreshScheduler.Mode.FIXED_DELAY);
+        scheduler.scheduleAdaptive("adaptive", () -> 0, 60000, 60000, new AdaptiveInterval(2000, 120000, 2.0));
+        
+        // Execute & Verify
+        assertFalse(scheduler.setInterval("fixed", RefreshScheduler.MIN_INTERVAL_MS - 1));
+        assertEquals(60000, scheduler.getInterval("fixed"), "Refused interval should not be applied");
+        assertTrue(scheduler.setInterval("fixed", RefreshScheduler.MIN_INTERVAL_MS));
+        assertEquals(RefreshScheduler.MIN_INTERVAL_MS, scheduler.getInterval("fixed"));
+        
+        assertTrue(scheduler.setInterval("adaptive", 1000));
+        assertEquals(2000, scheduler.getInterval("adaptive"), "Adaptive interval should be clamped to the floor");
+        assertTrue(scheduler.setInterval("adaptive", 600000));
+        assertEquals(120000, scheduler.getInterval("adaptive"), "Adaptive interval should be clamped to the ceiling");
+        assertFalse(scheduler.setInterval("missing", 10000));
+    }
+    
+    @Test
+    @DisplayName("Test schedule - a failing job should be recorded and keep running")
+    void testSchedule_FailingJob() throws InterruptedException {
+        // Setup
+        CountDownLatch ran = new CountDownLatch(3);
+        scheduler.schedule("failing", () -> {
+            ran.countDown();
+            throw new IllegalStateException("boom");
+        }, 0, 10, RefreshScheduler.Mode.FIXED_DELAY);
+        
+        // Execute
+        assertTrue(ran.await(5, TimeUnit.SECONDS), "Job should keep running after it throws");
+        Map<String, Object> stats = scheduler.getJobStats().get(0);
+        scheduler.cancel("failing");
+        
+        // Verify
+        assertTrue((Long) stats.get("failures") >= 2);
+        assertEquals("IllegalStateException: boom", stats.get("lastError"));
+    }
+    
+    @Test
+    @DisplayName("Test scheduleAdaptive - changes should shorten the interval and quiet runs lengthen it")
+    void testScheduleAdaptive() throws InterruptedException {
+        // Setup - reports changes on the first run, nothing on the second
+        AtomicInteger runs = new AtomicInteger();
+        CountDownLatch quiet = new CountDownLatch(1);
+        AdaptiveInterval policy = new AdaptiveInterval(100, 60000, 4.0);
+        
+        // Execute
+        scheduler.scheduleAdaptive("adaptive", () -> {
+            int run = runs.incrementAndGet();
+            if (run == 2) {
+                quiet.countDown();
+            }
+            return run == 1 ? 9 : 0;
+        }, 0, 1000, policy);
+        assertTrue(quiet.await(5, TimeUnit.SECONDS), "Second run should come after the shortened interval");
+        Thread.sleep(100);
+        
+        // Verify
+        assertEquals(400, scheduler.getInterval("adaptive"), "1000ms / (9 + 1) = 100ms, then x4 after a quiet run");
+        assertEquals(2, runs.get(), "Third run should wait for the longer interval");
+    }
+    
+    @Test
+    @DisplayName("Test shutdown - should refuse new jobs")
+    void testShutdown() {
+        // Execute
+        scheduler.shutdown();
+        
+        // Verify
+        assertFalse(scheduler.isRunning());
+        assertFalse(scheduler.schedule("late", () -> { }, 0, 60000, RefreshScheduler.Mode.FIXED_DELAY));
+    }
+}
@@ -0,0 +1,69 @@
+package com.trafficnewsapp.scheduler.services;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.DisplayName;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Unit tests for RetryPolicy
+ * Tests attempt limits, backoff growth, the ceiling and the jitter range
+ */
+@DisplayName("RetryPolicy Tests")
+public class RetryPolicyTest {
+    
+    @Test
+    @DisplayName("Test isExhausted - should dead-letter after the last attempt")
+    void testIsExhausted() {
+        RetryPolicy policy = new RetryPolicy(3, 1000, 60000);
+        
+        // Verify
+        assertFalse(policy.isExhausted(1));
+        assertFalse(policy.isExhausted(2));
+        assertTrue(policy.isExhausted(3), "Third failed attempt should be the last");
+        assertTrue(policy.isExhausted(4));
+    }
+    
+    @Test
+    @DisplayName("Test nextDelayMs - should double per attempt with jitter in [d/2, d]")
+    void testNextDelayMs_Backoff() {
+        RetryPolicy policy = new RetryPolicy(10, 1000, 60000);
+        
+        for (int i = 0; i < 100; i++) {
+            // Execute
+            long first = policy.nextDelayMs(1);
+            long third = policy.nextDelayMs(3);
+            
+            // Verify
+            assertTrue(first >= 500 && first <= 1000, "First retry should be 0.5-1s, was " + first);
+            assertTrue(third >= 2000 && third <= 4000, "Third retry should be 2-4s, was " + third);
+        }
+    }
+    
+    @Test
+    @DisplayName("Test nextDelayMs - should never exceed the ceiling, however many attempts")
+    void testNextDelayMs_Ceiling() {
+        RetryPolicy policy = new RetryPolicy(100, 1000, 60000);
+        
+        for (int attempts : new int[] {7, 31, 64, Integer.MAX_VALUE}) {
+            // Execute
+            long delay = policy.nextDelayMs(attempts);
+            
+            // Verify
+            assertTrue(delay >= 30000 && delay <= 60000, "Delay should stay within the ceiling, was " + delay);
+        }
+    }
+    
+    @Test
+    @DisplayName("Test constructor - should correct out-of-range settings")
+    void testConstructor_Bounds() {
+        // Execute
+        RetryPolicy policy = new RetryPolicy(0, 0, -1);
+        
+        // Verify
+        assertEquals(1, policy.getMaxAttempts(), "At least one attempt should be made");
+        assertEquals(1, policy.getBaseDelayMs());
+        assertEquals(1, policy.getMaxDelayMs(), "Ceiling should not be below the base delay");
+        assertTrue(policy.nextDelayMs(0) >= 0);
+    }
+}
@@ -0,0 +1,163 @@
+package com.trafficnewsapp.scheduler.services;
+
+import com.google.gson.JsonArray;
+import com.google.gson.JsonElement;
+import com.google.gson.JsonParser;
+import com.sun.net.httpserver.HttpServer;
+import com.trafficnewsapp.scheduler.dao.SubmissionDAO;
+import com.trafficnewsapp.scheduler.models.Submission;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.DisplayName;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.net.InetSocketAddress;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Properties;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Unit tests for SubmissionDrainWorker
+ * Tests draining the queue against an in-memory submission DAO and a local
+ * stand-in for the incident-service batch endpoint, which saves a batch in
+ * one transaction like the real one
+ */
+@DisplayName("SubmissionDrainWorker Tests")
+public class SubmissionDrainWorkerTest {
+    private HttpServer server;
+    private FakeSubmissionDAO submissionDAO;
+    private final List<Integer> requestSizes = new ArrayList<>();
+    
+    @BeforeEach
+    void setUp() throws IOException {
+        server = HttpServer.create(new InetSocketAddress("127.0.0.1", 0), 0);
+        server.createContext("/batch", exchange -> {
+            JsonArray items = JsonParser.parseString(
+                new String(exchange.getRequestBody().readAllBytes(), StandardCharsets.UTF_8)).getAsJsonArray();
+            requestSizes.add(items.size());
+            // reporter_id is VARCHAR(100): one longer value rolls back the whole batch
+            boolean fails = false;
+            for (JsonElement item : items) {
+                JsonElement reporterId = item.getAsJsonObject().get("reporterId");
+                fails |= reporterId != null && reporterId.getAsString().length() > 100;
+            }
+            StringBuilder results = new StringBuilder();
+            for (int i = 0; i < items.size(); i++) {
+                results.append(i > 0 ? "," : "").append(fails ? "{\"status\":\"failed\"}" : "{\"status\":\"saved\"}");
+            }
+            byte[] body = ("{\"results\":[" + results + "]}").getBytes(StandardCharsets.UTF_8);
+            exchange.sendResponseHeaders(fails ? 500 : 200, body.length);
+            try (OutputStream out = exchange.getResponseBody()) {
+                out.write(body);
+            }
+        });
+        server.start();
+        submissionDAO = new FakeSubmissionDAO();
+    }
+    
+    @AfterEach
+    void tearDown() {
+        server.stop(0);
+    }
+    
+    @Test
+    @DisplayName("Test drainNow - one item that fails the batch should be dead-lettered alone")
+    void testDrainNow_SplitsFailedBatch() {
+        // Setup - sub_3 cannot be saved, and every submission gets one attempt
+        submissionDAO.add("sub_1", "{\"type\":\"accident\"}");
+        submissionDAO.add("sub_2", "{\"type\":\"hazard\"}");
+        submissionDAO.add("sub_3", "{\"type\":\"hazard\",\"reporterId\":\"" + "x".repeat(101) + "\"}");
+        submissionDAO.add("sub_4", "{\"type\":\"closure\"}");
+        SubmissionDrainWorker worker = new SubmissionDrainWorker(submissionDAO, settings(1));
+        
+        // Execute
+        Map<String, Object> result = worker.drainNow();
+        
+        // Verify
+        assertEquals(3L, result.get("processed"), "Items batched with the bad one should still be sent");
+        assertEquals(1L, result.get("deadLettered"));
+        assertEquals(IncidentForwarder.SENT, submissionDAO.statuses.get("sub_1"));
+        assertEquals(IncidentForwarder.SENT, submissionDAO.statuses.get("sub_2"));
+        assertEquals("dead", submissionDAO.statuses.get("sub_3"));
+        assertEquals(IncidentForwarder.SENT, submissionDAO.statuses.get("sub_4"));
+        assertEquals(List.of(4, 2, 2, 1, 1), requestSizes, "The failed batch should be halved down to the bad item");
+    }
+    
+    @Test
+    @DisplayName("Test drainNow - an unreachable incident-service should put the whole batch back for retry")
+    void testDrainNow_Unreachable() {
+        // Setup
+        submissionDAO.add("sub_1", "{\"type\":\"accident\"}");
+        submissionDAO.add("sub_2", "{\"type\":\"hazard\"}");
+        server.stop(0);
+        SubmissionDrainWorker worker = new SubmissionDrainWorker(submissionDAO, settings(8));
+        
+        // Execute
+        Map<String, Object> result = worker.drainNow();
+        
+        // Verify
+        assertEquals(2L, result.get("retried"));
+        assertEquals(IncidentForwarder.RETRY, submissionDAO.statuses.get("sub_1"));
+        assertEquals(IncidentForwarder.RETRY, submissionDAO.statuses.get("sub_2"));
+        assertTrue(requestSizes.isEmpty());
+    }
+    
+    private Properties settings(int maxAttempts) {
+        Properties settings = new Properties();
+        settings.setProperty("drain.incidentServiceUrl", "http://127.0.0.1:" + server.getAddress().getPort() + "/batch");
+        settings.setProperty("drain.batchSize", "10");
+        settings.setProperty("drain.maxAttempts", String.valueOf(maxAttempts));
+        return settings;
+    }
+    
+    /**
+     * Submission DAO over a map instead of the submissions table
+     */
+    private static class FakeSubmissionDAO extends SubmissionDAO {
+        final Map<String, String> statuses = new LinkedHashMap<>();
+        private final List<Submission> queue = new ArrayList<>();
+        
+        void add(String id, String incidentData) {
+            queue.add(new Submission(id, incidentData, LocalDateTime.now(), "pending"));
+            statuses.put(id, "pending");
+        }
+        
+        @Override
+        public List<Submission> claimPendingBatch(int batchSize) {
+            List<Submission> claimed = new ArrayList<>();
+            for (Submission submission : queue) {
+                if (claimed.size() < batchSize && "pending".equals(statuses.get(submission.getId()))
+                        && submission.getAttempts() == 0) {
+                    submission.setAttempts(1);
+                    statuses.put(submission.getId(), "sending");
+                    claimed.add(submission);
+                }
+            }
+            return claimed;
+        }
+        
+        @Override
+        public int updateStatusBatch(List<String> ids, String status) {
+            for (String id : ids) {
+                statuses.put(id, status);
+            }
+            return ids.size();
+        }
+        
+        @Override
+        public boolean recordFailedAttempts(List<Submission> submissions) {
+            for (Submission submission : submissions) {
+                statuses.put(submission.getId(), submission.getStatus());
+            }
+            return true;
+        }
+    }
+}
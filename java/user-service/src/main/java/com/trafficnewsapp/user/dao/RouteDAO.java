@@ -12,6 +12,9 @@ import java.util.List;
  * Data Access Object for Route
  */
 public class RouteDAO {
+    private static final String INSERT_SQL =
+        "INSERT INTO routes (id, name, latitude, longitude, radius, user_id, created_at) " +
+        "VALUES (?, ?, ?, ?, ?, ?, ?)";
     
     public List<Route> getAllRoutes(String userId) {
         List<Route> routes = new ArrayList<>();
@@ -52,35 +55,41 @@ public class RouteDAO {
         return null;
     }
     
+    /**
+     * Insert or update a route in a single atomic statement.
+     * Owner (user_id) and created_at are kept when the route already exists.
+     */
     public boolean saveRoute(Route route) {
         if (route.getId() == null) {
             route.setId(Route.generateId());
         }
         
-        Route existing = getRouteById(route.getId());
+        String sql = INSERT_SQL + " ON DUPLICATE KEY UPDATE name = VALUES(name), " +
+                    "latitude = VALUES(latitude), longitude = VALUES(longitude), radius = VALUES(radius)";
         
-        if (existing != null) {
-            return updateRoute(route);
-        } else {
-            return insertRoute(route);
+        try (Connection conn = DatabaseConnection.getConnection();
+             PreparedStatement pstmt = conn.prepareStatement(sql)) {
+            
+            bindInsertParameters(pstmt, route);
+            return pstmt.executeUpdate() > 0;
+        } catch (SQLException e) {
+            System.err.println("Error saving route: " + e.getMessage());
+            return false;
         }
     }
     
-    private boolean insertRoute(Route route) {
-        String sql = "INSERT INTO routes (id, name, latitude, longitude, radius, user_id, created_at) " +
-                    "VALUES (?, ?, ?, ?, ?, ?, ?)";
+    /**
+     * Insert a new route (insert-only: fails if the ID already exists)
+     */
+    public boolean insertRoute(Route route) {
+        if (route.getId() == null) {
+            route.setId(Route.generateId());
+        }
         
         try (Connection conn = DatabaseConnection.getConnection();
-             PreparedStatement pstmt = conn.prepareStatement(sql)) {
-            
-            pstmt.setString(1, route.getId());
-            pstmt.setString(2, route.getName());
-            pstmt.setObject(3, route.getLatitude(), Types.DECIMAL);
-            pstmt.setObject(4, route.getLongitude(), Types.DECIMAL);
-            pstmt.setInt(5, route.getRadius());
-            pstmt.setString(6, route.getUserId());
-            pstmt.setTimestamp(7, Timestamp.valueOf(route.getCreatedAt()));
+             PreparedStatement pstmt = conn.prepareStatement(INSERT_SQL)) {
             
+            bindInsertParameters(pstmt, route);
             return pstmt.executeUpdate() > 0;
         } catch (SQLException e) {
             System.err.println("Error inserting route: " + e.getMessage());
@@ -88,7 +97,10 @@ public class RouteDAO {
         }
     }
     
-    private boolean updateRoute(Route route) {
+    /**
+     * Update an existing route (update-only: never creates a row)
+     */
+    public boolean updateRoute(Route route) {
         String sql = "UPDATE routes SET name = ?, latitude = ?, longitude = ?, " +
                     "radius = ? WHERE id = ?";
         
@@ -122,6 +134,16 @@ public class RouteDAO {
         }
     }
     
+    private void bindInsertParameters(PreparedStatement pstmt, Route route) throws SQLException {
+        pstmt.setString(1, route.getId());
+        pstmt.setString(2, route.getName());
+        pstmt.setObject(3, route.getLatitude(), Types.DECIMAL);
+        pstmt.setObject(4, route.getLongitude(), Types.DECIMAL);
+        pstmt.setInt(5, route.getRadius());
+        pstmt.setString(6, route.getUserId());
+        pstmt.setTimestamp(7, Timestamp.valueOf(route.getCreatedAt()));
+    }
+    
     private Route mapResultSetToRoute(ResultSet rs) throws SQLException {
         Route route = new Route();
         route.setId(rs.getString("id"));
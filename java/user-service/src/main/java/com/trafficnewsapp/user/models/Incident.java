@@ -0,0 +1,50 @@
+package com.trafficnewsapp.user.models;
+
+import java.time.LocalDateTime;
+
+/**
+ * Incident Model
+ * Read-only view of an incident as returned by the incident service
+ */
+public class Incident {
+    private String id;
+    private String type;
+    private String severity;
+    private String location;
+    private Double latitude;
+    private Double longitude;
+    private String description;
+    private LocalDateTime timestamp;
+    private String status;
+    
+    public Incident() {
+    }
+    
+    // Getters and Setters
+    public String getId() { return id; }
+    public void setId(String id) { this.id = id; }
+    
+    public String getType() { return type; }
+    public void setType(String type) { this.type = type; }
+    
+    public String getSeverity() { return severity; }
+    public void setSeverity(String severity) { this.severity = severity; }
+    
+    public String getLocation() { return location; }
+    public void setLocation(String location) { this.location = location; }
+    
+    public Double getLatitude() { return latitude; }
+    public void setLatitude(Double latitude) { this.latitude = latitude; }
+    
+    public Double getLongitude() { return longitude; }
+    public void setLongitude(Double longitude) { this.longitude = longitude; }
+    
+    public String getDescription() { return description; }
+    public void setDescription(String description) { this.description = description; }
+    
+    public LocalDateTime getTimestamp() { return timestamp; }
+    public void setTimestamp(LocalDateTime timestamp) { this.timestamp = timestamp; }
+    
+    public String getStatus() { return status; }
+    public void setStatus(String status) { this.status = status; }
+}
@@ -0,0 +1,69 @@
+package com.trafficnewsapp.user.services;
+
+import com.google.gson.Gson;
+import com.google.gson.GsonBuilder;
+import com.google.gson.JsonDeserializer;
+import com.google.gson.reflect.TypeToken;
+import com.google.gson.stream.JsonReader;
+import com.trafficnewsapp.user.models.Incident;
+
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.lang.reflect.Type;
+import java.net.HttpURLConnection;
+import java.net.URL;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+import java.time.format.DateTimeFormatter;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * IncidentClient
+ * Fetches incidents from the incident service REST API
+ */
+public class IncidentClient {
+    public static final String DEFAULT_URL = "http://localhost:8080/incident-service-1.0.0/api/incidents";
+    
+    private static final int CONNECT_TIMEOUT_MS = 2000;
+    private static final int READ_TIMEOUT_MS = 10000;
+    
+    private final String incidentServiceUrl;
+    private final Gson gson;
+    
+    public IncidentClient(String incidentServiceUrl) {
+        this.incidentServiceUrl = incidentServiceUrl != null ? incidentServiceUrl : DEFAULT_URL;
+        this.gson = new GsonBuilder()
+            .registerTypeAdapter(LocalDateTime.class,
+                (JsonDeserializer<LocalDateTime>) (json, typeOfT, context) ->
+                    LocalDateTime.parse(json.getAsString(), DateTimeFormatter.ISO_LOCAL_DATE_TIME))
+            .create();
+    }
+    
+    /**
+     * Fetch all incidents
+     * @return List of incidents
+     * @throws IOException if the incident service is unreachable or returns an error
+     */
+    public List<Incident> fetchIncidents() throws IOException {
+        URL url = new URL(incidentServiceUrl);
+        HttpURLConnection conn = (HttpURLConnection) url.openConnection();
+        conn.setRequestMethod("GET");
+        conn.setRequestProperty("Accept", "application/json");
+        conn.setConnectTimeout(CONNECT_TIMEOUT_MS);
+        conn.setReadTimeout(READ_TIMEOUT_MS);
+        
+        int responseCode = conn.getResponseCode();
+        if (responseCode != HttpURLConnection.HTTP_OK) {
+            throw new IOException("Failed to fetch incidents. Response code: " + responseCode);
+        }
+        
+        // Parse straight from the stream rather than buffering the body
+        Type listType = new TypeToken<List<Incident>>(){}.getType();
+        try (JsonReader reader = new JsonReader(
+                new InputStreamReader(conn.getInputStream(), StandardCharsets.UTF_8))) {
+            List<Incident> incidents = gson.fromJson(reader, listType);
+            return incidents != null ? incidents : new ArrayList<>();
+        }
+    }
+}
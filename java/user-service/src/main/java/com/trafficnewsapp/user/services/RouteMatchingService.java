@@ -0,0 +1,200 @@
+package com.trafficnewsapp.user.services;
+
+import com.trafficnewsapp.user.models.Incident;
+import com.trafficnewsapp.user.models.Route;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.Callable;
+
+/**
+ * RouteMatchingService
+ * Business Logic Layer - Matches incidents to saved routes.
+ * Incidents are kept in a lat/lng grid that is rebuilt from the incident
+ * service at most once per refresh interval and shared by all requests.
+ * A route is matched by visiting only the grid cells its circle overlaps
+ * (or every populated cell, when that is fewer) and then applying an exact
+ * haversine distance check.
+ */
+public class RouteMatchingService {
+    public static final long DEFAULT_REFRESH_MS = 30000; // 30 seconds
+    public static final int MAX_RADIUS_METERS = 50000; // 50 km
+    
+    private static final double EARTH_RADIUS_METERS = 6371000;
+    private static final double METERS_PER_DEGREE_LAT = 111320;
+    private static final double CELL_SIZE = 0.01; // degrees, roughly 1 km
+    private static final int COLUMNS = (int) Math.round(360 / CELL_SIZE);
+    private static final long RETRY_MS = 5000; // wait after a failed load
+    
+    private final Callable<List<Incident>> loader;
+    private final long refreshMs;
+    private final Object loadLock = new Object();
+    private volatile GeoIndex index;
+    private volatile long retryAt;
+    
+    /**
+     * Immutable grid of incidents, bucketed by cell
+     */
+    private static class GeoIndex {
+        final Map<Long, List<Incident>> cells = new HashMap<>();
+        final long builtAt;
+        
+        GeoIndex(List<Incident> incidents, long builtAt) {
+            for (Incident incident : incidents) {
+                if (incident.getLatitude() != null && incident.getLongitude() != null) {
+                    long key = key(row(incident.getLatitude()), column(incident.getLongitude()));
+                    cells.computeIfAbsent(key, k -> new ArrayList<>()).add(incident);
+                }
+            }
+            this.builtAt = builtAt;
+        }
+    }
+    
+    private static final GeoIndex EMPTY_INDEX = new GeoIndex(Collections.emptyList(), 0);
+    
+    /**
+     * @param loader Loads the current incident list
+     * @param refreshMs How long a built index is reused, in milliseconds
+     */
+    public RouteMatchingService(Callable<List<Incident>> loader, long refreshMs) {
+        this.loader = loader;
+        this.refreshMs = Math.max(0, refreshMs);
+    }
+    
+    /**
+     * Find incidents within a route's radius
+     * @param route Saved route
+     * @return Incidents within the radius, nearest first
+     */
+    public List<Incident> findIncidentsForRoute(Route route) {
+        return match(getIndex(), route);
+    }
+    
+    /**
+     * Match several routes against the same index
+     * @param routes Saved routes (e.g. all routes of one user)
+     * @return Route ID to incidents within its radius, nearest first
+     */
+    public Map<String, List<Incident>> findIncidentsForRoutes(List<Route> routes) {
+        GeoIndex current = getIndex();
+        Map<String, List<Incident>> result = new LinkedHashMap<>();
+        for (Route route : routes) {
+            result.put(route.getId(), match(current, route));
+        }
+        return result;
+    }
+    
+    /**
+     * Great-circle distance between two points
+     * @return Distance in meters
+     */
+    public static double haversineMeters(double lat1, double lng1, double lat2, double lng2) {
+        double dLat = Math.toRadians(lat2 - lat1);
+        double dLng = Math.toRadians(lng2 - lng1);
+        double a = Math.sin(dLat / 2) * Math.sin(dLat / 2)
+            + Math.cos(Math.toRadians(lat1)) * Math.cos(Math.toRadians(lat2))
+            * Math.sin(dLng / 2) * Math.sin(dLng / 2);
+        return 2 * EARTH_RADIUS_METERS * Math.asin(Math.min(1, Math.sqrt(a)));
+    }
+    
+    private static List<Incident> match(GeoIndex current, Route route) {
+        if (route.getLatitude() == null || route.getLongitude() == null || current.cells.isEmpty()) {
+            return Collections.emptyList();
+        }
+        double lat = route.getLatitude();
+        double lng = route.getLongitude();
+        // Routes saved before the radius was validated may be larger
+        double radius = Math.min(route.getRadius() != null ? route.getRadius() : 1000, MAX_RADIUS_METERS);
+        
+        // Bounding box of the circle, widened in longitude by latitude
+        double dLat = radius / METERS_PER_DEGREE_LAT;
+        double cosLat = Math.max(Math.cos(Math.toRadians(lat)), 0.01);
+        double dLng = radius / (METERS_PER_DEGREE_LAT * cosLat);
+        int firstRow = row(Math.max(lat - dLat, -90));
+        int lastRow = row(Math.min(lat + dLat, 90));
+        int firstColumn = 0;
+        int lastColumn = COLUMNS - 1;
+        if (dLng < 180 && lat + dLat < 90 && lat - dLat > -90) {
+            // Unwrapped, so a box crossing the antimeridian runs past either end
+            firstColumn = (int) Math.floor((lng - dLng + 180) / CELL_SIZE);
+            lastColumn = (int) Math.floor((lng + dLng + 180) / CELL_SIZE);
+        }
+        
+        List<List<Incident>> candidates = new ArrayList<>();
+        long boxCells = (long) (lastRow - firstRow + 1) * (lastColumn - firstColumn + 1);
+        if (boxCells > current.cells.size()) {
+            // Fewer populated cells than cells in the box: check them all
+            candidates.addAll(current.cells.values());
+        } else {
+            for (int row = firstRow; row <= lastRow; row++) {
+                for (int col = firstColumn; col <= lastColumn; col++) {
+                    List<Incident> cell = current.cells.get(key(row, Math.floorMod(col, COLUMNS)));
+                    if (cell != null) {
+                        candidates.add(cell);
+                    }
+                }
+            }
+        }
+        
+        Map<Incident, Double> distances = new HashMap<>();
+        for (List<Incident> cell : candidates) {
+            for (Incident incident : cell) {
+                double distance = haversineMeters(lat, lng, incident.getLatitude(), incident.getLongitude());
+                if (distance <= radius) {
+                    distances.put(incident, distance);
+                }
+            }
+        }
+        
+        List<Incident> matches = new ArrayList<>(distances.keySet());
+        matches.sort((a, b) -> Double.compare(distances.get(a), distances.get(b)));
+        return matches;
+    }
+    
+    /**
+     * Get the current index, rebuilding it when it is older than the refresh interval.
+     * If the incident service cannot be reached the previous index is kept.
+     */
+    private GeoIndex getIndex() {
+        GeoIndex current = index;
+        if (isFresh(current)) {
+            return current;
+        }
+        synchronized (loadLock) {
+            current = index;
+            if (isFresh(current) || System.currentTimeMillis() < retryAt) {
+                return current != null ? current : EMPTY_INDEX;
+            }
+            try {
+                current = new GeoIndex(loader.call(), System.currentTimeMillis());
+                index = current;
+            } catch (Exception e) {
+                // Don't make every request wait on a service that is down
+                System.err.println("Error loading incidents for route matching: " + e.getMessage());
+                retryAt = System.currentTimeMillis() + Math.min(refreshMs, RETRY_MS);
+            }
+            return current != null ? current : EMPTY_INDEX;
+        }
+    }
+    
+    private boolean isFresh(GeoIndex current) {
+        return current != null && System.currentTimeMillis() - current.builtAt < refreshMs;
+    }
+    
+    private static int row(double latitude) {
+        return (int) Math.floor((latitude + 90) / CELL_SIZE);
+    }
+    
+    private static int column(double longitude) {
+        // 180 and -180 are the same meridian
+        return Math.floorMod((int) Math.floor((longitude + 180) / CELL_SIZE), COLUMNS);
+    }
+    
+    private static long key(int row, int column) {
+        return ((long) row << 32) | (column & 0xffffffffL);
+    }
+}
@@ -4,6 +4,7 @@ import com.trafficnewsapp.user.dao.RouteDAO;
 import com.trafficnewsapp.user.models.Route;
 
 import java.util.List;
+import java.util.concurrent.atomic.AtomicLong;
 
 /**
  * SavedRoutesService (C10)
@@ -12,6 +13,9 @@ import java.util.List;
 public class SavedRoutesService {
     private RouteDAO routeDAO;
     
+    // Bumped on every successful write; used to build ETags for route reads
+    private final AtomicLong version = new AtomicLong();
+    
     public SavedRoutesService(RouteDAO routeDAO) {
         this.routeDAO = routeDAO;
     }
@@ -38,9 +42,14 @@ public class SavedRoutesService {
      * Add a new route
      * @param route Route to add
      * @return Created route or null if failed
+     * @throws IllegalArgumentException if the radius is out of range
      */
     public Route addRoute(Route route) {
-        boolean success = routeDAO.saveRoute(route);
+        validateRadius(route);
+        boolean success = routeDAO.insertRoute(route);
+        if (success) {
+            version.incrementAndGet();
+        }
         return success ? route : null;
     }
     
@@ -48,9 +57,14 @@ public class SavedRoutesService {
      * Update an existing route
      * @param route Route with updates
      * @return Updated route or null if failed
+     * @throws IllegalArgumentException if the radius is out of range
      */
     public Route updateRoute(Route route) {
-        boolean success = routeDAO.saveRoute(route);
+        validateRadius(route);
+        boolean success = routeDAO.updateRoute(route);
+        if (success) {
+            version.incrementAndGet();
+        }
         return success ? route : null;
     }
     
@@ -60,7 +74,30 @@ public class SavedRoutesService {
      * @return true if successful
      */
     public boolean deleteRoute(String routeId) {
-        return routeDAO.deleteRoute(routeId);
+        boolean deleted = routeDAO.deleteRoute(routeId);
+        if (deleted) {
+            version.incrementAndGet();
+        }
+        return deleted;
+    }
+    
+    /**
+     * Get the route data version (changes on every add, update and delete)
+     * @return Current version
+     */
+    public long getVersion() {
+        return version.get();
+    }
+    
+    /**
+     * Route matching cost grows with the area of the circle, so it is capped
+     */
+    private static void validateRadius(Route route) {
+        Integer radius = route.getRadius();
+        if (radius == null || radius <= 0 || radius > RouteMatchingService.MAX_RADIUS_METERS) {
+            throw new IllegalArgumentException("Radius must be between 1 and "
+                + RouteMatchingService.MAX_RADIUS_METERS + " meters");
+        }
     }
 }
 
@@ -4,7 +4,10 @@ import com.google.gson.Gson;
 import com.google.gson.GsonBuilder;
 import com.trafficnewsapp.user.dao.RouteDAO;
 import com.trafficnewsapp.user.models.Route;
+import com.trafficnewsapp.user.services.IncidentClient;
+import com.trafficnewsapp.user.services.RouteMatchingService;
 import com.trafficnewsapp.user.services.SavedRoutesService;
+import com.trafficnewsapp.user.util.HttpCaching;
 
 import javax.servlet.ServletException;
 import javax.servlet.http.HttpServlet;
@@ -14,6 +17,7 @@ import java.io.IOException;
 import java.io.PrintWriter;
 import java.time.LocalDateTime;
 import java.time.format.DateTimeFormatter;
+import java.util.List;
 import java.util.Map;
 
 /**
@@ -21,7 +25,11 @@ import java.util.Map;
  * REST API endpoint for route operations
  */
 public class RouteServlet extends HttpServlet {
+    // Routes are per user: private, and revalidated on every use
+    private static final String CACHE_CONTROL = "private, no-cache";
+    
     private SavedRoutesService savedRoutesService;
+    private RouteMatchingService routeMatchingService;
     private Gson gson;
     
     @Override
@@ -29,6 +37,9 @@ public class RouteServlet extends HttpServlet {
         RouteDAO routeDAO = new RouteDAO();
         this.savedRoutesService = new SavedRoutesService(routeDAO);
         
+        IncidentClient incidentClient = new IncidentClient(getServletContext().getInitParameter("incident.service.url"));
+        this.routeMatchingService = new RouteMatchingService(incidentClient::fetchIncidents, getMatchingRefresh());
+        
         GsonBuilder gsonBuilder = new GsonBuilder();
         gsonBuilder.registerTypeAdapter(LocalDateTime.class, 
             (com.google.gson.JsonSerializer<LocalDateTime>) (src, typeOfSrc, context) -> 
@@ -56,12 +67,34 @@ public class RouteServlet extends HttpServlet {
         }
         
         try {
-            if (pathInfo != null && pathInfo.length() > 1) {
+            if ("/incidents".equals(pathInfo)) {
+                // Match incidents against all routes for the user: {"routeId": [...]}
+                List<Route> routes = savedRoutesService.getSavedRoutes(userId);
+                out.print(gson.toJson(routeMatchingService.findIncidentsForRoutes(routes)));
+                response.setStatus(HttpServletResponse.SC_OK);
+            } else if (pathInfo != null && pathInfo.endsWith("/incidents")) {
+                // Incidents within one route's radius, nearest first
+                String id = pathInfo.substring(1, pathInfo.length() - "/incidents".length());
+                Route route = savedRoutesService.getRouteById(id);
+                
+                if (route != null) {
+                    out.print(gson.toJson(routeMatchingService.findIncidentsForRoute(route)));
+                    response.setStatus(HttpServletResponse.SC_OK);
+                } else {
+                    response.setStatus(HttpServletResponse.SC_NOT_FOUND);
+                    out.print(gson.toJson(Map.of("error", "Route not found")));
+                }
+            } else if (pathInfo != null && pathInfo.length() > 1) {
                 // Get route by ID
                 String id = pathInfo.substring(1);
+                String etag = HttpCaching.etag(savedRoutesService.getVersion(), HttpCaching.key(id));
+                if (HttpCaching.checkNotModified(request, response, etag, CACHE_CONTROL)) {
+                    return;
+                }
                 Route route = savedRoutesService.getRouteById(id);
                 
                 if (route != null) {
+                    HttpCaching.setCacheHeaders(response, etag, CACHE_CONTROL);
                     out.print(gson.toJson(route));
                     response.setStatus(HttpServletResponse.SC_OK);
                 } else {
@@ -70,7 +103,12 @@ public class RouteServlet extends HttpServlet {
                 }
             } else {
                 // Get all routes for user
+                String etag = HttpCaching.etag(savedRoutesService.getVersion(), HttpCaching.key(userId));
+                if (HttpCaching.checkNotModified(request, response, etag, CACHE_CONTROL)) {
+                    return;
+                }
                 var routes = savedRoutesService.getSavedRoutes(userId);
+                HttpCaching.setCacheHeaders(response, etag, CACHE_CONTROL);
                 out.print(gson.toJson(routes));
                 response.setStatus(HttpServletResponse.SC_OK);
             }
@@ -80,6 +118,21 @@ public class RouteServlet extends HttpServlet {
         }
     }
     
+    /**
+     * Read the route matching index refresh interval from web.xml
+     */
+    private long getMatchingRefresh() {
+        String value = getServletContext().getInitParameter("route.matching.refreshMs");
+        if (value != null) {
+            try {
+                return Long.parseLong(value.trim());
+            } catch (NumberFormatException e) {
+                System.err.println("Invalid route.matching.refreshMs: " + value);
+            }
+        }
+        return RouteMatchingService.DEFAULT_REFRESH_MS;
+    }
+    
     @Override
     protected void doPost(HttpServletRequest request, HttpServletResponse response) 
             throws ServletException, IOException {
@@ -109,6 +162,9 @@ public class RouteServlet extends HttpServlet {
                 response.setStatus(HttpServletResponse.SC_INTERNAL_SERVER_ERROR);
                 out.print(gson.toJson(Map.of("error", "Failed to create route")));
             }
+        } catch (IllegalArgumentException e) {
+            response.setStatus(HttpServletResponse.SC_BAD_REQUEST);
+            out.print(gson.toJson(Map.of("error", e.getMessage())));
         } catch (Exception e) {
             response.setStatus(HttpServletResponse.SC_INTERNAL_SERVER_ERROR);
             out.print(gson.toJson(Map.of("error", e.getMessage())));
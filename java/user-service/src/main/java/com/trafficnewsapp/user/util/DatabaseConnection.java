@@ -1,16 +1,36 @@
 package com.trafficnewsapp.user.util;
 
+import com.zaxxer.hikari.HikariConfig;
+import com.zaxxer.hikari.HikariDataSource;
+import com.zaxxer.hikari.HikariPoolMXBean;
+
 import java.sql.Connection;
-import java.sql.DriverManager;
 import java.sql.SQLException;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Properties;
 
 /**
  * Database Connection Utility
+ * Manages a pool of MySQL database connections
  */
 public class DatabaseConnection {
     private static final String DB_URL = "jdbc:mysql://localhost:3306/trafficnewsapp";
     private static final String DB_USER = "root";
     private static final String DB_PASSWORD = "student"; // Change as needed
+    private static final String POOL_NAME = "user-service-pool";
+    
+    // Pool defaults, overridable through context-params in web.xml
+    private static final int DEFAULT_MIN_IDLE = 2;
+    private static final int DEFAULT_MAX_POOL_SIZE = 10;
+    private static final long DEFAULT_IDLE_TIMEOUT = 600000; // 10 minutes
+    private static final long DEFAULT_CONNECTION_TIMEOUT = 3000;
+    private static final long DEFAULT_VALIDATION_TIMEOUT = 1000;
+    private static final long DEFAULT_LEAK_DETECTION_THRESHOLD = 10000;
+    
+    private static volatile HikariDataSource dataSource;
+    // Set by shutdownPool so a late caller cannot start a pool nobody will close
+    private static volatile boolean shutdown;
     
     static {
         try {
@@ -20,10 +40,90 @@ public class DatabaseConnection {
         }
     }
     
+    /**
+     * Initialize the connection pool
+     * @param settings Pool settings (db.pool.* keys), may be empty
+     */
+    public static synchronized void initPool(Properties settings) {
+        if (dataSource != null) {
+            return;
+        }
+        shutdown = false;
+        
+        HikariConfig config = new HikariConfig();
+        config.setPoolName(POOL_NAME);
+        config.setJdbcUrl(DB_URL);
+        config.setUsername(DB_USER);
+        config.setPassword(DB_PASSWORD);
+        
+        config.setMinimumIdle(getInt(settings, "db.pool.minIdle", DEFAULT_MIN_IDLE));
+        config.setMaximumPoolSize(getInt(settings, "db.pool.maxSize", DEFAULT_MAX_POOL_SIZE));
+        config.setIdleTimeout(getLong(settings, "db.pool.idleTimeoutMs", DEFAULT_IDLE_TIMEOUT));
+        config.setConnectionTimeout(getLong(settings, "db.pool.connectionTimeoutMs", DEFAULT_CONNECTION_TIMEOUT));
+        config.setValidationTimeout(getLong(settings, "db.pool.validationTimeoutMs", DEFAULT_VALIDATION_TIMEOUT));
+        config.setLeakDetectionThreshold(getLong(settings, "db.pool.leakDetectionMs", DEFAULT_LEAK_DETECTION_THRESHOLD));
+        
+        // Start even if MySQL is down; connections are created when it comes back
+        config.setInitializationFailTimeout(-1);
+        config.setRegisterMbeans(true);
+        
+        config.addDataSourceProperty("cachePrepStmts", "true");
+        config.addDataSourceProperty("prepStmtCacheSize", "250");
+        config.addDataSourceProperty("prepStmtCacheSqlLimit", "2048");
+        config.addDataSourceProperty("useServerPrepStmts", "true");
+        
+        dataSource = new HikariDataSource(config);
+    }
+    
+    /**
+     * Close the connection pool and release all connections;
+     * getConnection fails from then on until initPool is called again
+     */
+    public static synchronized void shutdownPool() {
+        shutdown = true;
+        if (dataSource != null) {
+            dataSource.close();
+            dataSource = null;
+        }
+    }
+    
+    /**
+     * Get a database connection from the pool
+     * @return Connection object (close it to return it to the pool)
+     * @throws SQLException if connection fails
+     */
     public static Connection getConnection() throws SQLException {
-        return DriverManager.getConnection(DB_URL, DB_USER, DB_PASSWORD);
+        return getDataSource().getConnection();
+    }
+    
+    /**
+     * Get pool metrics
+     * @return Map of pool statistics
+     */
+    public static synchronized Map<String, Object> getPoolStats() {
+        Map<String, Object> stats = new LinkedHashMap<>();
+        stats.put("pool", POOL_NAME);
+        
+        if (dataSource == null || dataSource.getHikariPoolMXBean() == null) {
+            stats.put("running", false);
+            return stats;
+        }
+        
+        HikariPoolMXBean pool = dataSource.getHikariPoolMXBean();
+        stats.put("running", true);
+        stats.put("active", pool.getActiveConnections());
+        stats.put("idle", pool.getIdleConnections());
+        stats.put("total", pool.getTotalConnections());
+        stats.put("waiting", pool.getThreadsAwaitingConnection());
+        stats.put("minIdle", dataSource.getMinimumIdle());
+        stats.put("maxSize", dataSource.getMaximumPoolSize());
+        return stats;
     }
     
+    /**
+     * Close a database connection
+     * @param conn Connection to close
+     */
     public static void closeConnection(Connection conn) {
         if (conn != null) {
             try {
@@ -33,7 +133,45 @@ public class DatabaseConnection {
             }
         }
     }
+    
+    private static HikariDataSource getDataSource() throws SQLException {
+        HikariDataSource ds = dataSource;
+        if (ds != null) {
+            return ds;
+        }
+        synchronized (DatabaseConnection.class) {
+            if (shutdown) {
+                throw new SQLException("Connection pool has been shut down");
+            }
+            // Lazily start with defaults when used outside a servlet container (e.g. unit tests)
+            initPool(new Properties());
+            return dataSource;
+        }
+    }
+    
+    private static int getInt(Properties settings, String key, int defaultValue) {
+        String value = settings.getProperty(key);
+        if (value == null || value.trim().isEmpty()) {
+            return defaultValue;
+        }
+        try {
+            return Integer.parseInt(value.trim());
+        } catch (NumberFormatException e) {
+            System.err.println("Invalid value for " + key + ": " + value);
+            return defaultValue;
+        }
+    }
+    
+    private static long getLong(Properties settings, String key, long defaultValue) {
+        String value = settings.getProperty(key);
+        if (value == null || value.trim().isEmpty()) {
+            return defaultValue;
+        }
+        try {
+            return Long.parseLong(value.trim());
+        } catch (NumberFormatException e) {
+            System.err.println("Invalid value for " + key + ": " + value);
+            return defaultValue;
+        }
+    }
 }
-
-
-
@@ -0,0 +1,136 @@
+package com.trafficnewsapp.user.services;
+
+import com.trafficnewsapp.user.models.Incident;
+import com.trafficnewsapp.user.models.Route;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.DisplayName;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Unit tests for RouteMatchingService
+ * Tests radius matching, multi-route matching and index reuse
+ */
+@DisplayName("RouteMatchingService Tests")
+public class RouteMatchingServiceTest {
+    private AtomicInteger loads;
+    private RouteMatchingService routeMatchingService;
+    
+    @BeforeEach
+    void setUp() {
+        List<Incident> incidents = new ArrayList<>();
+        incidents.add(createIncident("inc_1", 43.6532, -79.3832)); // Yonge St
+        incidents.add(createIncident("inc_5", 43.6480, -79.3800)); // Bay St, ~650 m from inc_1
+        incidents.add(createIncident("inc_6", 43.6700, -79.4100)); // Bloor St, ~3 km away
+        incidents.add(createIncident("inc_9", null, null));
+        loads = new AtomicInteger();
+        
+        routeMatchingService = new RouteMatchingService(() -> {
+            loads.incrementAndGet();
+            return incidents;
+        }, 60000);
+    }
+    
+    @Test
+    @DisplayName("Test findIncidentsForRoute - should return incidents within radius, nearest first")
+    void testFindIncidentsForRoute() {
+        // Setup
+        Route route = createRoute("route_1", 43.6530, -79.3830, 1000);
+        
+        // Execute
+        List<Incident> matches = routeMatchingService.findIncidentsForRoute(route);
+        
+        // Verify
+        assertEquals(2, matches.size(), "Should match the two downtown incidents");
+        assertEquals("inc_1", matches.get(0).getId(), "Nearest incident should be first");
+        assertEquals("inc_5", matches.get(1).getId());
+    }
+    
+    @Test
+    @DisplayName("Test findIncidentsForRoutes - all routes should share one index load")
+    void testFindIncidentsForRoutes() {
+        // Setup
+        List<Route> routes = new ArrayList<>();
+        routes.add(createRoute("route_1", 43.6530, -79.3830, 100));
+        routes.add(createRoute("route_2", 43.6700, -79.4100, 5000));
+        
+        // Execute
+        Map<String, List<Incident>> matches = routeMatchingService.findIncidentsForRoutes(routes);
+        routeMatchingService.findIncidentsForRoutes(routes);
+        
+        // Verify
+        assertEquals(1, loads.get(), "Index should be built once and reused");
+        assertEquals(1, matches.get("route_1").size(), "Small radius should only match inc_1");
+        assertEquals(3, matches.get("route_2").size(), "Large radius should match all located incidents");
+    }
+    
+    @Test
+    @DisplayName("Test findIncidentsForRoute - should match across the antimeridian")
+    void testFindIncidentsForRoute_Antimeridian() {
+        // Setup - Fiji, either side of 180 degrees
+        List<Incident> incidents = new ArrayList<>();
+        incidents.add(createIncident("east", -16.5, 179.995));
+        incidents.add(createIncident("west", -16.5, -179.995));
+        incidents.add(createIncident("far", -16.5, 170.0));
+        RouteMatchingService service = new RouteMatchingService(() -> incidents, 60000);
+        
+        // Execute
+        List<Incident> matches = service.findIncidentsForRoute(createRoute("route_1", -16.5, 179.999, 2000));
+        
+        // Verify
+        assertEquals(2, matches.size(), "Should match incidents on both sides of the antimeridian");
+        assertEquals("east", matches.get(0).getId(), "Nearest incident should be first");
+    }
+    
+    @Test
+    @DisplayName("Test findIncidentsForRoute - an oversized radius should be capped")
+    void testFindIncidentsForRoute_OversizedRadius() {
+        // Setup - a route saved before the radius was validated
+        Route route = createRoute("route_1", 43.6530, -79.3830, 20000000);
+        
+        // Execute
+        long started = System.currentTimeMillis();
+        List<Incident> matches = routeMatchingService.findIncidentsForRoute(route);
+        
+        // Verify
+        assertEquals(3, matches.size(), "Capped radius should still cover all nearby incidents");
+        assertTrue(System.currentTimeMillis() - started < 1000, "Should not scan the whole grid");
+    }
+    
+    @Test
+    @DisplayName("Test haversineMeters - should match known distance")
+    void testHaversineMeters() {
+        // Execute - one degree of latitude
+        double distance = RouteMatchingService.haversineMeters(43.0, -79.0, 44.0, -79.0);
+        
+        // Verify
+        assertEquals(111195, distance, 50, "One degree of latitude is about 111.2 km");
+    }
+    
+    private Incident createIncident(String id, Double latitude, Double longitude) {
+        Incident incident = new Incident();
+        incident.setId(id);
+        incident.setType("accident");
+        incident.setSeverity("high");
+        incident.setLatitude(latitude);
+        incident.setLongitude(longitude);
+        return incident;
+    }
+    
+    private Route createRoute(String id, double latitude, double longitude, int radius) {
+        Route route = new Route();
+        route.setId(id);
+        route.setName("Test Route");
+        route.setLatitude(latitude);
+        route.setLongitude(longitude);
+        route.setRadius(radius);
+        route.setUserId("test_user");
+        return route;
+    }
+}
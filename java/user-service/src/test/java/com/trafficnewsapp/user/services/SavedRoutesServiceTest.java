@@ -91,6 +91,22 @@ public class SavedRoutesServiceTest {
         Route afterDelete = savedRoutesService.getRouteById(routeId);
         assertNull(afterDelete, "Route should not exist after deletion");
     }
+    
+    @Test
+    @DisplayName("Test addRoute - should reject a radius above the maximum")
+    void testAddRoute_RadiusTooLarge() {
+        // Setup
+        Route route = new Route();
+        route.setName("Whole Planet");
+        route.setLatitude(43.6532);
+        route.setLongitude(-79.3832);
+        route.setRadius(20000000);
+        route.setUserId("test_user");
+        
+        // Execute & Verify
+        assertThrows(IllegalArgumentException.class, () -> savedRoutesService.addRoute(route),
+            "Radius over the maximum should be rejected before saving");
+    }
 }
 
 
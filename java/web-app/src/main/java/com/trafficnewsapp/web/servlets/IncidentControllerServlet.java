@@ -1,6 +1,8 @@
 package com.trafficnewsapp.web.servlets;
 
 import com.google.gson.Gson;
+import com.google.gson.JsonObject;
+import com.google.gson.JsonParser;
 import com.google.gson.reflect.TypeToken;
 
 import javax.servlet.ServletException;
@@ -10,11 +12,14 @@ import javax.servlet.http.HttpServletResponse;
 import java.io.BufferedReader;
 import java.io.IOException;
 import java.io.InputStreamReader;
+import java.io.Reader;
 import java.lang.reflect.Type;
 import java.net.HttpURLConnection;
 import java.net.URL;
+import java.nio.charset.StandardCharsets;
 import java.util.ArrayList;
 import java.util.HashMap;
+import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Map;
 
@@ -50,6 +55,7 @@ public class IncidentControllerServlet extends HttpServlet {
             // Set attributes for JSP
             request.setAttribute("incidents", filteredIncidents);
             request.setAttribute("allIncidents", incidents);
+            request.setAttribute("facets", fetchFacets());
             request.setAttribute("typeFilter", typeFilter != null ? typeFilter : "");
             request.setAttribute("severityFilter", severityFilter != null ? severityFilter : "");
             request.setAttribute("keyword", keyword != null ? keyword : "");
@@ -93,6 +99,36 @@ public class IncidentControllerServlet extends HttpServlet {
         }
     }
     
+    /**
+     * Fetch dashboard counts (type, severity, status, time) from the facets endpoint
+     * @return Facet name -> value -> count, or null if unavailable
+     */
+    private Map<String, Map<String, Integer>> fetchFacets() {
+        try {
+            URL url = new URL(INCIDENT_SERVICE_URL + "/facets");
+            HttpURLConnection conn = (HttpURLConnection) url.openConnection();
+            conn.setRequestMethod("GET");
+            conn.setRequestProperty("Accept", "application/json");
+            if (conn.getResponseCode() != HttpURLConnection.HTTP_OK) {
+                return null;
+            }
+            
+            try (Reader in = new InputStreamReader(conn.getInputStream(), StandardCharsets.UTF_8)) {
+                JsonObject json = JsonParser.parseReader(in).getAsJsonObject();
+                Type countsType = new TypeToken<LinkedHashMap<String, Integer>>(){}.getType();
+                Map<String, Map<String, Integer>> facets = new LinkedHashMap<>();
+                for (String facet : new String[] {"type", "severity", "status", "time"}) {
+                    facets.put(facet, gson.fromJson(json.get(facet), countsType));
+                }
+                return facets;
+            }
+        } catch (IOException | RuntimeException e) {
+            // Counts are optional; the page still renders without them
+            System.err.println("Error fetching incident facets: " + e.getMessage());
+            return null;
+        }
+    }
+    
     /**
      * Filter incidents based on type, severity, and keyword
      */
@@ -123,6 +123,15 @@
                 <div class="right-column">
                     <div class="incident-list-section">
                         <h2>📋 Incidents <small class="text-muted">(${incidents != null ? incidents.size() : 0} found)</small></h2>
+                        <c:if test="${facets != null}">
+                            <div class="incident-facets">
+                                <c:forEach var="facet" items="${facets.severity}">
+                                    <span class="severity-badge severity-<c:out value="${facet.key}"/>"><c:out value="${facet.key}"/>: ${facet.value}</span>
+                                </c:forEach>
+                                <span class="facet-count">Last hour: ${facets.time['0-1h']}</span>
+                                <span class="facet-count">Last 24h: ${facets.time['0-1h'] + facets.time['1-24h']}</span>
+                            </div>
+                        </c:if>
                         <div id="incident-list">
                             <c:choose>
                                 <c:when test="${incidents != null && !empty incidents}">
@@ -15,18 +15,22 @@ class APIClient {
      * Make HTTP request
      */
     async request(url, options = {}) {
+        const { onResponse, ...fetchOptions } = options;
         try {
             const response = await fetch(url, {
                 headers: {
                     'Content-Type': 'application/json',
-                    ...options.headers
+                    ...fetchOptions.headers
                 },
-                ...options
+                ...fetchOptions
             });
             
             if (!response.ok) {
                 throw new Error(`HTTP error! status: ${response.status}`);
             }
+            if (onResponse) {
+                onResponse(response);
+            }
             
             return await response.json();
         } catch (error) {
@@ -46,7 +50,21 @@ class APIClient {
         if (filters.order) params.append('order', filters.order);
         
         const url = `${API_CONFIG.incidentService}/incidents${params.toString() ? '?' + params : ''}`;
-        return await this.request(url);
+        return await this.request(url, {
+            // Stream position the list reflects, for openIncidentStream
+            onResponse: (response) => {
+                this.incidentStreamPosition = response.headers.get('X-Stream-Position');
+            }
+        });
+    }
+    
+    /**
+     * Autocomplete suggestions for the search box
+     * Returns [{text, kind, count}], most frequent first
+     */
+    async suggestIncidents(prefix, limit = 8) {
+        const params = new URLSearchParams({ q: prefix, limit });
+        return await this.request(`${API_CONFIG.incidentService}/incidents/suggest?${params}`);
     }
     
     async getIncidentById(id) {
@@ -73,6 +91,21 @@ class APIClient {
         });
     }
     
+    /**
+     * Open a Server-Sent Events stream of incident changes.
+     * EventSource reconnects by itself and resumes with Last-Event-ID.
+     * onChange receives (type, data) for 'upsert', 'delete' and 'resync' events.
+     * @param lastEventId Position to start from (e.g. the last list's), or null for new changes only
+     */
+    openIncidentStream(onChange, lastEventId = null) {
+        const query = lastEventId ? `?lastEventId=${encodeURIComponent(lastEventId)}` : '';
+        const source = new EventSource(`${API_CONFIG.incidentService}/incidents/stream${query}`);
+        ['upsert', 'delete', 'resync'].forEach(type => {
+            source.addEventListener(type, (e) => onChange(type, JSON.parse(e.data)));
+        });
+        return source;
+    }
+    
     // Map Service Methods
     async geocode(address) {
         return await this.request(`${API_CONFIG.mapService}/map/geocode?address=${encodeURIComponent(address)}`);
@@ -121,6 +154,16 @@ class APIClient {
             method: 'POST'
         });
     }
+    
+    /**
+     * Long-poll the scheduler's server-side incident refresh.
+     * Resolves with the changes after since once there are any (or with none
+     * after the server's poll timeout); without since, with the current seq.
+     */
+    async pollIncidentChanges(since = null) {
+        const query = since !== null ? `?since=${since}` : '';
+        return await this.request(`${API_CONFIG.schedulerService}/scheduler/incidents/changes${query}`);
+    }
 }
 
 // Create global instance
@@ -17,6 +17,9 @@ class WebUI {
         this.currentUser = 'user_' + Date.now();
         this.refreshInterval = 30000; // 30 seconds
         this.refreshTimer = null;
+        this.incidentStream = null;
+        this.streamRenderTimer = null;
+        this.longPolling = false;
     }
 
     /**
@@ -32,8 +35,8 @@ class WebUI {
         // Load initial data
         await this.loadIncidents();
         
-        // Start auto-refresh
-        this.startAutoRefresh();
+        // Live updates over SSE, with polling as the fallback
+        this.startLiveUpdates();
         
         // Check offline queue
         await this.checkOfflineQueue();
@@ -47,6 +50,7 @@ class WebUI {
         const searchInput = document.getElementById('search-input');
         if (searchInput) {
             searchInput.addEventListener('input', (e) => this.handleSearch(e.target.value));
+            searchInput.addEventListener('input', (e) => this.updateSuggestions(searchInput, e.target.value));
         }
 
         // Filters
@@ -174,6 +178,40 @@ class WebUI {
         this.mapViewManager.displayIncidents(this.displayedIncidents);
     }
 
+    /**
+     * Show server-side completions for the search box in a datalist
+     */
+    async updateSuggestions(searchInput, prefix) {
+        let list = document.getElementById('search-suggestions');
+        if (!list) {
+            list = document.createElement('datalist');
+            list.id = 'search-suggestions';
+            searchInput.after(list);
+            searchInput.setAttribute('list', list.id);
+        }
+        if (!prefix.trim()) {
+            list.innerHTML = '';
+            return;
+        }
+        
+        const requested = prefix;
+        try {
+            const suggestions = await apiClient.suggestIncidents(prefix);
+            // Ignore responses that arrive after the user kept typing
+            if (searchInput.value !== requested) {
+                return;
+            }
+            list.innerHTML = '';
+            suggestions.forEach(suggestion => {
+                const option = document.createElement('option');
+                option.value = suggestion.text;
+                list.appendChild(option);
+            });
+        } catch (error) {
+            console.warn('Search suggestions unavailable:', error);
+        }
+    }
+
     /**
      * Handle filter change
      */
@@ -277,11 +315,121 @@ class WebUI {
         const intervalMs = parseInt(interval) * 1000;
         if (intervalMs >= 5000) {
             this.refreshInterval = intervalMs;
-            this.startAutoRefresh();
+            if (!this.incidentStream && !this.longPolling) {
+                this.startAutoRefresh();
+            }
             this.showBanner(`Refresh interval set to ${interval} seconds`, 'info');
         }
     }
 
+    /**
+     * Subscribe to incident changes instead of polling.
+     * Falls back to long-polling, then to the refresh timer, if the stream can't be used.
+     */
+    startLiveUpdates() {
+        if (!window.EventSource) {
+            this.startLongPoll();
+            return;
+        }
+        // Start from the loaded list's position, so changes made since it was read are replayed
+        const position = apiClient.incidentStreamPosition;
+        let opened = false;
+        this.incidentStream = apiClient.openIncidentStream((type, data) => this.applyIncidentChange(type, data), position);
+        this.incidentStream.onopen = () => {
+            if (!opened && !position) {
+                // The list failed to load, so there is no position to resume from
+                this.loadIncidents();
+            }
+            opened = true;
+            if (this.refreshTimer) {
+                clearInterval(this.refreshTimer);
+                this.refreshTimer = null;
+            }
+        };
+        this.incidentStream.onerror = () => {
+            // EventSource retries on its own; only poll once it has given up
+            if (this.incidentStream.readyState === EventSource.CLOSED) {
+                this.incidentStream = null;
+                this.startLongPoll();
+            }
+        };
+    }
+
+    /**
+     * Apply one pushed change to the loaded list instead of reloading it
+     * @param type 'upsert', 'delete' or 'resync'
+     * @param data The incident for an upsert, {id} for a delete
+     */
+    applyIncidentChange(type, data) {
+        if (type === 'resync') {
+            this.loadIncidents();
+            return;
+        }
+        const incidents = this.currentIncidents.filter(incident => incident.id !== data.id);
+        if (type === 'upsert') {
+            incidents.push(data);
+            this.sortIncidents(incidents);
+        }
+        this.currentIncidents = incidents;
+        
+        // Coalesce bursts (e.g. batch imports) into one render
+        clearTimeout(this.streamRenderTimer);
+        this.streamRenderTimer = setTimeout(() => {
+            this.applyFiltersAndSearch();
+            this.updateIncidentList();
+            this.mapViewManager.displayIncidents(this.displayedIncidents);
+        }, 250);
+    }
+
+    /**
+     * Sort in place the way the incident service orders the list
+     */
+    sortIncidents(incidents) {
+        const severityRank = { low: 1, medium: 2, high: 3, critical: 4 };
+        const direction = this.currentSort.order === 'asc' ? 1 : -1;
+        const time = incident => new Date(incident.timestamp).getTime() || 0;
+        incidents.sort((a, b) => {
+            let result;
+            if (this.currentSort.field === 'severity') {
+                result = (severityRank[a.severity] || 0) - (severityRank[b.severity] || 0);
+            } else if (this.currentSort.field === 'type') {
+                result = (a.type || '').localeCompare(b.type || '');
+            } else {
+                return direction * (time(a) - time(b));
+            }
+            // Ties are newest first, whatever the direction
+            return direction * result || time(b) - time(a);
+        });
+    }
+
+    /**
+     * Wait for changes found by the scheduler's server-side refresh, which
+     * reads the incident delta once for all clients, and apply the changes
+     * to the loaded list. Falls back to the refresh timer if it is unavailable.
+     */
+    async startLongPoll() {
+        if (this.longPolling) {
+            return;
+        }
+        this.longPolling = true;
+        let since = null;
+        while (this.longPolling) {
+            try {
+                const delta = await apiClient.pollIncidentChanges(since);
+                if (since !== null && delta.resync) {
+                    await this.loadIncidents();
+                } else if (since !== null) {
+                    delta.changes.forEach(change => this.applyIncidentChange(change.type,
+                        change.type === 'upsert' && change.incident ? change.incident : { id: change.id }));
+                }
+                since = delta.seq;
+            } catch (error) {
+                this.longPolling = false;
+                this.startAutoRefresh();
+            }
+        }
+    }
+
     /**
      * Start auto-refresh
      */